@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An {@link Appendable} that writes a prefix to the underlying
+ * {@link Appendable} right before the first non-empty content. This is used to
+ * emit separators between nested rules only if a rule produces output, without
+ * serializing the rule into a temporary String first.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSDeferredPrefixAppendable implements Appendable
+{
+  private final Appendable m_aTarget;
+  private CharSequence m_aPrefix;
+  private boolean m_bWritten = false;
+
+  public CSSDeferredPrefixAppendable (@Nonnull final Appendable aTarget)
+  {
+    ValueEnforcer.notNull (aTarget, "Target");
+    m_aTarget = aTarget;
+  }
+
+  /**
+   * Start a new section.
+   *
+   * @param aPrefix
+   *        The prefix to be written before the first content of the section.
+   *        May be <code>null</code>.
+   * @return this
+   */
+  @Nonnull
+  public CSSDeferredPrefixAppendable startSection (@Nullable final CharSequence aPrefix)
+  {
+    m_aPrefix = aPrefix;
+    m_bWritten = false;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if anything was written since the last call to
+   *         {@link #startSection(CharSequence)}.
+   */
+  public boolean isWritten ()
+  {
+    return m_bWritten;
+  }
+
+  private void _beforeWrite () throws IOException
+  {
+    if (!m_bWritten)
+    {
+      m_bWritten = true;
+      if (m_aPrefix != null)
+        m_aTarget.append (m_aPrefix);
+    }
+  }
+
+  @Nonnull
+  public CSSDeferredPrefixAppendable append (@Nullable final CharSequence aCS) throws IOException
+  {
+    // Same as in the Appendable contract
+    final CharSequence aRealCS = aCS == null ? "null" : aCS;
+    if (aRealCS.length () > 0)
+    {
+      _beforeWrite ();
+      m_aTarget.append (aRealCS);
+    }
+    return this;
+  }
+
+  @Nonnull
+  public CSSDeferredPrefixAppendable append (@Nullable final CharSequence aCS,
+                                             final int nStart,
+                                             final int nEnd) throws IOException
+  {
+    if (nEnd > nStart)
+    {
+      _beforeWrite ();
+      m_aTarget.append (aCS, nStart, nEnd);
+    }
+    return this;
+  }
+
+  @Nonnull
+  public CSSDeferredPrefixAppendable append (final char c) throws IOException
+  {
+    _beforeWrite ();
+    m_aTarget.append (c);
+    return this;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("target", m_aTarget)
+                                       .append ("prefix", m_aPrefix)
+                                       .append ("written", m_bWritten)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.annotations.PresentForCodeCoverage;
+
+/**
+ * Utility methods for {@link ICSSWriteable} implementations.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSWriteableHelper
+{
+  @SuppressWarnings ("unused")
+  @PresentForCodeCoverage
+  private static final CSSWriteableHelper s_aInstance = new CSSWriteableHelper ();
+
+  private CSSWriteableHelper ()
+  {}
+
+  /**
+   * Get the result of
+   * {@link ICSSWriteable#writeTo(Appendable, ICSSWriterSettings, int)} as a
+   * String. This is the default implementation of
+   * {@link ICSSWriteable#getAsCSSString(ICSSWriterSettings, int)} for all
+   * objects that contain nested objects.
+   *
+   * @param aWriteable
+   *        The object to be written. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used to format the output. May not be
+   *        <code>null</code>.
+   * @param nIndentLevel
+   *        The current indentation level
+   * @return The content of the object as CSS string.
+   */
+  @Nonnull
+  public static String getAsCSSString (@Nonnull final ICSSWriteable aWriteable,
+                                       @Nonnull final ICSSWriterSettings aSettings,
+                                       @Nonnegative final int nIndentLevel)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    try
+    {
+      aWriteable.writeTo (aSB, aSettings, nIndentLevel);
+    }
+    catch (final IOException ex)
+    {
+      // Should never occur since StringBuilder does not throw such an
+      // exception
+      throw new IllegalStateException ("Totally unexpected", ex);
+    }
+    return aSB.toString ();
+  }
+}
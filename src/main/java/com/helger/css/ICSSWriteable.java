@@ -16,6 +16,7 @@
  */
 package com.helger.css;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import javax.annotation.Nonnegative;
@@ -41,4 +42,25 @@ public interface ICSSWriteable extends Serializable
    */
   @Nonnull
   String getAsCSSString (@Nonnull ICSSWriterSettings aSettings, @Nonnegative int nIndentLevel);
+
+  /**
+   * Write the contents of this object as serialized CSS directly to the passed
+   * {@link Appendable}. The output is identical to
+   * {@link #getAsCSSString(ICSSWriterSettings, int)}, but nested objects are
+   * written directly to the target instead of creating intermediate Strings.
+   *
+   * @param aTarget
+   *        The target to write to. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used to format the output. May not be
+   *        <code>null</code>.
+   * @param nIndentLevel
+   *        The current indentation level
+   * @throws IOException
+   *         If writing to the target fails
+   * @since 3.9.3
+   */
+  void writeTo (@Nonnull Appendable aTarget,
+                @Nonnull ICSSWriterSettings aSettings,
+                @Nonnegative int nIndentLevel) throws IOException;
 }
@@ -45,6 +45,35 @@ public interface ICSSWriterSettings
    */
   boolean isRemoveUnnecessaryCode ();
 
+  /**
+   * @return <code>true</code> if all color values should be written in their
+   *         shortest form (e.g. <code>rgb(255,0,0)</code> as <code>red</code>
+   *         and <code>white</code> as <code>#fff</code>). This is only used if
+   *         optimized output is enabled. Re-reading such CSS results in
+   *         different but equivalent domain objects.
+   * @since 3.9.3
+   */
+  boolean isOptimizeColorValues ();
+
+  /**
+   * @return <code>true</code> if style rules with identical selectors or
+   *         identical declarations should be merged when writing a complete
+   *         style sheet, as long as the cascade order allows it.
+   * @see com.helger.css.writer.CSSStyleRuleMerger
+   * @since 3.9.3
+   */
+  boolean isMergeStyleRules ();
+
+  /**
+   * @return <code>true</code> if declarations that are overridden by a later
+   *         declaration of the same block (e.g. <code>color:red</code> in
+   *         <code>color:red;color:blue</code>) should not be written. Hacked
+   *         and vendor specific declarations are always written.
+   * @see com.helger.css.decl.CSSOverriddenDeclarationFilter
+   * @since 3.9.3
+   */
+  boolean isRemoveOverriddenDeclarations ();
+
   /**
    * Get the indentation for an arbitrary number of levels. This can be used to
    * customize the indentation strategy like using tabs or spaces, how many
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.Locale;
 
 import javax.annotation.Nonnegative;
@@ -23,6 +24,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.ReturnsMutableObject;
@@ -30,6 +32,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CCSS;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -43,7 +46,7 @@ import com.helger.css.property.ECSSProperty;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware
+public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware, ICSSModificationTracked, ICloneable <CSSDeclaration>
 {
   public static final boolean DEFAULT_IMPORTANT = false;
 
@@ -51,6 +54,7 @@ public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware
   private CSSExpression m_aExpression;
   private boolean m_bIsImportant;
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   /**
    * Constructor for non-important values.
@@ -112,6 +116,7 @@ public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware
   public CSSDeclaration setProperty (@Nonnull @Nonempty final String sProperty)
   {
     m_sProperty = ValueEnforcer.notEmpty (sProperty, "Property").toLowerCase (Locale.US);
+    onModification ();
     return this;
   }
 
@@ -154,6 +159,8 @@ public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware
   public CSSDeclaration setExpression (@Nonnull final CSSExpression aExpression)
   {
     m_aExpression = ValueEnforcer.notNull (aExpression, "Expression");
+    aExpression.setModificationOwner (this);
+    onModification ();
     return this;
   }
 
@@ -179,17 +186,60 @@ public class CSSDeclaration implements ICSSWriteable, ICSSSourceLocationAware
   public CSSDeclaration setImportant (final boolean bIsImportant)
   {
     m_bIsImportant = bIsImportant;
+    onModification ();
     return this;
   }
 
+  /**
+   * @return A deep copy of this declaration, with a copy of the expression. The
+   *         source location and the modification owner are not copied. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSDeclaration getClone ()
+  {
+    return new CSSDeclaration (m_sProperty, m_aExpression.getClone (), m_bIsImportant);
+  }
+
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    return m_sProperty +
-           CCSS.SEPARATOR_PROPERTY_VALUE +
-           m_aExpression.getAsCSSString (aSettings, nIndentLevel) +
-           (m_bIsImportant ? CCSS.IMPORTANT_SUFFIX : "");
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (m_sProperty).append (CCSS.SEPARATOR_PROPERTY_VALUE);
+    m_aExpression.writeTo (aTarget,
+                           aSettings,
+                           nIndentLevel,
+                           aSettings.isOptimizedOutput () &&
+                               aSettings.isOptimizeColorValues () &&
+                               CSSExpressionTermOptimizer.isColorProperty (m_sProperty),
+                           !CSSExpressionTermOptimizer.isZeroUnitRequired (m_sProperty));
+    if (m_bIsImportant)
+      aTarget.append (CCSS.IMPORTANT_SUFFIX);
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,11 +16,13 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+import java.util.List;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
 
-import com.helger.commons.annotations.Nonempty;
 import com.helger.css.ICSSWriterSettings;
 
 /**
@@ -38,36 +40,45 @@ public class CSSDeclarationContainer extends CSSDeclarationList
 
   @Override
   @Nonnull
-  @Nonempty
-  public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  public CSSDeclarationContainer getClone ()
+  {
+    final CSSDeclarationContainer ret = new CSSDeclarationContainer ();
+    for (final CSSDeclaration aDeclaration : getAllDeclarations ())
+      ret.addDeclaration (aDeclaration.getClone ());
+    return ret;
+  }
+
+  @Override
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder ();
-    final int nDeclCount = getDeclarationCount ();
+    final List <CSSDeclaration> aDeclarations = getAllDeclarationsToWrite (aSettings);
+    final int nDeclCount = aDeclarations.size ();
     if (nDeclCount == 0)
     {
-      aSB.append (bOptimizedOutput ? "{}" : " {}");
+      aTarget.append (bOptimizedOutput ? "{}" : " {}");
     }
     else
     {
       if (nDeclCount == 1)
       {
         // A single declaration
-        aSB.append (bOptimizedOutput ? "{" : " { ");
-        aSB.append (super.getAsCSSString (aSettings, nIndentLevel));
-        aSB.append (bOptimizedOutput ? "}" : " }");
+        aTarget.append (bOptimizedOutput ? "{" : " { ");
+        writeDeclarationsTo (aTarget, aSettings, nIndentLevel, aDeclarations);
+        aTarget.append (bOptimizedOutput ? "}" : " }");
       }
       else
       {
         // More than one declaration
-        aSB.append (bOptimizedOutput ? "{" : " {\n");
-        aSB.append (super.getAsCSSString (aSettings, nIndentLevel));
+        aTarget.append (bOptimizedOutput ? "{" : " {\n");
+        writeDeclarationsTo (aTarget, aSettings, nIndentLevel, aDeclarations);
         if (!bOptimizedOutput)
-          aSB.append (aSettings.getIndent (nIndentLevel));
-        aSB.append ('}');
+          aTarget.append (aSettings.getIndent (nIndentLevel));
+        aTarget.append ('}');
       }
     }
-    return aSB.toString ();
   }
 }
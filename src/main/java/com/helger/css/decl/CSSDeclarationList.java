@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.ReturnsMutableCopy;
@@ -34,6 +36,7 @@ import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CCSS;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -44,10 +47,11 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocationAware
+public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocationAware, ICSSModificationTracked, ICloneable <CSSDeclarationList>
 {
   private final List <CSSDeclaration> m_aDeclarations = new ArrayList <CSSDeclaration> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSDeclarationList ()
   {}
@@ -56,8 +60,10 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
   public final CSSDeclarationList addDeclaration (@Nonnull final CSSDeclaration aNewDeclaration)
   {
     ValueEnforcer.notNull (aNewDeclaration, "NewDeclaration");
+    aNewDeclaration.setModificationOwner (this);
 
     m_aDeclarations.add (aNewDeclaration);
+    onModification ();
     return this;
   }
 
@@ -74,18 +80,23 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aNewDeclaration, "NewDeclaration");
+    aNewDeclaration.setModificationOwner (this);
 
     if (nIndex >= getDeclarationCount ())
       m_aDeclarations.add (aNewDeclaration);
     else
       m_aDeclarations.add (nIndex, aNewDeclaration);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public final EChange removeDeclaration (@Nonnull final CSSDeclaration aDeclaration)
   {
-    return EChange.valueOf (m_aDeclarations.remove (aDeclaration));
+    if (!m_aDeclarations.remove (aDeclaration))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -93,7 +104,10 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
   {
     if (nDeclarationIndex < 0 || nDeclarationIndex >= m_aDeclarations.size ())
       return EChange.UNCHANGED;
-    return EChange.valueOf (m_aDeclarations.remove (nDeclarationIndex) != null);
+    if (m_aDeclarations.remove (nDeclarationIndex) == null)
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   /**
@@ -109,6 +123,7 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
     if (m_aDeclarations.isEmpty ())
       return EChange.UNCHANGED;
     m_aDeclarations.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -131,11 +146,13 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aNewDeclaration, "NewDeclaration");
+    aNewDeclaration.setModificationOwner (this);
 
     if (nIndex >= getDeclarationCount ())
       m_aDeclarations.add (aNewDeclaration);
     else
       m_aDeclarations.set (nIndex, aNewDeclaration);
+    onModification ();
     return this;
   }
 
@@ -197,41 +214,116 @@ public class CSSDeclarationList implements IHasCSSDeclarations, ICSSSourceLocati
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  /**
+   * Get all declarations that should be written with the passed settings.
+   *
+   * @param aSettings
+   *        The settings to be used. May not be <code>null</code>.
+   * @return The declarations to be written. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  protected final List <CSSDeclaration> getAllDeclarationsToWrite (@Nonnull final ICSSWriterSettings aSettings)
+  {
+    if (aSettings.isRemoveOverriddenDeclarations ())
+      return CSSOverriddenDeclarationFilter.getAllEffectiveDeclarations (m_aDeclarations);
+    return m_aDeclarations;
+  }
+
+  /**
+   * Write the passed declarations without any surrounding block elements.
+   *
+   * @param aTarget
+   *        The target to write to. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used. May not be <code>null</code>.
+   * @param nIndentLevel
+   *        The current indentation level.
+   * @param aDeclarations
+   *        The declarations to be written. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   * @since 3.9.3
+   */
+  protected static final void writeDeclarationsTo (@Nonnull final Appendable aTarget,
+                                                   @Nonnull final ICSSWriterSettings aSettings,
+                                                   @Nonnegative final int nIndentLevel,
+                                                   @Nonnull final List <CSSDeclaration> aDeclarations) throws IOException
   {
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final int nDeclCount = m_aDeclarations.size ();
+    final int nDeclCount = aDeclarations.size ();
     if (nDeclCount == 0)
-      return "";
+      return;
     if (nDeclCount == 1)
     {
       // A single declaration
-      final StringBuilder aSB = new StringBuilder ();
-      aSB.append (CollectionHelper.getFirstElement (m_aDeclarations).getAsCSSString (aSettings, nIndentLevel));
+      CollectionHelper.getFirstElement (aDeclarations).writeTo (aTarget, aSettings, nIndentLevel);
       // No ';' at the last entry
       if (!bOptimizedOutput)
-        aSB.append (CCSS.DEFINITION_END);
-      return aSB.toString ();
+        aTarget.append (CCSS.DEFINITION_END);
+      return;
     }
 
     // More than one declaration
-    final StringBuilder aSB = new StringBuilder ();
     int nIndex = 0;
-    for (final CSSDeclaration aDeclaration : m_aDeclarations)
+    for (final CSSDeclaration aDeclaration : aDeclarations)
     {
       // Indentation
       if (!bOptimizedOutput)
-        aSB.append (aSettings.getIndent (nIndentLevel + 1));
+        aTarget.append (aSettings.getIndent (nIndentLevel + 1));
       // Emit the main declaration plus the semicolon
-      aSB.append (aDeclaration.getAsCSSString (aSettings, nIndentLevel + 1));
+      aDeclaration.writeTo (aTarget, aSettings, nIndentLevel + 1);
       // No ';' at the last decl
       if (!bOptimizedOutput || nIndex < nDeclCount - 1)
-        aSB.append (CCSS.DEFINITION_END);
+        aTarget.append (CCSS.DEFINITION_END);
       if (!bOptimizedOutput)
-        aSB.append ('\n');
+        aTarget.append ('\n');
       ++nIndex;
     }
-    return aSB.toString ();
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    writeDeclarationsTo (aTarget, aSettings, nIndentLevel, getAllDeclarationsToWrite (aSettings));
+  }
+
+  /**
+   * @return A deep copy of this list, with copies of all declarations. The
+   *         source location and the modification owner are not copied. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSDeclarationList getClone ()
+  {
+    final CSSDeclarationList ret = new CSSDeclarationList ();
+    for (final CSSDeclaration aDeclaration : m_aDeclarations)
+      ret.addDeclaration (aDeclaration.getClone ());
+    return ret;
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
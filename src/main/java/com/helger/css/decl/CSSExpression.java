@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.ReturnsMutableCopy;
@@ -33,6 +35,7 @@ import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -43,14 +46,22 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
+public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware, ICSSModificationTracked, ICloneable <CSSExpression>
 {
   private final List <ICSSExpressionMember> m_aMembers = new ArrayList <ICSSExpressionMember> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSExpression ()
   {}
 
+  private void _setModificationOwner (@Nonnull final ICSSExpressionMember aMember)
+  {
+    // Operators are shared constants and cannot be modified
+    if (aMember instanceof ICSSModificationTracked)
+      ((ICSSModificationTracked) aMember).setModificationOwner (this);
+  }
+
   /**
    * Add an expression member
    *
@@ -62,8 +73,10 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
   public CSSExpression addMember (@Nonnull final ICSSExpressionMember aMember)
   {
     ValueEnforcer.notNull (aMember, "ExpressionMember");
+    _setModificationOwner (aMember);
 
     m_aMembers.add (aMember);
+    onModification ();
     return this;
   }
 
@@ -81,11 +94,13 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aMember, "ExpressionMember");
+    _setModificationOwner (aMember);
 
     if (nIndex >= getMemberCount ())
       m_aMembers.add (aMember);
     else
       m_aMembers.add (nIndex, aMember);
+    onModification ();
     return this;
   }
 
@@ -302,7 +317,10 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
   @Nonnull
   public EChange removeMember (@Nullable final ICSSExpressionMember aMember)
   {
-    return EChange.valueOf (m_aMembers.remove (aMember));
+    if (!m_aMembers.remove (aMember))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   /**
@@ -318,6 +336,7 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
     if (nMemberIndex < 0 || nMemberIndex >= m_aMembers.size ())
       return EChange.UNCHANGED;
     m_aMembers.remove (nMemberIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -334,6 +353,7 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
     if (m_aMembers.isEmpty ())
       return EChange.UNCHANGED;
     m_aMembers.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -384,23 +404,107 @@ public class CSSExpression implements ICSSWriteable, ICSSSourceLocationAware
     return ret;
   }
 
+  /**
+   * @return A deep copy of this expression, with copies of all members. The
+   *         source location and the modification owner are not copied. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSExpression getClone ()
+  {
+    final CSSExpression ret = new CSSExpression ();
+    for (final ICSSExpressionMember aMember : m_aMembers)
+      ret.addMember (aMember.getClone ());
+    return ret;
+  }
+
   @Nonnull
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    final StringBuilder aSB = new StringBuilder ();
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    writeTo (aTarget, aSettings, nIndentLevel, false, true);
+  }
+
+  /**
+   * Write this expression as the value of a property.
+   * 
+   * @param aTarget
+   *        The target to append to. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used. May not be <code>null</code>.
+   * @param nIndentLevel
+   *        The indentation level.
+   * @param bColorProperty
+   *        <code>true</code> if the expression is the value of a color property
+   *        and color values should be optimized. In this case color names are
+   *        replaced with shorter hex values and vice versa.
+   * @param bDropZeroLengthUnit
+   *        <code>true</code> if zero lengths may be written without a unit in
+   *        optimized output. This must be <code>false</code> for function
+   *        arguments and properties like <code>flex</code>.
+   * @throws IOException
+   *         In case writing fails
+   * @see CSSExpressionTermOptimizer#isColorProperty(String)
+   * @see CSSExpressionTermOptimizer#isZeroUnitRequired(String)
+   */
+  void writeTo (@Nonnull final Appendable aTarget,
+                @Nonnull final ICSSWriterSettings aSettings,
+                @Nonnegative final int nIndentLevel,
+                final boolean bColorProperty,
+                final boolean bDropZeroLengthUnit) throws IOException
+  {
+    boolean bFirst = true;
     boolean bPrevWasOperator = false;
     for (final ICSSExpressionMember aMember : m_aMembers)
     {
       final boolean bIsOp = aMember instanceof ECSSExpressionOperator;
-      if (!bIsOp && !bPrevWasOperator && aSB.length () > 0)
+      if (!bIsOp && !bPrevWasOperator && !bFirst)
       {
         // The space is required for separating values like "solid 1px black"
-        aSB.append (' ');
+        aTarget.append (' ');
       }
-      aSB.append (aMember.getAsCSSString (aSettings, nIndentLevel));
+      if (aMember instanceof CSSExpressionMemberTermSimple)
+      {
+        final String sValue = ((CSSExpressionMemberTermSimple) aMember).getAsCSSString (aSettings,
+                                                                                        nIndentLevel,
+                                                                                        bDropZeroLengthUnit);
+        if (bColorProperty)
+        {
+          // Write e.g. "#FF0000" as "red" and "white" as "#fff"
+          aTarget.append (CSSExpressionTermOptimizer.getOptimizedColorName (CSSExpressionTermOptimizer.getOptimizedColorValue (sValue)));
+        }
+        else
+          aTarget.append (sValue);
+      }
+      else
+        aMember.writeTo (aTarget, aSettings, nIndentLevel);
       bPrevWasOperator = bIsOp;
+      bFirst = false;
     }
-    return aSB.toString ();
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -27,8 +29,10 @@ import com.helger.commons.equals.EqualsUtils;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
+import com.helger.css.writer.CSSWriterSettings;
 
 /**
  * Represents a CSS function element
@@ -36,11 +40,12 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSExpressionMemberFunction implements ICSSExpressionMember, ICSSSourceLocationAware
+public class CSSExpressionMemberFunction implements ICSSExpressionMember, ICSSSourceLocationAware, ICSSModificationTracked
 {
   private final String m_sFunctionName;
   private final CSSExpression m_aExpression;
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   @Nonnull
   private static String _skipBracketsAtEnd (@Nonnull final String sName)
@@ -78,6 +83,8 @@ public class CSSExpressionMemberFunction implements ICSSExpressionMember, ICSSSo
 
     m_sFunctionName = _skipBracketsAtEnd (sFunctionName);
     m_aExpression = aExpression;
+    if (aExpression != null)
+      aExpression.setModificationOwner (this);
   }
 
   /**
@@ -112,12 +119,20 @@ public class CSSExpressionMemberFunction implements ICSSExpressionMember, ICSSSo
   @Nonnull
   public CSSExpressionMemberFunction getClone ()
   {
-    return new CSSExpressionMemberFunction (m_sFunctionName, m_aExpression);
+    return new CSSExpressionMemberFunction (m_sFunctionName, m_aExpression == null ? null
+                                                                                 : m_aExpression.getClone ());
   }
 
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     if (m_aExpression == null)
     {
@@ -125,11 +140,56 @@ public class CSSExpressionMemberFunction implements ICSSExpressionMember, ICSSSo
       if (m_sFunctionName.endsWith (")"))
       {
         // E.g. for special IE expression functions!
-        return m_sFunctionName;
+        aTarget.append (m_sFunctionName);
+      }
+      else
+        aTarget.append (m_sFunctionName).append ("()");
+    }
+    else
+    {
+      if (aSettings.isOptimizedOutput () && m_sFunctionName.regionMatches (true, 0, "progid", 0, 6))
+      {
+        // IE filters like "progid:DXImageTransform.Microsoft.gradient" only
+        // support colors in long hex notation - write the arguments as is
+        aTarget.append (m_sFunctionName).append ('(');
+        m_aExpression.writeTo (aTarget, new CSSWriterSettings (aSettings).setOptimizedOutput (false), nIndentLevel);
+        aTarget.append (')');
+        return;
+      }
+      if (aSettings.isOptimizedOutput () && aSettings.isOptimizeColorValues ())
+      {
+        // Write e.g. "rgb(255,0,0)" as "red"
+        final String sColor = CSSExpressionTermOptimizer.getOptimizedColorFunction (m_sFunctionName,
+                                                                                   m_aExpression.getAsCSSString (aSettings,
+                                                                                                                 nIndentLevel));
+        if (sColor != null)
+        {
+          aTarget.append (sColor);
+          return;
+        }
       }
-      return m_sFunctionName + "()";
+      aTarget.append (m_sFunctionName).append ('(');
+      // Keep the units of zero values, e.g. in "rotate(0deg)" or "calc(0px)"
+      m_aExpression.writeTo (aTarget, aSettings, nIndentLevel, false, false);
+      aTarget.append (')');
     }
-    return m_sFunctionName + "(" + m_aExpression.getAsCSSString (aSettings, nIndentLevel) + ")";
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -131,12 +133,19 @@ public class CSSExpressionMemberMath implements ICSSExpressionMember, ICSSVersio
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
-    final StringBuilder aSB = new StringBuilder ("calc(");
+    aTarget.append ("calc(");
     for (final ICSSExpressionMathMember aMember : m_aMembers)
-      aSB.append (aMember.getAsCSSString (aSettings, nIndentLevel));
-    return aSB.append (")").toString ();
+      aMember.writeTo (aTarget, aSettings, nIndentLevel);
+    aTarget.append (")");
   }
 
   @Nonnull
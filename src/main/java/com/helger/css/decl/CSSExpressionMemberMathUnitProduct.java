@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -26,6 +28,7 @@ import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
@@ -54,9 +57,18 @@ public class CSSExpressionMemberMathUnitProduct implements ICSSExpressionMathMem
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
-    return "(" + m_aProduct.getAsCSSString (aSettings, nIndentLevel) + ")";
+    aTarget.append ('(');
+    m_aProduct.writeTo (aTarget, aSettings, nIndentLevel);
+    aTarget.append (')');
   }
 
   @Nonnull
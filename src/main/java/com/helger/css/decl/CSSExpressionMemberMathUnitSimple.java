@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -79,6 +81,13 @@ public class CSSExpressionMemberMathUnitSimple implements ICSSExpressionMathMemb
     return m_sText;
   }
 
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (getAsCSSString (aSettings, nIndentLevel));
+  }
+
   @Nonnull
   public ECSSVersion getMinimumCSSVersion ()
   {
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -35,11 +37,12 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSExpressionMemberTermSimple implements ICSSExpressionMember, ICSSSourceLocationAware
+public class CSSExpressionMemberTermSimple implements ICSSExpressionMember, ICSSSourceLocationAware, ICSSModificationTracked
 {
   private String m_sValue;
   private String m_sOptimizedValue;
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSExpressionMemberTermSimple (final int nValue)
   {
@@ -72,6 +75,7 @@ public class CSSExpressionMemberTermSimple implements ICSSExpressionMember, ICSS
     ValueEnforcer.notEmpty (sValue, "Value");
     m_sValue = sValue;
     m_sOptimizedValue = CSSExpressionTermOptimizer.getOptimizedValue (sValue);
+    onModification ();
     return this;
   }
 
@@ -107,7 +111,55 @@ public class CSSExpressionMemberTermSimple implements ICSSExpressionMember, ICSS
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    return aSettings.isOptimizedOutput () ? m_sOptimizedValue : m_sValue;
+    return getAsCSSString (aSettings, nIndentLevel, true);
+  }
+
+  /**
+   * Get the value as used in the passed context.
+   * 
+   * @param aSettings
+   *        The settings to be used. May not be <code>null</code>.
+   * @param nIndentLevel
+   *        The indentation level.
+   * @param bDropZeroLengthUnit
+   *        <code>true</code> if a zero length may be written without a unit in
+   *        optimized output.
+   * @return The string representation. Neither <code>null</code> nor empty.
+   * @see CSSExpressionTermOptimizer#getOptimizedValue(String, boolean)
+   */
+  @Nonnull
+  @Nonempty
+  String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings,
+                         @Nonnegative final int nIndentLevel,
+                         final boolean bDropZeroLengthUnit)
+  {
+    if (!aSettings.isOptimizedOutput ())
+      return m_sValue;
+    return bDropZeroLengthUnit ? m_sOptimizedValue : CSSExpressionTermOptimizer.getOptimizedValue (m_sValue, false);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (getAsCSSString (aSettings, nIndentLevel));
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
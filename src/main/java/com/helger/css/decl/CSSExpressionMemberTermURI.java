@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -26,6 +28,7 @@ import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -35,9 +38,10 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSExpressionMemberTermURI implements ICSSExpressionMember, ICSSSourceLocationAware
+public class CSSExpressionMemberTermURI implements ICSSExpressionMember, ICSSSourceLocationAware, ICSSModificationTracked
 {
   private CSSURI m_aURI;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSExpressionMemberTermURI (@Nonnull final String sURIString)
   {
@@ -79,6 +83,7 @@ public class CSSExpressionMemberTermURI implements ICSSExpressionMember, ICSSSou
   public CSSExpressionMemberTermURI setURI (@Nonnull final CSSURI aURI)
   {
     m_aURI = ValueEnforcer.notNull (aURI, "URI");
+    onModification ();
     return this;
   }
 
@@ -94,20 +99,45 @@ public class CSSExpressionMemberTermURI implements ICSSExpressionMember, ICSSSou
   public CSSExpressionMemberTermURI setURIString (@Nonnull final String sURIString)
   {
     m_aURI.setURI (sURIString);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public CSSExpressionMemberTermURI getClone ()
   {
-    return new CSSExpressionMemberTermURI (m_aURI);
+    return new CSSExpressionMemberTermURI (m_aURI.getURI ());
   }
 
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    return m_aURI.getAsCSSString (aSettings, nIndentLevel);
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    m_aURI.writeTo (aTarget, aSettings, nIndentLevel);
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,16 +16,27 @@
  */
 package com.helger.css.decl;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.css.ECSSMetaUnit;
 import com.helger.css.ECSSUnit;
 import com.helger.css.propertyvalue.CCSSValue;
+import com.helger.css.utils.CSSColorHelper;
+import com.helger.css.utils.ECSSColor;
 
 /**
  * This class is responsible for expression term optimization
@@ -35,13 +46,58 @@ import com.helger.css.propertyvalue.CCSSValue;
 @Immutable
 public final class CSSExpressionTermOptimizer
 {
+  /** All "0" formatted length values, whose unit may be dropped */
   private static final List <String> s_aUnitValues0 = new ArrayList <String> ();
+  /** Packed RGB value to the shortest color name */
+  private static final Map <Integer, String> s_aShortestColorNames = new HashMap <Integer, String> ();
+  /** All properties whose values may contain color names */
+  private static final Set <String> s_aColorProperties = CollectionHelper.newSet ("color",
+                                                                                 "background",
+                                                                                 "background-color",
+                                                                                 "border",
+                                                                                 "border-color",
+                                                                                 "border-top",
+                                                                                 "border-top-color",
+                                                                                 "border-right",
+                                                                                 "border-right-color",
+                                                                                 "border-bottom",
+                                                                                 "border-bottom-color",
+                                                                                 "border-left",
+                                                                                 "border-left-color",
+                                                                                 "outline",
+                                                                                 "outline-color",
+                                                                                 "column-rule",
+                                                                                 "column-rule-color",
+                                                                                 "text-decoration-color",
+                                                                                 "box-shadow",
+                                                                                 "text-shadow",
+                                                                                 "fill",
+                                                                                 "stroke",
+                                                                                 "stop-color",
+                                                                                 "flood-color",
+                                                                                 "lighting-color");
 
   static
   {
-    // Save all "0" formatted unit values
+    // Save all "0" formatted length values. For all other units (e.g. "0s",
+    // "0%" or "0deg") the unit is required or changes the meaning.
     for (final ECSSUnit eUnit : ECSSUnit.values ())
-      s_aUnitValues0.add (eUnit.format (0));
+    {
+      final ECSSMetaUnit eMetaUnit = eUnit.getMetaUnit ();
+      if (eMetaUnit == ECSSMetaUnit.ABSOLUTE_LENGTH ||
+          eMetaUnit == ECSSMetaUnit.FONT_RELATIVE_LENGTH ||
+          eMetaUnit == ECSSMetaUnit.VIEWPORT_RELATIVE_LENGTH)
+        s_aUnitValues0.add (eUnit.format (0).toLowerCase (Locale.US));
+    }
+
+    // Remember the shortest name of each named color
+    for (final ECSSColor eColor : ECSSColor.values ())
+    {
+      final Integer aKey = Integer.valueOf (_getPackedRGB (eColor.getRed (), eColor.getGreen (), eColor.getBlue ()));
+      final String sOld = s_aShortestColorNames.get (aKey);
+      if (sOld == null || eColor.getName ().length () < sOld.length ())
+        s_aShortestColorNames.put (aKey, eColor.getName ());
+    }
   }
 
   @SuppressWarnings ("unused")
@@ -51,14 +107,190 @@ public final class CSSExpressionTermOptimizer
   private CSSExpressionTermOptimizer ()
   {}
 
+  private static int _getPackedRGB (final int nRed, final int nGreen, final int nBlue)
+  {
+    return (nRed << 16) | (nGreen << 8) | nBlue;
+  }
+
+  /**
+   * Get the shortest representation of the passed color. This is either the
+   * short hex notation (<code>#abc</code>), the long hex notation or a color
+   * name that is shorter than the hex notation.
+   * 
+   * @param nRed
+   *        Red part in the range 0-255.
+   * @param nGreen
+   *        Green part in the range 0-255.
+   * @param nBlue
+   *        Blue part in the range 0-255.
+   * @return The shortest color representation. Never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public static String getShortestColorValue (final int nRed, final int nGreen, final int nBlue)
+  {
+    String ret = CSSColorHelper.getHexColorValue (nRed, nGreen, nBlue);
+    if (ret.charAt (1) == ret.charAt (2) && ret.charAt (3) == ret.charAt (4) && ret.charAt (5) == ret.charAt (6))
+    {
+      // #112233 => #123
+      ret = Character.toString (CCSSValue.PREFIX_HEX) + ret.charAt (1) + ret.charAt (3) + ret.charAt (5);
+    }
+    final String sName = s_aShortestColorNames.get (Integer.valueOf (_getPackedRGB (nRed, nGreen, nBlue)));
+    if (sName != null && sName.length () < ret.length ())
+      ret = sName;
+    return ret;
+  }
+
+  private static boolean _isHexDigits (@Nonnull final String sValue)
+  {
+    for (int i = 1; i < sValue.length (); ++i)
+      if (StringHelper.getHexValue (sValue.charAt (i)) < 0)
+        return false;
+    return true;
+  }
+
+  private static boolean _isDigit (final char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean _isUnitChar (final char c)
+  {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '%';
+  }
+
+  @Nullable
+  private static String _getOptimizedNumber (@Nonnull final String sValue)
+  {
+    final int nLength = sValue.length ();
+    int nIndex = 0;
+    boolean bNegative = false;
+    if (nIndex < nLength && (sValue.charAt (nIndex) == '+' || sValue.charAt (nIndex) == '-'))
+    {
+      bNegative = sValue.charAt (nIndex) == '-';
+      nIndex++;
+    }
+
+    // Integer part without leading zeros
+    final int nIntStart = nIndex;
+    while (nIndex < nLength && _isDigit (sValue.charAt (nIndex)))
+      nIndex++;
+    final int nIntEnd = nIndex;
+    int nIntFirstNonZero = nIntStart;
+    while (nIntFirstNonZero < nIntEnd && sValue.charAt (nIntFirstNonZero) == '0')
+      nIntFirstNonZero++;
+
+    // Fraction part without trailing zeros
+    int nFracStart = nIndex;
+    int nFracEnd = nIndex;
+    if (nIndex < nLength && sValue.charAt (nIndex) == '.')
+    {
+      nIndex++;
+      nFracStart = nIndex;
+      while (nIndex < nLength && _isDigit (sValue.charAt (nIndex)))
+        nIndex++;
+      nFracEnd = nIndex;
+      if (nFracEnd == nFracStart)
+      {
+        // "1." is no number
+        return null;
+      }
+    }
+    if (nIntEnd == nIntStart && nFracEnd == nFracStart)
+    {
+      // No digits at all
+      return null;
+    }
+    int nFracLastNonZero = nFracEnd;
+    while (nFracLastNonZero > nFracStart && sValue.charAt (nFracLastNonZero - 1) == '0')
+      nFracLastNonZero--;
+
+    // Only a simple unit may follow
+    for (int i = nIndex; i < nLength; ++i)
+      if (!_isUnitChar (sValue.charAt (i)))
+        return null;
+
+    final boolean bIsZero = nIntFirstNonZero == nIntEnd && nFracLastNonZero == nFracStart;
+    final StringBuilder aSB = new StringBuilder (nLength);
+    if (bIsZero)
+      aSB.append ('0');
+    else
+    {
+      if (bNegative)
+        aSB.append ('-');
+      aSB.append (sValue, nIntFirstNonZero, nIntEnd);
+      if (nFracLastNonZero > nFracStart)
+        aSB.append ('.').append (sValue, nFracStart, nFracLastNonZero);
+    }
+    aSB.append (sValue, nIndex, nLength);
+    return aSB.toString ();
+  }
+
+  /**
+   * Get the shortest representation of a number that is optionally followed by
+   * a unit. Leading zeros of the integer part, trailing zeros of the fraction
+   * part and a leading "+" are removed, "-0" is written as "0". This works on
+   * the textual representation only, so no precision is lost.
+   * 
+   * @param sValue
+   *        The value to optimize. May not be <code>null</code>.
+   * @return The passed value if it is no number. E.g. <code>0.50em</code> is
+   *         returned as <code>.5em</code>.
+   */
+  @Nonnull
+  public static String getOptimizedNumber (@Nonnull final String sValue)
+  {
+    final String ret = _getOptimizedNumber (sValue);
+    return ret != null ? ret : sValue;
+  }
+
+  /**
+   * Get the shortest representation of a simple value. Numbers are optimized
+   * as in {@link #getOptimizedNumber(String)}, a zero length is written
+   * without a unit and hex colors are written in short hex notation if
+   * possible.
+   * 
+   * @param sValue
+   *        The value to optimize. May neither be <code>null</code> nor empty.
+   * @return The optimized value. E.g. <code>0.0px</code> is returned as
+   *         <code>0</code>, whereas <code>0.0s</code> is returned as
+   *         <code>0s</code>.
+   * @see #getOptimizedValue(String, boolean)
+   */
   @Nonnull
   @Nonempty
   public static String getOptimizedValue (@Nonnull @Nonempty final String sValue)
   {
-    // Replace e.g. "0px" with "0"
-    for (final String sUnit0 : s_aUnitValues0)
-      if (sValue.equals (sUnit0))
+    return getOptimizedValue (sValue, true);
+  }
+
+  /**
+   * Get the shortest representation of a simple value.
+   * 
+   * @param sValue
+   *        The value to optimize. May neither be <code>null</code> nor empty.
+   * @param bDropZeroLengthUnit
+   *        <code>true</code> to write a zero length like <code>0px</code> as
+   *        <code>0</code>. This must be <code>false</code> in contexts where
+   *        a unitless zero is invalid or has a different meaning, e.g. in
+   *        function arguments or in the <code>flex</code> property.
+   * @return The optimized value.
+   * @see #isZeroUnitRequired(String)
+   * @since 3.9.3
+   */
+  @Nonnull
+  @Nonempty
+  public static String getOptimizedValue (@Nonnull @Nonempty final String sValue, final boolean bDropZeroLengthUnit)
+  {
+    // Replace e.g. "+0.50em" with ".5em"
+    final String sNumber = _getOptimizedNumber (sValue);
+    if (sNumber != null)
+    {
+      // Replace e.g. "0px" with "0"
+      if (bDropZeroLengthUnit && s_aUnitValues0.contains (sNumber.toLowerCase (Locale.US)))
         return "0";
+      return sNumber;
+    }
 
     // Check for optimized color values (replace #aabbcc with #abc)
     if (sValue.length () == CCSSValue.HEXVALUE_LENGTH &&
@@ -74,4 +306,269 @@ public final class CSSExpressionTermOptimizer
     // Don't change - return as is
     return sValue;
   }
+
+  /**
+   * Get the shortest representation of a hex color value. This replaces e.g.
+   * <code>#FF0000</code> with <code>red</code>.
+   * 
+   * @param sOptimizedValue
+   *        The already optimized simple value. May not be <code>null</code>.
+   * @return The passed value if it is no hex color value.
+   * @see #getOptimizedValue(String)
+   */
+  @Nonnull
+  @Nonempty
+  public static String getOptimizedColorValue (@Nonnull @Nonempty final String sOptimizedValue)
+  {
+    final int nLength = sOptimizedValue.length ();
+    if ((nLength == CCSSValue.HEXVALUE_LENGTH || nLength == 4) &&
+        sOptimizedValue.charAt (0) == CCSSValue.PREFIX_HEX &&
+        _isHexDigits (sOptimizedValue))
+    {
+      if (nLength == 4)
+      {
+        // #123 => #112233
+        return getShortestColorValue (StringHelper.getHexValue (sOptimizedValue.charAt (1)) * 17,
+                                      StringHelper.getHexValue (sOptimizedValue.charAt (2)) * 17,
+                                      StringHelper.getHexValue (sOptimizedValue.charAt (3)) * 17);
+      }
+      return getShortestColorValue (StringHelper.getHexByte (sOptimizedValue.charAt (1), sOptimizedValue.charAt (2)),
+                                    StringHelper.getHexByte (sOptimizedValue.charAt (3), sOptimizedValue.charAt (4)),
+                                    StringHelper.getHexByte (sOptimizedValue.charAt (5), sOptimizedValue.charAt (6)));
+    }
+    return sOptimizedValue;
+  }
+
+  /**
+   * Check if the value of the passed property may contain colors, so that
+   * color names can safely be replaced with their hex values.
+   * 
+   * @param sProperty
+   *        The property name to check. May not be <code>null</code>.
+   * @return <code>true</code> if the property is a color property.
+   */
+  public static boolean isColorProperty (@Nonnull final String sProperty)
+  {
+    String sRealProperty = sProperty.toLowerCase (Locale.US);
+    // Skip IE hacks like "*color"
+    if (sRealProperty.length () > 1 && (sRealProperty.charAt (0) == '*' || sRealProperty.charAt (0) == '_'))
+      sRealProperty = sRealProperty.substring (1);
+    return s_aColorProperties.contains (sRealProperty);
+  }
+
+  /**
+   * Check if zero lengths in the value of the passed property must keep their
+   * unit. This is the case for <code>flex</code>, where e.g.
+   * <code>1 1 0%</code> and <code>1 1 0</code> are not handled identically.
+   * 
+   * @param sProperty
+   *        The property name to check. May not be <code>null</code>.
+   * @return <code>true</code> if the unit of zero lengths must be kept.
+   * @since 3.9.3
+   */
+  public static boolean isZeroUnitRequired (@Nonnull final String sProperty)
+  {
+    String sRealProperty = sProperty.toLowerCase (Locale.US);
+    // Skip IE hacks like "*flex"
+    if (sRealProperty.length () > 1 && (sRealProperty.charAt (0) == '*' || sRealProperty.charAt (0) == '_'))
+      sRealProperty = sRealProperty.substring (1);
+    return sRealProperty.equals ("flex") || sRealProperty.endsWith ("-flex");
+  }
+
+  /**
+   * Get the shortest representation of a simple value in the context of a
+   * color property. This replaces e.g. <code>white</code> with
+   * <code>#fff</code>.
+   * 
+   * @param sOptimizedValue
+   *        The already optimized simple value. May not be <code>null</code>.
+   * @return The passed value if it is no color name.
+   * @see #isColorProperty(String)
+   */
+  @Nonnull
+  @Nonempty
+  public static String getOptimizedColorName (@Nonnull @Nonempty final String sOptimizedValue)
+  {
+    final ECSSColor eColor = ECSSColor.getFromNameCaseInsensitiveOrNull (sOptimizedValue);
+    if (eColor == null)
+      return sOptimizedValue;
+    final String ret = getShortestColorValue (eColor.getRed (), eColor.getGreen (), eColor.getBlue ());
+    return ret.length () < sOptimizedValue.length () ? ret : sOptimizedValue;
+  }
+
+  private static double _getNumber (@Nonnull final String sValue)
+  {
+    return Double.parseDouble (sValue.endsWith ("%") ? sValue.substring (0, sValue.length () - 1) : sValue);
+  }
+
+  private static int _getRGBPart (@Nonnull final String sValue)
+  {
+    double dValue = _getNumber (sValue);
+    if (sValue.endsWith ("%"))
+      dValue = dValue * CSSColorHelper.RGB_MAX / CSSColorHelper.PERCENTAGE_MAX;
+    return (int) Math.round (Math.max (CSSColorHelper.RGB_MIN, Math.min (CSSColorHelper.RGB_MAX, dValue)));
+  }
+
+  private static double _getPercentage (@Nonnull final String sValue)
+  {
+    final double dValue = _getNumber (sValue) / CSSColorHelper.PERCENTAGE_MAX;
+    return Math.max (0, Math.min (1, dValue));
+  }
+
+  private static boolean _isOpaque (@Nonnull final String sOpacity)
+  {
+    return _getNumber (sOpacity) >= CSSColorHelper.OPACITY_MAX;
+  }
+
+  private static double _getHueToRGB (final double m1, final double m2, final double dHue)
+  {
+    double h = dHue;
+    if (h < 0)
+      h += 1;
+    if (h > 1)
+      h -= 1;
+    if (h * 6 < 1)
+      return m1 + (m2 - m1) * h * 6;
+    if (h * 2 < 1)
+      return m2;
+    if (h * 3 < 2)
+      return m1 + (m2 - m1) * (2.0 / 3 - h) * 6;
+    return m1;
+  }
+
+  @Nullable
+  private static String _getShortestHSLValue (@Nonnull final String sHue,
+                                              @Nonnull final String sSaturation,
+                                              @Nonnull final String sLightness)
+  {
+    if (sHue.endsWith ("%"))
+      return null;
+
+    // Algorithm from CSS Color Module Level 3, chapter 4.2.4
+    double dHue = _getNumber (sHue) % CSSColorHelper.HSL_RANGE;
+    if (dHue < 0)
+      dHue += CSSColorHelper.HSL_RANGE;
+    dHue /= CSSColorHelper.HSL_RANGE;
+    final double s = _getPercentage (sSaturation);
+    final double l = _getPercentage (sLightness);
+    final double m2 = l <= 0.5 ? l * (s + 1) : l + s - l * s;
+    final double m1 = l * 2 - m2;
+    return getShortestColorValue ((int) Math.round (_getHueToRGB (m1, m2, dHue + 1.0 / 3) * CSSColorHelper.RGB_MAX),
+                                  (int) Math.round (_getHueToRGB (m1, m2, dHue) * CSSColorHelper.RGB_MAX),
+                                  (int) Math.round (_getHueToRGB (m1, m2, dHue - 1.0 / 3) * CSSColorHelper.RGB_MAX));
+  }
+
+  /**
+   * Replace a hue with an angle unit (e.g. <code>120deg</code> or
+   * <code>.5turn</code>) as the first argument with the number of degrees, as
+   * expected by {@link CSSColorHelper}.
+   * 
+   * @param sArguments
+   *        The HSL function arguments. May not be <code>null</code>.
+   * @return The arguments with a plain hue. Never <code>null</code>.
+   */
+  @Nonnull
+  private static String _getArgumentsWithHueInDegrees (@Nonnull final String sArguments)
+  {
+    final int nComma = sArguments.indexOf (',');
+    if (nComma < 0)
+      return sArguments;
+    final String sHue = sArguments.substring (0, nComma).trim ().toLowerCase (Locale.US);
+    double dFactor;
+    ECSSUnit eUnit;
+    if (sHue.endsWith (ECSSUnit.ANGLE_GRAD.getName ()))
+    {
+      eUnit = ECSSUnit.ANGLE_GRAD;
+      dFactor = 360.0 / 400;
+    }
+    else
+      if (sHue.endsWith (ECSSUnit.ANGLE_RAD.getName ()))
+      {
+        eUnit = ECSSUnit.ANGLE_RAD;
+        dFactor = 180 / Math.PI;
+      }
+      else
+        if (sHue.endsWith (ECSSUnit.ANGLE_TURN.getName ()))
+        {
+          eUnit = ECSSUnit.ANGLE_TURN;
+          dFactor = 360;
+        }
+        else
+          if (sHue.endsWith (ECSSUnit.ANGLE_DEG.getName ()))
+          {
+            eUnit = ECSSUnit.ANGLE_DEG;
+            dFactor = 1;
+          }
+          else
+            return sArguments;
+    final String sNumber = sHue.substring (0, sHue.length () - eUnit.getName ().length ());
+    final BigDecimal aDegrees = BigDecimal.valueOf (Double.parseDouble (sNumber) * dFactor);
+    return aDegrees.toPlainString () + sArguments.substring (nComma);
+  }
+
+  /**
+   * Get the shortest representation of an <code>rgb</code>, <code>rgba</code>,
+   * <code>hsl</code> or <code>hsla</code> color function. Colors with an
+   * opacity less than 1 are not changed, as they have no hex representation in
+   * CSS 3.
+   * 
+   * @param sFunctionName
+   *        The function name. May not be <code>null</code>.
+   * @param sArguments
+   *        The function arguments as written in the CSS. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if the passed function is no color function or
+   *         cannot be optimized.
+   */
+  @Nullable
+  public static String getOptimizedColorFunction (@Nonnull final String sFunctionName, @Nonnull final String sArguments)
+  {
+    final String sLCFunctionName = sFunctionName.toLowerCase (Locale.US);
+    final String sColor = sLCFunctionName + '(' + sArguments + ')';
+    try
+    {
+      if (sLCFunctionName.equals (CCSSValue.PREFIX_RGB))
+      {
+        final CSSRGB aRGB = CSSColorHelper.getParsedRGBColorValue (sColor);
+        if (aRGB != null)
+          return getShortestColorValue (_getRGBPart (aRGB.getRed ()),
+                                        _getRGBPart (aRGB.getGreen ()),
+                                        _getRGBPart (aRGB.getBlue ()));
+      }
+      else
+        if (sLCFunctionName.equals (CCSSValue.PREFIX_RGBA))
+        {
+          final CSSRGBA aRGBA = CSSColorHelper.getParsedRGBAColorValue (sColor);
+          if (aRGBA != null && _isOpaque (aRGBA.getOpacity ()))
+            return getShortestColorValue (_getRGBPart (aRGBA.getRed ()),
+                                          _getRGBPart (aRGBA.getGreen ()),
+                                          _getRGBPart (aRGBA.getBlue ()));
+        }
+        else
+          if (sLCFunctionName.equals (CCSSValue.PREFIX_HSL))
+          {
+            final CSSHSL aHSL = CSSColorHelper.getParsedHSLColorValue (sLCFunctionName +
+                                                                       '(' +
+                                                                       _getArgumentsWithHueInDegrees (sArguments) +
+                                                                       ')');
+            if (aHSL != null)
+              return _getShortestHSLValue (aHSL.getHue (), aHSL.getSaturation (), aHSL.getLightness ());
+          }
+          else
+            if (sLCFunctionName.equals (CCSSValue.PREFIX_HSLA))
+            {
+              final CSSHSLA aHSLA = CSSColorHelper.getParsedHSLAColorValue (sLCFunctionName +
+                                                                            '(' +
+                                                                            _getArgumentsWithHueInDegrees (sArguments) +
+                                                                            ')');
+              if (aHSLA != null && _isOpaque (aHSLA.getOpacity ()))
+                return _getShortestHSLValue (aHSLA.getHue (), aHSLA.getSaturation (), aHSLA.getLightness ());
+            }
+    }
+    catch (final NumberFormatException ex)
+    {
+      // E.g. "." matched by the pattern
+    }
+    return null;
+  }
 }
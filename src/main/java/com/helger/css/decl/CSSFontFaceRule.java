@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.annotation.Nonnegative;
@@ -29,6 +30,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -46,13 +48,17 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSFontFaceRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSFontFaceRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public CSSFontFaceRule ()
-  {}
+  {
+    m_aDeclarations.setModificationOwner (this);
+  }
 
   @Nonnull
   public CSSFontFaceRule addDeclaration (@Nonnull final CSSDeclaration aDeclaration)
@@ -156,21 +162,27 @@ public class CSSFontFaceRule implements ICSSTopLevelRule, IHasCSSDeclarations, I
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     // Always ignore font-face rules?
     if (!aSettings.isWriteFontFaceRules ())
-      return "";
+      return;
 
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations ())
-      return "";
+      return;
 
-    final StringBuilder aSB = new StringBuilder ("@font-face");
-    aSB.append (m_aDeclarations.getAsCSSString (aSettings, nIndentLevel));
+    aTarget.append ("@font-face");
+    m_aDeclarations.writeTo (aTarget, aSettings, nIndentLevel);
     if (!aSettings.isOptimizedOutput ())
-      aSB.append ('\n');
-    return aSB.toString ();
+      aTarget.append ('\n');
   }
 
   @Nonnull
@@ -179,6 +191,30 @@ public class CSSFontFaceRule implements ICSSTopLevelRule, IHasCSSDeclarations, I
     return ECSSVersion.CSS30;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
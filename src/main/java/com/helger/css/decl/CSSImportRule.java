@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -224,25 +226,32 @@ public class CSSImportRule implements ICSSWriteable, ICSSSourceLocationAware
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder ();
-    aSB.append ("@import ").append (m_aLocation.getAsCSSString (aSettings, nIndentLevel));
+    aTarget.append ("@import ");
+    m_aLocation.writeTo (aTarget, aSettings, nIndentLevel);
     if (!m_aMediaQueries.isEmpty ())
     {
-      aSB.append (' ');
+      aTarget.append (' ');
       boolean bFirst = true;
       for (final CSSMediaQuery aMediaQuery : m_aMediaQueries)
       {
         if (bFirst)
           bFirst = false;
         else
-          aSB.append (bOptimizedOutput ? "," : ", ");
-        aSB.append (aMediaQuery.getAsCSSString (aSettings, nIndentLevel));
+          aTarget.append (bOptimizedOutput ? "," : ", ");
+        aMediaQuery.writeTo (aTarget, aSettings, nIndentLevel);
       }
     }
-    return aSB.append (";\n").toString ();
+    aTarget.append (";\n");
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
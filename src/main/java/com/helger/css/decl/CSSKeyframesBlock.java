@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.annotation.Nonnegative;
@@ -31,6 +32,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -42,22 +44,25 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSKeyframesBlock implements IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSKeyframesBlock implements IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware, ICSSModificationTracked
 {
   private final List <String> m_aKeyframesSelectors;
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSKeyframesBlock (@Nonnull @Nonempty final String... aKeyframesSelectors)
   {
     ValueEnforcer.notEmptyNoNullValue (aKeyframesSelectors, "KeyframesSelectors");
     m_aKeyframesSelectors = CollectionHelper.newList (aKeyframesSelectors);
+    m_aDeclarations.setModificationOwner (this);
   }
 
   public CSSKeyframesBlock (@Nonnull @Nonempty final List <String> aKeyframesSelectors)
   {
     ValueEnforcer.notEmptyNoNullValue (aKeyframesSelectors, "KeyframesSelectors");
     m_aKeyframesSelectors = CollectionHelper.newList (aKeyframesSelectors);
+    m_aDeclarations.setModificationOwner (this);
   }
 
   @Nonnull
@@ -169,26 +174,33 @@ public class CSSKeyframesBlock implements IHasCSSDeclarations, ICSSVersionAware,
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder ();
-
     // Emit all selectors
+    boolean bFirst = true;
     for (final String sSelector : m_aKeyframesSelectors)
     {
-      if (aSB.length () > 0)
-        aSB.append (bOptimizedOutput ? "," : ", ");
-      aSB.append (sSelector);
+      if (bFirst)
+        bFirst = false;
+      else
+        aTarget.append (bOptimizedOutput ? "," : ", ");
+      aTarget.append (sSelector);
     }
 
-    aSB.append (m_aDeclarations.getAsCSSString (aSettings, nIndentLevel));
-    return aSB.toString ();
+    m_aDeclarations.writeTo (aTarget, aSettings, nIndentLevel);
   }
 
   @Nonnull
@@ -197,6 +209,23 @@ public class CSSKeyframesBlock implements IHasCSSDeclarations, ICSSVersionAware,
     return ECSSVersion.CSS30;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,7 +33,9 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.CSSDeferredPrefixAppendable;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -49,12 +52,14 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final String m_sDeclaration;
   private final String m_sAnimationName;
   private final List <CSSKeyframesBlock> m_aBlocks = new ArrayList <CSSKeyframesBlock> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public static boolean isValidDeclaration (@Nonnull @Nonempty final String sDeclaration)
   {
@@ -103,8 +108,10 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
   public CSSKeyframesRule addBlock (@Nonnull final CSSKeyframesBlock aKeyframesBlock)
   {
     ValueEnforcer.notNull (aKeyframesBlock, "KeyframesBlock");
+    aKeyframesBlock.setModificationOwner (this);
 
     m_aBlocks.add (aKeyframesBlock);
+    onModification ();
     return this;
   }
 
@@ -113,18 +120,23 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aKeyframesBlock, "KeyframesBlock");
+    aKeyframesBlock.setModificationOwner (this);
 
     if (nIndex >= getBlockCount ())
       m_aBlocks.add (aKeyframesBlock);
     else
       m_aBlocks.add (nIndex, aKeyframesBlock);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeBlock (@Nonnull final CSSKeyframesBlock aKeyframesBlock)
   {
-    return EChange.valueOf (m_aBlocks.remove (aKeyframesBlock));
+    if (!m_aBlocks.remove (aKeyframesBlock))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -132,7 +144,10 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
   {
     if (nBlockIndex < 0 || nBlockIndex >= m_aBlocks.size ())
       return EChange.UNCHANGED;
-    return EChange.valueOf (m_aBlocks.remove (nBlockIndex) != null);
+    if (m_aBlocks.remove (nBlockIndex) == null)
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   /**
@@ -148,6 +163,7 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
     if (m_aBlocks.isEmpty ())
       return EChange.UNCHANGED;
     m_aBlocks.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -169,42 +185,45 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     // Always ignore keyframes rules?
     if (!aSettings.isWriteKeyframesRules ())
-      return "";
+      return;
 
     if (aSettings.isRemoveUnnecessaryCode () && m_aBlocks.isEmpty ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder (m_sDeclaration);
-    aSB.append (' ').append (m_sAnimationName).append (bOptimizedOutput ? "{" : " {");
+    aTarget.append (m_sDeclaration);
+    aTarget.append (' ').append (m_sAnimationName).append (bOptimizedOutput ? "{" : " {");
     if (!bOptimizedOutput)
-      aSB.append ('\n');
+      aTarget.append ('\n');
 
-    // Add all blocks
+    // Add all blocks - blocks without output are skipped entirely
+    final String sBlockPrefix = bOptimizedOutput ? null : aSettings.getIndent (nIndentLevel + 1);
+    final CSSDeferredPrefixAppendable aBlockTarget = new CSSDeferredPrefixAppendable (aTarget);
     for (final CSSKeyframesBlock aBlock : m_aBlocks)
     {
-      final String sBlockCSS = aBlock.getAsCSSString (aSettings, nIndentLevel + 1);
-      if (StringHelper.hasText (sBlockCSS))
-      {
-        if (!bOptimizedOutput)
-          aSB.append (aSettings.getIndent (nIndentLevel + 1));
-        aSB.append (sBlockCSS);
-        if (!bOptimizedOutput)
-          aSB.append ('\n');
-      }
+      aBlockTarget.startSection (sBlockPrefix);
+      aBlock.writeTo (aBlockTarget, aSettings, nIndentLevel + 1);
+      if (aBlockTarget.isWritten () && !bOptimizedOutput)
+        aTarget.append ('\n');
     }
     if (!bOptimizedOutput)
-      aSB.append (aSettings.getIndent (nIndentLevel));
-    aSB.append ('}');
+      aTarget.append (aSettings.getIndent (nIndentLevel));
+    aTarget.append ('}');
     if (!bOptimizedOutput)
-      aSB.append ('\n');
-    return aSB.toString ();
+      aTarget.append ('\n');
   }
 
   @Nonnull
@@ -213,6 +232,30 @@ public class CSSKeyframesRule implements ICSSTopLevelRule, ICSSVersionAware, ICS
     return ECSSVersion.CSS30;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
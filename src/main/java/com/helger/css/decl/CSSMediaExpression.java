@@ -16,11 +16,14 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.equals.EqualsUtils;
@@ -28,6 +31,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CCSS;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -39,7 +43,7 @@ import com.helger.css.media.ECSSMediaExpressionFeature;
  * Represents a single media expression
  */
 @NotThreadSafe
-public class CSSMediaExpression implements ICSSWriteable, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSMediaExpression implements ICSSWriteable, ICSSVersionAware, ICSSSourceLocationAware, ICloneable <CSSMediaExpression>
 {
   private final String m_sFeature;
   private final CSSExpression m_aValue;
@@ -80,16 +84,37 @@ public class CSSMediaExpression implements ICSSWriteable, ICSSVersionAware, ICSS
     return m_aValue;
   }
 
+  /**
+   * @return A deep copy of this media expression, with a copy of the value.
+   *         The source location is not copied. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSMediaExpression getClone ()
+  {
+    return new CSSMediaExpression (m_sFeature, m_aValue == null ? null : m_aValue.getClone ());
+  }
+
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
-    final StringBuilder aSB = new StringBuilder ("(").append (m_sFeature);
+    aTarget.append ("(").append (m_sFeature);
     if (m_aValue != null)
-      aSB.append (CCSS.SEPARATOR_PROPERTY_VALUE).append (m_aValue.getAsCSSString (aSettings, nIndentLevel));
-    return aSB.append (')').toString ();
+    {
+      aTarget.append (CCSS.SEPARATOR_PROPERTY_VALUE);
+      m_aValue.writeTo (aTarget, aSettings, nIndentLevel);
+    }
+    aTarget.append (')');
   }
 
   @Nonnull
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.ReturnsMutableCopy;
@@ -33,6 +35,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -43,7 +46,7 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSMediaQuery implements ICSSWriteable, ICSSSourceLocationAware
+public class CSSMediaQuery implements ICSSWriteable, ICSSSourceLocationAware, ICloneable <CSSMediaQuery>
 {
   /**
    * A global modifier that can be used in front of a single CSS media query.
@@ -267,20 +270,40 @@ public class CSSMediaQuery implements ICSSWriteable, ICSSSourceLocationAware
     return CollectionHelper.newList (m_aMediaExpressions);
   }
 
+  /**
+   * @return A deep copy of this media query, with copies of all media
+   *         expressions. The source location is not copied. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSMediaQuery getClone ()
+  {
+    final CSSMediaQuery ret = new CSSMediaQuery (m_eModifier, m_sMedium);
+    for (final CSSMediaExpression aMediaExpression : m_aMediaExpressions)
+      ret.addMediaExpression (aMediaExpression.getClone ());
+    return ret;
+  }
+
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    final StringBuilder aSB = new StringBuilder ();
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
 
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
     // The modifier already contains a trailing space if necessary!
-    aSB.append (m_eModifier.getCSSText ());
+    aTarget.append (m_eModifier.getCSSText ());
 
     boolean bIsFirstExpression = true;
     if (m_sMedium != null)
     {
       // Medium is optional
-      aSB.append (m_sMedium);
+      aTarget.append (m_sMedium);
       bIsFirstExpression = false;
     }
 
@@ -297,13 +320,11 @@ public class CSSMediaQuery implements ICSSWriteable, ICSSSourceLocationAware
           // "projector and")!
           // The trailing blank is required, because otherwise it is considered
           // a function ("and(")!
-          aSB.append (" and ");
+          aTarget.append (" and ");
         }
-        aSB.append (aMediaExpression.getAsCSSString (aSettings, nIndentLevel));
+        aMediaExpression.writeTo (aTarget, aSettings, nIndentLevel);
       }
     }
-
-    return aSB.toString ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,9 +31,10 @@ import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.collections.CollectionHelper;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
-import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.CSSDeferredPrefixAppendable;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -49,11 +51,13 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
+public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final List <CSSMediaQuery> m_aMediaQueries = new ArrayList <CSSMediaQuery> ();
   private final List <ICSSTopLevelRule> m_aRules = new ArrayList <ICSSTopLevelRule> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public CSSMediaRule ()
   {}
@@ -75,6 +79,7 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
     ValueEnforcer.notNull (aMediaQuery, "MediaQuery");
 
     m_aMediaQueries.add (aMediaQuery);
+    onModification ();
     return this;
   }
 
@@ -88,13 +93,17 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
       m_aMediaQueries.add (aMediaQuery);
     else
       m_aMediaQueries.add (nIndex, aMediaQuery);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeMediaQuery (@Nonnull final CSSMediaQuery aMediaQuery)
   {
-    return EChange.valueOf (m_aMediaQueries.remove (aMediaQuery));
+    if (!m_aMediaQueries.remove (aMediaQuery))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -103,6 +112,7 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
     if (nMediumIndex < 0 || nMediumIndex >= m_aMediaQueries.size ())
       return EChange.UNCHANGED;
     m_aMediaQueries.remove (nMediumIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -119,6 +129,7 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
     if (m_aMediaQueries.isEmpty ())
       return EChange.UNCHANGED;
     m_aMediaQueries.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -152,8 +163,11 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   public CSSMediaRule addRule (@Nonnull final ICSSTopLevelRule aRule)
   {
     ValueEnforcer.notNull (aRule, "Rule");
+    if (aRule instanceof ICSSModificationTracked)
+      ((ICSSModificationTracked) aRule).setModificationOwner (this);
 
     m_aRules.add (aRule);
+    onModification ();
     return this;
   }
 
@@ -162,18 +176,24 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aRule, "Rule");
+    if (aRule instanceof ICSSModificationTracked)
+      ((ICSSModificationTracked) aRule).setModificationOwner (this);
 
     if (nIndex >= getRuleCount ())
       m_aRules.add (aRule);
     else
       m_aRules.add (nIndex, aRule);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeRule (@Nonnull final ICSSTopLevelRule aRule)
   {
-    return EChange.valueOf (m_aRules.remove (aRule));
+    if (!m_aRules.remove (aRule))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -182,6 +202,7 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
     if (nRuleIndex < 0 || nRuleIndex >= m_aRules.size ())
       return EChange.UNCHANGED;
     m_aRules.remove (nRuleIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -198,6 +219,7 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
     if (m_aRules.isEmpty ())
       return EChange.UNCHANGED;
     m_aRules.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -219,60 +241,85 @@ public class CSSMediaRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     // Always ignore media rules?
     if (!aSettings.isWriteMediaRules ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
     final int nRuleCount = m_aRules.size ();
 
     if (aSettings.isRemoveUnnecessaryCode () && nRuleCount == 0)
-      return "";
+      return;
 
-    final StringBuilder aSB = new StringBuilder ("@media ");
+    aTarget.append ("@media ");
     boolean bFirst = true;
     for (final CSSMediaQuery sMedium : m_aMediaQueries)
     {
       if (bFirst)
         bFirst = false;
       else
-        aSB.append (bOptimizedOutput ? "," : ", ");
-      aSB.append (sMedium.getAsCSSString (aSettings, nIndentLevel));
+        aTarget.append (bOptimizedOutput ? "," : ", ");
+      sMedium.writeTo (aTarget, aSettings, nIndentLevel);
     }
 
     if (nRuleCount == 0)
     {
-      aSB.append (bOptimizedOutput ? "{}" : " {}\n");
+      aTarget.append (bOptimizedOutput ? "{}" : " {}\n");
     }
     else
     {
       // At least one rule present
-      aSB.append (bOptimizedOutput ? "{" : " {\n");
+      aTarget.append (bOptimizedOutput ? "{" : " {\n");
+      // Rules without output are skipped together with their separator
+      final String sFirstPrefix = bOptimizedOutput ? null : aSettings.getIndent (nIndentLevel + 1);
+      final String sNextPrefix = bOptimizedOutput ? null : "\n" + sFirstPrefix;
+      final CSSDeferredPrefixAppendable aRuleTarget = new CSSDeferredPrefixAppendable (aTarget);
       bFirst = true;
       for (final ICSSTopLevelRule aRule : m_aRules)
       {
-        final String sRuleCSS = aRule.getAsCSSString (aSettings, nIndentLevel + 1);
-        if (StringHelper.hasText (sRuleCSS))
-        {
-          if (bFirst)
-            bFirst = false;
-          else
-            if (!bOptimizedOutput)
-              aSB.append ('\n');
-
-          if (!bOptimizedOutput)
-            aSB.append (aSettings.getIndent (nIndentLevel + 1));
-          aSB.append (sRuleCSS);
-        }
+        aRuleTarget.startSection (bFirst ? sFirstPrefix : sNextPrefix);
+        aRule.writeTo (aRuleTarget, aSettings, nIndentLevel + 1);
+        if (aRuleTarget.isWritten ())
+          bFirst = false;
       }
       if (!bOptimizedOutput)
-        aSB.append (aSettings.getIndent (nIndentLevel));
-      aSB.append ('}');
+        aTarget.append (aSettings.getIndent (nIndentLevel));
+      aTarget.append ('}');
       if (!bOptimizedOutput)
-        aSB.append ('\n');
+        aTarget.append ('\n');
     }
-    return aSB.toString ();
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
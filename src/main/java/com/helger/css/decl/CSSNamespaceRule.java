@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -28,6 +30,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -107,20 +110,26 @@ public class CSSNamespaceRule implements ICSSWriteable, ICSSSourceLocationAware
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     // Always ignore namespace rules?
     if (!aSettings.isWriteNamespaceRules ())
-      return "";
+      return;
 
-    final StringBuilder aSB = new StringBuilder ();
-    aSB.append ("@namespace ");
+    aTarget.append ("@namespace ");
     if (StringHelper.hasText (m_sPrefix))
-      aSB.append (m_sPrefix).append (' ');
+      aTarget.append (m_sPrefix).append (' ');
     if (StringHelper.hasText (m_sURL))
-      aSB.append (CSSURLHelper.getAsCSSURL (m_sURL, false));
+      aTarget.append (CSSURLHelper.getAsCSSURL (m_sURL, false));
     else
-      aSB.append ("\"\"");
-    return aSB.append (";\n").toString ();
+      aTarget.append ("\"\"");
+    aTarget.append (";\n");
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
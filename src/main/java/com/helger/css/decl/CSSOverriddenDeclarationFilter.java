@@ -0,0 +1,344 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.state.EChange;
+import com.helger.css.ECSSUnit;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.shorthand.CSSPropertyWithDefaultValue;
+import com.helger.css.decl.shorthand.CSSShortHandDescriptor;
+import com.helger.css.decl.shorthand.CSSShortHandRegistry;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.propertyvalue.CSSSimpleValueWithUnit;
+import com.helger.css.utils.CSSNumberHelper;
+import com.helger.css.utils.ECSSColor;
+
+/**
+ * Finds declarations of a single block that are overridden by another
+ * declaration of the same block and therefore never take effect, e.g.
+ * <code>color:red</code> in <code>color:red;color:blue</code> or
+ * <code>margin-top:5px</code> in <code>margin-top:5px;margin:1px</code>.
+ * <ul>
+ * <li>An <code>!important</code> declaration is only overridden by a later
+ * <code>!important</code> declaration, but it overrides all other declarations
+ * of the same property, even later ones.</li>
+ * <li>Short hand properties registered in {@link CSSShortHandRegistry}
+ * override all their sub properties. A short hand property is overridden if
+ * all its sub properties are overridden.</li>
+ * <li>Hacked properties (like <code>*zoom</code>) and vendor specific
+ * properties (like <code>-webkit-transition</code>) are intentional fallbacks
+ * and are never removed.</li>
+ * <li>Declarations with vendor specific values (like
+ * <code>display:-webkit-box</code>) or hacked values (like
+ * <code>color:red\9</code>) are never removed. Declarations using functions
+ * (like <code>rgba(...)</code> or <code>calc(...)</code>) never override
+ * another declaration.</li>
+ * <li>A declaration only overrides another one if it doesn't need a higher
+ * browser support level: every CSS 3 unit (like <code>rem</code> or
+ * <code>vh</code>) and every keyword (like <code>flex</code> or
+ * <code>sticky</code>) must also be used by the overridden declaration. Color
+ * names, hex colors and the keywords <code>auto</code>, <code>none</code>,
+ * <code>normal</code> and <code>inherit</code> are considered to be supported
+ * everywhere. So progressive enhancement fallbacks like
+ * <code>font-size:16px;font-size:1rem</code> or
+ * <code>display:block;display:flex</code> are kept.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSOverriddenDeclarationFilter
+{
+  /** Keywords that don't need a fallback */
+  private static final Set <String> s_aUniversalKeywords = CollectionHelper.newSet ("auto",
+                                                                                   "none",
+                                                                                   "normal",
+                                                                                   "inherit");
+
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSOverriddenDeclarationFilter s_aInstance = new CSSOverriddenDeclarationFilter ();
+
+  /**
+   * A single declaration together with the information required to compare it
+   * with other declarations.
+   */
+  @Immutable
+  private static final class DeclarationInfo
+  {
+    private final CSSDeclaration m_aDeclaration;
+    // null if the declaration must be kept
+    private final String m_sName;
+    private final boolean m_bFallbackValue;
+    private final boolean m_bCanOverride;
+    private final Set <ECSSUnit> m_aUnits = EnumSet.noneOf (ECSSUnit.class);
+    private final Set <String> m_aKeywords = new HashSet <String> ();
+
+    DeclarationInfo (@Nonnull final CSSDeclaration aDeclaration)
+    {
+      m_aDeclaration = aDeclaration;
+      m_sName = _getComparableName (aDeclaration);
+
+      boolean bFallbackValue = false;
+      for (final CSSExpressionMemberTermSimple aMember : aDeclaration.getExpression ().getAllSimpleMembers ())
+      {
+        final String sValue = aMember.getValue ();
+        if (sValue.indexOf ('\\') >= 0)
+          bFallbackValue = true;
+        else
+          if (sValue.length () > 1 && sValue.charAt (0) == '-' && Character.isLetter (sValue.charAt (1)))
+            bFallbackValue = true;
+          else
+            if (Character.isLetter (sValue.charAt (0)))
+              m_aKeywords.add (sValue.toLowerCase (Locale.US));
+            else
+            {
+              final CSSSimpleValueWithUnit aValue = CSSNumberHelper.getValueWithUnit (sValue);
+              if (aValue != null)
+                m_aUnits.add (aValue.getUnit ());
+            }
+      }
+      m_bFallbackValue = bFallbackValue;
+
+      boolean bCanOverride = m_sName != null && !bFallbackValue;
+      if (bCanOverride)
+        for (final ICSSExpressionMember aMember : aDeclaration.getExpression ().getAllMembers ())
+          if (aMember instanceof CSSExpressionMemberFunction || aMember instanceof CSSExpressionMemberMath)
+          {
+            bCanOverride = false;
+            break;
+          }
+      m_bCanOverride = bCanOverride;
+    }
+
+    boolean isImportant ()
+    {
+      return m_aDeclaration.isImportant ();
+    }
+
+    /**
+     * Check if this declaration can replace the passed declaration in all
+     * browsers supporting the passed declaration.
+     */
+    boolean hasNoHigherSupportLevelThan (@Nonnull final DeclarationInfo aOther)
+    {
+      for (final ECSSUnit eUnit : m_aUnits)
+        if (eUnit.getMinimumCSSVersion () == ECSSVersion.CSS30 && !aOther.m_aUnits.contains (eUnit))
+          return false;
+      for (final String sKeyword : m_aKeywords)
+        if (!s_aUniversalKeywords.contains (sKeyword) &&
+            !ECSSColor.isDefaultColorName (sKeyword) &&
+            !aOther.m_aKeywords.contains (sKeyword))
+          return false;
+      return true;
+    }
+  }
+
+  private CSSOverriddenDeclarationFilter ()
+  {}
+
+  /**
+   * @return The property name used for comparison or <code>null</code> if the
+   *         declaration is a hacked or vendor specific declaration that must be
+   *         kept.
+   */
+  @Nullable
+  private static String _getComparableName (@Nonnull final CSSDeclaration aDeclaration)
+  {
+    final String sProperty = aDeclaration.getProperty ();
+    // Custom properties are case sensitive
+    if (sProperty.startsWith ("--"))
+      return sProperty;
+    if (!sProperty.equals (ECSSProperty.getPropertyNameHandlingHacks (sProperty)))
+      return null;
+    if (sProperty.startsWith ("-"))
+      return null;
+    final ECSSProperty eProperty = ECSSProperty.getFromNameOrNull (sProperty);
+    if (eProperty != null && eProperty.isVendorSpecific ())
+      return null;
+    return sProperty.toLowerCase (Locale.US);
+  }
+
+  @Nullable
+  private static CSSShortHandDescriptor _getShortHandDescriptor (@Nonnull final String sName)
+  {
+    return CSSShortHandRegistry.getShortHandDescriptor (ECSSProperty.getFromNameOrNull (sName));
+  }
+
+  /**
+   * Remember the passed declaration as overriding its property and all its sub
+   * properties.
+   */
+  private static void _addOverriding (@Nonnull final String sName,
+                                      @Nonnull final DeclarationInfo aInfo,
+                                      @Nonnull final Map <String, List <DeclarationInfo>> aOverriding)
+  {
+    List <DeclarationInfo> aList = aOverriding.get (sName);
+    if (aList == null)
+    {
+      aList = new ArrayList <DeclarationInfo> (1);
+      aOverriding.put (sName, aList);
+    }
+    aList.add (aInfo);
+
+    final CSSShortHandDescriptor aDescriptor = _getShortHandDescriptor (sName);
+    if (aDescriptor != null)
+      for (final CSSPropertyWithDefaultValue aSubProperty : aDescriptor.getAllSubProperties ())
+        _addOverriding (aSubProperty.getProperty ().getProp ().getName (), aInfo, aOverriding);
+  }
+
+  private static boolean _isOverridden (@Nonnull final String sName,
+                                        @Nonnull final DeclarationInfo aInfo,
+                                        @Nonnull final Map <String, List <DeclarationInfo>> aOverriding)
+  {
+    final List <DeclarationInfo> aList = aOverriding.get (sName);
+    if (aList != null)
+      for (final DeclarationInfo aOverridingInfo : aList)
+        if (aOverridingInfo.hasNoHigherSupportLevelThan (aInfo))
+          return true;
+
+    final CSSShortHandDescriptor aDescriptor = _getShortHandDescriptor (sName);
+    if (aDescriptor == null)
+      return false;
+    // A short hand is overridden if all sub properties are overridden
+    for (final CSSPropertyWithDefaultValue aSubProperty : aDescriptor.getAllSubProperties ())
+      if (!_isOverridden (aSubProperty.getProperty ().getProp ().getName (), aInfo, aOverriding))
+        return false;
+    return true;
+  }
+
+  /**
+   * Check which of the passed declarations take effect.
+   *
+   * @param aDeclarations
+   *        The declarations of a single block in order. May not be
+   *        <code>null</code>.
+   * @return An array with the same size as the passed list, where
+   *         <code>true</code> indicates an effective declaration.
+   */
+  @Nonnull
+  private static boolean [] _getEffectiveFlags (@Nonnull final List <CSSDeclaration> aDeclarations)
+  {
+    final int nCount = aDeclarations.size ();
+    final DeclarationInfo [] aInfos = new DeclarationInfo [nCount];
+
+    // Important declarations override all others, independent of the position
+    final Map <String, List <DeclarationInfo>> aAllImportant = new HashMap <String, List <DeclarationInfo>> ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      aInfos[i] = new DeclarationInfo (aDeclarations.get (i));
+      if (aInfos[i].m_bCanOverride && aInfos[i].isImportant ())
+        _addOverriding (aInfos[i].m_sName, aInfos[i], aAllImportant);
+    }
+
+    final boolean [] ret = new boolean [nCount];
+    final Map <String, List <DeclarationInfo>> aLater = new HashMap <String, List <DeclarationInfo>> ();
+    final Map <String, List <DeclarationInfo>> aLaterImportant = new HashMap <String, List <DeclarationInfo>> ();
+    for (int i = nCount - 1; i >= 0; --i)
+    {
+      final DeclarationInfo aInfo = aInfos[i];
+      final String sName = aInfo.m_sName;
+      if (sName == null || aInfo.m_bFallbackValue)
+        ret[i] = true;
+      else
+        if (aInfo.isImportant ())
+          ret[i] = !_isOverridden (sName, aInfo, aLaterImportant);
+        else
+          ret[i] = !_isOverridden (sName, aInfo, aAllImportant) && !_isOverridden (sName, aInfo, aLater);
+
+      if (aInfo.m_bCanOverride)
+      {
+        _addOverriding (sName, aInfo, aLater);
+        if (aInfo.isImportant ())
+          _addOverriding (sName, aInfo, aLaterImportant);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Get all declarations that are not overridden by another declaration of the
+   * passed list.
+   *
+   * @param aDeclarations
+   *        The declarations of a single block in order. May not be
+   *        <code>null</code>.
+   * @return A new list with all effective declarations in the original order.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static List <CSSDeclaration> getAllEffectiveDeclarations (@Nonnull final List <CSSDeclaration> aDeclarations)
+  {
+    ValueEnforcer.notNull (aDeclarations, "Declarations");
+
+    final int nCount = aDeclarations.size ();
+    if (nCount < 2)
+      return new ArrayList <CSSDeclaration> (aDeclarations);
+
+    final boolean [] aEffective = _getEffectiveFlags (aDeclarations);
+    final List <CSSDeclaration> ret = new ArrayList <CSSDeclaration> (nCount);
+    for (int i = 0; i < nCount; ++i)
+      if (aEffective[i])
+        ret.add (aDeclarations.get (i));
+    return ret;
+  }
+
+  /**
+   * Remove all declarations that are overridden by another declaration of the
+   * same object.
+   *
+   * @param aDeclarations
+   *        The object to modify. May not be <code>null</code>.
+   * @return {@link EChange#CHANGED} if at least one declaration was removed.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public static EChange removeOverriddenDeclarations (@Nonnull final IHasCSSDeclarations aDeclarations)
+  {
+    ValueEnforcer.notNull (aDeclarations, "Declarations");
+
+    if (aDeclarations.getDeclarationCount () < 2)
+      return EChange.UNCHANGED;
+
+    final boolean [] aEffective = _getEffectiveFlags (aDeclarations.getAllDeclarations ());
+    EChange eChange = EChange.UNCHANGED;
+    // Remove backwards to keep the indices stable
+    for (int i = aEffective.length - 1; i >= 0; --i)
+      if (!aEffective[i])
+        eChange = eChange.or (aDeclarations.removeDeclaration (i));
+    return eChange;
+  }
+}
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.annotation.Nonnegative;
@@ -30,6 +31,7 @@ import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -46,15 +48,18 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSPageRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSPageRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final String m_sPseudoPage;
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public CSSPageRule (@Nullable final String sPseudoPage)
   {
     m_sPseudoPage = sPseudoPage;
+    m_aDeclarations.setModificationOwner (this);
   }
 
   @Nullable
@@ -164,28 +169,33 @@ public class CSSPageRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSV
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     // Always ignore page rules?
     if (!aSettings.isWritePageRules ())
-      return "";
+      return;
 
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder ("@page");
+    aTarget.append ("@page");
 
     if (StringHelper.hasText (m_sPseudoPage))
-      aSB.append (' ').append (m_sPseudoPage);
+      aTarget.append (' ').append (m_sPseudoPage);
 
-    aSB.append (m_aDeclarations.getAsCSSString (aSettings, nIndentLevel));
+    m_aDeclarations.writeTo (aTarget, aSettings, nIndentLevel);
     if (!bOptimizedOutput)
-      aSB.append ('\n');
-
-    return aSB.toString ();
+      aTarget.append ('\n');
   }
 
   @Nonnull
@@ -194,6 +204,30 @@ public class CSSPageRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSV
     return ECSSVersion.CSS21;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
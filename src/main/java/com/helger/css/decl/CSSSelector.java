@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.collections.CollectionHelper;
@@ -31,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.ICSSWriterSettings;
@@ -44,10 +47,11 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
+public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware, ICSSModificationTracked, ICloneable <CSSSelector>
 {
   private final List <ICSSSelectorMember> m_aMembers = new ArrayList <ICSSSelectorMember> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
 
   public CSSSelector ()
   {}
@@ -69,6 +73,7 @@ public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
     ValueEnforcer.notNull (aMember, "Member");
 
     m_aMembers.add (aMember);
+    onModification ();
     return this;
   }
 
@@ -82,13 +87,17 @@ public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
       m_aMembers.add (aMember);
     else
       m_aMembers.add (nIndex, aMember);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeMember (@Nonnull final ICSSSelectorMember aMember)
   {
-    return EChange.valueOf (m_aMembers.remove (aMember));
+    if (!m_aMembers.remove (aMember))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -97,6 +106,7 @@ public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
     if (nMemberIndex < 0 || nMemberIndex >= m_aMembers.size ())
       return EChange.UNCHANGED;
     m_aMembers.remove (nMemberIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -112,6 +122,7 @@ public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
     if (m_aMembers.isEmpty ())
       return EChange.UNCHANGED;
     m_aMembers.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -130,13 +141,50 @@ public class CSSSelector implements ICSSWriteable, ICSSSourceLocationAware
     return CollectionHelper.newList (m_aMembers);
   }
 
+  /**
+   * @return A deep copy of this selector, with copies of all members. The
+   *         source location and the modification owner are not copied. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSSelector getClone ()
+  {
+    final CSSSelector ret = new CSSSelector ();
+    for (final ICSSSelectorMember aMember : m_aMembers)
+      ret.addMember (aMember.getClone ());
+    return ret;
+  }
+
   @Nonnull
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    final StringBuilder aSB = new StringBuilder ();
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
     for (final ICSSSelectorMember aMember : m_aMembers)
-      aSB.append (aMember.getAsCSSString (aSettings, nIndentLevel));
-    return aSB.toString ();
+      aMember.writeTo (aTarget, aSettings, nIndentLevel);
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  public void onModification ()
+  {
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
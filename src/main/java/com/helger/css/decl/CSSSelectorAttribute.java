@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -28,6 +30,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -109,14 +112,28 @@ public class CSSSelectorAttribute implements ICSSSelectorMember, ICSSSourceLocat
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    final StringBuilder aSB = new StringBuilder ();
-    aSB.append ('[');
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append ('[');
     if (StringHelper.hasText (m_sNamespacePrefix))
-      aSB.append (m_sNamespacePrefix);
-    aSB.append (m_sAttrName);
+      aTarget.append (m_sNamespacePrefix);
+    aTarget.append (m_sAttrName);
     if (m_eOperator != null)
-      aSB.append (m_eOperator.getAsCSSString (aSettings, nIndentLevel)).append (m_sAttrValue);
-    return aSB.append (']').toString ();
+      aTarget.append (m_eOperator.getAsCSSString (aSettings, nIndentLevel)).append (m_sAttrValue);
+    aTarget.append (']');
+  }
+
+  @Nonnull
+  public CSSSelectorAttribute getClone ()
+  {
+    if (m_eOperator == null)
+      return new CSSSelectorAttribute (m_sNamespacePrefix, m_sAttrName);
+    return new CSSSelectorAttribute (m_sNamespacePrefix, m_sAttrName, m_eOperator, m_sAttrValue);
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -26,6 +28,7 @@ import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -74,7 +77,22 @@ public class CSSSelectorMemberFunctionLike implements ICSSSelectorMember, ICSSSo
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
-    return m_sFuncName + m_aParamExpr.getAsCSSString (aSettings, nIndentLevel) + ')';
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (m_sFuncName);
+    m_aParamExpr.writeTo (aTarget, aSettings, nIndentLevel);
+    aTarget.append (')');
+  }
+
+  @Nonnull
+  public CSSSelectorMemberFunctionLike getClone ()
+  {
+    return new CSSSelectorMemberFunctionLike (m_sFuncName, m_aParamExpr.getClone ());
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Nonnegative;
@@ -31,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -162,21 +165,28 @@ public class CSSSelectorMemberNot implements ICSSSelectorMember, ICSSVersionAwar
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
-    final StringBuilder aSB = new StringBuilder (":not(");
+    aTarget.append (":not(");
     boolean bFirst = true;
     for (final CSSSelector aNestedSelector : m_aNestedSelectors)
     {
       if (bFirst)
         bFirst = false;
       else
-        aSB.append (bOptimizedOutput ? "," : ", ");
-      aSB.append (aNestedSelector.getAsCSSString (aSettings, 0));
+        aTarget.append (bOptimizedOutput ? "," : ", ");
+      aNestedSelector.writeTo (aTarget, aSettings, 0);
     }
-    return aSB.append (')').toString ();
+    aTarget.append (')');
   }
 
   @Nonnull
@@ -185,6 +195,15 @@ public class CSSSelectorMemberNot implements ICSSSelectorMember, ICSSVersionAwar
     return ECSSVersion.CSS30;
   }
 
+  @Nonnull
+  public CSSSelectorMemberNot getClone ()
+  {
+    final List <CSSSelector> aNestedSelectors = new ArrayList <CSSSelector> (m_aNestedSelectors.size ());
+    for (final CSSSelector aNestedSelector : m_aNestedSelectors)
+      aNestedSelectors.add (aNestedSelector.getClone ());
+    return new CSSSelectorMemberNot (aNestedSelectors);
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
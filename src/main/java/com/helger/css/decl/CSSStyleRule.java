@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -45,14 +47,18 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSSourceLocationAware
+public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final List <CSSSelector> m_aSelectors = new ArrayList <CSSSelector> ();
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public CSSStyleRule ()
-  {}
+  {
+    m_aDeclarations.setModificationOwner (this);
+  }
 
   public boolean hasSelectors ()
   {
@@ -77,8 +83,10 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
   public CSSStyleRule addSelector (@Nonnull final CSSSelector aSelector)
   {
     ValueEnforcer.notNull (aSelector, "Selector");
+    aSelector.setModificationOwner (this);
 
     m_aSelectors.add (aSelector);
+    onModification ();
     return this;
   }
 
@@ -96,18 +104,23 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aSelector, "Selector");
+    aSelector.setModificationOwner (this);
 
     if (nIndex >= getSelectorCount ())
       m_aSelectors.add (aSelector);
     else
       m_aSelectors.add (nIndex, aSelector);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeSelector (@Nonnull final CSSSelector aSelector)
   {
-    return EChange.valueOf (m_aSelectors.remove (aSelector));
+    if (!m_aSelectors.remove (aSelector))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -116,6 +129,7 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
     if (nSelectorIndex < 0 || nSelectorIndex >= m_aSelectors.size ())
       return EChange.UNCHANGED;
     m_aSelectors.remove (nSelectorIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -132,6 +146,7 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
     if (m_aSelectors.isEmpty ())
       return EChange.UNCHANGED;
     m_aSelectors.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -251,8 +266,37 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
   public String getSelectorsAsCSSString (@Nonnull final ICSSWriterSettings aSettings,
                                          @Nonnegative final int nIndentLevel)
   {
-    final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
     final StringBuilder aSB = new StringBuilder ();
+    try
+    {
+      writeSelectorsTo (aSB, aSettings, nIndentLevel);
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException ("Totally unexpected", ex);
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Write all selectors of this rule to the passed {@link Appendable}.
+   *
+   * @param aTarget
+   *        The target to append to. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used to format the output. May not be
+   *        <code>null</code>.
+   * @param nIndentLevel
+   *        The current indentation level
+   * @throws IOException
+   *         If appending to the target fails
+   * @since 3.9.3
+   */
+  public void writeSelectorsTo (@Nonnull final Appendable aTarget,
+                                @Nonnull final ICSSWriterSettings aSettings,
+                                @Nonnegative final int nIndentLevel) throws IOException
+  {
+    final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
     boolean bFirst = true;
     for (final CSSSelector aSelector : m_aSelectors)
     {
@@ -261,33 +305,60 @@ public class CSSStyleRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSS
       else
       {
         if (bOptimizedOutput)
-          aSB.append (',');
+          aTarget.append (',');
         else
-          aSB.append (",\n").append (aSettings.getIndent (nIndentLevel));
+          aTarget.append (",\n").append (aSettings.getIndent (nIndentLevel));
       }
-      aSB.append (aSelector.getAsCSSString (aSettings, nIndentLevel));
+      aSelector.writeTo (aTarget, aSettings, nIndentLevel);
     }
-    return aSB.toString ();
   }
 
   @Nonnull
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder ();
-
     // Append the selectors
-    aSB.append (getSelectorsAsCSSString (aSettings, nIndentLevel));
+    writeSelectorsTo (aTarget, aSettings, nIndentLevel);
 
     // Append the declarations
-    aSB.append (m_aDeclarations.getAsCSSString (aSettings, nIndentLevel));
+    m_aDeclarations.writeTo (aTarget, aSettings, nIndentLevel);
     if (!bOptimizedOutput)
-      aSB.append ('\n');
-    return aSB.toString ();
+      aTarget.append ('\n');
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
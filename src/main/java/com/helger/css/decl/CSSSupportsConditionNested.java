@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +33,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
@@ -133,19 +135,26 @@ public class CSSSupportsConditionNested implements ICSSSupportsConditionMember,
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
-    final StringBuilder aSB = new StringBuilder ("(");
+    aTarget.append ("(");
     boolean bFirst = true;
     for (final ICSSSupportsConditionMember aMember : m_aMembers)
     {
       if (bFirst)
         bFirst = false;
       else
-        aSB.append (' ');
-      aSB.append (aMember.getAsCSSString (aSettings, nIndentLevel));
+        aTarget.append (' ');
+      aMember.writeTo (aTarget, aSettings, nIndentLevel);
     }
-    return aSB.append (')').toString ();
+    aTarget.append (')');
   }
 
   @Nonnull
@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,9 +31,10 @@ import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.collections.CollectionHelper;
 import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.state.EChange;
-import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.CSSDeferredPrefixAppendable;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSSpecification;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
@@ -50,11 +52,13 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAware, ICSSVersionAware
+public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAware, ICSSVersionAware, ICSSRevisionAware
 {
   private final List <ICSSSupportsConditionMember> m_aConditionMembers = new ArrayList <ICSSSupportsConditionMember> ();
   private final List <ICSSTopLevelRule> m_aRules = new ArrayList <ICSSTopLevelRule> ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public CSSSupportsRule ()
   {}
@@ -76,6 +80,7 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     ValueEnforcer.notNull (aMember, "SupportsConditionMember");
 
     m_aConditionMembers.add (aMember);
+    onModification ();
     return this;
   }
 
@@ -90,13 +95,17 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
       m_aConditionMembers.add (aMember);
     else
       m_aConditionMembers.add (nIndex, aMember);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeSupportsConditionMember (@Nonnull final ICSSSupportsConditionMember aMember)
   {
-    return EChange.valueOf (m_aConditionMembers.remove (aMember));
+    if (!m_aConditionMembers.remove (aMember))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -105,6 +114,7 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     if (nIndex < 0 || nIndex >= m_aConditionMembers.size ())
       return EChange.UNCHANGED;
     m_aConditionMembers.remove (nIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -121,6 +131,7 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     if (m_aConditionMembers.isEmpty ())
       return EChange.UNCHANGED;
     m_aConditionMembers.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -154,8 +165,11 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
   public CSSSupportsRule addRule (@Nonnull final ICSSTopLevelRule aRule)
   {
     ValueEnforcer.notNull (aRule, "Rule");
+    if (aRule instanceof ICSSModificationTracked)
+      ((ICSSModificationTracked) aRule).setModificationOwner (this);
 
     m_aRules.add (aRule);
+    onModification ();
     return this;
   }
 
@@ -164,18 +178,24 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
   {
     ValueEnforcer.isGE0 (nIndex, "Index");
     ValueEnforcer.notNull (aRule, "Rule");
+    if (aRule instanceof ICSSModificationTracked)
+      ((ICSSModificationTracked) aRule).setModificationOwner (this);
 
     if (nIndex >= getRuleCount ())
       m_aRules.add (aRule);
     else
       m_aRules.add (nIndex, aRule);
+    onModification ();
     return this;
   }
 
   @Nonnull
   public EChange removeRule (@Nonnull final ICSSTopLevelRule aRule)
   {
-    return EChange.valueOf (m_aRules.remove (aRule));
+    if (!m_aRules.remove (aRule))
+      return EChange.UNCHANGED;
+    onModification ();
+    return EChange.CHANGED;
   }
 
   @Nonnull
@@ -184,6 +204,7 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     if (nRuleIndex < 0 || nRuleIndex >= m_aRules.size ())
       return EChange.UNCHANGED;
     m_aRules.remove (nRuleIndex);
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -208,6 +229,7 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     if (m_aRules.isEmpty ())
       return EChange.UNCHANGED;
     m_aRules.clear ();
+    onModification ();
     return EChange.CHANGED;
   }
 
@@ -221,62 +243,63 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     // Always ignore SupportsCondition rules?
     if (!aSettings.isWriteSupportsRules ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
     final int nRuleCount = m_aRules.size ();
 
     if (aSettings.isRemoveUnnecessaryCode () && nRuleCount == 0)
-      return "";
+      return;
 
-    final StringBuilder aSB = new StringBuilder ("@supports ");
+    aTarget.append ("@supports ");
     boolean bFirst = true;
     for (final ICSSSupportsConditionMember aCondition : m_aConditionMembers)
     {
       if (bFirst)
         bFirst = false;
       else
-        aSB.append (' ');
-      aSB.append (aCondition.getAsCSSString (aSettings, nIndentLevel));
+        aTarget.append (' ');
+      aCondition.writeTo (aTarget, aSettings, nIndentLevel);
     }
 
     if (nRuleCount == 0)
     {
-      aSB.append (bOptimizedOutput ? "{}" : " {}\n");
+      aTarget.append (bOptimizedOutput ? "{}" : " {}\n");
     }
     else
     {
       // At least one rule present
-      aSB.append (bOptimizedOutput ? "{" : " {\n");
+      aTarget.append (bOptimizedOutput ? "{" : " {\n");
+      // Rules without output are skipped together with their separator
+      final String sFirstPrefix = bOptimizedOutput ? null : aSettings.getIndent (nIndentLevel + 1);
+      final String sNextPrefix = bOptimizedOutput ? null : "\n" + sFirstPrefix;
+      final CSSDeferredPrefixAppendable aRuleTarget = new CSSDeferredPrefixAppendable (aTarget);
       bFirst = true;
       for (final ICSSTopLevelRule aRule : m_aRules)
       {
-        final String sRuleCSS = aRule.getAsCSSString (aSettings, nIndentLevel + 1);
-        if (StringHelper.hasText (sRuleCSS))
-        {
-          if (bFirst)
-            bFirst = false;
-          else
-            if (!bOptimizedOutput)
-              aSB.append ('\n');
-
-          if (!bOptimizedOutput)
-            aSB.append (aSettings.getIndent (nIndentLevel + 1));
-          aSB.append (sRuleCSS);
-        }
+        aRuleTarget.startSection (bFirst ? sFirstPrefix : sNextPrefix);
+        aRule.writeTo (aRuleTarget, aSettings, nIndentLevel + 1);
+        if (aRuleTarget.isWritten ())
+          bFirst = false;
       }
       if (!bOptimizedOutput)
-        aSB.append (aSettings.getIndent (nIndentLevel));
-      aSB.append ('}');
+        aTarget.append (aSettings.getIndent (nIndentLevel));
+      aTarget.append ('}');
       if (!bOptimizedOutput)
-        aSB.append ('\n');
+        aTarget.append ('\n');
     }
-    return aSB.toString ();
   }
 
   @Nonnull
@@ -285,6 +308,30 @@ public class CSSSupportsRule implements ICSSTopLevelRule, ICSSSourceLocationAwar
     return ECSSVersion.CSS30;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -27,6 +29,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSWriterSettings;
 
@@ -36,12 +39,14 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSUnknownRule implements ICSSTopLevelRule, ICSSSourceLocationAware
+public class CSSUnknownRule implements ICSSTopLevelRule, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final String m_sDeclaration;
   private String m_sParameterList;
   private String m_sBody;
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public static boolean isValidDeclaration (@Nonnull @Nonempty final String sDeclaration)
   {
@@ -70,6 +75,7 @@ public class CSSUnknownRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   public CSSUnknownRule setParameterList (@Nullable final String sParameterList)
   {
     m_sParameterList = StringHelper.trim (sParameterList);
+    onModification ();
     return this;
   }
 
@@ -87,6 +93,7 @@ public class CSSUnknownRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   public CSSUnknownRule setBody (@Nullable final String sBody)
   {
     m_sBody = StringHelper.trim (sBody);
+    onModification ();
     return this;
   }
 
@@ -103,36 +110,66 @@ public class CSSUnknownRule implements ICSSTopLevelRule, ICSSSourceLocationAware
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     // Always ignore unknown rules?
     if (!aSettings.isWriteUnknownRules ())
-      return "";
+      return;
 
     final boolean bOptimizedOutput = aSettings.isOptimizedOutput ();
 
-    final StringBuilder aSB = new StringBuilder (m_sDeclaration);
+    aTarget.append (m_sDeclaration);
 
     if (StringHelper.hasText (m_sParameterList))
-      aSB.append (' ').append (m_sParameterList);
+      aTarget.append (' ').append (m_sParameterList);
 
     if (StringHelper.hasNoText (m_sBody))
     {
-      aSB.append (bOptimizedOutput ? "{}" : " {}\n");
+      aTarget.append (bOptimizedOutput ? "{}" : " {}\n");
     }
     else
     {
       // At least one rule present
-      aSB.append (bOptimizedOutput ? "{" : " {\n");
+      aTarget.append (bOptimizedOutput ? "{" : " {\n");
       if (!bOptimizedOutput)
-        aSB.append (aSettings.getIndent (nIndentLevel));
-      aSB.append (m_sBody);
+        aTarget.append (aSettings.getIndent (nIndentLevel));
+      aTarget.append (m_sBody);
       if (!bOptimizedOutput)
-        aSB.append (aSettings.getIndent (nIndentLevel));
-      aSB.append ('}');
+        aTarget.append (aSettings.getIndent (nIndentLevel));
+      aTarget.append ('}');
       if (!bOptimizedOutput)
-        aSB.append ('\n');
+        aTarget.append ('\n');
     }
-    return aSB.toString ();
+  }
+
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
   }
 
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
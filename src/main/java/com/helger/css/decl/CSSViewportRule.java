@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.annotation.Nonnegative;
@@ -30,6 +31,7 @@ import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CSSSourceLocation;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSSourceLocationAware;
 import com.helger.css.ICSSVersionAware;
@@ -43,11 +45,13 @@ import com.helger.css.ICSSWriterSettings;
  * @author Philip Helger
  */
 @NotThreadSafe
-public class CSSViewportRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware
+public class CSSViewportRule implements ICSSTopLevelRule, IHasCSSDeclarations, ICSSVersionAware, ICSSSourceLocationAware, ICSSRevisionAware
 {
   private final String m_sDeclaration;
   private final CSSDeclarationContainer m_aDeclarations = new CSSDeclarationContainer ();
   private CSSSourceLocation m_aSourceLocation;
+  private ICSSModificationOwner m_aModificationOwner;
+  private long m_nRevision = 0;
 
   public static boolean isValidDeclaration (@Nonnull @Nonempty final String sDeclaration)
   {
@@ -59,6 +63,7 @@ public class CSSViewportRule implements ICSSTopLevelRule, IHasCSSDeclarations, I
     if (!isValidDeclaration (sDeclaration))
       throw new IllegalArgumentException ("declaration");
     m_sDeclaration = sDeclaration;
+    m_aDeclarations.setModificationOwner (this);
   }
 
   /**
@@ -175,21 +180,27 @@ public class CSSViewportRule implements ICSSTopLevelRule, IHasCSSDeclarations, I
   @Nonnull
   @Nonempty
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (this);
 
     // Always ignore viewport rules?
     if (!aSettings.isWriteViewportRules ())
-      return "";
+      return;
 
     if (aSettings.isRemoveUnnecessaryCode () && !hasDeclarations ())
-      return "";
+      return;
 
-    final StringBuilder aSB = new StringBuilder (m_sDeclaration);
-    aSB.append (m_aDeclarations.getAsCSSString (aSettings, nIndentLevel));
+    aTarget.append (m_sDeclaration);
+    m_aDeclarations.writeTo (aTarget, aSettings, nIndentLevel);
     if (!aSettings.isOptimizedOutput ())
-      aSB.append ('\n');
-    return aSB.toString ();
+      aTarget.append ('\n');
   }
 
   @Nonnull
@@ -198,6 +209,30 @@ public class CSSViewportRule implements ICSSTopLevelRule, IHasCSSDeclarations, I
     return ECSSVersion.CSS30;
   }
 
+  @Nullable
+  public ICSSModificationOwner getModificationOwner ()
+  {
+    return m_aModificationOwner;
+  }
+
+  public void setModificationOwner (@Nullable final ICSSModificationOwner aOwner)
+  {
+    m_aModificationOwner = aOwner;
+  }
+
+  @Nonnegative
+  public long getRevision ()
+  {
+    return m_nRevision;
+  }
+
+  public void onModification ()
+  {
+    ++m_nRevision;
+    if (m_aModificationOwner != null)
+      m_aModificationOwner.onModification ();
+  }
+
   public void setSourceLocation (@Nullable final CSSSourceLocation aSourceLocation)
   {
     m_aSourceLocation = aSourceLocation;
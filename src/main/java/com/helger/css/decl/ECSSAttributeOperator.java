@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -73,6 +75,13 @@ public enum ECSSAttributeOperator implements ICSSVersionAware, ICSSWriteable, IH
     return m_sName;
   }
 
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (getAsCSSString (aSettings, nIndentLevel));
+  }
+
   @Nullable
   public static ECSSAttributeOperator getFromNameOrNull (@Nullable final String sName)
   {
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotations.Nonempty;
+import com.helger.commons.lang.EnumHelper;
+import com.helger.commons.name.IHasName;
+
+/**
+ * Contains all the different rule types that can occur inside a
+ * {@link CascadingStyleSheet}. E.g. used to restrict the rules that are read
+ * by the parser.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public enum ECSSRuleType implements IHasName
+{
+  /** <code>@import</code> rules - see {@link CSSImportRule} */
+  IMPORT ("import"),
+  /** <code>@namespace</code> rules - see {@link CSSNamespaceRule} */
+  NAMESPACE ("namespace"),
+  /** Style rules - see {@link CSSStyleRule} */
+  STYLE ("style"),
+  /** <code>@page</code> rules - see {@link CSSPageRule} */
+  PAGE ("page"),
+  /** <code>@media</code> rules - see {@link CSSMediaRule} */
+  MEDIA ("media"),
+  /** <code>@font-face</code> rules - see {@link CSSFontFaceRule} */
+  FONT_FACE ("font-face"),
+  /** <code>@keyframes</code> rules - see {@link CSSKeyframesRule} */
+  KEYFRAMES ("keyframes"),
+  /** <code>@viewport</code> rules - see {@link CSSViewportRule} */
+  VIEWPORT ("viewport"),
+  /** <code>@supports</code> rules - see {@link CSSSupportsRule} */
+  SUPPORTS ("supports"),
+  /** All other at-rules - see {@link CSSUnknownRule} */
+  UNKNOWN ("unknown");
+
+  private final String m_sName;
+
+  private ECSSRuleType (@Nonnull @Nonempty final String sName)
+  {
+    m_sName = sName;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  @Nullable
+  public static ECSSRuleType getFromNameOrNull (@Nullable final String sName)
+  {
+    return EnumHelper.getFromNameOrNull (ECSSRuleType.class, sName);
+  }
+}
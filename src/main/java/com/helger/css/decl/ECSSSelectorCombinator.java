@@ -16,6 +16,8 @@
  */
 package com.helger.css.decl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -61,6 +63,13 @@ public enum ECSSSelectorCombinator implements ICSSSelectorMember, ICSSVersionAwa
     return m_sName;
   }
 
+  @Nonnull
+  public ECSSSelectorCombinator getClone ()
+  {
+    // No possibility to clone :)
+    return this;
+  }
+
   @Nonnull
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
   {
@@ -68,6 +77,13 @@ public enum ECSSSelectorCombinator implements ICSSSelectorMember, ICSSVersionAwa
     return m_sName;
   }
 
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
+  {
+    aTarget.append (getAsCSSString (aSettings, nIndentLevel));
+  }
+
   @Nonnull
   public ECSSVersion getMinimumCSSVersion ()
   {
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+/**
+ * Base interface for all objects that want to be informed about modifications
+ * of themselves or of any object they own. This is the basis of the change
+ * tracking used by the fragment cache of the
+ * {@link com.helger.css.writer.CSSWriter}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public interface ICSSModificationOwner
+{
+  /**
+   * Called after this object or one of its tracked child objects was
+   * modified. The notification is passed on to the owner of this object (if
+   * any). This method may also be called manually after modifying an object
+   * that is not tracked (e.g. a {@link CSSRGB} or a {@link CSSMediaQuery}).
+   */
+  void onModification ();
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import javax.annotation.Nullable;
+
+/**
+ * Interface for objects whose modifications are reported to their owner. The
+ * owner is set automatically when the object is added to a tracked parent
+ * (e.g. a {@link CSSDeclaration} added to a {@link CSSDeclarationList}). An
+ * object can only have a single owner, so the same instance should not be
+ * added to more than one parent.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public interface ICSSModificationTracked extends ICSSModificationOwner
+{
+  /**
+   * @return The owner to be notified about modifications of this object. May
+   *         be <code>null</code>.
+   */
+  @Nullable
+  ICSSModificationOwner getModificationOwner ();
+
+  /**
+   * Set the owner to be notified about modifications of this object.
+   *
+   * @param aOwner
+   *        The new owner. May be <code>null</code>.
+   */
+  void setModificationOwner (@Nullable ICSSModificationOwner aOwner);
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * Interface for tracked objects that maintain a revision number, which is
+ * incremented upon each modification of the object or any of its tracked child
+ * objects. All top-level rules of this library implement this interface, so
+ * that their serialized form can be cached as long as the revision does not
+ * change.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public interface ICSSRevisionAware extends ICSSModificationTracked
+{
+  /**
+   * @return The current revision of this object. Starts at 0 and is
+   *         incremented with every modification.
+   */
+  @Nonnegative
+  long getRevision ();
+}
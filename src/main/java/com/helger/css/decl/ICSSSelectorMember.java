@@ -16,6 +16,7 @@
  */
 package com.helger.css.decl;
 
+import com.helger.commons.ICloneable;
 import com.helger.css.ICSSWriteable;
 
 /**
@@ -23,7 +24,7 @@ import com.helger.css.ICSSWriteable;
  * 
  * @author Philip Helger
  */
-public interface ICSSSelectorMember extends ICSSWriteable
+public interface ICSSSelectorMember extends ICSSWriteable, ICloneable <ICSSSelectorMember>
 {
   /* empty */
 }
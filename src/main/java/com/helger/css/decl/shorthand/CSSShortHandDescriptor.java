@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
@@ -104,6 +105,34 @@ public class CSSShortHandDescriptor
   @Nonnull
   @ReturnsMutableCopy
   public List <CSSDeclaration> getSplitIntoPieces (@Nonnull final CSSDeclaration aDeclaration)
+  {
+    return _getSplitIntoPieces (aDeclaration, false);
+  }
+
+  /**
+   * Split the passed declaration into the declarations of the sub properties,
+   * but only if every expression member is used by a sub property. Values that
+   * cannot be assigned to a single sub property (like
+   * <code>12px/1.5</code> in <code>font</code> or a font family list) would
+   * otherwise get lost.
+   *
+   * @param aDeclaration
+   *        The declaration to split. Must have the property of this
+   *        descriptor. May not be <code>null</code>.
+   * @return <code>null</code> if at least one expression member could not be
+   *         assigned to a sub property.
+   * @since 3.9.3
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public List <CSSDeclaration> getSplitIntoPiecesIfLossless (@Nonnull final CSSDeclaration aDeclaration)
+  {
+    return _getSplitIntoPieces (aDeclaration, true);
+  }
+
+  @Nullable
+  private List <CSSDeclaration> _getSplitIntoPieces (@Nonnull final CSSDeclaration aDeclaration,
+                                                     final boolean bLossless)
   {
     ValueEnforcer.notNull (aDeclaration, "Declaration");
 
@@ -130,6 +159,7 @@ public class CSSShortHandDescriptor
     for (int nExprMemberIndex = 0; nExprMemberIndex < nExpressionMembers; ++nExprMemberIndex)
     {
       final ICSSExpressionMember aMember = aExpressionMembers.get (nExprMemberIndex);
+      boolean bMemberUsed = false;
 
       // For all unhandled sub-properties
       for (int nSubPropIndex = 0; nSubPropIndex < nSubProperties; ++nSubPropIndex)
@@ -163,12 +193,19 @@ public class CSSShortHandDescriptor
 
               // Remember as handled
               aHandledSubProperties[nSubPropIndex] = true;
+              bMemberUsed = true;
 
               // Next expression member
               break;
             }
           }
         }
+
+      if (!bMemberUsed && bLossless)
+      {
+        // The member would get lost
+        return null;
+      }
     }
 
     // Assign all default values that are not present
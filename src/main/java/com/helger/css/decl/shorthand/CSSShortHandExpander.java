@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl.shorthand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSFontFaceRule;
+import com.helger.css.decl.CSSKeyframesBlock;
+import com.helger.css.decl.CSSPageRule;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CSSViewportRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.IHasCSSDeclarations;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.DefaultCSSVisitor;
+import com.helger.css.property.ECSSProperty;
+
+/**
+ * Expands all short hand declarations (like <code>margin</code>) of a
+ * declaration container or a whole {@link CascadingStyleSheet} into the
+ * declarations of the sub properties, using the descriptors registered in
+ * {@link CSSShortHandRegistry}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSShortHandExpander
+{
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSShortHandExpander s_aInstance = new CSSShortHandExpander ();
+
+  private CSSShortHandExpander ()
+  {}
+
+  /**
+   * Replace all short hand declarations of the passed object with the split
+   * declarations. The split declarations are inserted at the position of the
+   * short hand declaration and inherit its <code>!important</code> flag.
+   * Declarations using a hack prefix (like <code>*margin</code>) are not
+   * expanded. Short hand declarations with values that cannot be assigned to a
+   * single sub property (like <code>font:12px/1.5 Arial</code>) are kept as
+   * they are, as expanding them would lose information.
+   *
+   * @param aDeclarations
+   *        The object to modify. May not be <code>null</code>.
+   * @return The number of expanded short hand declarations. Always &ge; 0.
+   */
+  @Nonnegative
+  public static int expandShortHands (@Nonnull final IHasCSSDeclarations aDeclarations)
+  {
+    ValueEnforcer.notNull (aDeclarations, "Declarations");
+
+    int ret = 0;
+    int nIndex = 0;
+    while (nIndex < aDeclarations.getDeclarationCount ())
+    {
+      final CSSDeclaration aDeclaration = aDeclarations.getDeclarationAtIndex (nIndex);
+      final ECSSProperty eProperty = ECSSProperty.getFromNameOrNull (aDeclaration.getProperty ());
+      final CSSShortHandDescriptor aDescriptor = CSSShortHandRegistry.getShortHandDescriptor (eProperty);
+      final List <CSSDeclaration> aPieces = aDescriptor == null ? null
+                                                                : aDescriptor.getSplitIntoPiecesIfLossless (aDeclaration);
+      if (aPieces == null)
+      {
+        // No short hand or not all values can be assigned to sub properties
+        ++nIndex;
+        continue;
+      }
+
+      aDeclarations.removeDeclaration (nIndex);
+      for (final CSSDeclaration aPiece : aPieces)
+      {
+        aPiece.setImportant (aDeclaration.isImportant ());
+        aDeclarations.addDeclaration (nIndex, aPiece);
+        ++nIndex;
+      }
+      ++ret;
+    }
+    return ret;
+  }
+
+  /**
+   * Replace all short hand declarations in all rules of the passed style sheet
+   * (including nested rules) with the split declarations.
+   *
+   * @param aCSS
+   *        The style sheet to modify. May not be <code>null</code>.
+   * @return The number of expanded short hand declarations. Always &ge; 0.
+   * @see #expandShortHands(IHasCSSDeclarations)
+   */
+  @Nonnegative
+  public static int expandShortHands (@Nonnull final CascadingStyleSheet aCSS)
+  {
+    ValueEnforcer.notNull (aCSS, "CSS");
+
+    // Collect first, so that the style sheet is not modified while visiting
+    final List <IHasCSSDeclarations> aAllDeclarations = new ArrayList <IHasCSSDeclarations> ();
+    CSSVisitor.visitCSS (aCSS, new DefaultCSSVisitor ()
+    {
+      @Override
+      public void onBeginStyleRule (@Nonnull final CSSStyleRule aStyleRule)
+      {
+        aAllDeclarations.add (aStyleRule);
+      }
+
+      @Override
+      public void onBeginPageRule (@Nonnull final CSSPageRule aPageRule)
+      {
+        aAllDeclarations.add (aPageRule);
+      }
+
+      @Override
+      public void onBeginFontFaceRule (@Nonnull final CSSFontFaceRule aFontFaceRule)
+      {
+        aAllDeclarations.add (aFontFaceRule);
+      }
+
+      @Override
+      public void onBeginKeyframesBlock (@Nonnull final CSSKeyframesBlock aKeyframesBlock)
+      {
+        aAllDeclarations.add (aKeyframesBlock);
+      }
+
+      @Override
+      public void onBeginViewportRule (@Nonnull final CSSViewportRule aViewportRule)
+      {
+        aAllDeclarations.add (aViewportRule);
+      }
+    });
+
+    int ret = 0;
+    for (final IHasCSSDeclarations aDeclarations : aAllDeclarations)
+      ret += expandShortHands (aDeclarations);
+    return ret;
+  }
+}
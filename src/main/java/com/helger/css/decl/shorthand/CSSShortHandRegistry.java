@@ -16,20 +16,17 @@
  */
 package com.helger.css.decl.shorthand;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.ReturnsMutableCopy;
-import com.helger.commons.collections.CollectionHelper;
 import com.helger.css.ECSSUnit;
 import com.helger.css.property.CCSSProperties;
 import com.helger.css.property.ECSSProperty;
@@ -38,7 +35,8 @@ import com.helger.css.utils.ECSSColor;
 
 /**
  * A static registry for all CSS short hand declarations (like
- * <code>border</code> or <code>margin</code>).
+ * <code>border</code> or <code>margin</code>). Lookups don't need any
+ * locking: registering a new descriptor publishes a new copy of the map.
  *
  * @author Philip Helger
  * @since 3.7.4
@@ -46,9 +44,8 @@ import com.helger.css.utils.ECSSColor;
 @ThreadSafe
 public final class CSSShortHandRegistry
 {
-  private static final ReadWriteLock s_aRWLock = new ReentrantReadWriteLock ();
-  @GuardedBy ("s_aRWLock")
-  private static final Map <ECSSProperty, CSSShortHandDescriptor> s_aMap = new HashMap <ECSSProperty, CSSShortHandDescriptor> ();
+  // Copy-on-write - the map instance is never modified after publication
+  private static volatile Map <ECSSProperty, CSSShortHandDescriptor> s_aMap = new EnumMap <ECSSProperty, CSSShortHandDescriptor> (ECSSProperty.class);
 
   static
   {
@@ -188,18 +185,16 @@ public final class CSSShortHandRegistry
     ValueEnforcer.notNull (aDescriptor, "Descriptor");
 
     final ECSSProperty eProperty = aDescriptor.getProperty ();
-    s_aRWLock.writeLock ().lock ();
-    try
+    synchronized (CSSShortHandRegistry.class)
     {
-      if (s_aMap.containsKey (eProperty))
+      final Map <ECSSProperty, CSSShortHandDescriptor> aOldMap = s_aMap;
+      if (aOldMap.containsKey (eProperty))
         throw new IllegalStateException ("A short hand for property '" +
                                          eProperty.getName () +
                                          "' is already registered!");
-      s_aMap.put (eProperty, aDescriptor);
-    }
-    finally
-    {
-      s_aRWLock.writeLock ().unlock ();
+      final Map <ECSSProperty, CSSShortHandDescriptor> aNewMap = new EnumMap <ECSSProperty, CSSShortHandDescriptor> (aOldMap);
+      aNewMap.put (eProperty, aDescriptor);
+      s_aMap = aNewMap;
     }
   }
 
@@ -207,15 +202,9 @@ public final class CSSShortHandRegistry
   @ReturnsMutableCopy
   public static Set <ECSSProperty> getAllShortHandProperties ()
   {
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return CollectionHelper.newSet (s_aMap.keySet ());
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    final Set <ECSSProperty> ret = EnumSet.noneOf (ECSSProperty.class);
+    ret.addAll (s_aMap.keySet ());
+    return ret;
   }
 
   public static boolean isShortHandProperty (@Nullable final ECSSProperty eProperty)
@@ -223,15 +212,7 @@ public final class CSSShortHandRegistry
     if (eProperty == null)
       return false;
 
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aMap.containsKey (eProperty);
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aMap.containsKey (eProperty);
   }
 
   @Nullable
@@ -240,14 +221,6 @@ public final class CSSShortHandRegistry
     if (eProperty == null)
       return null;
 
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aMap.get (eProperty);
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aMap.get (eProperty);
   }
 }
@@ -16,14 +16,23 @@
  */
 package com.helger.css.handler;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.PresentForCodeCoverage;
 import com.helger.css.ECSSVersion;
 import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSMediaQuery;
+import com.helger.css.decl.CSSNamespaceRule;
+import com.helger.css.decl.CSSSelector;
 import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
 import com.helger.css.parser.CSSNode;
 
 /**
@@ -63,6 +72,73 @@ public final class CSSHandler
     return new CSSNodeToDomainObject (eVersion).createCascadingStyleSheetFromNode (aNode);
   }
 
+  /**
+   * Create a {@link CSSImportRule} object from a parsed object.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static CSSImportRule readImportRuleFromNode (@Nonnull final ECSSVersion eVersion,
+                                                      @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+    if (!ECSSNodeType.IMPORTRULE.isNode (aNode, eVersion))
+      throw new CSSHandlingException (aNode, "Passed node is not an import rule node!");
+
+    return new CSSNodeToDomainObject (eVersion).createImportRuleFromNode (aNode);
+  }
+
+  /**
+   * Create a {@link CSSNamespaceRule} object from a parsed object.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static CSSNamespaceRule readNamespaceRuleFromNode (@Nonnull final ECSSVersion eVersion,
+                                                            @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+    if (!ECSSNodeType.NAMESPACERULE.isNode (aNode, eVersion))
+      throw new CSSHandlingException (aNode, "Passed node is not a namespace rule node!");
+
+    return new CSSNodeToDomainObject (eVersion).createNamespaceRuleFromNode (aNode);
+  }
+
+  /**
+   * Create a {@link ICSSTopLevelRule} object from a parsed object. This works
+   * for all top-level rules except <code>@charset</code>, <code>@import</code>
+   * and <code>@namespace</code>.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return <code>null</code> if the passed node is not a supported top-level
+   *         rule.
+   * @since 3.9.3
+   */
+  @Nullable
+  public static ICSSTopLevelRule readTopLevelRuleFromNode (@Nonnull final ECSSVersion eVersion,
+                                                           @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+
+    return new CSSNodeToDomainObject (eVersion).createTopLevelRuleFromNode (aNode);
+  }
+
   /**
    * Create a {@link CSSDeclarationList} object from a parsed object.
    * 
@@ -83,4 +159,67 @@ public final class CSSHandler
 
     return new CSSNodeToDomainObject (eVersion).createDeclarationListFromNode (aNode);
   }
+
+  /**
+   * Create a list of {@link CSSMediaQuery} objects from a parsed object.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   */
+  @Nonnull
+  public static List <CSSMediaQuery> readMediaQueryListFromNode (@Nonnull final ECSSVersion eVersion,
+                                                                 @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+    if (!ECSSNodeType.MEDIALIST.isNode (aNode, eVersion))
+      throw new CSSHandlingException (aNode, "Passed node is not a media list node!");
+
+    return new CSSNodeToDomainObject (eVersion).createMediaQueryListFromNode (aNode);
+  }
+
+  /**
+   * Create a list of {@link CSSSelector} objects from a parsed object.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   */
+  @Nonnull
+  public static List <CSSSelector> readSelectorListFromNode (@Nonnull final ECSSVersion eVersion,
+                                                             @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+    if (!ECSSNodeType.SELECTORLIST.isNode (aNode, eVersion))
+      throw new CSSHandlingException (aNode, "Passed node is not a selector list node!");
+
+    return new CSSNodeToDomainObject (eVersion).createSelectorListFromNode (aNode);
+  }
+
+  /**
+   * Create a {@link CSSExpression} object from a parsed object.
+   * 
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param aNode
+   *        The parsed CSS object to read. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   */
+  @Nonnull
+  public static CSSExpression readExpressionFromNode (@Nonnull final ECSSVersion eVersion,
+                                                      @Nonnull final CSSNode aNode)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aNode, "Node");
+    if (!ECSSNodeType.EXPR.isNode (aNode, eVersion))
+      throw new CSSHandlingException (aNode, "Passed node is not an expression node!");
+
+    return new CSSNodeToDomainObject (eVersion).createExpressionFromNode (aNode);
+  }
 }
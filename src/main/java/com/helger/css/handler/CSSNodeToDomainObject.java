@@ -71,6 +71,7 @@ import com.helger.css.decl.ECSSSupportsConditionOperator;
 import com.helger.css.decl.ICSSExpressionMember;
 import com.helger.css.decl.ICSSSelectorMember;
 import com.helger.css.decl.ICSSSupportsConditionMember;
+import com.helger.css.decl.ICSSTopLevelRule;
 import com.helger.css.media.ECSSMediaExpressionFeature;
 import com.helger.css.media.ECSSMedium;
 import com.helger.css.parser.CSSNode;
@@ -1110,43 +1111,68 @@ final class CSSNodeToDomainObject
           if (ECSSNodeType.NAMESPACERULE.isNode (aChildNode, m_eVersion))
             ret.addNamespaceRule (_createNamespaceRule (aChildNode));
           else
-            if (ECSSNodeType.STYLERULE.isNode (aChildNode, m_eVersion))
-              ret.addRule (_createStyleRule (aChildNode));
-            else
-              if (ECSSNodeType.PAGERULE.isNode (aChildNode, m_eVersion))
-                ret.addRule (_createPageRule (aChildNode));
-              else
-                if (ECSSNodeType.MEDIARULE.isNode (aChildNode, m_eVersion))
-                  ret.addRule (_createMediaRule (aChildNode));
-                else
-                  if (ECSSNodeType.FONTFACERULE.isNode (aChildNode, m_eVersion))
-                    ret.addRule (_createFontFaceRule (aChildNode));
-                  else
-                    if (ECSSNodeType.KEYFRAMESRULE.isNode (aChildNode, m_eVersion))
-                      ret.addRule (_createKeyframesRule (aChildNode));
-                    else
-                      if (ECSSNodeType.VIEWPORTRULE.isNode (aChildNode, m_eVersion))
-                        ret.addRule (_createViewportRule (aChildNode));
-                      else
-                        if (ECSSNodeType.SUPPORTSRULE.isNode (aChildNode, m_eVersion))
-                          ret.addRule (_createSupportsRule (aChildNode));
-                        else
-                          if (ECSSNodeType.UNKNOWNRULE.isNode (aChildNode, m_eVersion))
-                          {
-                            // Unknown rule indicates either
-                            // 1. a parsing error
-                            // 2. a non-standard rule
-                            ret.addRule (_createUnknownRule (aChildNode));
-                          }
-                          else
-                            s_aLogger.error ("Unsupported child of " +
-                                             ECSSNodeType.getNodeName (aNode, m_eVersion) +
-                                             ": " +
-                                             ECSSNodeType.getNodeName (aChildNode, m_eVersion));
+          {
+            final ICSSTopLevelRule aRule = createTopLevelRuleFromNode (aChildNode);
+            if (aRule != null)
+              ret.addRule (aRule);
+          }
     }
     return ret;
   }
 
+  @Nonnull
+  public CSSImportRule createImportRuleFromNode (@Nonnull final CSSNode aNode)
+  {
+    return _createImportRule (aNode);
+  }
+
+  @Nonnull
+  public CSSNamespaceRule createNamespaceRuleFromNode (@Nonnull final CSSNode aNode)
+  {
+    return _createNamespaceRule (aNode);
+  }
+
+  /**
+   * Create a top-level rule other than <code>@charset</code>,
+   * <code>@import</code> and <code>@namespace</code>.
+   *
+   * @param aNode
+   *        The node of the rule. May not be <code>null</code>.
+   * @return <code>null</code> if the node type is not supported.
+   */
+  @Nullable
+  public ICSSTopLevelRule createTopLevelRuleFromNode (@Nonnull final CSSNode aNode)
+  {
+    if (ECSSNodeType.STYLERULE.isNode (aNode, m_eVersion))
+      return _createStyleRule (aNode);
+    if (ECSSNodeType.PAGERULE.isNode (aNode, m_eVersion))
+      return _createPageRule (aNode);
+    if (ECSSNodeType.MEDIARULE.isNode (aNode, m_eVersion))
+      return _createMediaRule (aNode);
+    if (ECSSNodeType.FONTFACERULE.isNode (aNode, m_eVersion))
+      return _createFontFaceRule (aNode);
+    if (ECSSNodeType.KEYFRAMESRULE.isNode (aNode, m_eVersion))
+      return _createKeyframesRule (aNode);
+    if (ECSSNodeType.VIEWPORTRULE.isNode (aNode, m_eVersion))
+      return _createViewportRule (aNode);
+    if (ECSSNodeType.SUPPORTSRULE.isNode (aNode, m_eVersion))
+      return _createSupportsRule (aNode);
+    if (ECSSNodeType.UNKNOWNRULE.isNode (aNode, m_eVersion))
+    {
+      // Unknown rule indicates either
+      // 1. a parsing error
+      // 2. a non-standard rule
+      return _createUnknownRule (aNode);
+    }
+
+    final CSSNode aParentNode = (CSSNode) aNode.jjtGetParent ();
+    s_aLogger.error ("Unsupported child of " +
+                     (aParentNode == null ? "null" : ECSSNodeType.getNodeName (aParentNode, m_eVersion)) +
+                     ": " +
+                     ECSSNodeType.getNodeName (aNode, m_eVersion));
+    return null;
+  }
+
   @Nonnull
   public CSSDeclarationList createDeclarationListFromNode (@Nonnull final CSSNode aNode)
   {
@@ -1162,4 +1188,30 @@ final class CSSNodeToDomainObject
     }
     return ret;
   }
+
+  @Nonnull
+  public List <CSSMediaQuery> createMediaQueryListFromNode (@Nonnull final CSSNode aNode)
+  {
+    _expectNodeType (aNode, ECSSNodeType.MEDIALIST);
+    final List <CSSMediaQuery> ret = new ArrayList <CSSMediaQuery> ();
+    for (final CSSNode aMediaQueryNode : aNode)
+      ret.add (_createMediaQuery (aMediaQueryNode));
+    return ret;
+  }
+
+  @Nonnull
+  public List <CSSSelector> createSelectorListFromNode (@Nonnull final CSSNode aNode)
+  {
+    _expectNodeType (aNode, ECSSNodeType.SELECTORLIST);
+    final List <CSSSelector> ret = new ArrayList <CSSSelector> ();
+    for (final CSSNode aSelectorNode : aNode)
+      ret.add (_createSelector (aSelectorNode));
+    return ret;
+  }
+
+  @Nonnull
+  public CSSExpression createExpressionFromNode (@Nonnull final CSSNode aNode)
+  {
+    return _createExpression (aNode);
+  }
 }
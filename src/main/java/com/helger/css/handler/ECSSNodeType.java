@@ -49,6 +49,7 @@ public enum ECSSNodeType
   MEDIARULE (ParserCSS21TreeConstants.JJTMEDIARULE, ParserCSS30TreeConstants.JJTMEDIARULE),
   FONTFACERULE (CGlobal.ILLEGAL_UINT, ParserCSS30TreeConstants.JJTFONTFACERULE),
   // top level -- style rule
+  SELECTORLIST (ParserCSS21TreeConstants.JJTSELECTORLIST, ParserCSS30TreeConstants.JJTSELECTORLIST),
   SELECTOR (ParserCSS21TreeConstants.JJTSELECTOR, ParserCSS30TreeConstants.JJTSELECTOR),
   STYLEDECLARATIONLIST (ParserCSS21TreeConstants.JJTSTYLEDECLARATIONLIST, ParserCSS30TreeConstants.JJTSTYLEDECLARATIONLIST),
   STYLEDECLARATION (ParserCSS21TreeConstants.JJTSTYLEDECLARATION, ParserCSS30TreeConstants.JJTSTYLEDECLARATION),
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.reader.ICSSCancellationToken;
+
+/**
+ * Checks whether a running parse should be aborted, either because an
+ * {@link ICSSCancellationToken} was cancelled or because a deadline was
+ * exceeded. It is checked by the parser before each top-level rule and by the
+ * {@link CSSCharStream} every {@link #getCheckInterval()} characters.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSCancellationCheck
+{
+  /** The default number of characters after which the char stream checks */
+  public static final int DEFAULT_CHECK_INTERVAL = 4096;
+
+  private final ICSSCancellationToken m_aToken;
+  private final long m_nDeadline;
+  private final int m_nCheckInterval;
+
+  /**
+   * Constructor
+   *
+   * @param aToken
+   *        The cancellation token to check. May be <code>null</code>.
+   * @param nDeadline
+   *        The absolute deadline in milliseconds as returned by
+   *        {@link System#currentTimeMillis()}. Values &le; 0 mean no deadline.
+   * @param nCheckInterval
+   *        The number of characters after which the char stream checks. Must
+   *        be &gt; 0.
+   */
+  public CSSCancellationCheck (@Nullable final ICSSCancellationToken aToken,
+                               final long nDeadline,
+                               @Nonnegative final int nCheckInterval)
+  {
+    ValueEnforcer.isGT0 (nCheckInterval, "CheckInterval");
+    m_aToken = aToken;
+    m_nDeadline = nDeadline;
+    m_nCheckInterval = nCheckInterval;
+  }
+
+  /**
+   * @return The number of characters after which the char stream checks.
+   *         Always &gt; 0.
+   */
+  @Nonnegative
+  public int getCheckInterval ()
+  {
+    return m_nCheckInterval;
+  }
+
+  /**
+   * Check if the parse should be aborted.
+   *
+   * @throws ParseCancelledException
+   *         If the token was cancelled or the deadline was exceeded.
+   */
+  public void check () throws ParseCancelledException
+  {
+    if (m_aToken != null && m_aToken.isCancelled ())
+      throw new ParseCancelledException (false);
+    if (m_nDeadline > 0 && System.currentTimeMillis () >= m_nDeadline)
+      throw new ParseCancelledException (true);
+  }
+
+  /**
+   * Same as {@link #check()} but for places that cannot throw a
+   * {@link ParseException}.
+   *
+   * @throws TokenMgrError
+   *         with a {@link ParseCancelledException} as the cause.
+   * @see ParseCancelledException#getFromError(TokenMgrError)
+   */
+  void checkUnchecked ()
+  {
+    try
+    {
+      check ();
+    }
+    catch (final ParseCancelledException ex)
+    {
+      final TokenMgrError aError = new TokenMgrError (ex.getMessage (), TokenMgrError.LEXICAL_ERROR);
+      aError.initCause (ex);
+      throw aError;
+    }
+  }
+
+  /**
+   * Create a new cancellation check if required.
+   *
+   * @param aToken
+   *        The cancellation token. May be <code>null</code>.
+   * @param nDeadline
+   *        The absolute deadline in milliseconds. Values &le; 0 mean no
+   *        deadline.
+   * @return <code>null</code> if neither a token nor a deadline is present.
+   */
+  @Nullable
+  public static CSSCancellationCheck createIfNeeded (@Nullable final ICSSCancellationToken aToken,
+                                                     final long nDeadline)
+  {
+    if (aToken == null && nDeadline <= 0)
+      return null;
+    return new CSSCancellationCheck (aToken, nDeadline, DEFAULT_CHECK_INTERVAL);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("token", m_aToken)
+                                       .append ("deadline", m_nDeadline)
+                                       .append ("checkInterval", m_nCheckInterval)
+                                       .toString ();
+  }
+}
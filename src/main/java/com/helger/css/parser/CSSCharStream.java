@@ -21,6 +21,7 @@ import java.io.Reader;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.io.streams.StreamUtils;
@@ -40,8 +41,10 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public final class CSSCharStream implements CharStream
 {
   private static final int DEFAULT_BUF_SIZE = 4096;
+  /** Maximum number of recurring token images per char stream */
+  private static final int MAX_LOCAL_SYMBOLS = 1024;
 
-  private final Reader m_aReader;
+  private Reader m_aReader;
   private int m_nLine;
   private int m_nColumn;
   private int m_nAvailable;
@@ -62,6 +65,13 @@ public final class CSSCharStream implements CharStream
 
   private int m_nTabSize = 8;
   private boolean m_bTrackLineColumn = true;
+  /** Number of chars read from the reader so far. */
+  private long m_nReadCount = 0;
+  /** Recurring token images not contained in the default symbol table */
+  private CSSSymbolTable m_aLocalSymbols;
+  /** Optional check whether parsing should be aborted */
+  private CSSCancellationCheck m_aCancellationCheck;
+  private long m_nNextCancellationCheck = 0;
 
   public CSSCharStream (@Nonnull final Reader aReader)
   {
@@ -87,6 +97,64 @@ public final class CSSCharStream implements CharStream
     m_aNextCharBuf = new char [DEFAULT_BUF_SIZE];
   }
 
+  /**
+   * Reinitialize this char stream with a new reader. The internal buffers are
+   * reused, so this is cheaper than creating a new char stream.
+   *
+   * @param aReader
+   *        The new reader to read from. May not be <code>null</code>.
+   */
+  public void reInit (@Nonnull final Reader aReader)
+  {
+    m_aReader = StreamUtils.getBuffered (ValueEnforcer.notNull (aReader, "Reader"));
+    m_nLine = 1;
+    m_nColumn = 0;
+    if (m_aBuffer == null)
+    {
+      // Done was called
+      m_aBuffer = new char [m_nBufsize];
+      m_aBufLine = new int [m_nBufsize];
+      m_aBufColumn = new int [m_nBufsize];
+      m_aNextCharBuf = new char [DEFAULT_BUF_SIZE];
+    }
+    m_nAvailable = m_nBufsize;
+    m_bPrevCharIsCR = false;
+    m_bPrevCharIsLF = false;
+    m_nTokenBegin = 0;
+    m_nInBuf = 0;
+    m_nMaxNextCharInd = 0;
+    m_nNextCharInd = -1;
+    m_nBufpos = -1;
+    m_nReadCount = 0;
+    m_nNextCancellationCheck = 0;
+  }
+
+  /**
+   * @return The cancellation check to be used. May be <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nullable
+  public CSSCancellationCheck getCancellationCheck ()
+  {
+    return m_aCancellationCheck;
+  }
+
+  /**
+   * Set a cancellation check, that is invoked after every
+   * {@link CSSCancellationCheck#getCheckInterval()} characters. If parsing
+   * should be aborted, a {@link TokenMgrError} with a
+   * {@link ParseCancelledException} as the cause is thrown.
+   *
+   * @param aCancellationCheck
+   *        The cancellation check to use. May be <code>null</code>.
+   * @since 3.9.3
+   */
+  public void setCancellationCheck (@Nullable final CSSCancellationCheck aCancellationCheck)
+  {
+    m_aCancellationCheck = aCancellationCheck;
+    m_nNextCancellationCheck = m_nReadCount;
+  }
+
   public void setTabSize (final int i)
   {
     m_nTabSize = i;
@@ -147,6 +215,12 @@ public final class CSSCharStream implements CharStream
 
   private void _fillBuff () throws IOException
   {
+    if (m_aCancellationCheck != null && m_nReadCount >= m_nNextCancellationCheck)
+    {
+      m_aCancellationCheck.checkUnchecked ();
+      m_nNextCancellationCheck = m_nReadCount + m_aCancellationCheck.getCheckInterval ();
+    }
+
     if (m_nMaxNextCharInd == DEFAULT_BUF_SIZE)
     {
       m_nMaxNextCharInd = 0;
@@ -186,6 +260,7 @@ public final class CSSCharStream implements CharStream
     if (m_nNextCharInd >= m_nMaxNextCharInd)
       _fillBuff ();
 
+    ++m_nReadCount;
     return m_aNextCharBuf[m_nNextCharInd];
   }
 
@@ -365,15 +440,82 @@ public final class CSSCharStream implements CharStream
       m_nBufpos += m_nBufsize;
   }
 
-  /** @return token image as String */
+  @Nonnull
+  private String _getSymbol (@Nonnegative final int nLength)
+  {
+    final int nHash = CSSSymbolTable.getHashCode (m_aBuffer, m_nTokenBegin, nLength);
+    // Well known CSS names first
+    final String ret = CSSSymbolTable.getDefault ().find (m_aBuffer, m_nTokenBegin, nLength, nHash);
+    if (ret != null)
+      return ret;
+
+    // Recurring names of this stream (e.g. class names)
+    if (m_aLocalSymbols == null)
+      m_aLocalSymbols = new CSSSymbolTable (MAX_LOCAL_SYMBOLS);
+    return m_aLocalSymbols.findOrAdd (m_aBuffer, m_nTokenBegin, nLength, nHash);
+  }
+
+  /**
+   * @return token image as String. For short images, canonical String
+   *         instances from a {@link CSSSymbolTable} are returned.
+   */
   public String GetImage ()
   {
     if (m_nBufpos >= m_nTokenBegin)
-      return new String (m_aBuffer, m_nTokenBegin, m_nBufpos - m_nTokenBegin + 1);
+    {
+      final int nLength = m_nBufpos - m_nTokenBegin + 1;
+      if (nLength <= CSSSymbolTable.MAX_SYMBOL_LENGTH)
+        return _getSymbol (nLength);
+      return new String (m_aBuffer, m_nTokenBegin, nLength);
+    }
 
     return new String (m_aBuffer, m_nTokenBegin, m_nBufsize - m_nTokenBegin) + new String (m_aBuffer, 0, m_nBufpos + 1);
   }
 
+  /**
+   * @return The number of chars of the current token image. Always &ge; 1.
+   */
+  @Nonnegative
+  public int getImageLength ()
+  {
+    if (m_nBufpos >= m_nTokenBegin)
+      return m_nBufpos - m_nTokenBegin + 1;
+    return m_nBufsize - m_nTokenBegin + m_nBufpos + 1;
+  }
+
+  /**
+   * Copy the current token image into the passed array without creating a
+   * String.
+   *
+   * @param aDest
+   *        The destination array. Must have at least
+   *        {@link #getImageLength()} chars starting at the passed offset.
+   * @param nDestOfs
+   *        The offset into the destination array.
+   */
+  public void copyImage (@Nonnull final char [] aDest, @Nonnegative final int nDestOfs)
+  {
+    if (m_nBufpos >= m_nTokenBegin)
+      System.arraycopy (m_aBuffer, m_nTokenBegin, aDest, nDestOfs, m_nBufpos - m_nTokenBegin + 1);
+    else
+    {
+      final int nFirst = m_nBufsize - m_nTokenBegin;
+      System.arraycopy (m_aBuffer, m_nTokenBegin, aDest, nDestOfs, nFirst);
+      System.arraycopy (m_aBuffer, 0, aDest, nDestOfs + nFirst, m_nBufpos + 1);
+    }
+  }
+
+  /**
+   * @return The 0-based offset of the char after the last char of the current
+   *         token, relative to the start of the reader.
+   */
+  @Nonnegative
+  public long getEndOffset ()
+  {
+    // Chars that were backed up were read but are not yet part of the token
+    return m_nReadCount - m_nInBuf;
+  }
+
   /** @return suffix */
   public char [] GetSuffix (final int len)
   {
@@ -37,19 +37,76 @@ import com.helger.css.CSSSourceLocation;
  */
 public class CSSNode implements Node, Iterable <CSSNode>, Serializable
 {
-  private final int m_nType;
+  private int m_nType;
   private CSSNode m_aParent;
   private CSSNode [] m_aChildren;
   private Object m_aValue;
   private String m_sText;
   private Token m_aFirstToken;
   private Token m_aLastToken;
+  private transient CSSNodePool m_aPool;
 
   public CSSNode (final int nType)
   {
     m_nType = nType;
   }
 
+  /**
+   * Node factory method used by the CSS 2.1 parser. If the parser has a
+   * {@link CSSNodePool} set, the node is taken from the pool.
+   *
+   * @param aParser
+   *        The parser that requests the node. May not be <code>null</code>.
+   * @param nType
+   *        The node type
+   * @return The new node. Never <code>null</code>.
+   */
+  @Nonnull
+  public static CSSNode jjtCreate (@Nonnull final ParserCSS21 aParser, final int nType)
+  {
+    final CSSNodePool aPool = aParser.getNodePool ();
+    return aPool == null ? new CSSNode (nType) : aPool.createNode (nType);
+  }
+
+  /**
+   * Node factory method used by the CSS 3.0 parser. If the parser has a
+   * {@link CSSNodePool} set, the node is taken from the pool.
+   *
+   * @param aParser
+   *        The parser that requests the node. May not be <code>null</code>.
+   * @param nType
+   *        The node type
+   * @return The new node. Never <code>null</code>.
+   */
+  @Nonnull
+  public static CSSNode jjtCreate (@Nonnull final ParserCSS30 aParser, final int nType)
+  {
+    final CSSNodePool aPool = aParser.getNodePool ();
+    return aPool == null ? new CSSNode (nType) : aPool.createNode (nType);
+  }
+
+  void initPooled (final int nType, @Nonnull final CSSNodePool aPool)
+  {
+    m_nType = nType;
+    m_aPool = aPool;
+  }
+
+  void clearPooled ()
+  {
+    m_aParent = null;
+    m_aChildren = null;
+    m_aValue = null;
+    m_sText = null;
+    m_aFirstToken = null;
+    m_aLastToken = null;
+  }
+
+  @Nonnull
+  private CSSNode [] _createChildArray (@Nonnegative final int nLength)
+  {
+    return m_aPool == null ? new CSSNode [nLength] : m_aPool.createChildArray (nLength);
+  }
+
   public int getId ()
   {
     return m_nType;
@@ -78,12 +135,12 @@ public class CSSNode implements Node, Iterable <CSSNode>, Serializable
   public void jjtAddChild (final Node aNode, final int nIndex)
   {
     if (m_aChildren == null)
-      m_aChildren = new CSSNode [nIndex + 1];
+      m_aChildren = _createChildArray (nIndex + 1);
     else
       if (nIndex >= m_aChildren.length)
       {
         // Does not really occur here
-        final CSSNode [] aTmpArray = new CSSNode [nIndex + 1];
+        final CSSNode [] aTmpArray = _createChildArray (nIndex + 1);
         System.arraycopy (m_aChildren, 0, aTmpArray, 0, m_aChildren.length);
         m_aChildren = aTmpArray;
       }
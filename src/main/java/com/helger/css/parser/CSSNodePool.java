@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A pool for {@link CSSNode} objects and their child arrays. The AST created
+ * by the parser is only needed until it is converted to the domain objects, so
+ * the nodes can be reused for the next parse afterwards. When set via
+ * <code>setNodePool</code> on a parser, all nodes are taken from this pool.
+ * After the AST is no longer needed, {@link #reset()} must be called, which
+ * makes all nodes available again. All nodes handed out before are invalid
+ * after a reset.<br>
+ * To avoid that a single huge stylesheet pins a lot of memory, at most the
+ * specified number of nodes is retained upon reset.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSNodePool
+{
+  /** The default number of nodes to retain */
+  public static final int DEFAULT_MAX_RETAINED_NODES = 16 * 1024;
+  /** Child arrays up to this length are pooled */
+  public static final int MAX_POOLED_CHILD_ARRAY_LENGTH = 32;
+
+  private final int m_nMaxRetainedNodes;
+  private final List <CSSNode> m_aNodes = new ArrayList <CSSNode> ();
+  private int m_nUsedNodes = 0;
+  // Index is the array length
+  private final List <List <CSSNode []>> m_aChildArrays = new ArrayList <List <CSSNode []>> (MAX_POOLED_CHILD_ARRAY_LENGTH + 1);
+  private final int [] m_aUsedChildArrays = new int [MAX_POOLED_CHILD_ARRAY_LENGTH + 1];
+  private boolean m_bInUse = false;
+
+  public CSSNodePool ()
+  {
+    this (DEFAULT_MAX_RETAINED_NODES);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxRetainedNodes
+   *        The maximum number of nodes to keep upon {@link #reset()}. Must be
+   *        &ge; 0.
+   */
+  public CSSNodePool (@Nonnegative final int nMaxRetainedNodes)
+  {
+    ValueEnforcer.isGE0 (nMaxRetainedNodes, "MaxRetainedNodes");
+    m_nMaxRetainedNodes = nMaxRetainedNodes;
+    for (int i = 0; i <= MAX_POOLED_CHILD_ARRAY_LENGTH; ++i)
+      m_aChildArrays.add (new ArrayList <CSSNode []> ());
+  }
+
+  /**
+   * @return The maximum number of nodes retained upon reset.
+   */
+  @Nonnegative
+  public int getMaxRetainedNodes ()
+  {
+    return m_nMaxRetainedNodes;
+  }
+
+  /**
+   * @return The number of nodes handed out since the last reset.
+   */
+  @Nonnegative
+  public int getUsedNodeCount ()
+  {
+    return m_nUsedNodes;
+  }
+
+  /**
+   * @return The total number of nodes currently contained in this pool.
+   */
+  @Nonnegative
+  public int getPooledNodeCount ()
+  {
+    return m_aNodes.size ();
+  }
+
+  /**
+   * @return <code>true</code> if the pool is currently used by a parser. This
+   *         is only a marker for the caller to avoid that the same pool is
+   *         used recursively.
+   */
+  public boolean isInUse ()
+  {
+    return m_bInUse;
+  }
+
+  public void setInUse (final boolean bInUse)
+  {
+    m_bInUse = bInUse;
+  }
+
+  /**
+   * Get a new node with the provided type.
+   *
+   * @param nType
+   *        The node type
+   * @return The node. Never <code>null</code>.
+   */
+  @Nonnull
+  public CSSNode createNode (final int nType)
+  {
+    final CSSNode ret;
+    if (m_nUsedNodes < m_aNodes.size ())
+    {
+      ret = m_aNodes.get (m_nUsedNodes);
+      ret.initPooled (nType, this);
+    }
+    else
+    {
+      ret = new CSSNode (nType);
+      ret.initPooled (nType, this);
+      m_aNodes.add (ret);
+    }
+    m_nUsedNodes++;
+    return ret;
+  }
+
+  /**
+   * Get a child array with the provided length.
+   *
+   * @param nLength
+   *        The array length. Must be &gt; 0.
+   * @return The array. Never <code>null</code>. The content is undefined.
+   */
+  @Nonnull
+  public CSSNode [] createChildArray (@Nonnegative final int nLength)
+  {
+    if (nLength > MAX_POOLED_CHILD_ARRAY_LENGTH)
+      return new CSSNode [nLength];
+
+    final List <CSSNode []> aArrays = m_aChildArrays.get (nLength);
+    final int nUsed = m_aUsedChildArrays[nLength]++;
+    if (nUsed < aArrays.size ())
+      return aArrays.get (nUsed);
+
+    final CSSNode [] ret = new CSSNode [nLength];
+    aArrays.add (ret);
+    return ret;
+  }
+
+  /**
+   * Make all nodes and child arrays available again. All nodes handed out
+   * before must not be used anymore afterwards. The references of the nodes to
+   * tokens, values and other nodes are released.
+   */
+  public void reset ()
+  {
+    for (int i = 0; i < m_nUsedNodes; ++i)
+      m_aNodes.get (i).clearPooled ();
+    m_nUsedNodes = 0;
+
+    for (int nLength = 1; nLength <= MAX_POOLED_CHILD_ARRAY_LENGTH; ++nLength)
+    {
+      final List <CSSNode []> aArrays = m_aChildArrays.get (nLength);
+      final int nUsed = m_aUsedChildArrays[nLength];
+      for (int i = 0; i < nUsed; ++i)
+        Arrays.fill (aArrays.get (i), null);
+      m_aUsedChildArrays[nLength] = 0;
+    }
+
+    // Release excess memory
+    if (m_aNodes.size () > m_nMaxRetainedNodes)
+    {
+      m_aNodes.subList (m_nMaxRetainedNodes, m_aNodes.size ()).clear ();
+      for (final List <CSSNode []> aArrays : m_aChildArrays)
+        if (aArrays.size () > m_nMaxRetainedNodes)
+          aArrays.subList (m_nMaxRetainedNodes, aArrays.size ()).clear ();
+    }
+  }
+
+  /**
+   * Remove all pooled objects. The nodes handed out before are not touched and
+   * may be used further on.
+   */
+  public void clear ()
+  {
+    m_aNodes.clear ();
+    m_nUsedNodes = 0;
+    for (final List <CSSNode []> aArrays : m_aChildArrays)
+      aArrays.clear ();
+    Arrays.fill (m_aUsedChildArrays, 0);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("maxRetainedNodes", m_nMaxRetainedNodes)
+                                       .append ("pooledNodes", m_aNodes.size ())
+                                       .append ("usedNodes", m_nUsedNodes)
+                                       .append ("inUse", m_bInUse)
+                                       .toString ();
+  }
+}
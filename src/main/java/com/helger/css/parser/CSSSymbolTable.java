@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.ECSSUnit;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.propertyvalue.CCSSValue;
+import com.helger.css.utils.ECSSColor;
+
+/**
+ * A symbol table that maps char ranges to canonical String instances, using
+ * an open addressing hash table. It is used by {@link CSSCharStream} so that
+ * recurring token images (like <code>color</code>, <code>none</code> or
+ * <code>auto</code>) don't create a new String per token.<br>
+ * The hash code is the same as in {@link String#hashCode()}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSSymbolTable
+{
+  /** The maximum length of a symbol */
+  public static final int MAX_SYMBOL_LENGTH = 64;
+
+  /** The read-only table with all well known CSS names */
+  private static final CSSSymbolTable s_aDefault = _createDefault ();
+
+  private final String [] m_aSymbols;
+  private final int [] m_aHashes;
+  private final int m_nMask;
+  private final int m_nMaxCount;
+  private int m_nCount = 0;
+  private boolean m_bReadOnly = false;
+
+  /**
+   * Constructor
+   *
+   * @param nMaxCount
+   *        The maximum number of symbols to be contained. Must be &gt; 0.
+   */
+  public CSSSymbolTable (@Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+    // Keep the load factor below 0.5
+    int nCapacity = 16;
+    while (nCapacity < nMaxCount * 2)
+      nCapacity <<= 1;
+    m_aSymbols = new String [nCapacity];
+    m_aHashes = new int [nCapacity];
+    m_nMask = nCapacity - 1;
+    m_nMaxCount = nMaxCount;
+  }
+
+  private static void _addAllConstants (@Nonnull final CSSSymbolTable aTable, @Nonnull final Class <?> aClass)
+  {
+    for (final Field aField : aClass.getFields ())
+      if (Modifier.isStatic (aField.getModifiers ()) && aField.getType () == String.class)
+        try
+        {
+          aTable.add ((String) aField.get (null));
+        }
+        catch (final IllegalAccessException ex)
+        {
+          throw new IllegalStateException ("Failed to access " + aField, ex);
+        }
+  }
+
+  @Nonnull
+  private static CSSSymbolTable _createDefault ()
+  {
+    final CSSSymbolTable ret = new CSSSymbolTable (2048);
+    for (final ECSSProperty eProperty : ECSSProperty.values ())
+      ret.add (eProperty.getName ());
+    for (final ECSSUnit eUnit : ECSSUnit.values ())
+      ret.add (eUnit.getName ());
+    for (final ECSSColor eColor : ECSSColor.values ())
+      ret.add (eColor.getName ());
+    _addAllConstants (ret, CCSSValue.class);
+    ret.add ("!important");
+    ret.add (" ");
+    ret.add ("\n");
+    ret.add ("\r\n");
+    ret.m_bReadOnly = true;
+    return ret;
+  }
+
+  /**
+   * @return The read-only default symbol table, containing all property
+   *         names, units, color names and values from {@link CCSSValue}. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static CSSSymbolTable getDefault ()
+  {
+    return s_aDefault;
+  }
+
+  /**
+   * Get the hash code of the passed char range. The result is identical to
+   * the {@link String#hashCode()} of the respective String.
+   *
+   * @param aChars
+   *        The char array. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the array
+   * @param nLen
+   *        Number of chars
+   * @return The hash code
+   */
+  public static int getHashCode (@Nonnull final char [] aChars, final int nOfs, final int nLen)
+  {
+    int ret = 0;
+    for (int i = 0; i < nLen; ++i)
+      ret = 31 * ret + aChars[nOfs + i];
+    return ret;
+  }
+
+  private static boolean _isEqual (@Nonnull final String sSymbol,
+                                   @Nonnull final char [] aChars,
+                                   final int nOfs,
+                                   final int nLen)
+  {
+    if (sSymbol.length () != nLen)
+      return false;
+    for (int i = 0; i < nLen; ++i)
+      if (sSymbol.charAt (i) != aChars[nOfs + i])
+        return false;
+    return true;
+  }
+
+  /**
+   * @return The index of the matching symbol or of the empty slot where the
+   *         symbol would be inserted.
+   */
+  private int _getIndex (@Nonnull final char [] aChars, final int nOfs, final int nLen, final int nHash)
+  {
+    // Spread the hash bits a little
+    int nIndex = (nHash ^ (nHash >>> 16)) & m_nMask;
+    String sSymbol;
+    while ((sSymbol = m_aSymbols[nIndex]) != null)
+    {
+      if (m_aHashes[nIndex] == nHash && _isEqual (sSymbol, aChars, nOfs, nLen))
+        break;
+      // Linear probing
+      nIndex = (nIndex + 1) & m_nMask;
+    }
+    return nIndex;
+  }
+
+  /**
+   * Find the canonical String for the passed char range.
+   *
+   * @param aChars
+   *        The char array. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the array
+   * @param nLen
+   *        Number of chars
+   * @param nHash
+   *        The hash code as calculated by
+   *        {@link #getHashCode(char[], int, int)}
+   * @return <code>null</code> if no such symbol is contained
+   */
+  @Nullable
+  public String find (@Nonnull final char [] aChars, final int nOfs, final int nLen, final int nHash)
+  {
+    return m_aSymbols[_getIndex (aChars, nOfs, nLen, nHash)];
+  }
+
+  /**
+   * Find the canonical String for the passed char range and add it, if it is
+   * not yet contained. If the maximum number of symbols is reached, a new
+   * String is returned without adding it.
+   *
+   * @param aChars
+   *        The char array. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the array
+   * @param nLen
+   *        Number of chars
+   * @param nHash
+   *        The hash code as calculated by
+   *        {@link #getHashCode(char[], int, int)}
+   * @return The String for the passed char range. Never <code>null</code>.
+   */
+  @Nonnull
+  public String findOrAdd (@Nonnull final char [] aChars, final int nOfs, final int nLen, final int nHash)
+  {
+    final int nIndex = _getIndex (aChars, nOfs, nLen, nHash);
+    String ret = m_aSymbols[nIndex];
+    if (ret == null)
+    {
+      ret = new String (aChars, nOfs, nLen);
+      if (!m_bReadOnly && m_nCount < m_nMaxCount)
+      {
+        m_aSymbols[nIndex] = ret;
+        m_aHashes[nIndex] = nHash;
+        m_nCount++;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Add a symbol.
+   *
+   * @param sSymbol
+   *        The symbol to add. May not be <code>null</code>.
+   * @return The canonical symbol. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         If this is the read-only default table
+   */
+  @Nonnull
+  public String add (@Nonnull final String sSymbol)
+  {
+    ValueEnforcer.notNull (sSymbol, "Symbol");
+    if (m_bReadOnly)
+      throw new IllegalStateException ("This symbol table is read-only!");
+    final char [] aChars = sSymbol.toCharArray ();
+    final int nIndex = _getIndex (aChars, 0, aChars.length, sSymbol.hashCode ());
+    final String ret = m_aSymbols[nIndex];
+    if (ret != null)
+      return ret;
+    if (m_nCount < m_nMaxCount)
+    {
+      m_aSymbols[nIndex] = sSymbol;
+      m_aHashes[nIndex] = sSymbol.hashCode ();
+      m_nCount++;
+    }
+    return sSymbol;
+  }
+
+  /**
+   * @return The number of contained symbols.
+   */
+  @Nonnegative
+  public int getCount ()
+  {
+    return m_nCount;
+  }
+
+  /**
+   * @return The maximum number of symbols.
+   */
+  @Nonnegative
+  public int getMaxCount ()
+  {
+    return m_nMaxCount;
+  }
+
+  /**
+   * @return <code>true</code> if no more symbols can be added.
+   */
+  public boolean isReadOnly ()
+  {
+    return m_bReadOnly;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("count", m_nCount)
+                                       .append ("maxCount", m_nMaxCount)
+                                       .append ("readOnly", m_bReadOnly)
+                                       .toString ();
+  }
+}
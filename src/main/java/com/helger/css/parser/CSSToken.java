@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.annotations.ReturnsMutableObject;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A mutable token that is filled by {@link CSSTokenizer}. The same object can
+ * be reused for all tokens of a CSS, so that reading the token stream does not
+ * require any allocation per token.<br>
+ * The token kinds are the constants of the generated parser constant
+ * interfaces, depending on the CSS version of the tokenizer (e.g.
+ * {@link ParserCSS30Constants}).
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSToken
+{
+  private static final int DEFAULT_IMAGE_SIZE = 64;
+
+  private String [] m_aTokenNames;
+  private int m_nKind;
+  private boolean m_bSpecial;
+  private long m_nBeginOffset;
+  private long m_nEndOffset;
+  private int m_nBeginLine;
+  private int m_nBeginColumn;
+  private int m_nEndLine;
+  private int m_nEndColumn;
+  private char [] m_aImage = new char [DEFAULT_IMAGE_SIZE];
+  private int m_nImageLength;
+
+  public CSSToken ()
+  {}
+
+  private void _ensureImageCapacity (@Nonnegative final int nLength)
+  {
+    if (nLength > m_aImage.length)
+      m_aImage = new char [Math.max (nLength, m_aImage.length * 2)];
+  }
+
+  void setFromCharStream (@Nonnull final String [] aTokenNames,
+                          final int nKind,
+                          final boolean bSpecial,
+                          @Nonnull final CSSCharStream aCharStream)
+  {
+    final int nLength = aCharStream.getImageLength ();
+    _ensureImageCapacity (nLength);
+    aCharStream.copyImage (m_aImage, 0);
+    m_aTokenNames = aTokenNames;
+    m_nKind = nKind;
+    m_bSpecial = bSpecial;
+    m_nEndOffset = aCharStream.getEndOffset ();
+    m_nBeginOffset = m_nEndOffset - nLength;
+    m_nBeginLine = aCharStream.getBeginLine ();
+    m_nBeginColumn = aCharStream.getBeginColumn ();
+    m_nEndLine = aCharStream.getEndLine ();
+    m_nEndColumn = aCharStream.getEndColumn ();
+    m_nImageLength = nLength;
+  }
+
+  void setEOF (@Nonnull final String [] aTokenNames, final int nKind, @Nonnull final CSSCharStream aCharStream)
+  {
+    m_aTokenNames = aTokenNames;
+    m_nKind = nKind;
+    m_bSpecial = false;
+    m_nBeginOffset = m_nEndOffset = aCharStream.getEndOffset ();
+    m_nBeginLine = m_nEndLine = aCharStream.getEndLine ();
+    m_nBeginColumn = m_nEndColumn = aCharStream.getEndColumn ();
+    m_nImageLength = 0;
+  }
+
+  void setFrom (@Nonnull final CSSToken aOther)
+  {
+    _ensureImageCapacity (aOther.m_nImageLength);
+    System.arraycopy (aOther.m_aImage, 0, m_aImage, 0, aOther.m_nImageLength);
+    m_aTokenNames = aOther.m_aTokenNames;
+    m_nKind = aOther.m_nKind;
+    m_bSpecial = aOther.m_bSpecial;
+    m_nBeginOffset = aOther.m_nBeginOffset;
+    m_nEndOffset = aOther.m_nEndOffset;
+    m_nBeginLine = aOther.m_nBeginLine;
+    m_nBeginColumn = aOther.m_nBeginColumn;
+    m_nEndLine = aOther.m_nEndLine;
+    m_nEndColumn = aOther.m_nEndColumn;
+    m_nImageLength = aOther.m_nImageLength;
+  }
+
+  /**
+   * @return The token kind as defined in the constants interface of the
+   *         respective parser.
+   */
+  public int getKind ()
+  {
+    return m_nKind;
+  }
+
+  /**
+   * @return The name of the token kind like <code>&lt;IDENT&gt;</code> or
+   *         <code>"{"</code>. Never <code>null</code> after the token was
+   *         filled.
+   */
+  public String getKindName ()
+  {
+    return m_aTokenNames == null ? null : m_aTokenNames[m_nKind];
+  }
+
+  /**
+   * @return <code>true</code> if this is the end of file token.
+   */
+  public boolean isEOF ()
+  {
+    return m_nKind == 0;
+  }
+
+  /**
+   * @return <code>true</code> if this is a special token (a comment) that is
+   *         not passed to the parser.
+   */
+  public boolean isSpecial ()
+  {
+    return m_bSpecial;
+  }
+
+  /**
+   * @return The 0-based offset of the first char of this token.
+   */
+  @Nonnegative
+  public long getBeginOffset ()
+  {
+    return m_nBeginOffset;
+  }
+
+  /**
+   * @return The 0-based offset of the char after the last char of this token.
+   */
+  @Nonnegative
+  public long getEndOffset ()
+  {
+    return m_nEndOffset;
+  }
+
+  public int getBeginLine ()
+  {
+    return m_nBeginLine;
+  }
+
+  public int getBeginColumn ()
+  {
+    return m_nBeginColumn;
+  }
+
+  public int getEndLine ()
+  {
+    return m_nEndLine;
+  }
+
+  public int getEndColumn ()
+  {
+    return m_nEndColumn;
+  }
+
+  /**
+   * @return The number of chars in the token image. Is 0 for EOF.
+   */
+  @Nonnegative
+  public int getImageLength ()
+  {
+    return m_nImageLength;
+  }
+
+  /**
+   * @return The internal buffer that contains the raw source text of the
+   *         token in the first {@link #getImageLength()} chars. The buffer is
+   *         overwritten when the token is filled again. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableObject (reason = "performance")
+  public char [] getImageChars ()
+  {
+    return m_aImage;
+  }
+
+  /**
+   * @return The raw source text of this token as a new String. In contrast to
+   *         {@link Token#image} no unescaping or trimming is performed. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public String getImageAsString ()
+  {
+    return new String (m_aImage, 0, m_nImageLength);
+  }
+
+  /**
+   * Check if the image of this token equals the passed string without creating
+   * a String.
+   *
+   * @param sText
+   *        The text to compare to. May not be <code>null</code>.
+   * @param bIgnoreCase
+   *        <code>true</code> to compare case insensitive
+   * @return <code>true</code> if the image equals the passed text.
+   */
+  public boolean isImageEqual (@Nonnull final String sText, final boolean bIgnoreCase)
+  {
+    if (sText.length () != m_nImageLength)
+      return false;
+    for (int i = 0; i < m_nImageLength; ++i)
+    {
+      final char c1 = m_aImage[i];
+      final char c2 = sText.charAt (i);
+      if (c1 != c2 && (!bIgnoreCase || Character.toLowerCase (c1) != Character.toLowerCase (c2)))
+        return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("kind", getKindName ())
+                                       .append ("special", m_bSpecial)
+                                       .append ("beginOffset", m_nBeginOffset)
+                                       .append ("endOffset", m_nEndOffset)
+                                       .append ("beginLine", m_nBeginLine)
+                                       .append ("beginColumn", m_nBeginColumn)
+                                       .append ("image", getImageAsString ())
+                                       .toString ();
+  }
+}
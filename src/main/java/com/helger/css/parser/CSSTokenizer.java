@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import java.io.Reader;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.ECSSVersion;
+
+/**
+ * A public tokenizer API on top of the generated token managers. In contrast
+ * to the token managers, the tokens are written into a caller provided
+ * {@link CSSToken} object, so that no {@link Token} object and no image String
+ * is created per token. Optionally whitespaces and comments can be skipped.<br>
+ * The lexical states are handled like in the parser, so the created token
+ * stream is identical to the one the parser sees.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSTokenizer
+{
+  /**
+   * Internal abstraction over the version dependent token managers.
+   */
+  private static interface ITokenSource
+  {
+    void readNextToken ();
+
+    void switchToDefault ();
+
+    void reInit (@Nonnull CharStream aCharStream);
+  }
+
+  private final class TokenSource21 extends ParserCSS21TokenManager implements ITokenSource
+  {
+    private final Token m_aToken = new Token ();
+
+    TokenSource21 (@Nonnull final CharStream aCharStream)
+    {
+      super (aCharStream);
+    }
+
+    @Override
+    protected Token jjFillToken ()
+    {
+      _onFillToken (jjmatchedKind, jjmatchedPos < 0, (jjtoToken[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) == 0);
+      m_aToken.kind = jjmatchedKind;
+      return m_aToken;
+    }
+
+    public void readNextToken ()
+    {
+      getNextToken ();
+      // Avoid self references created by special tokens
+      m_aToken.next = null;
+      m_aToken.specialToken = null;
+    }
+
+    public void switchToDefault ()
+    {
+      SwitchTo (DEFAULT);
+    }
+
+    public void reInit (@Nonnull final CharStream aCharStream)
+    {
+      ReInit (aCharStream);
+    }
+  }
+
+  private final class TokenSource30 extends ParserCSS30TokenManager implements ITokenSource
+  {
+    private final Token m_aToken = new Token ();
+
+    TokenSource30 (@Nonnull final CharStream aCharStream)
+    {
+      super (aCharStream);
+    }
+
+    @Override
+    protected Token jjFillToken ()
+    {
+      _onFillToken (jjmatchedKind, jjmatchedPos < 0, (jjtoToken[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) == 0);
+      m_aToken.kind = jjmatchedKind;
+      return m_aToken;
+    }
+
+    public void readNextToken ()
+    {
+      getNextToken ();
+      // Avoid self references created by special tokens
+      m_aToken.next = null;
+      m_aToken.specialToken = null;
+    }
+
+    public void switchToDefault ()
+    {
+      SwitchTo (DEFAULT);
+    }
+
+    public void reInit (@Nonnull final CharStream aCharStream)
+    {
+      ReInit (aCharStream);
+    }
+  }
+
+  private final ECSSVersion m_eVersion;
+  private final CSSCharStream m_aCharStream;
+  private final ITokenSource m_aTokenSource;
+  private final String [] m_aTokenNames;
+  private final int m_nKindS;
+  private final int m_nKindLBrace;
+  private final int m_nKindRBrace;
+  private final int m_nKindAtUnknown;
+  private boolean m_bSkipWhitespaces = false;
+  private boolean m_bSkipComments = false;
+
+  // Tokens read by the token manager but not yet returned
+  private CSSToken [] m_aPending = new CSSToken [] { new CSSToken (), new CSSToken () };
+  private int m_nPendingCount = 0;
+  private int m_nPendingIndex = 0;
+  private boolean m_bEOF = false;
+  private boolean m_bInUnknownRule = false;
+  private int m_nUnknownRuleNesting = 0;
+
+  /**
+   * Constructor
+   *
+   * @param eVersion
+   *        The CSS version to use. Must be {@link ECSSVersion#CSS21} or
+   *        {@link ECSSVersion#CSS30}.
+   * @param aReader
+   *        The reader to read from. May not be <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if an unsupported CSS version is passed
+   */
+  public CSSTokenizer (@Nonnull final ECSSVersion eVersion, @Nonnull final Reader aReader)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (aReader, "Reader");
+    m_eVersion = eVersion;
+    m_aCharStream = new CSSCharStream (aReader);
+    switch (eVersion)
+    {
+      case CSS21:
+        m_aTokenSource = new TokenSource21 (m_aCharStream);
+        m_aTokenNames = ParserCSS21Constants.tokenImage;
+        m_nKindS = ParserCSS21Constants.S;
+        m_nKindLBrace = ParserCSS21Constants.LBRACE;
+        m_nKindRBrace = ParserCSS21Constants.RBRACE;
+        m_nKindAtUnknown = ParserCSS21Constants.AT_UNKNOWN;
+        break;
+      case CSS30:
+        m_aTokenSource = new TokenSource30 (m_aCharStream);
+        m_aTokenNames = ParserCSS30Constants.tokenImage;
+        m_nKindS = ParserCSS30Constants.S;
+        m_nKindLBrace = ParserCSS30Constants.LBRACE;
+        m_nKindRBrace = ParserCSS30Constants.RBRACE;
+        m_nKindAtUnknown = ParserCSS30Constants.AT_UNKNOWN;
+        break;
+      default:
+        throw new IllegalArgumentException ("Unsupported CSS version " + eVersion);
+    }
+  }
+
+  /**
+   * Reinitialize this tokenizer with a new reader. All internal buffers are
+   * reused.
+   *
+   * @param aReader
+   *        The new reader to read from. May not be <code>null</code>.
+   */
+  public void reInit (@Nonnull final Reader aReader)
+  {
+    m_aCharStream.reInit (aReader);
+    m_aTokenSource.reInit (m_aCharStream);
+    m_nPendingCount = 0;
+    m_nPendingIndex = 0;
+    m_bEOF = false;
+    m_bInUnknownRule = false;
+    m_nUnknownRuleNesting = 0;
+  }
+
+  /**
+   * @return The CSS version of this tokenizer. Never <code>null</code>.
+   */
+  @Nonnull
+  public ECSSVersion getVersion ()
+  {
+    return m_eVersion;
+  }
+
+  /**
+   * @param nKind
+   *        The token kind as in {@link CSSToken#getKind()}.
+   * @return The name of the passed token kind like <code>&lt;IDENT&gt;</code>.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public String getKindName (final int nKind)
+  {
+    return m_aTokenNames[nKind];
+  }
+
+  public boolean isSkipWhitespaces ()
+  {
+    return m_bSkipWhitespaces;
+  }
+
+  /**
+   * @param bSkipWhitespaces
+   *        <code>true</code> to not return whitespace tokens
+   * @return this
+   */
+  @Nonnull
+  public CSSTokenizer setSkipWhitespaces (final boolean bSkipWhitespaces)
+  {
+    m_bSkipWhitespaces = bSkipWhitespaces;
+    return this;
+  }
+
+  public boolean isSkipComments ()
+  {
+    return m_bSkipComments;
+  }
+
+  /**
+   * @param bSkipComments
+   *        <code>true</code> to not return comment tokens
+   * @return this
+   */
+  @Nonnull
+  public CSSTokenizer setSkipComments (final boolean bSkipComments)
+  {
+    m_bSkipComments = bSkipComments;
+    return this;
+  }
+
+  /**
+   * Called by the token managers for each special and regular token.
+   */
+  private void _onFillToken (final int nKind, final boolean bEOF, final boolean bSpecial)
+  {
+    if (bSpecial ? m_bSkipComments : (nKind == m_nKindS && m_bSkipWhitespaces))
+      return;
+
+    if (m_nPendingCount == m_aPending.length)
+    {
+      // Many comments before a token
+      final CSSToken [] aNewPending = new CSSToken [m_aPending.length * 2];
+      System.arraycopy (m_aPending, 0, aNewPending, 0, m_aPending.length);
+      for (int i = m_aPending.length; i < aNewPending.length; ++i)
+        aNewPending[i] = new CSSToken ();
+      m_aPending = aNewPending;
+    }
+
+    final CSSToken aToken = m_aPending[m_nPendingCount++];
+    if (bEOF)
+      aToken.setEOF (m_aTokenNames, nKind, m_aCharStream);
+    else
+      aToken.setFromCharStream (m_aTokenNames, nKind, bSpecial, m_aCharStream);
+  }
+
+  private void _handleUnknownRule (final int nKind)
+  {
+    if (nKind == m_nKindAtUnknown)
+    {
+      m_bInUnknownRule = true;
+      m_nUnknownRuleNesting = 0;
+    }
+    else
+      if (m_bInUnknownRule)
+      {
+        if (nKind == m_nKindLBrace)
+          m_nUnknownRuleNesting++;
+        else
+          if (nKind == m_nKindRBrace)
+          {
+            m_nUnknownRuleNesting--;
+            if (m_nUnknownRuleNesting <= 0)
+            {
+              // Like the parser, switch from IN_UNKNOWN_RULE to DEFAULT again
+              m_bInUnknownRule = false;
+              m_aTokenSource.switchToDefault ();
+            }
+          }
+      }
+  }
+
+  /**
+   * Read the next token into the passed token object.
+   *
+   * @param aToken
+   *        The token object to be filled. May not be <code>null</code>.
+   * @return <code>true</code> if a token was read, <code>false</code> if the
+   *         end of file was reached. In the latter case the passed token is an
+   *         EOF token.
+   * @throws ParseException
+   *         In case of an unrecoverable lexical error (e.g. an unterminated
+   *         comment)
+   */
+  public boolean next (@Nonnull final CSSToken aToken) throws ParseException
+  {
+    while (m_nPendingIndex >= m_nPendingCount)
+    {
+      if (m_bEOF)
+      {
+        aToken.setEOF (m_aTokenNames, 0, m_aCharStream);
+        return false;
+      }
+
+      m_nPendingCount = 0;
+      m_nPendingIndex = 0;
+      try
+      {
+        m_aTokenSource.readNextToken ();
+      }
+      catch (final TokenMgrError ex)
+      {
+        m_bEOF = true;
+        throw new ParseException (ex.getMessage ());
+      }
+
+      // The regular token is always the last one
+      if (m_nPendingCount > 0)
+      {
+        final int nKind = m_aPending[m_nPendingCount - 1].getKind ();
+        if (nKind == 0)
+          m_bEOF = true;
+        _handleUnknownRule (nKind);
+      }
+    }
+
+    final CSSToken aPending = m_aPending[m_nPendingIndex++];
+    aToken.setFrom (aPending);
+    return !aPending.isEOF ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("version", m_eVersion)
+                                       .append ("skipWhitespaces", m_bSkipWhitespaces)
+                                       .append ("skipComments", m_bSkipComments)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Special {@link ParseException} that indicates, that parsing was aborted
+ * because it was cancelled or because the deadline was exceeded. It is passed
+ * to the {@link com.helger.css.handler.ICSSParseExceptionHandler} like all
+ * other unrecoverable errors.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public class ParseCancelledException extends ParseException
+{
+  private final boolean m_bDeadlineExceeded;
+
+  public ParseCancelledException (final boolean bDeadlineExceeded)
+  {
+    super (bDeadlineExceeded ? "CSS parsing was aborted because the deadline was exceeded"
+                             : "CSS parsing was cancelled");
+    m_bDeadlineExceeded = bDeadlineExceeded;
+  }
+
+  /**
+   * @return <code>true</code> if parsing was aborted because the deadline was
+   *         exceeded, <code>false</code> if it was cancelled via an
+   *         {@link com.helger.css.reader.ICSSCancellationToken}.
+   */
+  public boolean isDeadlineExceeded ()
+  {
+    return m_bDeadlineExceeded;
+  }
+
+  /**
+   * Get the cancellation exception wrapped in a {@link TokenMgrError}. This is
+   * required, because the token manager cannot throw checked exceptions.
+   *
+   * @param aError
+   *        The error to check. May not be <code>null</code>.
+   * @return <code>null</code> if the passed error is not caused by a
+   *         cancellation.
+   */
+  @Nullable
+  public static ParseCancelledException getFromError (@Nonnull final TokenMgrError aError)
+  {
+    final Throwable aCause = aError.getCause ();
+    return aCause instanceof ParseCancelledException ? (ParseCancelledException) aCause : null;
+  }
+}
@@ -161,6 +161,12 @@ public final class ParseUtils
    */
   @Nonnull
   public static String validateIdentifier (@Nonnull final StringBuilder aPattern)
+  {
+    _validateIdentifier (aPattern);
+    return aPattern.toString ();
+  }
+
+  private static void _validateIdentifier (@Nonnull final StringBuilder aPattern)
   {
     final int nLength = aPattern.length ();
     final char c1 = aPattern.charAt (0);
@@ -180,8 +186,26 @@ public final class ParseUtils
 
     if (nLength > 1 && c1 == '-' && c2 == '-')
       throw new IllegalArgumentException ("Identifier may not start with two hyphens: " + aPattern);
+  }
 
-    return aPattern.toString ();
+  /**
+   * Same as {@link #validateIdentifier(StringBuilder)} but returns the
+   * provided token image if it has the same content as the pattern. This
+   * avoids creating a new String for each identifier token, so that the
+   * symbol table based token images of {@link CSSCharStream} are retained.
+   *
+   * @param aPattern
+   *        pattern to check
+   * @param sImage
+   *        The current token image. May be <code>null</code>.
+   * @return The token image or a new string with the content of the pattern.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static String validateIdentifier (@Nonnull final StringBuilder aPattern, @Nullable final String sImage)
+  {
+    _validateIdentifier (aPattern);
+    return sImage != null && sImage.contentEquals (aPattern) ? sImage : aPattern.toString ();
   }
 
   /**
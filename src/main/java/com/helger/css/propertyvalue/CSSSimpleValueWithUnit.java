@@ -32,6 +32,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CCSS;
 import com.helger.css.ECSSUnit;
+import com.helger.css.decl.CSSExpressionTermOptimizer;
 
 /**
  * This class encapsulates a single numeric value and a unit ({@link ECSSUnit}).
@@ -172,6 +173,21 @@ public class CSSSimpleValueWithUnit implements Serializable
     return m_eUnit.format (m_aValue);
   }
 
+  /**
+   * @return The shortest formatted string value of this item as used in
+   *         optimized output. E.g. <code>0.5em</code> is returned as
+   *         <code>.5em</code> and <code>0px</code> as <code>0</code>. Neither
+   *         <code>null</code> nor empty.
+   * @see CSSExpressionTermOptimizer#getOptimizedValue(String)
+   * @since 3.9.3
+   */
+  @Nonnull
+  @Nonempty
+  public String getOptimizedFormatted ()
+  {
+    return CSSExpressionTermOptimizer.getOptimizedValue (getFormatted ());
+  }
+
   /**
    * Get a new object with the same unit but an added value.
    * 
@@ -16,6 +16,8 @@
  */
 package com.helger.css.propertyvalue;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -29,6 +31,7 @@ import com.helger.commons.hash.HashCodeGenerator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.CCSS;
+import com.helger.css.CSSWriteableHelper;
 import com.helger.css.ICSSWriterSettings;
 import com.helger.css.property.ECSSProperty;
 import com.helger.css.property.ICSSProperty;
@@ -184,13 +187,19 @@ public class CSSValue implements ICSSValue
 
   @Nonnull
   public String getAsCSSString (@Nonnull final ICSSWriterSettings aSettings, @Nonnegative final int nIndentLevel)
+  {
+    return CSSWriteableHelper.getAsCSSString (this, aSettings, nIndentLevel);
+  }
+
+  public void writeTo (@Nonnull final Appendable aTarget,
+                       @Nonnull final ICSSWriterSettings aSettings,
+                       @Nonnegative final int nIndentLevel) throws IOException
   {
     aSettings.checkVersionRequirements (m_aProperty);
-    return m_aProperty.getPropertyName () +
-           CCSS.SEPARATOR_PROPERTY_VALUE +
-           m_sValue +
-           (StringHelper.hasText (m_sValue) && m_bIsImportant ? CCSS.IMPORTANT_SUFFIX : "") +
-           CCSS.DEFINITION_END;
+    aTarget.append (m_aProperty.getPropertyName ()).append (CCSS.SEPARATOR_PROPERTY_VALUE).append (m_sValue);
+    if (StringHelper.hasText (m_sValue) && m_bIsImportant)
+      aTarget.append (CCSS.IMPORTANT_SUFFIX);
+    aTarget.append (CCSS.DEFINITION_END);
   }
 
   @Override
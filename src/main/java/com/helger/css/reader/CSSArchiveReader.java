@@ -0,0 +1,504 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.concurrent.ExtendedDefaultThreadFactory;
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.io.streamprovider.ByteArrayInputStreamProvider;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.streams.NonClosingInputStream;
+import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.messagedigest.EMessageDigestAlgorithm;
+import com.helger.commons.messagedigest.MessageDigestGeneratorHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.decl.CascadingStyleSheet;
+
+/**
+ * Read all CSS files contained in a ZIP or JAR archive (e.g. a WebJar)
+ * directly from the archive, without extracting them to the file system. All
+ * entries with the file extension <code>.css</code> (case insensitive) are
+ * read.
+ * <ul>
+ * <li>When reading from a {@link File} the entries are decompressed and parsed
+ * in parallel.</li>
+ * <li>When reading from an {@link InputStream} the entries can only be
+ * decompressed sequentially, but they are still parsed in parallel.</li>
+ * </ul>
+ * If a {@link CSSParseCache} is set, entries with identical content (e.g. the
+ * same library contained in multiple archives) are only parsed once. The key
+ * is the SHA-256 hash of the entry bytes. The cache should only be shared
+ * between readers with the same {@link CSSReaderSettings}, and the cached
+ * objects should be treated as read-only.<br>
+ * All read calls share the same executor. It is either created on first use
+ * and shut down by {@link #close()}, or provided by the caller via
+ * {@link #setExecutor(ExecutorService)}.<br>
+ * Note: the parse error and exception handlers of the settings may be invoked
+ * from multiple threads concurrently.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public class CSSArchiveReader implements Closeable
+{
+  /** The file extension of the entries to read */
+  public static final String CSS_FILE_EXTENSION = ".css";
+  /** The number of seconds after which idle threads of the own executor end */
+  public static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (CSSArchiveReader.class);
+
+  private CSSReaderSettings m_aSettings = new CSSReaderSettings ();
+  private int m_nParallelism = Runtime.getRuntime ().availableProcessors ();
+  private CSSParseCache <CascadingStyleSheet> m_aParseCache;
+  private ExecutorService m_aExecutor;
+  private boolean m_bOwnsExecutor;
+
+  public CSSArchiveReader ()
+  {}
+
+  /**
+   * @return The settings used to read each CSS entry. Never <code>null</code>.
+   */
+  @Nonnull
+  public CSSReaderSettings getReaderSettings ()
+  {
+    return m_aSettings;
+  }
+
+  /**
+   * @param aSettings
+   *        The settings used to read each CSS entry. May not be
+   *        <code>null</code>.
+   * @return this
+   */
+  @Nonnull
+  public CSSArchiveReader setReaderSettings (@Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    m_aSettings = aSettings;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of entries to be parsed concurrently. Always
+   *         &gt; 0. Defaults to the number of available processors.
+   */
+  @Nonnegative
+  public int getParallelism ()
+  {
+    return m_nParallelism;
+  }
+
+  /**
+   * @param nParallelism
+   *        The maximum number of entries to be parsed concurrently. Must be
+   *        &gt; 0. If 1 is used, all entries are read in the calling thread.
+   *        Ignored if an executor was set via
+   *        {@link #setExecutor(ExecutorService)}.
+   * @return this
+   */
+  @Nonnull
+  public CSSArchiveReader setParallelism (@Nonnegative final int nParallelism)
+  {
+    ValueEnforcer.isGT0 (nParallelism, "Parallelism");
+    if (nParallelism != m_nParallelism)
+    {
+      // The own executor is created again with the new size on demand
+      close ();
+      m_nParallelism = nParallelism;
+    }
+    return this;
+  }
+
+  /**
+   * @return The executor provided by the caller or the own executor, if it was
+   *         already created. May be <code>null</code>.
+   */
+  @Nullable
+  public ExecutorService getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @param aExecutor
+   *        The executor used to parse the entries. May be <code>null</code> to
+   *        use an own executor with {@link #getParallelism()} threads. An
+   *        executor passed in is not shut down by {@link #close()}.
+   * @return this
+   */
+  @Nonnull
+  public CSSArchiveReader setExecutor (@Nullable final ExecutorService aExecutor)
+  {
+    close ();
+    m_aExecutor = aExecutor;
+    return this;
+  }
+
+  /**
+   * @return The parse cache to use. May be <code>null</code>.
+   */
+  @Nullable
+  public CSSParseCache <CascadingStyleSheet> getParseCache ()
+  {
+    return m_aParseCache;
+  }
+
+  /**
+   * @param aParseCache
+   *        The parse cache to use. May be <code>null</code> to disable
+   *        caching. The same cache may be used by multiple readers.
+   * @return this
+   */
+  @Nonnull
+  public CSSArchiveReader setParseCache (@Nullable final CSSParseCache <CascadingStyleSheet> aParseCache)
+  {
+    m_aParseCache = aParseCache;
+    return this;
+  }
+
+  /**
+   * Check if the passed archive entry is a CSS file.
+   *
+   * @param aEntry
+   *        The entry to check. May not be <code>null</code>.
+   * @return <code>true</code> if it is no directory and the name ends with
+   *         <code>.css</code>.
+   */
+  public static boolean isCSSEntry (@Nonnull final ZipEntry aEntry)
+  {
+    return !aEntry.isDirectory () && aEntry.getName ().toLowerCase (Locale.US).endsWith (CSS_FILE_EXTENSION);
+  }
+
+  /**
+   * Read all bytes of the passed input stream, which is closed afterwards.
+   *
+   * @param aIS
+   *        The stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed.
+   */
+  @Nullable
+  private static byte [] _getAllBytes (@Nonnull @WillClose final InputStream aIS)
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    if (StreamUtils.copyInputStreamToOutputStreamAndCloseOS (aIS, aBAOS).isFailure ())
+      return null;
+    return aBAOS.toByteArray ();
+  }
+
+  @Nullable
+  private static CascadingStyleSheet _readFromBytes (@Nonnull final byte [] aBytes,
+                                                     @Nonnull final CSSReaderSettings aSettings,
+                                                     @Nullable final CSSParseCache <CascadingStyleSheet> aParseCache)
+  {
+    String sKey = null;
+    if (aParseCache != null)
+    {
+      sKey = MessageDigestGeneratorHelper.getHexValueFromDigest (MessageDigestGeneratorHelper.getDigest (aBytes,
+                                                                                                        EMessageDigestAlgorithm.SHA_256));
+      final CascadingStyleSheet aCached = aParseCache.get (aSettings.getCSSVersion (), sKey);
+      if (aCached != null)
+        return aCached;
+    }
+
+    final CascadingStyleSheet ret = CSSReader.readFromStream (new ByteArrayInputStreamProvider (aBytes), aSettings);
+    if (aParseCache != null)
+      aParseCache.put (aSettings.getCSSVersion (), sKey, ret);
+    return ret;
+  }
+
+  /**
+   * @return The executor to use or <code>null</code> if all entries should be
+   *         read in the calling thread.
+   */
+  @Nullable
+  private ExecutorService _getExecutor ()
+  {
+    if (m_aExecutor == null && m_nParallelism > 1)
+    {
+      // Idle threads end, so an unused reader does not keep any threads alive
+      final ThreadPoolExecutor aExecutor = new ThreadPoolExecutor (m_nParallelism,
+                                                                   m_nParallelism,
+                                                                   THREAD_KEEP_ALIVE_SECONDS,
+                                                                   TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue <Runnable> (),
+                                                                   new ExtendedDefaultThreadFactory ("CSSArchiveReader"));
+      aExecutor.allowCoreThreadTimeOut (true);
+      m_aExecutor = aExecutor;
+      m_bOwnsExecutor = true;
+    }
+    return m_aExecutor;
+  }
+
+  @Nonnull
+  private static Future <CascadingStyleSheet> _submit (@Nullable final ExecutorService aExecutor,
+                                                       @Nonnull final Callable <CascadingStyleSheet> aCallable)
+  {
+    if (aExecutor != null)
+      return aExecutor.submit (aCallable);
+
+    // Run in the calling thread
+    final FutureTask <CascadingStyleSheet> ret = new FutureTask <CascadingStyleSheet> (aCallable);
+    ret.run ();
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  private static Map <String, CascadingStyleSheet> _collect (@Nonnull final Map <String, Future <CascadingStyleSheet>> aFutures)
+  {
+    final Map <String, CascadingStyleSheet> ret = new LinkedHashMap <String, CascadingStyleSheet> ();
+    for (final Map.Entry <String, Future <CascadingStyleSheet>> aEntry : aFutures.entrySet ())
+    {
+      try
+      {
+        ret.put (aEntry.getKey (), aEntry.getValue ().get ());
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        throw new IllegalStateException ("Interrupted while reading " + aEntry.getKey (), ex);
+      }
+      catch (final ExecutionException ex)
+      {
+        final Throwable aCause = ex.getCause ();
+        if (aCause instanceof RuntimeException)
+          throw (RuntimeException) aCause;
+        if (aCause instanceof Error)
+          throw (Error) aCause;
+        throw new IllegalStateException ("Failed to read " + aEntry.getKey (), aCause);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Wait until all passed tasks are done, ignoring their results.
+   *
+   * @param aFutures
+   *        The tasks to wait for. May not be <code>null</code>.
+   */
+  private static void _awaitAll (@Nonnull final Iterable <Future <CascadingStyleSheet>> aFutures)
+  {
+    for (final Future <CascadingStyleSheet> aFuture : aFutures)
+    {
+      try
+      {
+        aFuture.get ();
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        return;
+      }
+      catch (final ExecutionException ex)
+      {
+        // Reported by _collect
+      }
+    }
+  }
+
+  /**
+   * Read all CSS entries of the passed ZIP or JAR file. The entries are
+   * decompressed and parsed in parallel.
+   *
+   * @param aFile
+   *        The archive to read. May not be <code>null</code>.
+   * @return <code>null</code> if the archive could not be opened. Otherwise a
+   *         map from the entry name (the path inside the archive) to the read
+   *         style sheet in the order of the archive. The value is
+   *         <code>null</code> if the respective entry could not be read.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public Map <String, CascadingStyleSheet> readFromFile (@Nonnull final File aFile)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    final ZipFile aZipFile;
+    try
+    {
+      aZipFile = new ZipFile (aFile);
+    }
+    catch (final IOException ex)
+    {
+      s_aLogger.error ("Failed to open archive " + aFile.getAbsolutePath (), ex);
+      return null;
+    }
+
+    // Use a constant copy for all entries
+    final CSSReaderSettings aSettings = m_aSettings.getClone ();
+    final CSSParseCache <CascadingStyleSheet> aParseCache = m_aParseCache;
+    final ExecutorService aExecutor = _getExecutor ();
+    final Map <String, Future <CascadingStyleSheet>> aFutures = new LinkedHashMap <String, Future <CascadingStyleSheet>> ();
+    try
+    {
+      final Enumeration <? extends ZipEntry> aEntries = aZipFile.entries ();
+      while (aEntries.hasMoreElements ())
+      {
+        final ZipEntry aEntry = aEntries.nextElement ();
+        if (isCSSEntry (aEntry))
+          aFutures.put (aEntry.getName (), _submit (aExecutor, new Callable <CascadingStyleSheet> ()
+          {
+            @Nullable
+            public CascadingStyleSheet call () throws IOException
+            {
+              // Each entry has its own stream
+              final byte [] aBytes = _getAllBytes (aZipFile.getInputStream (aEntry));
+              if (aBytes == null)
+              {
+                s_aLogger.error ("Failed to read archive entry " + aEntry.getName ());
+                return null;
+              }
+              return _readFromBytes (aBytes, aSettings, aParseCache);
+            }
+          }));
+      }
+      return _collect (aFutures);
+    }
+    finally
+    {
+      // Wait until all tasks are done before the archive is closed
+      _awaitAll (aFutures.values ());
+      try
+      {
+        aZipFile.close ();
+      }
+      catch (final IOException ex)
+      {
+        s_aLogger.warn ("Failed to close archive " + aFile.getAbsolutePath (), ex);
+      }
+    }
+  }
+
+  /**
+   * Read all CSS entries of the ZIP or JAR archive provided as a stream. The
+   * entries are decompressed sequentially but parsed in parallel.
+   *
+   * @param aIS
+   *        The input stream to read the archive from. It is closed at the end.
+   *        May not be <code>null</code>.
+   * @return <code>null</code> if the archive could not be read. Otherwise a map
+   *         from the entry name (the path inside the archive) to the read style
+   *         sheet in the order of the archive. The value is <code>null</code>
+   *         if the respective entry could not be parsed.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public Map <String, CascadingStyleSheet> readFromStream (@Nonnull @WillClose final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final CSSReaderSettings aSettings = m_aSettings.getClone ();
+    final CSSParseCache <CascadingStyleSheet> aParseCache = m_aParseCache;
+    final ExecutorService aExecutor = _getExecutor ();
+    final ZipInputStream aZIS = new ZipInputStream (aIS);
+    final Map <String, Future <CascadingStyleSheet>> aFutures = new LinkedHashMap <String, Future <CascadingStyleSheet>> ();
+    try
+    {
+      ZipEntry aEntry;
+      while ((aEntry = aZIS.getNextEntry ()) != null)
+        if (isCSSEntry (aEntry))
+        {
+          // Read the entry content in this thread - the stream is sequential
+          final byte [] aBytes = _getAllBytes (new NonClosingInputStream (aZIS));
+          if (aBytes == null)
+          {
+            s_aLogger.error ("Failed to read archive entry " + aEntry.getName ());
+            return null;
+          }
+          aFutures.put (aEntry.getName (), _submit (aExecutor, new Callable <CascadingStyleSheet> ()
+          {
+            @Nullable
+            public CascadingStyleSheet call ()
+            {
+              return _readFromBytes (aBytes, aSettings, aParseCache);
+            }
+          }));
+        }
+      return _collect (aFutures);
+    }
+    catch (final IOException ex)
+    {
+      s_aLogger.error ("Failed to read archive", ex);
+      return null;
+    }
+    finally
+    {
+      _awaitAll (aFutures.values ());
+      StreamUtils.close (aZIS);
+    }
+  }
+
+  /**
+   * Shut down the executor, if it was created by this reader, and wait until
+   * all pending tasks are finished. The reader can still be used afterwards
+   * and creates a new executor on demand.
+   */
+  public void close ()
+  {
+    if (m_bOwnsExecutor)
+    {
+      new ManagedExecutorService (m_aExecutor).shutdownAndWaitUntilAllTasksAreFinished ();
+      m_aExecutor = null;
+      m_bOwnsExecutor = false;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("settings", m_aSettings)
+                                       .append ("parallelism", m_nParallelism)
+                                       .append ("parseCache", m_aParseCache)
+                                       .append ("executor", m_aExecutor)
+                                       .append ("ownsExecutor", m_bOwnsExecutor)
+                                       .toString ();
+  }
+}
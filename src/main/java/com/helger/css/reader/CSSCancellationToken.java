@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Default implementation of {@link ICSSCancellationToken} that is cancelled
+ * explicitly by calling {@link #cancel()}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@ThreadSafe
+public class CSSCancellationToken implements ICSSCancellationToken
+{
+  private volatile boolean m_bCancelled = false;
+
+  public CSSCancellationToken ()
+  {}
+
+  /**
+   * Request the cancellation of all parses using this token.
+   */
+  public void cancel ()
+  {
+    m_bCancelled = true;
+  }
+
+  public boolean isCancelled ()
+  {
+    return m_bCancelled;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("cancelled", m_bCancelled).toString ();
+  }
+}
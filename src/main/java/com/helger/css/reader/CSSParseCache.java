@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collections.LRUCache;
+import com.helger.commons.collections.pair.ReadonlyPair;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.ECSSVersion;
+
+/**
+ * A thread-safe, size limited cache for parsed CSS fragments. The key is the
+ * combination of the CSS version and the source text. If the maximum size is
+ * reached, the least recently used entry is removed. <code>null</code> values
+ * (e.g. unparsable input) are never cached.<br>
+ * Note: the cached objects are shared between all callers, so they should be
+ * treated as read-only.
+ *
+ * @author Philip Helger
+ * @param <DATATYPE>
+ *        The parse result type.
+ * @since 3.9.3
+ */
+@ThreadSafe
+public class CSSParseCache <DATATYPE>
+{
+  /** The default maximum number of entries */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  // LRU access modifies the map, so a read lock is not sufficient
+  private final Lock m_aLock = new ReentrantLock ();
+  @GuardedBy ("m_aLock")
+  private final LRUCache <ReadonlyPair <ECSSVersion, String>, DATATYPE> m_aMap;
+
+  public CSSParseCache ()
+  {
+    this (DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxSize
+   *        The maximum number of entries to be cached. Must be &gt; 0.
+   */
+  public CSSParseCache (@Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    m_aMap = new LRUCache <ReadonlyPair <ECSSVersion, String>, DATATYPE> (nMaxSize);
+  }
+
+  /**
+   * @return The maximum number of entries to be cached. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_aMap.getMaxSize ();
+  }
+
+  /**
+   * @return The number of currently cached entries. Always &ge; 0.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_aMap.size ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Get the cached object.
+   *
+   * @param eVersion
+   *        The CSS version used for parsing. May not be <code>null</code>.
+   * @param sText
+   *        The source text. May not be <code>null</code>.
+   * @return <code>null</code> if no such object is cached.
+   */
+  @Nullable
+  public DATATYPE get (@Nonnull final ECSSVersion eVersion, @Nonnull final String sText)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (sText, "Text");
+
+    final ReadonlyPair <ECSSVersion, String> aKey = ReadonlyPair.create (eVersion, sText);
+    m_aLock.lock ();
+    try
+    {
+      return m_aMap.get (aKey);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Put an object into the cache.
+   *
+   * @param eVersion
+   *        The CSS version used for parsing. May not be <code>null</code>.
+   * @param sText
+   *        The source text. May not be <code>null</code>.
+   * @param aValue
+   *        The parse result. If it is <code>null</code> nothing is cached.
+   */
+  public void put (@Nonnull final ECSSVersion eVersion, @Nonnull final String sText, @Nullable final DATATYPE aValue)
+  {
+    ValueEnforcer.notNull (eVersion, "Version");
+    ValueEnforcer.notNull (sText, "Text");
+
+    if (aValue != null)
+    {
+      final ReadonlyPair <ECSSVersion, String> aKey = ReadonlyPair.create (eVersion, sText);
+      m_aLock.lock ();
+      try
+      {
+        m_aMap.put (aKey, aValue);
+      }
+      finally
+      {
+        m_aLock.unlock ();
+      }
+    }
+  }
+
+  /**
+   * Remove all cached entries.
+   *
+   * @return {@link EChange#CHANGED} if at least one entry was removed.
+   */
+  @Nonnull
+  public EChange clear ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_aMap.isEmpty ())
+        return EChange.UNCHANGED;
+      m_aMap.clear ();
+      return EChange.CHANGED;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("maxSize", getMaxSize ()).append ("size", size ()).toString ();
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.css.ECSSVersion;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParserCSS21;
+import com.helger.css.parser.ParserCSS21TokenManager;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.parser.TokenMgrError;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * Helper class to parse CSS fragments with the parser matching a CSS version
+ * and to report unrecoverable errors to an exception handler.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSParserHelper
+{
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSParserHelper s_aInstance = new CSSParserHelper ();
+
+  private CSSParserHelper ()
+  {}
+
+  /**
+   * Parse the passed production with a new parser for the passed version.
+   *
+   * @param aCharStream
+   *        The char stream to read from. May not be <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param eProduction
+   *        The production to parse. May not be <code>null</code>.
+   * @param aCustomErrorHandler
+   *        The error handler for recoverable errors. May be <code>null</code>.
+   * @param aCustomExceptionHandler
+   *        The exception handler for unrecoverable errors. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if parsing failed with an unrecoverable error.
+   */
+  @Nullable
+  public static CSSNode parse (@Nonnull final CSSCharStream aCharStream,
+                               @Nonnull final ECSSVersion eVersion,
+                               @Nonnull final ECSSParserProduction eProduction,
+                               @Nullable final ICSSParseErrorHandler aCustomErrorHandler,
+                               @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    ValueEnforcer.notNull (aCharStream, "CharStream");
+    ValueEnforcer.notNull (eVersion, "Version");
+
+    switch (eVersion)
+    {
+      case CSS21:
+      {
+        final ParserCSS21TokenManager aTokenHdl = new ParserCSS21TokenManager (aCharStream);
+        final ParserCSS21 aParser = new ParserCSS21 (aTokenHdl);
+        aParser.setCustomErrorHandler (aCustomErrorHandler);
+        return parse (aParser, eProduction, aCustomExceptionHandler);
+      }
+      case CSS30:
+      {
+        final ParserCSS30TokenManager aTokenHdl = new ParserCSS30TokenManager (aCharStream);
+        final ParserCSS30 aParser = new ParserCSS30 (aTokenHdl);
+        aParser.setCustomErrorHandler (aCustomErrorHandler);
+        return parse (aParser, eProduction, aCustomExceptionHandler);
+      }
+      default:
+        throw new IllegalArgumentException ("Unsupported CSS version " + eVersion);
+    }
+  }
+
+  /**
+   * Parse the passed production with an existing CSS 2.1 parser.
+   *
+   * @param aParser
+   *        The parser to use. May not be <code>null</code>.
+   * @param eProduction
+   *        The production to parse. May not be <code>null</code>.
+   * @param aCustomExceptionHandler
+   *        The exception handler for unrecoverable errors. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if parsing failed with an unrecoverable error.
+   */
+  @Nullable
+  public static CSSNode parse (@Nonnull final ParserCSS21 aParser,
+                               @Nonnull final ECSSParserProduction eProduction,
+                               @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    ValueEnforcer.notNull (aParser, "Parser");
+    return _parse (aParser, eProduction, aCustomExceptionHandler);
+  }
+
+  /**
+   * Parse the passed production with an existing CSS 3.0 parser.
+   *
+   * @param aParser
+   *        The parser to use. May not be <code>null</code>.
+   * @param eProduction
+   *        The production to parse. May not be <code>null</code>.
+   * @param aCustomExceptionHandler
+   *        The exception handler for unrecoverable errors. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if parsing failed with an unrecoverable error.
+   */
+  @Nullable
+  public static CSSNode parse (@Nonnull final ParserCSS30 aParser,
+                               @Nonnull final ECSSParserProduction eProduction,
+                               @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    ValueEnforcer.notNull (aParser, "Parser");
+    return _parse (aParser, eProduction, aCustomExceptionHandler);
+  }
+
+  @Nullable
+  private static CSSNode _parse (@Nonnull final Object aParser,
+                                 @Nonnull final ECSSParserProduction eProduction,
+                                 @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    ValueEnforcer.notNull (eProduction, "Production");
+    ValueEnforcer.notNull (aCustomExceptionHandler, "CustomExceptionHandler");
+
+    try
+    {
+      if (aParser instanceof ParserCSS21)
+        return eProduction.parse ((ParserCSS21) aParser);
+      return eProduction.parse ((ParserCSS30) aParser);
+    }
+    catch (final ParseException ex)
+    {
+      // Unrecoverable error
+      aCustomExceptionHandler.onException (ex);
+      return null;
+    }
+    catch (final TokenMgrError ex)
+    {
+      aCustomExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      return null;
+    }
+  }
+}
@@ -22,13 +22,12 @@ import java.io.InputStream;
 import java.io.PushbackInputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillClose;
-import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.slf4j.Logger;
@@ -36,7 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
-import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.charset.CCharset;
 import com.helger.commons.charset.CharsetManager;
 import com.helger.commons.charset.EUnicodeBOM;
@@ -50,15 +49,19 @@ import com.helger.commons.io.streamprovider.StringInputStreamProvider;
 import com.helger.commons.io.streamprovider.StringReaderProvider;
 import com.helger.commons.io.streams.NonBlockingStringReader;
 import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.ECSSVersion;
 import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ECSSRuleType;
 import com.helger.css.handler.CSSHandler;
 import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
 import com.helger.css.handler.ICSSParseExceptionHandler;
 import com.helger.css.handler.LoggingCSSParseExceptionHandler;
+import com.helger.css.parser.CSSCancellationCheck;
 import com.helger.css.parser.CSSCharStream;
 import com.helger.css.parser.CSSNode;
-import com.helger.css.parser.CharStream;
+import com.helger.css.parser.CSSNodePool;
+import com.helger.css.parser.ParseCancelledException;
 import com.helger.css.parser.ParseException;
 import com.helger.css.parser.ParseUtils;
 import com.helger.css.parser.ParserCSS21;
@@ -75,7 +78,10 @@ import com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler;
  * This is the central user class for reading and parsing CSS from different
  * sources. This class reads full CSS declarations only. To read only a
  * declaration list (like from an HTML <code>&lt;style&gt;</code> attribute) the
- * {@link CSSReaderDeclarationList} is available.
+ * {@link CSSReaderDeclarationList} is available.<br>
+ * Besides the static methods, immutable instances with fixed settings and
+ * handlers can be created via {@link #builder()}. The static methods delegate
+ * to the default instance and don't need any locking.
  *
  * @author Philip Helger
  */
@@ -83,22 +89,198 @@ import com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler;
 public final class CSSReader
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (CSSReader.class);
-  private static final ReadWriteLock s_aRWLock = new ReentrantReadWriteLock ();
 
-  // Use the ThrowingCSSParseErrorHandler for maximum backward compatibility
-  @GuardedBy ("s_aRWLock")
-  private static ICSSParseErrorHandler s_aDefaultParseErrorHandler = ThrowingCSSParseErrorHandler.getInstance ();
+  // The instance used by all static methods. Use the
+  // ThrowingCSSParseErrorHandler and the LoggingCSSParseExceptionHandler for
+  // maximum backward compatibility
+  private static volatile CSSReader s_aDefaultInstance = new CSSReader (new CSSReaderSettings (),
+                                                                        ThrowingCSSParseErrorHandler.getInstance (),
+                                                                        new LoggingCSSParseExceptionHandler ());
+
+  private final CSSReaderSettings m_aSettings;
+  private final ICSSParseErrorHandler m_aDefaultErrorHandler;
+  private final ICSSParseExceptionHandler m_aDefaultExceptionHandler;
+  // The parse tree node pool of this reader. Only used if enabled in the
+  // settings of a read operation.
+  private final CSSNodePool m_aNodePool = new CSSNodePool ();
+
+  private CSSReader (@Nonnull final CSSReaderSettings aSettings,
+                     @Nullable final ICSSParseErrorHandler aDefaultErrorHandler,
+                     @Nonnull final ICSSParseExceptionHandler aDefaultExceptionHandler)
+  {
+    // Private copy, as the settings are mutable
+    m_aSettings = aSettings.getClone ();
+    m_aDefaultErrorHandler = aDefaultErrorHandler;
+    m_aDefaultExceptionHandler = aDefaultExceptionHandler;
+  }
 
-  // Use the LoggingCSSParseExceptionHandler for maximum backward compatibility
-  @GuardedBy ("s_aRWLock")
-  private static ICSSParseExceptionHandler s_aDefaultParseExceptionHandler = new LoggingCSSParseExceptionHandler ();
+  /**
+   * Builder for immutable {@link CSSReader} instances.
+   *
+   * @author Philip Helger
+   * @since 3.9.3
+   */
+  @NotThreadSafe
+  public static final class Builder
+  {
+    private final CSSReaderSettings m_aSettings;
+    private ICSSParseErrorHandler m_aErrorHandler;
+    private ICSSParseExceptionHandler m_aExceptionHandler;
 
-  @PresentForCodeCoverage
-  @SuppressWarnings ("unused")
-  private static final CSSReader s_aInstance = new CSSReader ();
+    private Builder (@Nonnull final CSSReaderSettings aSettings, @Nonnull final CSSReader aDefaultInstance)
+    {
+      m_aSettings = aSettings.getClone ();
+      m_aErrorHandler = aDefaultInstance.m_aDefaultErrorHandler;
+      m_aExceptionHandler = aDefaultInstance.m_aDefaultExceptionHandler;
+    }
+
+    /**
+     * @param eVersion
+     *        The CSS version to read. May not be <code>null</code>.
+     * @return this
+     */
+    @Nonnull
+    public Builder setCSSVersion (@Nonnull final ECSSVersion eVersion)
+    {
+      m_aSettings.setCSSVersion (eVersion);
+      return this;
+    }
 
-  private CSSReader ()
-  {}
+    /**
+     * @param aFallbackCharset
+     *        The charset to be used if neither a <code>@charset</code> rule nor
+     *        a BOM is present. May not be <code>null</code>.
+     * @return this
+     */
+    @Nonnull
+    public Builder setFallbackCharset (@Nonnull final Charset aFallbackCharset)
+    {
+      m_aSettings.setFallbackCharset (aFallbackCharset);
+      return this;
+    }
+
+    /**
+     * @param aErrorHandler
+     *        The handler for recoverable errors. May be <code>null</code> to
+     *        indicate that no special error handler should be used. Defaults
+     *        to {@link CSSReader#getDefaultParseErrorHandler()} at the time the
+     *        builder was created.
+     * @return this
+     */
+    @Nonnull
+    public Builder setErrorHandler (@Nullable final ICSSParseErrorHandler aErrorHandler)
+    {
+      m_aErrorHandler = aErrorHandler;
+      return this;
+    }
+
+    /**
+     * @param aExceptionHandler
+     *        The handler for unrecoverable errors. May not be
+     *        <code>null</code>. Defaults to
+     *        {@link CSSReader#getDefaultParseExceptionHandler()} at the time
+     *        the builder was created.
+     * @return this
+     */
+    @Nonnull
+    public Builder setExceptionHandler (@Nonnull final ICSSParseExceptionHandler aExceptionHandler)
+    {
+      ValueEnforcer.notNull (aExceptionHandler, "ExceptionHandler");
+      m_aExceptionHandler = aExceptionHandler;
+      return this;
+    }
+
+    /**
+     * @param bUseNodePool
+     *        <code>true</code> to reuse the parse tree nodes of the created
+     *        reader, <code>false</code> to create new nodes. Defaults to
+     *        {@link CSSReaderSettings#DEFAULT_USE_NODE_POOL}.
+     * @return this
+     */
+    @Nonnull
+    public Builder setUseNodePool (final boolean bUseNodePool)
+    {
+      m_aSettings.setUseNodePool (bUseNodePool);
+      return this;
+    }
+
+    /**
+     * @param aRuleTypes
+     *        The top-level rule types to read. May not be <code>null</code> but
+     *        may be empty, in which case no top-level rule is read and an empty
+     *        style sheet is returned for valid input.
+     * @return this
+     * @see CSSReaderSettings#setRuleTypesToRead(ECSSRuleType...)
+     */
+    @Nonnull
+    public Builder setRuleTypesToRead (@Nonnull final ECSSRuleType... aRuleTypes)
+    {
+      m_aSettings.setRuleTypesToRead (aRuleTypes);
+      return this;
+    }
+
+    /**
+     * @return A new immutable {@link CSSReader} with the current settings of
+     *         this builder. Never <code>null</code>.
+     */
+    @Nonnull
+    public CSSReader build ()
+    {
+      return new CSSReader (m_aSettings, m_aErrorHandler, m_aExceptionHandler);
+    }
+  }
+
+  /**
+   * @return A new builder initialized with the default settings and the
+   *         current default handlers. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static Builder builder ()
+  {
+    return builder (new CSSReaderSettings ());
+  }
+
+  /**
+   * @param aSettings
+   *        The settings to start with. The custom handlers contained in the
+   *        settings take precedence over the handlers of the builder. May not
+   *        be <code>null</code>.
+   * @return A new builder initialized with a copy of the passed settings and
+   *         the current default handlers. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static Builder builder (@Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    return new Builder (aSettings, s_aDefaultInstance);
+  }
+
+  /**
+   * @return The instance that is used by all static read methods. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static CSSReader getDefaultInstance ()
+  {
+    return s_aDefaultInstance;
+  }
+
+  /**
+   * Set the instance that is used by all static read methods. Only the default
+   * handlers of the instance are relevant for the static methods.
+   *
+   * @param aDefaultInstance
+   *        The new default instance. May not be <code>null</code>.
+   * @since 3.9.3
+   */
+  public static void setDefaultInstance (@Nonnull final CSSReader aDefaultInstance)
+  {
+    ValueEnforcer.notNull (aDefaultInstance, "DefaultInstance");
+    s_aDefaultInstance = aDefaultInstance;
+  }
 
   /**
    * @return The default CSS parse error handler. May be <code>null</code>. For
@@ -108,15 +290,7 @@ public final class CSSReader
   @Nullable
   public static ICSSParseErrorHandler getDefaultParseErrorHandler ()
   {
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aDefaultParseErrorHandler;
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aDefaultInstance.m_aDefaultErrorHandler;
   }
 
   /**
@@ -126,17 +300,10 @@ public final class CSSReader
    *        The new default error handler to be used. May be <code>null</code>
    *        to indicate that no special error handler should be used.
    */
-  public static void setDefaultParseErrorHandler (@Nullable final ICSSParseErrorHandler aDefaultParseErrorHandler)
+  public static synchronized void setDefaultParseErrorHandler (@Nullable final ICSSParseErrorHandler aDefaultParseErrorHandler)
   {
-    s_aRWLock.writeLock ().lock ();
-    try
-    {
-      s_aDefaultParseErrorHandler = aDefaultParseErrorHandler;
-    }
-    finally
-    {
-      s_aRWLock.writeLock ().unlock ();
-    }
+    final CSSReader aOld = s_aDefaultInstance;
+    s_aDefaultInstance = new CSSReader (aOld.m_aSettings, aDefaultParseErrorHandler, aOld.m_aDefaultExceptionHandler);
   }
 
   /**
@@ -148,15 +315,7 @@ public final class CSSReader
   @Nonnull
   public static ICSSParseExceptionHandler getDefaultParseExceptionHandler ()
   {
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aDefaultParseExceptionHandler;
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aDefaultInstance.m_aDefaultExceptionHandler;
   }
 
   /**
@@ -167,21 +326,99 @@ public final class CSSReader
    *        <code>null</code>.
    * @since 3.7.4
    */
-  public static void setDefaultParseExceptionHandler (@Nonnull final ICSSParseExceptionHandler aDefaultParseExceptionHandler)
+  public static synchronized void setDefaultParseExceptionHandler (@Nonnull final ICSSParseExceptionHandler aDefaultParseExceptionHandler)
   {
     ValueEnforcer.notNull (aDefaultParseExceptionHandler, "DefaultParseExceptionHandler");
 
-    s_aRWLock.writeLock ().lock ();
-    try
-    {
-      s_aDefaultParseExceptionHandler = aDefaultParseExceptionHandler;
-    }
-    finally
+    final CSSReader aOld = s_aDefaultInstance;
+    s_aDefaultInstance = new CSSReader (aOld.m_aSettings, aOld.m_aDefaultErrorHandler, aDefaultParseExceptionHandler);
+  }
+
+  /**
+   * @return A copy of the settings used by the instance read methods. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public CSSReaderSettings getSettings ()
+  {
+    return m_aSettings.getClone ();
+  }
+
+  /**
+   * @return The CSS version read by the instance read methods. Never
+   *         <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public ECSSVersion getCSSVersion ()
+  {
+    return m_aSettings.getCSSVersion ();
+  }
+
+  /**
+   * @return The handler for recoverable errors used if the settings contain no
+   *         custom error handler. May be <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nullable
+  public ICSSParseErrorHandler getErrorHandler ()
+  {
+    return m_aDefaultErrorHandler;
+  }
+
+  /**
+   * @return The handler for unrecoverable errors used if the settings contain
+   *         no custom exception handler. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public ICSSParseExceptionHandler getExceptionHandler ()
+  {
+    return m_aDefaultExceptionHandler;
+  }
+
+  /**
+   * @return The node pool of this reader or <code>null</code> if it is already
+   *         in use by another read operation (e.g. on another thread or if a
+   *         CSS is read from within a custom error handler).
+   */
+  @Nullable
+  private CSSNodePool _acquireNodePool ()
+  {
+    synchronized (m_aNodePool)
     {
-      s_aRWLock.writeLock ().unlock ();
+      if (m_aNodePool.isInUse ())
+        return null;
+      m_aNodePool.setInUse (true);
+      return m_aNodePool;
     }
   }
 
+  /**
+   * Make the nodes of the passed pool available for the next parse.
+   *
+   * @param aNodePool
+   *        The node pool to release. May be <code>null</code>.
+   * @param bSuccess
+   *        <code>false</code> if the conversion to the domain objects failed
+   *        with an exception. In this case the nodes are not reused, as the
+   *        exception may reference them.
+   */
+  private static void _releaseNodePool (@Nullable final CSSNodePool aNodePool, final boolean bSuccess)
+  {
+    if (aNodePool != null)
+      synchronized (aNodePool)
+      {
+        if (bSuccess)
+          aNodePool.reset ();
+        else
+          aNodePool.clear ();
+        aNodePool.setInUse (false);
+      }
+  }
+
   /**
    * Main reading of the CSS
    *
@@ -194,6 +431,15 @@ public final class CSSReader
    * @param aCustomExceptionHandler
    *        A custom handler for unrecoverable errors. May not be
    *        <code>null</code>.
+   * @param aRuleTypesToRead
+   *        The top-level rule types to read. All other rules are skipped. May
+   *        be <code>null</code> to read all rules.
+   * @param aNodePool
+   *        The pool to take the parse tree nodes from. May be
+   *        <code>null</code>.
+   * @param aCancellationCheck
+   *        The check whether parsing should be aborted. May be
+   *        <code>null</code>.
    * @return <code>null</code> if parsing failed with an unrecoverable error
    *         (and no throwing exception handler is used), or <code>null</code>
    *         if a recoverable error occurred and no
@@ -201,11 +447,15 @@ public final class CSSReader
    *         was used or non-<code>null</code> if parsing succeeded.
    */
   @Nullable
-  private static CSSNode _readStyleSheet (@Nonnull final CharStream aCharStream,
+  private static CSSNode _readStyleSheet (@Nonnull final CSSCharStream aCharStream,
                                           @Nonnull final ECSSVersion eVersion,
                                           @Nullable final ICSSParseErrorHandler aCustomErrorHandler,
-                                          @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+                                          @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler,
+                                          @Nullable final Set <ECSSRuleType> aRuleTypesToRead,
+                                          @Nullable final CSSNodePool aNodePool,
+                                          @Nullable final CSSCancellationCheck aCancellationCheck)
   {
+    aCharStream.setCancellationCheck (aCancellationCheck);
     try
     {
       switch (eVersion)
@@ -215,6 +465,9 @@ public final class CSSReader
           final ParserCSS21TokenManager aTokenHdl = new ParserCSS21TokenManager (aCharStream);
           final ParserCSS21 aParser = new ParserCSS21 (aTokenHdl);
           aParser.setCustomErrorHandler (aCustomErrorHandler);
+          aParser.setRuleTypesToRead (aRuleTypesToRead);
+          aParser.setNodePool (aNodePool);
+          aParser.setCancellationCheck (aCancellationCheck);
           // Main parsing
           return aParser.styleSheet ();
         }
@@ -223,6 +476,9 @@ public final class CSSReader
           final ParserCSS30TokenManager aTokenHdl = new ParserCSS30TokenManager (aCharStream);
           final ParserCSS30 aParser = new ParserCSS30 (aTokenHdl);
           aParser.setCustomErrorHandler (aCustomErrorHandler);
+          aParser.setRuleTypesToRead (aRuleTypesToRead);
+          aParser.setNodePool (aNodePool);
+          aParser.setCancellationCheck (aCancellationCheck);
           // Main parsing
           return aParser.styleSheet ();
         }
@@ -238,8 +494,15 @@ public final class CSSReader
     }
     catch (final TokenMgrError ex)
     {
-      // As e.g. indicated by https://github.com/phax/ph-css/issues/9
-      aCustomExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      // Cancellation from within the char stream?
+      final ParseCancelledException aCancelledEx = ParseCancelledException.getFromError (ex);
+      if (aCancelledEx != null)
+        aCustomExceptionHandler.onException (aCancelledEx);
+      else
+      {
+        // As e.g. indicated by https://github.com/phax/ph-css/issues/9
+        aCustomExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      }
       return null;
     }
   }
@@ -452,7 +715,10 @@ public final class CSSReader
       final CSSNode aNode = _readStyleSheet (aCharStream,
                                              eVersion,
                                              getDefaultParseErrorHandler (),
-                                             DoNothingCSSParseExceptionHandler.getInstance ());
+                                             DoNothingCSSParseExceptionHandler.getInstance (),
+                                             null,
+                                             null,
+                                             null);
       return aNode != null;
     }
     finally
@@ -1516,6 +1782,13 @@ public final class CSSReader
   @Nullable
   public static CascadingStyleSheet readFromStream (@Nonnull final IInputStreamProvider aISP,
                                                     @Nonnull final CSSReaderSettings aSettings)
+  {
+    return s_aDefaultInstance._readFromStream (aISP, aSettings);
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readFromStream (@Nonnull final IInputStreamProvider aISP,
+                                               @Nonnull final CSSReaderSettings aSettings)
   {
     ValueEnforcer.notNull (aISP, "InputStreamProvider");
     ValueEnforcer.notNull (aSettings, "Settings");
@@ -1564,21 +1837,42 @@ public final class CSSReader
       // Use the default CSS parse error handler if none is provided
       ICSSParseErrorHandler aRealErrorHandler = aSettings.getCustomErrorHandler ();
       if (aRealErrorHandler == null)
-        aRealErrorHandler = getDefaultParseErrorHandler ();
+        aRealErrorHandler = m_aDefaultErrorHandler;
 
       // Use the default CSS exception handler if none is provided
       ICSSParseExceptionHandler aRealExceptionHandler = aSettings.getCustomExceptionHandler ();
       if (aRealExceptionHandler == null)
-        aRealExceptionHandler = getDefaultParseExceptionHandler ();
-
-      final CSSNode aNode = _readStyleSheet (aCharStream, eVersion, aRealErrorHandler, aRealExceptionHandler);
+        aRealExceptionHandler = m_aDefaultExceptionHandler;
 
-      // Failed to interpret content as CSS?
-      if (aNode == null)
-        return null;
+      // Skip unwanted top-level rules already in the parser
+      final Set <ECSSRuleType> aRuleTypesToRead = aSettings.isReadAllRuleTypes () ? null
+                                                                                  : aSettings.getAllRuleTypesToRead ();
 
-      // Convert the AST to a domain object
-      return CSSHandler.readCascadingStyleSheetFromNode (eVersion, aNode);
+      // Reuse the parse tree nodes of this reader
+      final CSSNodePool aNodePool = aSettings.isUseNodePool () ? _acquireNodePool () : null;
+      boolean bSuccess = false;
+      try
+      {
+        final CSSNode aNode = _readStyleSheet (aCharStream,
+                                               eVersion,
+                                               aRealErrorHandler,
+                                               aRealExceptionHandler,
+                                               aRuleTypesToRead,
+                                               aNodePool,
+                                               CSSCancellationCheck.createIfNeeded (aSettings.getCancellationToken (),
+                                                                                    aSettings.getDeadline ()));
+
+        // Convert the AST to a domain object, unless interpreting the content
+        // as CSS failed
+        final CascadingStyleSheet ret = aNode == null ? null
+                                                      : CSSHandler.readCascadingStyleSheetFromNode (eVersion, aNode);
+        bSuccess = true;
+        return ret;
+      }
+      finally
+      {
+        _releaseNodePool (aNodePool, bSuccess);
+      }
     }
     finally
     {
@@ -1637,6 +1931,13 @@ public final class CSSReader
   @Nullable
   public static CascadingStyleSheet readFromReader (@Nonnull final IReaderProvider aRP,
                                                     @Nonnull final CSSReaderSettings aSettings)
+  {
+    return s_aDefaultInstance._readFromReader (aRP, aSettings);
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readFromReader (@Nonnull final IReaderProvider aRP,
+                                               @Nonnull final CSSReaderSettings aSettings)
   {
     ValueEnforcer.notNull (aRP, "ReaderProvider");
     ValueEnforcer.notNull (aSettings, "Settings");
@@ -1658,25 +1959,126 @@ public final class CSSReader
       // Use the default CSS parse error handler if none is provided
       ICSSParseErrorHandler aRealErrorHandler = aSettings.getCustomErrorHandler ();
       if (aRealErrorHandler == null)
-        aRealErrorHandler = getDefaultParseErrorHandler ();
+        aRealErrorHandler = m_aDefaultErrorHandler;
 
       // Use the default CSS exception handler if none is provided
       ICSSParseExceptionHandler aRealExceptionHandler = aSettings.getCustomExceptionHandler ();
       if (aRealExceptionHandler == null)
-        aRealExceptionHandler = getDefaultParseExceptionHandler ();
-
-      final CSSNode aNode = _readStyleSheet (aCharStream, eVersion, aRealErrorHandler, aRealExceptionHandler);
+        aRealExceptionHandler = m_aDefaultExceptionHandler;
 
-      // Failed to interpret content as CSS?
-      if (aNode == null)
-        return null;
+      // Skip unwanted top-level rules already in the parser
+      final Set <ECSSRuleType> aRuleTypesToRead = aSettings.isReadAllRuleTypes () ? null
+                                                                                  : aSettings.getAllRuleTypesToRead ();
 
-      // Convert the AST to a domain object
-      return CSSHandler.readCascadingStyleSheetFromNode (eVersion, aNode);
+      // Reuse the parse tree nodes of this reader
+      final CSSNodePool aNodePool = aSettings.isUseNodePool () ? _acquireNodePool () : null;
+      boolean bSuccess = false;
+      try
+      {
+        final CSSNode aNode = _readStyleSheet (aCharStream,
+                                               eVersion,
+                                               aRealErrorHandler,
+                                               aRealExceptionHandler,
+                                               aRuleTypesToRead,
+                                               aNodePool,
+                                               CSSCancellationCheck.createIfNeeded (aSettings.getCancellationToken (),
+                                                                                    aSettings.getDeadline ()));
+
+        // Convert the AST to a domain object, unless interpreting the content
+        // as CSS failed
+        final CascadingStyleSheet ret = aNode == null ? null
+                                                      : CSSHandler.readCascadingStyleSheetFromNode (eVersion, aNode);
+        bSuccess = true;
+        return ret;
+      }
+      finally
+      {
+        _releaseNodePool (aNodePool, bSuccess);
+      }
     }
     finally
     {
       StreamUtils.close (aReader);
     }
   }
+
+  /**
+   * Read the CSS from the passed {@link IInputStreamProvider} using the
+   * settings and handlers of this instance.
+   *
+   * @param aISP
+   *        The input stream provider to use. Must be able to create new input
+   *        streams on every invocation, in case an explicit charset node was
+   *        found. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   * @see #readFromStream(IInputStreamProvider, CSSReaderSettings)
+   * @since 3.9.3
+   */
+  @Nullable
+  public CascadingStyleSheet readStream (@Nonnull final IInputStreamProvider aISP)
+  {
+    return _readFromStream (aISP, m_aSettings);
+  }
+
+  /**
+   * Read the CSS from the passed {@link IReaderProvider} using the settings and
+   * handlers of this instance. The fallback charset is ignored.
+   *
+   * @param aRP
+   *        The reader provider to use. The reader is retrieved exactly once and
+   *        closed anyway. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   * @see #readFromReader(IReaderProvider, CSSReaderSettings)
+   * @since 3.9.3
+   */
+  @Nullable
+  public CascadingStyleSheet readReader (@Nonnull final IReaderProvider aRP)
+  {
+    return _readFromReader (aRP, m_aSettings);
+  }
+
+  /**
+   * Read the CSS from the passed String using the settings and handlers of this
+   * instance.
+   *
+   * @param sCSS
+   *        The source string containing the CSS to be parsed. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   * @since 3.9.3
+   */
+  @Nullable
+  public CascadingStyleSheet readString (@Nonnull final String sCSS)
+  {
+    return _readFromReader (new StringReaderProvider (sCSS), m_aSettings);
+  }
+
+  /**
+   * Read the CSS from the passed File using the settings and handlers of this
+   * instance.
+   *
+   * @param aFile
+   *        The file containing the CSS to be parsed. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   * @since 3.9.3
+   */
+  @Nullable
+  public CascadingStyleSheet readFile (@Nonnull final File aFile)
+  {
+    return _readFromStream (new FileSystemResource (aFile), m_aSettings);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("settings", m_aSettings)
+                                       .appendIfNotNull ("defaultErrorHandler", m_aDefaultErrorHandler)
+                                       .append ("defaultExceptionHandler", m_aDefaultExceptionHandler)
+                                       .toString ();
+  }
 }
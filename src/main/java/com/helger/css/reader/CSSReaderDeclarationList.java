@@ -20,13 +20,10 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillClose;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.Immutable;
 
 import org.slf4j.Logger;
@@ -69,15 +66,12 @@ import com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler;
 public final class CSSReaderDeclarationList
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (CSSReaderDeclarationList.class);
-  private static final ReadWriteLock s_aRWLock = new ReentrantReadWriteLock ();
 
   // Use the ThrowingCSSParseErrorHandler for maximum backward compatibility
-  @GuardedBy ("s_aRWLock")
-  private static ICSSParseErrorHandler s_aDefaultParseErrorHandler = ThrowingCSSParseErrorHandler.getInstance ();
+  private static volatile ICSSParseErrorHandler s_aDefaultParseErrorHandler = ThrowingCSSParseErrorHandler.getInstance ();
 
   // Use the LoggingCSSParseExceptionHandler for maximum backward compatibility
-  @GuardedBy ("s_aRWLock")
-  private static ICSSParseExceptionHandler s_aDefaultParseExceptionHandler = new LoggingCSSParseExceptionHandler ();
+  private static volatile ICSSParseExceptionHandler s_aDefaultParseExceptionHandler = new LoggingCSSParseExceptionHandler ();
 
   @PresentForCodeCoverage
   @SuppressWarnings ("unused")
@@ -95,15 +89,7 @@ public final class CSSReaderDeclarationList
   @Nullable
   public static ICSSParseErrorHandler getDefaultParseErrorHandler ()
   {
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aDefaultParseErrorHandler;
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aDefaultParseErrorHandler;
   }
 
   /**
@@ -116,15 +102,7 @@ public final class CSSReaderDeclarationList
    */
   public static void setDefaultParseErrorHandler (@Nullable final ICSSParseErrorHandler aDefaultParseErrorHandler)
   {
-    s_aRWLock.writeLock ().lock ();
-    try
-    {
-      s_aDefaultParseErrorHandler = aDefaultParseErrorHandler;
-    }
-    finally
-    {
-      s_aRWLock.writeLock ().unlock ();
-    }
+    s_aDefaultParseErrorHandler = aDefaultParseErrorHandler;
   }
 
   /**
@@ -136,15 +114,7 @@ public final class CSSReaderDeclarationList
   @Nonnull
   public static ICSSParseExceptionHandler getDefaultParseExceptionHandler ()
   {
-    s_aRWLock.readLock ().lock ();
-    try
-    {
-      return s_aDefaultParseExceptionHandler;
-    }
-    finally
-    {
-      s_aRWLock.readLock ().unlock ();
-    }
+    return s_aDefaultParseExceptionHandler;
   }
 
   /**
@@ -159,15 +129,7 @@ public final class CSSReaderDeclarationList
   {
     ValueEnforcer.notNull (aDefaultParseExceptionHandler, "DefaultParseExceptionHandler");
 
-    s_aRWLock.writeLock ().lock ();
-    try
-    {
-      s_aDefaultParseExceptionHandler = aDefaultParseExceptionHandler;
-    }
-    finally
-    {
-      s_aRWLock.writeLock ().unlock ();
-    }
+    s_aDefaultParseExceptionHandler = aDefaultParseExceptionHandler;
   }
 
   /**
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.commons.state.EChange;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.decl.CSSSelector;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * This is the central user class for reading small CSS fragments, like a list
+ * of selectors (e.g. <code>div.foo &gt; a:hover, p</code>) or a single
+ * property value (e.g. <code>1px solid #333</code>). The fragments are parsed
+ * directly, without wrapping them in a style sheet.<br>
+ * The <code>...Cached</code> methods use a size limited cache. Each caller gets
+ * its own copy of the cached objects, so they may be modified.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@ThreadSafe
+public final class CSSReaderFragment
+{
+  private static final CSSParseCache <List <CSSSelector>> s_aSelectorCache = new CSSParseCache <List <CSSSelector>> ();
+  private static final CSSParseCache <CSSExpression> s_aExpressionCache = new CSSParseCache <CSSExpression> ();
+
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSReaderFragment s_aInstance = new CSSReaderFragment ();
+
+  private CSSReaderFragment ()
+  {}
+
+  @Nonnull
+  private static ICSSParseErrorHandler _getErrorHandler (@Nonnull final CSSReaderSettings aSettings)
+  {
+    // Use the default CSS parse error handler if none is provided
+    final ICSSParseErrorHandler ret = aSettings.getCustomErrorHandler ();
+    return ret != null ? ret : CSSReader.getDefaultParseErrorHandler ();
+  }
+
+  @Nonnull
+  private static ICSSParseExceptionHandler _getExceptionHandler (@Nonnull final CSSReaderSettings aSettings)
+  {
+    // Use the default CSS exception handler if none is provided
+    final ICSSParseExceptionHandler ret = aSettings.getCustomExceptionHandler ();
+    return ret != null ? ret : CSSReader.getDefaultParseExceptionHandler ();
+  }
+
+  /**
+   * Read a comma separated list of selectors.
+   *
+   * @param sSelectors
+   *        The source string containing the selectors. May not be
+   *        <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the list of selectors
+   *         otherwise.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public static List <CSSSelector> readSelectorsFromString (@Nonnull final String sSelectors,
+                                                            @Nonnull final ECSSVersion eVersion)
+  {
+    return readSelectorsFromString (sSelectors, new CSSReaderSettings ().setCSSVersion (eVersion));
+  }
+
+  /**
+   * Read a comma separated list of selectors.
+   *
+   * @param sSelectors
+   *        The source string containing the selectors. May not be
+   *        <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. Only the CSS version
+   *        and the error and exception handlers are used. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the list of selectors
+   *         otherwise.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public static List <CSSSelector> readSelectorsFromString (@Nonnull final String sSelectors,
+                                                            @Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (sSelectors, "Selectors");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    final ECSSVersion eVersion = aSettings.getCSSVersion ();
+    final CSSCharStream aCharStream = new CSSCharStream (new NonBlockingStringReader (sSelectors));
+    final CSSNode aNode = CSSParserHelper.parse (aCharStream,
+                                                 eVersion,
+                                                 ECSSParserProduction.SELECTOR_LIST,
+                                                 _getErrorHandler (aSettings),
+                                                 _getExceptionHandler (aSettings));
+
+    // Failed to interpret content as CSS?
+    if (aNode == null)
+      return null;
+
+    // Convert the AST to domain objects
+    return CSSHandler.readSelectorListFromNode (eVersion, aNode);
+  }
+
+  /**
+   * Read a comma separated list of selectors using a cache. Note: deep copies
+   * of the cached selectors are returned, so they may be modified.
+   *
+   * @param sSelectors
+   *        The source string containing the selectors. May not be
+   *        <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the list of selectors
+   *         otherwise.
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public static List <CSSSelector> readSelectorsFromStringCached (@Nonnull final String sSelectors,
+                                                                  @Nonnull final ECSSVersion eVersion)
+  {
+    List <CSSSelector> ret = s_aSelectorCache.get (eVersion, sSelectors);
+    if (ret == null)
+    {
+      ret = readSelectorsFromString (sSelectors, eVersion);
+      if (ret == null)
+        return null;
+      s_aSelectorCache.put (eVersion, sSelectors, ret);
+    }
+    // The cached objects must not be modified by the caller
+    final List <CSSSelector> aCopy = new ArrayList <CSSSelector> (ret.size ());
+    for (final CSSSelector aSelector : ret)
+      aCopy.add (aSelector.getClone ());
+    return aCopy;
+  }
+
+  /**
+   * Read a single expression (e.g. the value of a property).
+   *
+   * @param sExpression
+   *        The source string containing the expression. May not be
+   *        <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the expression otherwise.
+   */
+  @Nullable
+  public static CSSExpression readExpressionFromString (@Nonnull final String sExpression,
+                                                        @Nonnull final ECSSVersion eVersion)
+  {
+    return readExpressionFromString (sExpression, new CSSReaderSettings ().setCSSVersion (eVersion));
+  }
+
+  /**
+   * Read a single expression (e.g. the value of a property).
+   *
+   * @param sExpression
+   *        The source string containing the expression. May not be
+   *        <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. Only the CSS version
+   *        and the error and exception handlers are used. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the expression otherwise.
+   */
+  @Nullable
+  public static CSSExpression readExpressionFromString (@Nonnull final String sExpression,
+                                                        @Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (sExpression, "Expression");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    final ECSSVersion eVersion = aSettings.getCSSVersion ();
+    final CSSCharStream aCharStream = new CSSCharStream (new NonBlockingStringReader (sExpression));
+    final CSSNode aNode = CSSParserHelper.parse (aCharStream,
+                                                 eVersion,
+                                                 ECSSParserProduction.EXPRESSION,
+                                                 _getErrorHandler (aSettings),
+                                                 _getExceptionHandler (aSettings));
+
+    // Failed to interpret content as CSS?
+    if (aNode == null)
+      return null;
+
+    // Convert the AST to a domain object
+    return CSSHandler.readExpressionFromNode (eVersion, aNode);
+  }
+
+  /**
+   * Read a single expression (e.g. the value of a property) using a cache. A
+   * copy of the cached expression is returned, so it may be modified.
+   *
+   * @param sExpression
+   *        The source string containing the expression. May not be
+   *        <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the expression otherwise.
+   */
+  @Nullable
+  public static CSSExpression readExpressionFromStringCached (@Nonnull final String sExpression,
+                                                              @Nonnull final ECSSVersion eVersion)
+  {
+    CSSExpression ret = s_aExpressionCache.get (eVersion, sExpression);
+    if (ret == null)
+    {
+      ret = readExpressionFromString (sExpression, eVersion);
+      if (ret == null)
+        return null;
+      s_aExpressionCache.put (eVersion, sExpression, ret);
+    }
+    // The cached object must not be modified by the caller
+    return ret.getClone ();
+  }
+
+  /**
+   * Remove all entries from the selector and the expression cache.
+   *
+   * @return {@link EChange}
+   */
+  @Nonnull
+  public static EChange clearCache ()
+  {
+    return s_aSelectorCache.clear ().or (s_aExpressionCache.clear ());
+  }
+}
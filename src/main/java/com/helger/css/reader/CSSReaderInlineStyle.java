@@ -0,0 +1,562 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.commons.state.EChange;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.decl.CSSExpressionMemberTermSimple;
+import com.helger.css.decl.ECSSExpressionOperator;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.CSSNodePool;
+import com.helger.css.parser.ParserCSS21;
+import com.helger.css.parser.ParserCSS21TokenManager;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * A specialized reader for the content of HTML <code>style</code> attributes,
+ * optimized for reading a large number of (often identical) declaration lists.
+ * The result is identical to
+ * {@link CSSReaderDeclarationList#readFromString(String, ECSSVersion)} but:
+ * <ul>
+ * <li>Every thread reuses its own parser, token manager and char stream.</li>
+ * <li>Simple CSS 3.0 declaration lists consisting only of identifiers,
+ * numbers with units, hash values, commas and whitespaces (e.g.
+ * <code>color:red; margin:0 auto</code>) are read without the parser at all.
+ * Objects read this way don't have a source location.</li>
+ * <li>The <code>...Cached</code> methods use a size limited cache. Each caller
+ * gets its own copy of the cached objects, so they may be modified.</li>
+ * </ul>
+ * The default error and exception handlers of {@link CSSReaderDeclarationList}
+ * are used.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@ThreadSafe
+public final class CSSReaderInlineStyle
+{
+  /**
+   * The per-thread parser objects.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  private static final class ParserContext
+  {
+    private final CSSCharStream m_aCharStream = new CSSCharStream (new NonBlockingStringReader (""));
+    private ParserCSS21TokenManager m_aTokenHdl21;
+    private ParserCSS21 m_aParser21;
+    private ParserCSS30TokenManager m_aTokenHdl30;
+    private ParserCSS30 m_aParser30;
+    private final CSSNodePool m_aNodePool = new CSSNodePool ();
+    private boolean m_bInUse = false;
+
+    @Nullable
+    CSSNode readStyleDeclarationList (@Nonnull final String sStyle,
+                                      @Nonnull final ECSSVersion eVersion,
+                                      @Nullable final ICSSParseErrorHandler aCustomErrorHandler,
+                                      @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+    {
+      m_aCharStream.reInit (new NonBlockingStringReader (sStyle));
+      switch (eVersion)
+      {
+        case CSS21:
+        {
+          if (m_aParser21 == null)
+          {
+            m_aTokenHdl21 = new ParserCSS21TokenManager (m_aCharStream);
+            m_aParser21 = new ParserCSS21 (m_aTokenHdl21);
+            m_aParser21.setNodePool (m_aNodePool);
+          }
+          else
+          {
+            m_aTokenHdl21.ReInit (m_aCharStream);
+            m_aParser21.ReInit (m_aTokenHdl21);
+          }
+          m_aParser21.setCustomErrorHandler (aCustomErrorHandler);
+          return CSSParserHelper.parse (m_aParser21,
+                                        ECSSParserProduction.STYLE_DECLARATION_LIST,
+                                        aCustomExceptionHandler);
+        }
+        case CSS30:
+        {
+          if (m_aParser30 == null)
+          {
+            m_aTokenHdl30 = new ParserCSS30TokenManager (m_aCharStream);
+            m_aParser30 = new ParserCSS30 (m_aTokenHdl30);
+            m_aParser30.setNodePool (m_aNodePool);
+          }
+          else
+          {
+            m_aTokenHdl30.ReInit (m_aCharStream);
+            m_aParser30.ReInit (m_aTokenHdl30);
+          }
+          m_aParser30.setCustomErrorHandler (aCustomErrorHandler);
+          return CSSParserHelper.parse (m_aParser30,
+                                        ECSSParserProduction.STYLE_DECLARATION_LIST,
+                                        aCustomExceptionHandler);
+        }
+        default:
+          throw new IllegalArgumentException ("Unsupported CSS version " + eVersion);
+      }
+    }
+  }
+
+  /** Identifiers that are special tokens in CSS 3.0 */
+  private static final Set <String> RESERVED_WORDS = CollectionHelper.newSet ("and",
+                                                                             "from",
+                                                                             "inherit",
+                                                                             "not",
+                                                                             "only",
+                                                                             "or",
+                                                                             "to");
+  /** Identifiers that are special tokens in CSS 3.0 but valid values */
+  private static final Set <String> RESERVED_VALUE_WORDS = CollectionHelper.newSet ("from", "inherit", "to");
+  /** The units that are handled by the fast path */
+  private static final Set <String> UNITS = CollectionHelper.newSet ("%",
+                                                                    "ch",
+                                                                    "cm",
+                                                                    "deg",
+                                                                    "dpcm",
+                                                                    "dpi",
+                                                                    "dppx",
+                                                                    "em",
+                                                                    "ex",
+                                                                    "grad",
+                                                                    "hz",
+                                                                    "in",
+                                                                    "khz",
+                                                                    "mm",
+                                                                    "ms",
+                                                                    "pc",
+                                                                    "pt",
+                                                                    "px",
+                                                                    "rad",
+                                                                    "rem",
+                                                                    "s",
+                                                                    "turn",
+                                                                    "vh",
+                                                                    "vmin",
+                                                                    "vw");
+
+  private static final ThreadLocal <ParserContext> s_aContext = new ThreadLocal <ParserContext> ()
+  {
+    @Override
+    protected ParserContext initialValue ()
+    {
+      return new ParserContext ();
+    }
+  };
+
+  private static final CSSParseCache <CSSDeclarationList> s_aCache = new CSSParseCache <CSSDeclarationList> ();
+
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSReaderInlineStyle s_aInstance = new CSSReaderInlineStyle ();
+
+  private CSSReaderInlineStyle ()
+  {}
+
+  private static boolean _isWhitespace (final char c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
+  private static boolean _isLetter (final char c)
+  {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean _isDigit (final char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean _isNameChar (final char c)
+  {
+    return _isLetter (c) || _isDigit (c) || c == '-' || c == '_';
+  }
+
+  private static boolean _isTermEnd (@Nonnull final String s, final int nPos)
+  {
+    if (nPos >= s.length ())
+      return true;
+    final char c = s.charAt (nPos);
+    return _isWhitespace (c) || c == ';' || c == ',';
+  }
+
+  private static int _skipWhitespaces (@Nonnull final String s, final int nPos)
+  {
+    final int nLen = s.length ();
+    int i = nPos;
+    while (i < nLen && _isWhitespace (s.charAt (i)))
+      ++i;
+    return i;
+  }
+
+  /**
+   * @return The index after the identifier or -1 if no simple identifier
+   *         starts at the passed position.
+   */
+  private static int _scanIdentifier (@Nonnull final String s, final int nPos)
+  {
+    final int nLen = s.length ();
+    int i = nPos;
+    if (i < nLen && s.charAt (i) == '-')
+      ++i;
+    if (i >= nLen || !_isLetter (s.charAt (i)))
+      return -1;
+    ++i;
+    while (i < nLen && _isNameChar (s.charAt (i)))
+      ++i;
+    return i;
+  }
+
+  /**
+   * @return The index after the simple term or -1 if no simple term starts at
+   *         the passed position.
+   */
+  private static int _scanTerm (@Nonnull final String s, final int nPos)
+  {
+    final int nLen = s.length ();
+    final char c = s.charAt (nPos);
+    int i = nPos;
+    if (c == '#')
+    {
+      // Hash value
+      ++i;
+      while (i < nLen && _isNameChar (s.charAt (i)))
+        ++i;
+      return i > nPos + 1 && _isTermEnd (s, i) ? i : -1;
+    }
+
+    if (c == '+' || c == '-' || c == '.' || _isDigit (c))
+    {
+      if (c == '+' || c == '-')
+        ++i;
+      final int nDigitStart = i;
+      while (i < nLen && _isDigit (s.charAt (i)))
+        ++i;
+      if (i < nLen && s.charAt (i) == '.')
+      {
+        ++i;
+        final int nFractionStart = i;
+        while (i < nLen && _isDigit (s.charAt (i)))
+          ++i;
+        if (i == nFractionStart)
+          return -1;
+      }
+      else
+        if (i == nDigitStart)
+        {
+          // E.g. a "-" prefixed identifier
+          if (c == '-')
+          {
+            final int nEnd = _scanIdentifier (s, nPos);
+            return nEnd > 0 && _isTermEnd (s, nEnd) ? nEnd : -1;
+          }
+          return -1;
+        }
+
+      // Optional unit
+      final int nUnitStart = i;
+      if (i < nLen && s.charAt (i) == '%')
+        ++i;
+      else
+        while (i < nLen && s.charAt (i) >= 'a' && s.charAt (i) <= 'z')
+          ++i;
+      if (i > nUnitStart && !UNITS.contains (s.substring (nUnitStart, i)))
+        return -1;
+      return _isTermEnd (s, i) ? i : -1;
+    }
+
+    final int nEnd = _scanIdentifier (s, nPos);
+    if (nEnd < 0 || !_isTermEnd (s, nEnd))
+      return -1;
+    final String sIdent = s.substring (nPos, nEnd).toLowerCase (Locale.US);
+    if (RESERVED_WORDS.contains (sIdent) && !RESERVED_VALUE_WORDS.contains (sIdent))
+      return -1;
+    return nEnd;
+  }
+
+  /**
+   * Try to read the passed declaration list without a parser. Only
+   * declaration lists that consist of simple identifiers, numbers with known
+   * units, hash values, commas and whitespaces are handled. Everything else
+   * (e.g. comments, strings, functions or <code>!important</code>) is left to
+   * the real parser.
+   *
+   * @param sStyle
+   *        The declaration list to read. May not be <code>null</code>.
+   * @return <code>null</code> if the declaration list is not simple.
+   */
+  @Nullable
+  static CSSDeclarationList readSimpleDeclarationList (@Nonnull final String sStyle)
+  {
+    final int nLen = sStyle.length ();
+    final CSSDeclarationList ret = new CSSDeclarationList ();
+    int i = _skipWhitespaces (sStyle, 0);
+    while (true)
+    {
+      if (i < nLen && sStyle.charAt (i) != ';')
+      {
+        // Property
+        final int nPropertyEnd = _scanIdentifier (sStyle, i);
+        if (nPropertyEnd < 0)
+          return null;
+        final String sProperty = sStyle.substring (i, nPropertyEnd);
+        if (RESERVED_WORDS.contains (sProperty.toLowerCase (Locale.US)))
+          return null;
+
+        i = _skipWhitespaces (sStyle, nPropertyEnd);
+        if (i >= nLen || sStyle.charAt (i) != ':')
+          return null;
+        i = _skipWhitespaces (sStyle, i + 1);
+
+        // Value
+        final CSSExpression aExpression = new CSSExpression ();
+        boolean bExpectTerm = true;
+        while (i < nLen && sStyle.charAt (i) != ';')
+        {
+          if (sStyle.charAt (i) == ',')
+          {
+            if (bExpectTerm)
+              return null;
+            aExpression.addMember (ECSSExpressionOperator.COMMA);
+            bExpectTerm = true;
+            i = _skipWhitespaces (sStyle, i + 1);
+          }
+          else
+          {
+            final int nTermEnd = _scanTerm (sStyle, i);
+            if (nTermEnd < 0)
+              return null;
+            aExpression.addMember (new CSSExpressionMemberTermSimple (sStyle.substring (i, nTermEnd)));
+            bExpectTerm = false;
+            i = _skipWhitespaces (sStyle, nTermEnd);
+          }
+        }
+        if (bExpectTerm)
+        {
+          // Empty value or trailing comma
+          return null;
+        }
+        ret.addDeclaration (new CSSDeclaration (sProperty, aExpression));
+      }
+
+      if (i >= nLen)
+        break;
+      // Skip the semicolon
+      i = _skipWhitespaces (sStyle, i + 1);
+    }
+    return ret;
+  }
+
+  @Nullable
+  private static CSSDeclarationList _read (@Nonnull final String sStyle,
+                                           @Nonnull final ECSSVersion eVersion,
+                                           @Nullable final ICSSParseErrorHandler aCustomErrorHandler,
+                                           @Nonnull final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    if (eVersion == ECSSVersion.CSS30)
+    {
+      final CSSDeclarationList ret = readSimpleDeclarationList (sStyle);
+      if (ret != null)
+        return ret;
+    }
+
+    final ParserContext aContext = s_aContext.get ();
+    // Avoid problems if called recursively from within an error handler
+    final boolean bReuse = !aContext.m_bInUse;
+    final ParserContext aRealContext = bReuse ? aContext : new ParserContext ();
+    aRealContext.m_bInUse = true;
+    boolean bSuccess = false;
+    try
+    {
+      final CSSNode aNode = aRealContext.readStyleDeclarationList (sStyle,
+                                                                   eVersion,
+                                                                   aCustomErrorHandler,
+                                                                   aCustomExceptionHandler);
+
+      // Convert the AST to a domain object, unless interpreting the content
+      // as CSS failed
+      final CSSDeclarationList ret = aNode == null ? null
+                                                   : CSSHandler.readDeclarationListFromNode (eVersion, aNode);
+      bSuccess = true;
+      return ret;
+    }
+    finally
+    {
+      // The nodes are reused by the next call, unless an exception may
+      // reference them
+      if (bSuccess)
+        aRealContext.m_aNodePool.reset ();
+      else
+        aRealContext.m_aNodePool.clear ();
+      if (bReuse)
+        aContext.m_bInUse = false;
+    }
+  }
+
+  /**
+   * Read the passed style attribute content.
+   *
+   * @param sStyle
+   *        The style attribute content (e.g. <code>color:red;</code>). May not
+   *        be <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   */
+  @Nullable
+  public static CSSDeclarationList readFromString (@Nonnull final String sStyle, @Nonnull final ECSSVersion eVersion)
+  {
+    ValueEnforcer.notNull (sStyle, "Style");
+    ValueEnforcer.notNull (eVersion, "Version");
+
+    return _read (sStyle,
+                  eVersion,
+                  CSSReaderDeclarationList.getDefaultParseErrorHandler (),
+                  CSSReaderDeclarationList.getDefaultParseExceptionHandler ());
+  }
+
+  /**
+   * Read the passed style attribute content.
+   *
+   * @param sStyle
+   *        The style attribute content (e.g. <code>color:red;</code>). May not
+   *        be <code>null</code>.
+   * @param aSettings
+   *        The settings to be used for reading the CSS. Only the CSS version
+   *        and the error and exception handlers are used. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   */
+  @Nullable
+  public static CSSDeclarationList readFromString (@Nonnull final String sStyle,
+                                                   @Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (sStyle, "Style");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    // Use the default CSS parse error handler if none is provided
+    ICSSParseErrorHandler aRealErrorHandler = aSettings.getCustomErrorHandler ();
+    if (aRealErrorHandler == null)
+      aRealErrorHandler = CSSReaderDeclarationList.getDefaultParseErrorHandler ();
+
+    // Use the default CSS exception handler if none is provided
+    ICSSParseExceptionHandler aRealExceptionHandler = aSettings.getCustomExceptionHandler ();
+    if (aRealExceptionHandler == null)
+      aRealExceptionHandler = CSSReaderDeclarationList.getDefaultParseExceptionHandler ();
+
+    return _read (sStyle, aSettings.getCSSVersion (), aRealErrorHandler, aRealExceptionHandler);
+  }
+
+  /**
+   * Read the passed style attribute content using a cache. Note: a deep copy
+   * of the cached declarations is returned, so it may be modified.
+   *
+   * @param sStyle
+   *        The style attribute content (e.g. <code>color:red;</code>). May not
+   *        be <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed, the CSS declarations
+   *         otherwise.
+   */
+  @Nullable
+  public static CSSDeclarationList readFromStringCached (@Nonnull final String sStyle,
+                                                         @Nonnull final ECSSVersion eVersion)
+  {
+    CSSDeclarationList ret = s_aCache.get (eVersion, sStyle);
+    if (ret == null)
+    {
+      ret = readFromString (sStyle, eVersion);
+      if (ret == null)
+        return null;
+      s_aCache.put (eVersion, sStyle, ret);
+    }
+    // The cached object must not be modified by the caller
+    return ret.getClone ();
+  }
+
+  /**
+   * Read many style attribute contents at once.
+   *
+   * @param aStyles
+   *        The style attribute contents to read. May not be <code>null</code>
+   *        and may not contain <code>null</code> elements.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @param bUseCache
+   *        <code>true</code> to use the cache (see
+   *        {@link #readFromStringCached(String, ECSSVersion)}),
+   *        <code>false</code> to always create new objects.
+   * @return A list with the same size and order as the passed styles. Each
+   *         element is <code>null</code> if reading the respective style failed.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static List <CSSDeclarationList> readFromStrings (@Nonnull final Iterable <String> aStyles,
+                                                           @Nonnull final ECSSVersion eVersion,
+                                                           final boolean bUseCache)
+  {
+    ValueEnforcer.notNull (aStyles, "Styles");
+    ValueEnforcer.notNull (eVersion, "Version");
+
+    final List <CSSDeclarationList> ret = new ArrayList <CSSDeclarationList> ();
+    for (final String sStyle : aStyles)
+      ret.add (bUseCache ? readFromStringCached (sStyle, eVersion) : readFromString (sStyle, eVersion));
+    return ret;
+  }
+
+  /**
+   * Remove all entries from the cache.
+   *
+   * @return {@link EChange}
+   */
+  @Nonnull
+  public static EChange clearCache ()
+  {
+    return s_aCache.clear ();
+  }
+}
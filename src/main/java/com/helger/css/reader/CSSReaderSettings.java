@@ -17,17 +17,22 @@
 package com.helger.css.reader;
 
 import java.nio.charset.Charset;
+import java.util.EnumSet;
+import java.util.Set;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.ICloneable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
+import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.charset.CCharset;
 import com.helger.commons.charset.CharsetManager;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.css.ECSSVersion;
+import com.helger.css.decl.ECSSRuleType;
 import com.helger.css.handler.ICSSParseExceptionHandler;
 import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
 
@@ -41,11 +46,18 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
 {
   public static final ECSSVersion DEFAULT_VERSION = ECSSVersion.CSS30;
   public static final Charset DEFAULT_CHARSET = CCharset.CHARSET_ISO_8859_1_OBJ;
+  public static final boolean DEFAULT_USE_NODE_POOL = false;
+  /** Deadline value indicating that there is no deadline */
+  public static final long NO_DEADLINE = 0;
 
   private ECSSVersion m_eCSSVersion = DEFAULT_VERSION;
   private Charset m_aFallbackCharset = DEFAULT_CHARSET;
   private ICSSParseErrorHandler m_aCustomErrorHandler;
   private ICSSParseExceptionHandler m_aCustomExceptionHandler;
+  private final Set <ECSSRuleType> m_aRuleTypesToRead = EnumSet.allOf (ECSSRuleType.class);
+  private boolean m_bUseNodePool = DEFAULT_USE_NODE_POOL;
+  private ICSSCancellationToken m_aCancellationToken;
+  private long m_nDeadline = NO_DEADLINE;
 
   public CSSReaderSettings ()
   {}
@@ -57,6 +69,11 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
     m_aFallbackCharset = aOther.m_aFallbackCharset;
     m_aCustomErrorHandler = aOther.m_aCustomErrorHandler;
     m_aCustomExceptionHandler = aOther.m_aCustomExceptionHandler;
+    m_aRuleTypesToRead.clear ();
+    m_aRuleTypesToRead.addAll (aOther.m_aRuleTypesToRead);
+    m_bUseNodePool = aOther.m_bUseNodePool;
+    m_aCancellationToken = aOther.m_aCancellationToken;
+    m_nDeadline = aOther.m_nDeadline;
   }
 
   /**
@@ -183,6 +200,196 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
     return this;
   }
 
+  /**
+   * @return <code>true</code> if all rule types are read, <code>false</code> if
+   *         at least one rule type is skipped. Defaults to <code>true</code>.
+   */
+  public boolean isReadAllRuleTypes ()
+  {
+    return m_aRuleTypesToRead.size () == ECSSRuleType.values ().length;
+  }
+
+  /**
+   * Check if top-level rules of the passed type are read.
+   *
+   * @param eRuleType
+   *        The rule type to check. May be <code>null</code>.
+   * @return <code>true</code> if rules of this type are read,
+   *         <code>false</code> if they are skipped.
+   */
+  public boolean isReadRuleType (@Nullable final ECSSRuleType eRuleType)
+  {
+    return m_aRuleTypesToRead.contains (eRuleType);
+  }
+
+  /**
+   * @return A copy of all rule types that are read. By default all rule types
+   *         are read. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public Set <ECSSRuleType> getAllRuleTypesToRead ()
+  {
+    return EnumSet.copyOf (m_aRuleTypesToRead);
+  }
+
+  /**
+   * Define the top-level rule types to be read. All rules of other types are
+   * skipped on the token level, so that neither the parse tree nor the domain
+   * objects are created for them. Nested rules (e.g. the style rules inside a
+   * <code>@media</code> rule) are always read if the surrounding rule is read.
+   *
+   * @param aRuleTypes
+   *        The rule types to read. May not be <code>null</code> but may be
+   *        empty, in which case no top-level rule is read and an empty style
+   *        sheet is returned for valid input.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSReaderSettings setRuleTypesToRead (@Nonnull final ECSSRuleType... aRuleTypes)
+  {
+    ValueEnforcer.notNull (aRuleTypes, "RuleTypes");
+    m_aRuleTypesToRead.clear ();
+    for (final ECSSRuleType eRuleType : aRuleTypes)
+      m_aRuleTypesToRead.add (ValueEnforcer.notNull (eRuleType, "RuleType"));
+    return this;
+  }
+
+  /**
+   * Define the top-level rule types to be read. All rules of other types are
+   * skipped on the token level.
+   *
+   * @param aRuleTypes
+   *        The rule types to read. May not be <code>null</code> but may be
+   *        empty, in which case no top-level rule is read and an empty style
+   *        sheet is returned for valid input.
+   * @return this
+   * @since 3.9.3
+   * @see #setRuleTypesToRead(ECSSRuleType...)
+   */
+  @Nonnull
+  public CSSReaderSettings setRuleTypesToRead (@Nonnull final Iterable <ECSSRuleType> aRuleTypes)
+  {
+    ValueEnforcer.notNull (aRuleTypes, "RuleTypes");
+    m_aRuleTypesToRead.clear ();
+    for (final ECSSRuleType eRuleType : aRuleTypes)
+      m_aRuleTypesToRead.add (ValueEnforcer.notNull (eRuleType, "RuleType"));
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the parse tree nodes are taken from the pool
+   *         of the {@link CSSReader}, <code>false</code> if new nodes are
+   *         created for each parse. Defaults to {@link #DEFAULT_USE_NODE_POOL}.
+   */
+  public boolean isUseNodePool ()
+  {
+    return m_bUseNodePool;
+  }
+
+  /**
+   * Define whether the parse tree nodes should be taken from the
+   * {@link com.helger.css.parser.CSSNodePool} of the {@link CSSReader}
+   * instance. As the parse tree is only needed until the domain objects are
+   * created, this reduces the garbage created when many style sheets are read
+   * with the same reader. The pool is used by one read operation at a time and
+   * is released together with the reader. The static reading methods use the
+   * pool of the default reader.
+   *
+   * @param bUseNodePool
+   *        <code>true</code> to use the node pool, <code>false</code> to create
+   *        new nodes for each parse.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSReaderSettings setUseNodePool (final boolean bUseNodePool)
+  {
+    m_bUseNodePool = bUseNodePool;
+    return this;
+  }
+
+  /**
+   * @return The cancellation token to be checked while parsing. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public ICSSCancellationToken getCancellationToken ()
+  {
+    return m_aCancellationToken;
+  }
+
+  /**
+   * Set a cancellation token that is checked before each top-level rule and
+   * periodically while reading the input. If it is cancelled, parsing is
+   * aborted and a {@link com.helger.css.parser.ParseCancelledException} is
+   * passed to the exception handler.
+   *
+   * @param aCancellationToken
+   *        The cancellation token to use. May be <code>null</code>.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSReaderSettings setCancellationToken (@Nullable final ICSSCancellationToken aCancellationToken)
+  {
+    m_aCancellationToken = aCancellationToken;
+    return this;
+  }
+
+  /**
+   * @return The absolute deadline in milliseconds or {@link #NO_DEADLINE}.
+   */
+  public long getDeadline ()
+  {
+    return m_nDeadline;
+  }
+
+  /**
+   * @return <code>true</code> if a deadline is defined.
+   */
+  public boolean hasDeadline ()
+  {
+    return m_nDeadline > NO_DEADLINE;
+  }
+
+  /**
+   * Set an absolute deadline for parsing. It is checked like the cancellation
+   * token. If it is exceeded, parsing is aborted and a
+   * {@link com.helger.css.parser.ParseCancelledException} is passed to the
+   * exception handler.
+   *
+   * @param nDeadline
+   *        The deadline in milliseconds as returned by
+   *        {@link System#currentTimeMillis()}. Use {@link #NO_DEADLINE} to
+   *        disable the deadline.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSReaderSettings setDeadline (final long nDeadline)
+  {
+    m_nDeadline = Math.max (nDeadline, NO_DEADLINE);
+    return this;
+  }
+
+  /**
+   * Set the deadline relative to the current time.
+   *
+   * @param nTimeoutMillis
+   *        The number of milliseconds from now. Must be &ge; 0.
+   * @return this
+   * @since 3.9.3
+   * @see #setDeadline(long)
+   */
+  @Nonnull
+  public CSSReaderSettings setTimeout (@Nonnegative final long nTimeoutMillis)
+  {
+    ValueEnforcer.isGE0 (nTimeoutMillis, "TimeoutMillis");
+    return setDeadline (System.currentTimeMillis () + nTimeoutMillis);
+  }
+
   @Nonnull
   public CSSReaderSettings getClone ()
   {
@@ -196,6 +403,10 @@ public class CSSReaderSettings implements ICloneable <CSSReaderSettings>
                                        .append ("FallbackCharset", m_aFallbackCharset)
                                        .append ("CustomErrorHandler", m_aCustomErrorHandler)
                                        .append ("CustomExceptionHandler", m_aCustomExceptionHandler)
+                                       .append ("RuleTypesToRead", m_aRuleTypesToRead)
+                                       .append ("UseNodePool", m_bUseNodePool)
+                                       .appendIfNotNull ("CancellationToken", m_aCancellationToken)
+                                       .append ("Deadline", m_nDeadline)
                                        .toString ();
   }
 }
@@ -0,0 +1,333 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSNamespaceRule;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.handler.ECSSNodeType;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.CSSCancellationCheck;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.CSSNodePool;
+import com.helger.css.parser.ParseCancelledException;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParserCSS30;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.parser.TokenMgrError;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+
+/**
+ * A pull based reader for the top-level rules of a CSS 3.0 style sheet. Only
+ * the next top-level rule is parsed when requested and no reference to earlier
+ * rules is kept, so the memory consumption is bounded by the largest single
+ * rule. This is meant for huge style sheets that should not be read into a
+ * {@link com.helger.css.decl.CascadingStyleSheet} as a whole.<br>
+ * <code>@charset</code> rules are ignored. <code>@import</code> and
+ * <code>@namespace</code> rules are not {@link ICSSTopLevelRule}s and are
+ * therefore collected separately and available via
+ * {@link #getAllImportRules()} and {@link #getAllNamespaceRules()} as soon as
+ * the first other rule was read.<br>
+ * The reader is closed automatically when the end of the input is reached or
+ * an unrecoverable error occurred. Call {@link #close()} if the iteration is
+ * stopped earlier.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSTopLevelRuleIterator implements Iterator <ICSSTopLevelRule>, Closeable
+{
+  private final Reader m_aReader;
+  private final ParserCSS30 m_aParser;
+  private final ICSSParseExceptionHandler m_aExceptionHandler;
+  private final CSSNodePool m_aNodePool;
+  private final List <CSSImportRule> m_aImportRules = new ArrayList <CSSImportRule> ();
+  private final List <CSSNamespaceRule> m_aNamespaceRules = new ArrayList <CSSNamespaceRule> ();
+  private ICSSTopLevelRule m_aNextRule;
+  private int m_nRuleCount = 0;
+  private boolean m_bFinished = false;
+  private boolean m_bUnrecoverableError = false;
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read the CSS from. It is closed when the end of the
+   *        input is reached or when {@link #close()} is called. May not be
+   *        <code>null</code>.
+   * @param aSettings
+   *        The settings to use. Only CSS 3.0 is supported. The fallback
+   *        charset is ignored, as the reader already has an implicit charset.
+   *        May not be <code>null</code>.
+   */
+  public CSSTopLevelRuleIterator (@Nonnull @WillCloseWhenClosed final Reader aReader,
+                                  @Nonnull final CSSReaderSettings aSettings)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.isTrue (aSettings.getCSSVersion () == ECSSVersion.CSS30, "Only CSS 3.0 is supported");
+
+    // Use the default CSS parse error handler if none is provided
+    ICSSParseErrorHandler aRealErrorHandler = aSettings.getCustomErrorHandler ();
+    if (aRealErrorHandler == null)
+      aRealErrorHandler = CSSReader.getDefaultParseErrorHandler ();
+
+    // Use the default CSS exception handler if none is provided
+    ICSSParseExceptionHandler aRealExceptionHandler = aSettings.getCustomExceptionHandler ();
+    if (aRealExceptionHandler == null)
+      aRealExceptionHandler = CSSReader.getDefaultParseExceptionHandler ();
+
+    final CSSCancellationCheck aCancellationCheck = CSSCancellationCheck.createIfNeeded (aSettings.getCancellationToken (),
+                                                                                        aSettings.getDeadline ());
+    final CSSCharStream aCharStream = new CSSCharStream (aReader);
+    aCharStream.setCancellationCheck (aCancellationCheck);
+
+    m_aReader = aReader;
+    m_aParser = new ParserCSS30 (new ParserCSS30TokenManager (aCharStream));
+    m_aParser.setCustomErrorHandler (aRealErrorHandler);
+    m_aParser.setCancellationCheck (aCancellationCheck);
+    if (!aSettings.isReadAllRuleTypes ())
+      m_aParser.setRuleTypesToRead (aSettings.getAllRuleTypesToRead ());
+    m_aExceptionHandler = aRealExceptionHandler;
+    // One pool per iterator is sufficient, as only one rule exists at a time
+    m_aNodePool = aSettings.isUseNodePool () ? new CSSNodePool () : null;
+    if (m_aNodePool != null)
+      m_aParser.setNodePool (m_aNodePool);
+  }
+
+  private void _finish ()
+  {
+    m_bFinished = true;
+    StreamUtils.close (m_aReader);
+  }
+
+  /**
+   * Convert the passed rule node to a domain object.
+   *
+   * @param aRuleNode
+   *        The node to convert.
+   * @return <code>null</code> if the rule is not an {@link ICSSTopLevelRule}.
+   */
+  @Nullable
+  private ICSSTopLevelRule _convert (@Nonnull final CSSNode aRuleNode)
+  {
+    final ECSSVersion eVersion = ECSSVersion.CSS30;
+    if (ECSSNodeType.CHARSET.isNode (aRuleNode, eVersion))
+    {
+      // Ignore because the reader already has a charset
+      return null;
+    }
+    if (ECSSNodeType.IMPORTRULE.isNode (aRuleNode, eVersion))
+    {
+      m_aImportRules.add (CSSHandler.readImportRuleFromNode (eVersion, aRuleNode));
+      return null;
+    }
+    if (ECSSNodeType.NAMESPACERULE.isNode (aRuleNode, eVersion))
+    {
+      m_aNamespaceRules.add (CSSHandler.readNamespaceRuleFromNode (eVersion, aRuleNode));
+      return null;
+    }
+    return CSSHandler.readTopLevelRuleFromNode (eVersion, aRuleNode);
+  }
+
+  private void _readNext ()
+  {
+    while (!m_bFinished)
+    {
+      final CSSNode aNode;
+      try
+      {
+        aNode = m_aParser.topLevelRule ();
+      }
+      catch (final ParseException ex)
+      {
+        // Unrecoverable error
+        m_bUnrecoverableError = true;
+        _finish ();
+        m_aExceptionHandler.onException (ex);
+        return;
+      }
+      catch (final TokenMgrError ex)
+      {
+        m_bUnrecoverableError = true;
+        _finish ();
+        final ParseCancelledException aCancelledEx = ParseCancelledException.getFromError (ex);
+        m_aExceptionHandler.onException (aCancelledEx != null ? aCancelledEx : new ParseException (ex.getMessage ()));
+        return;
+      }
+      finally
+      {
+        // The root node stays on the stack otherwise
+        m_aParser.resetNodeStack ();
+      }
+
+      if (aNode == null)
+      {
+        // End of input
+        _finish ();
+        return;
+      }
+
+      boolean bSuccess = false;
+      try
+      {
+        m_aNextRule = _convert (aNode.jjtGetChild (0));
+        bSuccess = true;
+      }
+      finally
+      {
+        if (m_aNodePool != null)
+        {
+          // Don't reuse nodes that may be referenced from an exception
+          if (bSuccess)
+            m_aNodePool.reset ();
+          else
+            m_aNodePool.clear ();
+        }
+      }
+
+      if (m_aNextRule != null)
+      {
+        m_nRuleCount++;
+        return;
+      }
+    }
+  }
+
+  public boolean hasNext ()
+  {
+    if (m_aNextRule == null)
+      _readNext ();
+    return m_aNextRule != null;
+  }
+
+  @Nonnull
+  public ICSSTopLevelRule next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+    final ICSSTopLevelRule ret = m_aNextRule;
+    m_aNextRule = null;
+    return ret;
+  }
+
+  public void remove ()
+  {
+    throw new UnsupportedOperationException ();
+  }
+
+  /**
+   * Stop reading and close the underlying reader. Afterwards no more rules are
+   * returned.
+   */
+  public void close ()
+  {
+    m_aNextRule = null;
+    if (!m_bFinished)
+      _finish ();
+  }
+
+  /**
+   * @return <code>true</code> if the end of the input was reached, an
+   *         unrecoverable error occurred or the iterator was closed.
+   */
+  public boolean isFinished ()
+  {
+    return m_bFinished;
+  }
+
+  /**
+   * @return <code>true</code> if reading stopped because of an unrecoverable
+   *         error. The error itself was passed to the
+   *         {@link ICSSParseExceptionHandler}.
+   */
+  public boolean hasUnrecoverableError ()
+  {
+    return m_bUnrecoverableError;
+  }
+
+  /**
+   * @return The number of nodes currently on the stack of the underlying
+   *         parser. Only for testing.
+   */
+  int getParserNodeStackSize ()
+  {
+    return m_aParser.getNodeStackSize ();
+  }
+
+  /**
+   * @return The number of {@link ICSSTopLevelRule}s read so far.
+   */
+  public int getReadRuleCount ()
+  {
+    return m_nRuleCount;
+  }
+
+  /**
+   * @return A copy of all <code>@import</code> rules read so far. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public List <CSSImportRule> getAllImportRules ()
+  {
+    return CollectionHelper.newList (m_aImportRules);
+  }
+
+  /**
+   * @return A copy of all <code>@namespace</code> rules read so far. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public List <CSSNamespaceRule> getAllNamespaceRules ()
+  {
+    return CollectionHelper.newList (m_aNamespaceRules);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("readRuleCount", m_nRuleCount)
+                                       .append ("importRules", m_aImportRules.size ())
+                                       .append ("namespaceRules", m_aNamespaceRules.size ())
+                                       .append ("finished", m_bFinished)
+                                       .append ("unrecoverableError", m_bUnrecoverableError)
+                                       .toString ();
+  }
+}
@@ -0,0 +1,373 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.collections.NonBlockingStack;
+import com.helger.commons.io.IInputStreamProvider;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.state.ESuccess;
+import com.helger.css.decl.ECSSRuleType;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParseUtils;
+import com.helger.css.parser.ParserCSS30Constants;
+import com.helger.css.parser.ParserCSS30TokenManager;
+import com.helger.css.parser.Token;
+import com.helger.css.parser.TokenMgrError;
+
+/**
+ * A lightweight scanner that extracts all <code>@import</code> locations and
+ * all URLs used in declarations from a CSS source. In contrast to
+ * {@link com.helger.css.decl.visit.CSSVisitorForUrl} only the tokenizer is
+ * used, so neither a parse tree nor a {@link com.helger.css.decl.CascadingStyleSheet}
+ * is created. The reported URLs are identical to the ones reported by the
+ * visitor for syntactically valid CSS.<br>
+ * The CSS 3.0 tokenizer is used, as it also covers CSS 2.1.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSUrlScanner
+{
+  @PresentForCodeCoverage
+  @SuppressWarnings ("unused")
+  private static final CSSUrlScanner s_aInstance = new CSSUrlScanner ();
+
+  private CSSUrlScanner ()
+  {}
+
+  /**
+   * Get the type of the rule starting with the passed token.
+   *
+   * @param nTokenKind
+   *        The kind of the first token of the rule
+   * @return Never <code>null</code>.
+   */
+  @Nonnull
+  private static ECSSRuleType _getRuleType (final int nTokenKind)
+  {
+    switch (nTokenKind)
+    {
+      case ParserCSS30Constants.IMPORT_SYM:
+        return ECSSRuleType.IMPORT;
+      case ParserCSS30Constants.NAMESPACE_SYM:
+        return ECSSRuleType.NAMESPACE;
+      case ParserCSS30Constants.PAGE_SYM:
+        return ECSSRuleType.PAGE;
+      case ParserCSS30Constants.MEDIA_SYM:
+        return ECSSRuleType.MEDIA;
+      case ParserCSS30Constants.FONTFACE_SYM:
+        return ECSSRuleType.FONT_FACE;
+      case ParserCSS30Constants.KEYFRAMES_SYM:
+        return ECSSRuleType.KEYFRAMES;
+      case ParserCSS30Constants.VIEWPORT_SYM:
+        return ECSSRuleType.VIEWPORT;
+      case ParserCSS30Constants.SUPPORTS_SYM:
+        return ECSSRuleType.SUPPORTS;
+      case ParserCSS30Constants.CHARSET_SYM:
+        return ECSSRuleType.UNKNOWN;
+      default:
+        return ECSSRuleType.STYLE;
+    }
+  }
+
+  /**
+   * Check if the passed rule type may contain other rules.
+   *
+   * @param eRuleType
+   *        The rule type to check. May be <code>null</code> for the top-level.
+   * @return <code>true</code> if the next token may start a new rule.
+   */
+  private static boolean _isRuleContainer (@Nullable final ECSSRuleType eRuleType)
+  {
+    return eRuleType == null || eRuleType == ECSSRuleType.MEDIA || eRuleType == ECSSRuleType.SUPPORTS;
+  }
+
+  private static void _scan (@Nonnull final ParserCSS30TokenManager aTokenMgr,
+                             @Nonnull final ICSSUrlScanHandler aHandler)
+  {
+    // The rule types of all open blocks
+    final NonBlockingStack <ECSSRuleType> aBlocks = new NonBlockingStack <ECSSRuleType> ();
+    // The type of the rule whose prelude is currently read
+    ECSSRuleType ePrelude = null;
+    // Was the location of the current import rule already reported?
+    boolean bImportReported = false;
+    // Are we at the start of a declaration?
+    boolean bDeclarationStart = false;
+    String sPropertyCandidate = null;
+    String sProperty = null;
+    // Nesting level of parenthesis inside a declaration value
+    int nParenthesisNesting = 0;
+    // Nesting level inside an unknown rule, or 0 if not inside an unknown rule
+    int nUnknownRuleNesting = 0;
+    boolean bInUnknownRule = false;
+
+    Token aToken;
+    while ((aToken = aTokenMgr.getNextToken ()).kind != ParserCSS30Constants.EOF)
+    {
+      final int nKind = aToken.kind;
+      if (nKind == ParserCSS30Constants.S)
+        continue;
+
+      if (bInUnknownRule)
+      {
+        // Like the parser, skip everything up to the matching closing brace
+        if (nKind == ParserCSS30Constants.LBRACE)
+          nUnknownRuleNesting++;
+        else
+          if (nKind == ParserCSS30Constants.RBRACE)
+          {
+            nUnknownRuleNesting--;
+            if (nUnknownRuleNesting == 0)
+            {
+              bInUnknownRule = false;
+              bDeclarationStart = true;
+              // Manually switch from IN_UNKNOWN_RULE to DEFAULT again
+              aTokenMgr.SwitchTo (ParserCSS30Constants.DEFAULT);
+            }
+          }
+        continue;
+      }
+
+      final ECSSRuleType eCurrentBlock = aBlocks.isEmpty () ? null : aBlocks.peek ();
+      switch (nKind)
+      {
+        case ParserCSS30Constants.LBRACE:
+          // Keyframes blocks and nested blocks belong to the surrounding rule
+          aBlocks.push (ePrelude != null ? ePrelude : eCurrentBlock != null ? eCurrentBlock : ECSSRuleType.STYLE);
+          ePrelude = null;
+          bDeclarationStart = true;
+          sProperty = null;
+          nParenthesisNesting = 0;
+          break;
+        case ParserCSS30Constants.RBRACE:
+          // Too many closing braces are ignored
+          if (!aBlocks.isEmpty ())
+            aBlocks.pop ();
+          ePrelude = null;
+          bDeclarationStart = true;
+          sProperty = null;
+          nParenthesisNesting = 0;
+          break;
+        case ParserCSS30Constants.SEMICOLON:
+          ePrelude = null;
+          bDeclarationStart = true;
+          sProperty = null;
+          nParenthesisNesting = 0;
+          break;
+        case ParserCSS30Constants.CDO:
+        case ParserCSS30Constants.CDC:
+          break;
+        case ParserCSS30Constants.AT_UNKNOWN:
+          // The tokenizer switched to the IN_UNKNOWN_RULE state
+          bInUnknownRule = true;
+          nUnknownRuleNesting = 0;
+          ePrelude = null;
+          break;
+        default:
+          if (ePrelude == null && _isRuleContainer (eCurrentBlock))
+          {
+            ePrelude = _getRuleType (nKind);
+            bImportReported = false;
+          }
+
+          if (ePrelude == ECSSRuleType.IMPORT)
+          {
+            // The first URL or string is the location
+            if (!bImportReported)
+              if (nKind == ParserCSS30Constants.URL)
+              {
+                aHandler.onImport (aToken.image, aToken.beginLine, aToken.beginColumn);
+                bImportReported = true;
+              }
+              else
+                if (nKind == ParserCSS30Constants.STRING1 || nKind == ParserCSS30Constants.STRING2)
+                {
+                  aHandler.onImport (ParseUtils.extractStringValue (aToken.image),
+                                     aToken.beginLine,
+                                     aToken.beginColumn);
+                  bImportReported = true;
+                }
+            break;
+          }
+
+          if (eCurrentBlock != null && ePrelude == null)
+          {
+            // Inside a declaration list
+            if (bDeclarationStart)
+            {
+              sPropertyCandidate = nKind == ParserCSS30Constants.IDENT ? aToken.image : null;
+              bDeclarationStart = false;
+            }
+            else
+              if (sPropertyCandidate != null)
+              {
+                if (nKind == ParserCSS30Constants.COLON)
+                  sProperty = sPropertyCandidate;
+                sPropertyCandidate = null;
+              }
+              else
+                if (sProperty != null)
+                  switch (nKind)
+                  {
+                    case ParserCSS30Constants.URL:
+                      if (nParenthesisNesting == 0)
+                        aHandler.onUrl (eCurrentBlock,
+                                        sProperty.toLowerCase (Locale.US),
+                                        aToken.image,
+                                        aToken.beginLine,
+                                        aToken.beginColumn);
+                      break;
+                    case ParserCSS30Constants.LROUND:
+                    case ParserCSS30Constants.FUNCTION:
+                    case ParserCSS30Constants.FUNCTION_CALC:
+                    case ParserCSS30Constants.FUNCTION_EXPRESSION:
+                      nParenthesisNesting++;
+                      break;
+                    case ParserCSS30Constants.RROUND:
+                      if (nParenthesisNesting > 0)
+                        nParenthesisNesting--;
+                      break;
+                  }
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Scan the passed CSS for URLs.
+   *
+   * @param aReader
+   *        The reader to read the CSS from. Is closed afterwards. May not be
+   *        <code>null</code>.
+   * @param aHandler
+   *        The handler that is invoked for each URL found. May not be
+   *        <code>null</code>.
+   * @param aCustomExceptionHandler
+   *        An optional exception handler for unrecoverable errors. May be
+   *        <code>null</code> in which case the default exception handler of
+   *        {@link CSSReader} is used.
+   * @return {@link ESuccess#FAILURE} if the tokenizer failed. In this case the
+   *         exception handler was invoked. Never <code>null</code>.
+   */
+  @Nonnull
+  public static ESuccess scan (@Nonnull @WillClose final Reader aReader,
+                               @Nonnull final ICSSUrlScanHandler aHandler,
+                               @Nullable final ICSSParseExceptionHandler aCustomExceptionHandler)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    try
+    {
+      _scan (new ParserCSS30TokenManager (new CSSCharStream (aReader)), aHandler);
+      return ESuccess.SUCCESS;
+    }
+    catch (final TokenMgrError ex)
+    {
+      final ICSSParseExceptionHandler aRealExceptionHandler = aCustomExceptionHandler != null ? aCustomExceptionHandler
+                                                                                              : CSSReader.getDefaultParseExceptionHandler ();
+      aRealExceptionHandler.onException (new ParseException (ex.getMessage ()));
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamUtils.close (aReader);
+    }
+  }
+
+  /**
+   * Scan the passed CSS for URLs using the default exception handler.
+   *
+   * @param aReader
+   *        The reader to read the CSS from. Is closed afterwards. May not be
+   *        <code>null</code>.
+   * @param aHandler
+   *        The handler that is invoked for each URL found. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the tokenizer failed. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static ESuccess scan (@Nonnull @WillClose final Reader aReader, @Nonnull final ICSSUrlScanHandler aHandler)
+  {
+    return scan (aReader, aHandler, null);
+  }
+
+  /**
+   * Scan the passed CSS string for URLs using the default exception handler.
+   *
+   * @param sCSS
+   *        The CSS to scan. May not be <code>null</code>.
+   * @param aHandler
+   *        The handler that is invoked for each URL found. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the tokenizer failed. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static ESuccess scan (@Nonnull final String sCSS, @Nonnull final ICSSUrlScanHandler aHandler)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+    return scan (new NonBlockingStringReader (sCSS), aHandler, null);
+  }
+
+  /**
+   * Scan the CSS from the passed input stream provider for URLs using the
+   * default exception handler. No charset detection takes place.
+   *
+   * @param aISP
+   *        The input stream provider to use. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset to be used to read the CSS. May not be
+   *        <code>null</code>.
+   * @param aHandler
+   *        The handler that is invoked for each URL found. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the input stream could not be opened
+   *         or the tokenizer failed. Never <code>null</code>.
+   */
+  @Nonnull
+  public static ESuccess scan (@Nonnull final IInputStreamProvider aISP,
+                               @Nonnull final Charset aCharset,
+                               @Nonnull final ICSSUrlScanHandler aHandler)
+  {
+    ValueEnforcer.notNull (aISP, "InputStreamProvider");
+    ValueEnforcer.notNull (aCharset, "Charset");
+
+    final InputStream aIS = aISP.getInputStream ();
+    if (aIS == null)
+      return ESuccess.FAILURE;
+    return scan (StreamUtils.createReader (aIS, aCharset), aHandler, null);
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import javax.annotation.Nonnull;
+
+import com.helger.css.parser.CSSNode;
+import com.helger.css.parser.ParseException;
+import com.helger.css.parser.ParserCSS21;
+import com.helger.css.parser.ParserCSS30;
+
+/**
+ * The grammar productions that can be used to parse CSS fragments with
+ * {@link CSSParserHelper}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public enum ECSSParserProduction
+{
+  /** A comma separated list of selectors */
+  SELECTOR_LIST
+  {
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS21 aParser) throws ParseException
+    {
+      return aParser.selectorListStandalone ();
+    }
+
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS30 aParser) throws ParseException
+    {
+      return aParser.selectorListStandalone ();
+    }
+  },
+  /** A single expression, e.g. a property value */
+  EXPRESSION
+  {
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS21 aParser) throws ParseException
+    {
+      return aParser.exprStandalone ();
+    }
+
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS30 aParser) throws ParseException
+    {
+      return aParser.exprStandalone ();
+    }
+  },
+  /** A comma separated list of media queries */
+  MEDIA_LIST
+  {
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS21 aParser) throws ParseException
+    {
+      return aParser.mediaListStandalone ();
+    }
+
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS30 aParser) throws ParseException
+    {
+      return aParser.mediaListStandalone ();
+    }
+  },
+  /** A list of declarations, e.g. the content of a style attribute */
+  STYLE_DECLARATION_LIST
+  {
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS21 aParser) throws ParseException
+    {
+      return aParser.styleDeclarationList ();
+    }
+
+    @Override
+    public CSSNode parse (@Nonnull final ParserCSS30 aParser) throws ParseException
+    {
+      return aParser.styleDeclarationList ();
+    }
+  };
+
+  /**
+   * Parse this production with the passed CSS 2.1 parser.
+   *
+   * @param aParser
+   *        The parser to use. May not be <code>null</code>.
+   * @return The created node. Never <code>null</code>.
+   * @throws ParseException
+   *         In case of an unrecoverable error
+   */
+  @Nonnull
+  public abstract CSSNode parse (@Nonnull ParserCSS21 aParser) throws ParseException;
+
+  /**
+   * Parse this production with the passed CSS 3.0 parser.
+   *
+   * @param aParser
+   *        The parser to use. May not be <code>null</code>.
+   * @return The created node. Never <code>null</code>.
+   * @throws ParseException
+   *         In case of an unrecoverable error
+   */
+  @Nonnull
+  public abstract CSSNode parse (@Nonnull ParserCSS30 aParser) throws ParseException;
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+/**
+ * A token that can be used to cancel a running parse from another thread. It is
+ * checked periodically while parsing.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ * @see CSSReaderSettings#setCancellationToken(ICSSCancellationToken)
+ */
+public interface ICSSCancellationToken
+{
+  /**
+   * @return <code>true</code> if the parse should be aborted as soon as
+   *         possible.
+   */
+  boolean isCancelled ();
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import javax.annotation.Nonnull;
+
+import com.helger.css.decl.ECSSRuleType;
+
+/**
+ * Callback interface for {@link CSSUrlScanner}. All URLs are passed as plain
+ * strings, so that no domain objects need to be created.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public interface ICSSUrlScanHandler
+{
+  /**
+   * Called for the location of each <code>@import</code> rule.
+   *
+   * @param sURL
+   *        The imported URL as in {@link com.helger.css.decl.CSSImportRule}.
+   *        Never <code>null</code>.
+   * @param nBeginLine
+   *        The 1-based source line of the URL
+   * @param nBeginColumn
+   *        The 1-based source column of the URL
+   */
+  void onImport (@Nonnull String sURL, int nBeginLine, int nBeginColumn);
+
+  /**
+   * Called for each URL that is a direct member of a declaration value - the
+   * equivalent of a {@link com.helger.css.decl.CSSExpressionMemberTermURI}.
+   *
+   * @param eRuleType
+   *        The type of the innermost rule the declaration belongs to. Never
+   *        <code>null</code>.
+   * @param sPropertyName
+   *        The lower case property name of the declaration. Never
+   *        <code>null</code>.
+   * @param sURL
+   *        The unescaped URL without the surrounding <code>url(...)</code>.
+   *        Never <code>null</code>.
+   * @param nBeginLine
+   *        The 1-based source line of the URL
+   * @param nBeginColumn
+   *        The 1-based source column of the URL
+   */
+  void onUrl (@Nonnull ECSSRuleType eRuleType,
+              @Nonnull String sPropertyName,
+              @Nonnull String sURL,
+              int nBeginLine,
+              int nBeginColumn);
+}
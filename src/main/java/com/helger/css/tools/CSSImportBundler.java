@@ -0,0 +1,486 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.ExtendedDefaultThreadFactory;
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.io.IReadableResource;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSNamespaceRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+
+/**
+ * Resolves all <code>@import</code> rules of a CSS and creates a single
+ * flattened {@link CascadingStyleSheet}. Imported style sheets are loaded and
+ * parsed in parallel. Imports with media queries are wrapped in a media rule
+ * using
+ * {@link MediaQueryTools#getWrappedInMediaQuery(CascadingStyleSheet, Iterable, boolean)}
+ * . Cyclic imports are detected and ignored. Imports that cannot be resolved by
+ * the {@link ICSSImportResolver} or that cannot be read are retained as
+ * <code>@import</code> rules at the beginning of the result.<br>
+ * Every parsed resource is cached by its resource ID, so that consecutive
+ * bundling calls on the same object don't need to parse the same file twice.
+ * Note: the rule objects of the cached style sheets are reused in the result,
+ * so modifying the result also modifies the cached objects! Use
+ * {@link #clearCache()} if the underlying files changed. Resources that could
+ * not be read are not cached.<br>
+ * All bundling calls share the same executor. Call {@link #close()} to shut it
+ * down if it was created by this object.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@ThreadSafe
+public class CSSImportBundler implements Closeable
+{
+  public static final int DEFAULT_THREAD_COUNT = Runtime.getRuntime ().availableProcessors ();
+  /** The number of seconds after which idle threads of the own executor end */
+  public static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (CSSImportBundler.class);
+
+  private final ICSSImportResolver m_aResolver;
+  private final CSSReaderSettings m_aSettings;
+  private final ExecutorService m_aExecutor;
+  private final boolean m_bOwnsExecutor;
+  private final ConcurrentMap <String, Future <CascadingStyleSheet>> m_aCache = new ConcurrentHashMap <String, Future <CascadingStyleSheet>> ();
+
+  /**
+   * Constructor using a {@link DefaultCSSImportResolver}, default reader
+   * settings and {@link #DEFAULT_THREAD_COUNT} threads.
+   */
+  public CSSImportBundler ()
+  {
+    this (new DefaultCSSImportResolver (), new CSSReaderSettings (), DEFAULT_THREAD_COUNT);
+  }
+
+  /**
+   * Constructor using an own executor.
+   *
+   * @param aResolver
+   *        The import resolver to be used. May not be <code>null</code>.
+   * @param aSettings
+   *        The reader settings to be used for all style sheets. May not be
+   *        <code>null</code>. The settings are copied internally.
+   * @param nThreadCount
+   *        The maximum number of threads used to read the imported resources
+   *        in parallel. Must be &gt; 0.
+   * @see #createDefaultExecutor(int)
+   */
+  public CSSImportBundler (@Nonnull final ICSSImportResolver aResolver,
+                           @Nonnull final CSSReaderSettings aSettings,
+                           @Nonnegative final int nThreadCount)
+  {
+    this (aResolver, aSettings, createDefaultExecutor (nThreadCount), true);
+  }
+
+  /**
+   * Constructor using an executor provided by the caller.
+   *
+   * @param aResolver
+   *        The import resolver to be used. May not be <code>null</code>.
+   * @param aSettings
+   *        The reader settings to be used for all style sheets. May not be
+   *        <code>null</code>. The settings are copied internally.
+   * @param aExecutor
+   *        The executor used to read the imported resources in parallel. May
+   *        not be <code>null</code>. It is not shut down by {@link #close()}.
+   */
+  public CSSImportBundler (@Nonnull final ICSSImportResolver aResolver,
+                           @Nonnull final CSSReaderSettings aSettings,
+                           @Nonnull final ExecutorService aExecutor)
+  {
+    this (aResolver, aSettings, aExecutor, false);
+  }
+
+  private CSSImportBundler (@Nonnull final ICSSImportResolver aResolver,
+                            @Nonnull final CSSReaderSettings aSettings,
+                            @Nonnull final ExecutorService aExecutor,
+                            final boolean bOwnsExecutor)
+  {
+    ValueEnforcer.notNull (aResolver, "Resolver");
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    m_aResolver = aResolver;
+    m_aSettings = aSettings.getClone ();
+    m_aExecutor = aExecutor;
+    m_bOwnsExecutor = bOwnsExecutor;
+  }
+
+  /**
+   * Create the executor used if none is passed in. Idle threads end after
+   * {@link #THREAD_KEEP_ALIVE_SECONDS} seconds, so an unused bundler does not
+   * keep any threads alive.
+   *
+   * @param nThreadCount
+   *        The maximum number of threads. Must be &gt; 0.
+   * @return A new executor. Never <code>null</code>.
+   */
+  @Nonnull
+  public static ExecutorService createDefaultExecutor (@Nonnegative final int nThreadCount)
+  {
+    ValueEnforcer.isGT0 (nThreadCount, "ThreadCount");
+    final ThreadPoolExecutor ret = new ThreadPoolExecutor (nThreadCount,
+                                                           nThreadCount,
+                                                           THREAD_KEEP_ALIVE_SECONDS,
+                                                           TimeUnit.SECONDS,
+                                                           new LinkedBlockingQueue <Runnable> (),
+                                                           new ExtendedDefaultThreadFactory ("CSSImportBundler"));
+    ret.allowCoreThreadTimeOut (true);
+    return ret;
+  }
+
+  /**
+   * @return The import resolver passed in the constructor. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public ICSSImportResolver getResolver ()
+  {
+    return m_aResolver;
+  }
+
+  /**
+   * @return The executor used to read the imported resources. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public ExecutorService getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @return <code>true</code> if the executor was created by this object and
+   *         is shut down by {@link #close()}.
+   */
+  public boolean isOwnsExecutor ()
+  {
+    return m_bOwnsExecutor;
+  }
+
+  /**
+   * @return The number of resources currently in the parse cache.
+   */
+  @Nonnegative
+  public int getCachedResourceCount ()
+  {
+    return m_aCache.size ();
+  }
+
+  /**
+   * Remove all parsed style sheets from the cache.
+   */
+  public void clearCache ()
+  {
+    m_aCache.clear ();
+  }
+
+  /**
+   * Remove a single parsed style sheet from the cache.
+   *
+   * @param aResource
+   *        The resource to be removed. May not be <code>null</code>.
+   * @return <code>true</code> if the resource was cached, <code>false</code>
+   *         otherwise.
+   */
+  public boolean removeFromCache (@Nonnull final IReadableResource aResource)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+    return m_aCache.remove (aResource.getResourceID ()) != null;
+  }
+
+  /**
+   * A read task that removes itself from the cache if the resource could not be
+   * read, so that the next bundling call tries again.
+   */
+  private final class ReadTask extends FutureTask <CascadingStyleSheet>
+  {
+    private final String m_sKey;
+
+    ReadTask (@Nonnull final String sKey, @Nonnull final Callable <CascadingStyleSheet> aCallable)
+    {
+      super (aCallable);
+      m_sKey = sKey;
+    }
+
+    @Override
+    protected void set (@Nullable final CascadingStyleSheet aCSS)
+    {
+      // Remove before the result becomes visible to waiting threads
+      if (aCSS == null)
+        m_aCache.remove (m_sKey, this);
+      super.set (aCSS);
+    }
+
+    @Override
+    protected void setException (@Nonnull final Throwable t)
+    {
+      m_aCache.remove (m_sKey, this);
+      super.setException (t);
+    }
+  }
+
+  @Nonnull
+  private Future <CascadingStyleSheet> _getOrSchedule (@Nonnull final IReadableResource aResource)
+  {
+    final String sKey = aResource.getResourceID ();
+    Future <CascadingStyleSheet> ret = m_aCache.get (sKey);
+    if (ret == null)
+    {
+      final ReadTask aTask = new ReadTask (sKey, new Callable <CascadingStyleSheet> ()
+      {
+        public CascadingStyleSheet call ()
+        {
+          return _readAndPrefetch (aResource);
+        }
+      });
+      ret = m_aCache.putIfAbsent (sKey, aTask);
+      if (ret == null)
+      {
+        ret = aTask;
+        try
+        {
+          m_aExecutor.execute (aTask);
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          // Executor is already shut down - read in the current thread
+          aTask.run ();
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Nullable
+  private CascadingStyleSheet _readAndPrefetch (@Nonnull final IReadableResource aResource)
+  {
+    if (!aResource.exists ())
+    {
+      s_aLogger.warn ("Failed to resolve CSS import '" + aResource.getPath () + "' - resource does not exist");
+      return null;
+    }
+
+    final CascadingStyleSheet aCSS = CSSReader.readFromStream (aResource, m_aSettings);
+    if (aCSS == null)
+    {
+      s_aLogger.warn ("Failed to parse CSS import '" + aResource.getPath () + "'");
+      return null;
+    }
+
+    // Schedule all imports without waiting for them
+    for (final CSSImportRule aImportRule : aCSS.getAllImportRules ())
+    {
+      final IReadableResource aChildRes = m_aResolver.getResolvedImport (aResource, aImportRule.getLocationString ());
+      if (aChildRes != null)
+        _getOrSchedule (aChildRes);
+    }
+    return aCSS;
+  }
+
+  @Nullable
+  private static CascadingStyleSheet _await (@Nonnull final IReadableResource aResource,
+                                             @Nonnull final Future <CascadingStyleSheet> aFuture)
+  {
+    try
+    {
+      return aFuture.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      s_aLogger.warn ("Interrupted while waiting for CSS import '" + aResource.getPath () + "'");
+    }
+    catch (final ExecutionException ex)
+    {
+      s_aLogger.error ("Failed to read CSS import '" + aResource.getPath () + "'", ex.getCause ());
+    }
+    return null;
+  }
+
+  private static void _addAll (@Nonnull final CascadingStyleSheet aSrc, @Nonnull final CascadingStyleSheet aDst)
+  {
+    for (final CSSImportRule aImportRule : aSrc.getAllImportRules ())
+      aDst.addImportRule (aImportRule);
+    for (final CSSNamespaceRule aNamespaceRule : aSrc.getAllNamespaceRules ())
+      aDst.addNamespaceRule (aNamespaceRule);
+    for (final ICSSTopLevelRule aRule : aSrc.getAllRules ())
+      aDst.addRule (aRule);
+  }
+
+  private void _flatten (@Nonnull final IReadableResource aResource,
+                         @Nonnull final CascadingStyleSheet aCSS,
+                         @Nonnull final Set <String> aResourcesInProgress,
+                         @Nonnull final CascadingStyleSheet aTarget)
+  {
+    for (final CSSImportRule aImportRule : aCSS.getAllImportRules ())
+    {
+      final String sLocation = aImportRule.getLocationString ();
+      final IReadableResource aChildRes = m_aResolver.getResolvedImport (aResource, sLocation);
+      if (aChildRes == null)
+      {
+        // Not resolvable - keep as is
+        aTarget.addImportRule (aImportRule);
+        continue;
+      }
+
+      final String sChildID = aChildRes.getResourceID ();
+      if (aResourcesInProgress.contains (sChildID))
+      {
+        s_aLogger.warn ("Ignoring cyclic CSS import of '" +
+                        sLocation +
+                        "' in '" +
+                        aResource.getPath () +
+                        "'");
+        continue;
+      }
+
+      final CascadingStyleSheet aChildCSS = _await (aChildRes, _getOrSchedule (aChildRes));
+      if (aChildCSS == null)
+      {
+        // Failed to read - keep as is
+        aTarget.addImportRule (aImportRule);
+        continue;
+      }
+
+      aResourcesInProgress.add (sChildID);
+      CascadingStyleSheet aFlatChild = new CascadingStyleSheet ();
+      _flatten (aChildRes, aChildCSS, aResourcesInProgress, aFlatChild);
+      aResourcesInProgress.remove (sChildID);
+
+      if (aImportRule.hasMediaQueries ())
+        aFlatChild = MediaQueryTools.getWrappedInMediaQuery (aFlatChild, aImportRule.getAllMediaQueries (), true);
+      _addAll (aFlatChild, aTarget);
+    }
+
+    for (final CSSNamespaceRule aNamespaceRule : aCSS.getAllNamespaceRules ())
+      aTarget.addNamespaceRule (aNamespaceRule);
+    for (final ICSSTopLevelRule aRule : aCSS.getAllRules ())
+      aTarget.addRule (aRule);
+  }
+
+  /**
+   * Read the passed resource and inline all (transitively) imported style
+   * sheets.
+   *
+   * @param aResource
+   *        The main resource to be read. May not be <code>null</code>.
+   * @return <code>null</code> if the main resource could not be read, the
+   *         flattened style sheet otherwise.
+   */
+  @Nullable
+  public CascadingStyleSheet getBundled (@Nonnull final IReadableResource aResource)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+
+    final CascadingStyleSheet aCSS = _await (aResource, _getOrSchedule (aResource));
+    if (aCSS == null)
+      return null;
+
+    final Set <String> aResourcesInProgress = new HashSet <String> ();
+    aResourcesInProgress.add (aResource.getResourceID ());
+    final CascadingStyleSheet ret = new CascadingStyleSheet ();
+    _flatten (aResource, aCSS, aResourcesInProgress, ret);
+    return ret;
+  }
+
+  /**
+   * Bundle an already parsed style sheet. All relative imports are resolved
+   * against the passed base resource.
+   *
+   * @param aBaseResource
+   *        The resource against which the imports are resolved. May not be
+   *        <code>null</code>.
+   * @param aCSS
+   *        The style sheet whose imports should be inlined. May not be
+   *        <code>null</code>.
+   * @return The flattened style sheet. Never <code>null</code>.
+   */
+  @Nonnull
+  public CascadingStyleSheet getBundled (@Nonnull final IReadableResource aBaseResource,
+                                         @Nonnull final CascadingStyleSheet aCSS)
+  {
+    ValueEnforcer.notNull (aBaseResource, "BaseResource");
+    ValueEnforcer.notNull (aCSS, "CSS");
+
+    // Prefetch all direct imports
+    for (final CSSImportRule aImportRule : aCSS.getAllImportRules ())
+    {
+      final IReadableResource aChildRes = m_aResolver.getResolvedImport (aBaseResource,
+                                                                        aImportRule.getLocationString ());
+      if (aChildRes != null)
+        _getOrSchedule (aChildRes);
+    }
+
+    final Set <String> aResourcesInProgress = new HashSet <String> ();
+    aResourcesInProgress.add (aBaseResource.getResourceID ());
+    final CascadingStyleSheet ret = new CascadingStyleSheet ();
+    _flatten (aBaseResource, aCSS, aResourcesInProgress, ret);
+    return ret;
+  }
+
+  /**
+   * Shut down the executor, if it was created by this object, and wait until
+   * all pending reads are finished. Bundling calls after closing read all
+   * resources in the calling thread.
+   */
+  public void close ()
+  {
+    if (m_bOwnsExecutor)
+      new ManagedExecutorService (m_aExecutor).shutdownAndWaitUntilAllTasksAreFinished ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("resolver", m_aResolver)
+                                       .append ("settings", m_aSettings)
+                                       .append ("executor", m_aExecutor)
+                                       .append ("ownsExecutor", m_bOwnsExecutor)
+                                       .append ("cachedResources", m_aCache.size ())
+                                       .toString ();
+  }
+}
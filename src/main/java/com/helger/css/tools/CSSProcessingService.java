@@ -0,0 +1,649 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.ExtendedDefaultThreadFactory;
+import com.helger.commons.concurrent.ManagedExecutorService;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.ParseCancelledException;
+import com.helger.css.parser.ParseException;
+import com.helger.css.reader.CSSCancellationToken;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+import com.helger.css.writer.CSSWriter;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * A reusable service that parses, validates, rewrites and compresses CSS on an
+ * executor.
+ * <ul>
+ * <li>By default a virtual thread per task executor is used if the runtime
+ * supports it (Java 21+), and a fixed thread pool with one thread per
+ * processor otherwise.</li>
+ * <li>The number of pending (queued and running) jobs is bounded. If the limit
+ * is reached, submitting either blocks until a slot is free (backpressure) or
+ * fails with a {@link RejectedExecutionException}.</li>
+ * <li>Each job may have a timeout, starting at submission. If it is exceeded,
+ * parsing is aborted and the {@link Future} fails with a
+ * {@link TimeoutException} as the cause. Cancelling the {@link Future} also
+ * aborts a running parse.</li>
+ * <li>The number of submitted, completed, failed, timed out and rejected jobs
+ * as well as the latency (from submission to completion) are counted.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@ThreadSafe
+public class CSSProcessingService implements Closeable
+{
+  /** The default maximum number of queued and running jobs */
+  public static final int DEFAULT_MAX_PENDING_JOBS = 1024;
+  /** Block by default if too many jobs are pending */
+  public static final boolean DEFAULT_BLOCK_WHEN_FULL = true;
+  /** Timeout value indicating that a job has no timeout */
+  public static final long NO_TIMEOUT = 0;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (CSSProcessingService.class);
+
+  private final ExecutorService m_aExecutor;
+  private final boolean m_bOwnsExecutor;
+  private final int m_nMaxPendingJobs;
+  private final boolean m_bBlockWhenFull;
+  private final Semaphore m_aSlots;
+  private volatile CSSReaderSettings m_aReaderSettings = new CSSReaderSettings ();
+  private volatile CSSWriterSettings m_aWriterSettings = new CSSWriterSettings (CSSReaderSettings.DEFAULT_VERSION);
+
+  // Statistics
+  private final long m_nStartNanos = System.nanoTime ();
+  private final AtomicLong m_aSubmitted = new AtomicLong ();
+  private final AtomicLong m_aRejected = new AtomicLong ();
+  private final AtomicLong m_aCompleted = new AtomicLong ();
+  private final AtomicLong m_aFailed = new AtomicLong ();
+  private final AtomicLong m_aTimedOut = new AtomicLong ();
+  private final AtomicLong m_aTotalLatencyNanos = new AtomicLong ();
+  private final AtomicLong m_aMaxLatencyNanos = new AtomicLong ();
+
+  /**
+   * Constructor using the default executor, {@link #DEFAULT_MAX_PENDING_JOBS}
+   * and {@link #DEFAULT_BLOCK_WHEN_FULL}.
+   */
+  public CSSProcessingService ()
+  {
+    this (null, DEFAULT_MAX_PENDING_JOBS, DEFAULT_BLOCK_WHEN_FULL);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aExecutor
+   *        The executor to run the jobs on. May be <code>null</code> to use
+   *        {@link #createDefaultExecutor()}. An executor passed in is not shut
+   *        down by {@link #close()}.
+   * @param nMaxPendingJobs
+   *        The maximum number of queued and running jobs. Must be &gt; 0.
+   * @param bBlockWhenFull
+   *        <code>true</code> to block the submitting thread if the maximum
+   *        number of pending jobs is reached, <code>false</code> to reject the
+   *        job with a {@link RejectedExecutionException}.
+   */
+  public CSSProcessingService (@Nullable final ExecutorService aExecutor,
+                               @Nonnegative final int nMaxPendingJobs,
+                               final boolean bBlockWhenFull)
+  {
+    ValueEnforcer.isGT0 (nMaxPendingJobs, "MaxPendingJobs");
+    m_bOwnsExecutor = aExecutor == null;
+    m_aExecutor = aExecutor != null ? aExecutor : createDefaultExecutor ();
+    m_nMaxPendingJobs = nMaxPendingJobs;
+    m_bBlockWhenFull = bBlockWhenFull;
+    m_aSlots = new Semaphore (nMaxPendingJobs, true);
+  }
+
+  /**
+   * @return A new executor using virtual threads if available, or a fixed
+   *         thread pool with one thread per available processor otherwise.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public static ExecutorService createDefaultExecutor ()
+  {
+    final ExecutorService ret = createVirtualThreadExecutor ();
+    if (ret != null)
+      return ret;
+    return Executors.newFixedThreadPool (Runtime.getRuntime ().availableProcessors (),
+                                         new ExtendedDefaultThreadFactory ("CSSProcessingService"));
+  }
+
+  /**
+   * @return A new virtual thread per task executor or <code>null</code> if the
+   *         runtime does not support virtual threads.
+   */
+  @Nullable
+  public static ExecutorService createVirtualThreadExecutor ()
+  {
+    try
+    {
+      // Available since Java 21
+      final Method aMethod = Executors.class.getMethod ("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) aMethod.invoke (null);
+    }
+    catch (final NoSuchMethodException ex)
+    {
+      return null;
+    }
+    catch (final Exception ex)
+    {
+      s_aLogger.warn ("Failed to create virtual thread executor", ex);
+      return null;
+    }
+  }
+
+  /**
+   * @return The maximum number of queued and running jobs. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxPendingJobs ()
+  {
+    return m_nMaxPendingJobs;
+  }
+
+  /**
+   * @return <code>true</code> if submitting blocks when too many jobs are
+   *         pending, <code>false</code> if the job is rejected.
+   */
+  public boolean isBlockWhenFull ()
+  {
+    return m_bBlockWhenFull;
+  }
+
+  /**
+   * @return A copy of the settings used to read CSS. Never <code>null</code>.
+   */
+  @Nonnull
+  public CSSReaderSettings getReaderSettings ()
+  {
+    return m_aReaderSettings.getClone ();
+  }
+
+  /**
+   * @param aReaderSettings
+   *        The settings used to read CSS by subsequently submitted jobs. May
+   *        not be <code>null</code>. The settings are copied.
+   * @return this
+   */
+  @Nonnull
+  public CSSProcessingService setReaderSettings (@Nonnull final CSSReaderSettings aReaderSettings)
+  {
+    ValueEnforcer.notNull (aReaderSettings, "ReaderSettings");
+    m_aReaderSettings = aReaderSettings.getClone ();
+    return this;
+  }
+
+  /**
+   * @return The settings used by {@link #rewrite(String, long)}. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public CSSWriterSettings getWriterSettings ()
+  {
+    return m_aWriterSettings;
+  }
+
+  /**
+   * @param aWriterSettings
+   *        The settings used by {@link #rewrite(String, long)}. May not be
+   *        <code>null</code>. Must not be modified afterwards.
+   * @return this
+   */
+  @Nonnull
+  public CSSProcessingService setWriterSettings (@Nonnull final CSSWriterSettings aWriterSettings)
+  {
+    ValueEnforcer.notNull (aWriterSettings, "WriterSettings");
+    m_aWriterSettings = aWriterSettings;
+    return this;
+  }
+
+  private void _acquireSlot (final long nDeadline)
+  {
+    if (!m_bBlockWhenFull)
+    {
+      if (!m_aSlots.tryAcquire ())
+      {
+        m_aRejected.incrementAndGet ();
+        throw new RejectedExecutionException ("Too many pending CSS jobs (" + m_nMaxPendingJobs + ")");
+      }
+      return;
+    }
+
+    try
+    {
+      if (nDeadline == NO_TIMEOUT)
+        m_aSlots.acquire ();
+      else
+        if (!m_aSlots.tryAcquire (Math.max (nDeadline - System.currentTimeMillis (), 0), TimeUnit.MILLISECONDS))
+        {
+          m_aRejected.incrementAndGet ();
+          throw new RejectedExecutionException ("Timeout while waiting for a free slot");
+        }
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      m_aRejected.incrementAndGet ();
+      throw new RejectedExecutionException ("Interrupted while waiting for a free slot", ex);
+    }
+  }
+
+  private void _onJobFinished (final long nSubmitNanos, @Nonnull final AtomicLong aCounter)
+  {
+    final long nLatency = System.nanoTime () - nSubmitNanos;
+    aCounter.incrementAndGet ();
+    m_aTotalLatencyNanos.addAndGet (nLatency);
+    long nMax;
+    do
+    {
+      nMax = m_aMaxLatencyNanos.get ();
+    } while (nLatency > nMax && !m_aMaxLatencyNanos.compareAndSet (nMax, nLatency));
+  }
+
+  /**
+   * Remembers whether parsing was aborted and forwards all other exceptions.
+   */
+  private static final class CancellationAwareExceptionHandler implements ICSSParseExceptionHandler
+  {
+    private final ICSSParseExceptionHandler m_aDelegate;
+    private volatile boolean m_bDeadlineExceeded;
+
+    CancellationAwareExceptionHandler (@Nonnull final ICSSParseExceptionHandler aDelegate)
+    {
+      m_aDelegate = aDelegate;
+    }
+
+    public void onException (@Nonnull final ParseException ex)
+    {
+      if (ex instanceof ParseCancelledException)
+      {
+        if (((ParseCancelledException) ex).isDeadlineExceeded ())
+          m_bDeadlineExceeded = true;
+      }
+      else
+        m_aDelegate.onException (ex);
+    }
+  }
+
+  /**
+   * Submit a generic job.
+   *
+   * @param aJob
+   *        The job to be executed. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds, starting now. Use {@link #NO_TIMEOUT}
+   *        for no timeout. Must be &ge; 0.
+   * @return The future of the job result. Never <code>null</code>.
+   * @throws RejectedExecutionException
+   *         If too many jobs are pending and this service does not block, or
+   *         if the executor rejected the job.
+   * @param <T>
+   *        The result type
+   */
+  @Nonnull
+  public <T> Future <T> submit (@Nonnull final ICSSProcessingJob <T> aJob, @Nonnegative final long nTimeoutMillis)
+  {
+    ValueEnforcer.notNull (aJob, "Job");
+    ValueEnforcer.isGE0 (nTimeoutMillis, "TimeoutMillis");
+
+    final long nSubmitNanos = System.nanoTime ();
+    final long nDeadline = nTimeoutMillis == NO_TIMEOUT ? NO_TIMEOUT : System.currentTimeMillis () + nTimeoutMillis;
+    final CSSCancellationToken aToken = new CSSCancellationToken ();
+
+    // Settings specific to this job
+    final CSSReaderSettings aSettings = m_aReaderSettings.getClone ();
+    ICSSParseExceptionHandler aExceptionHandler = aSettings.getCustomExceptionHandler ();
+    if (aExceptionHandler == null)
+      aExceptionHandler = CSSReader.getDefaultParseExceptionHandler ();
+    final CancellationAwareExceptionHandler aRealExceptionHandler = new CancellationAwareExceptionHandler (aExceptionHandler);
+    aSettings.setCustomExceptionHandler (aRealExceptionHandler)
+             .setCancellationToken (aToken)
+             .setDeadline (nDeadline);
+
+    // Whoever sets this first releases the slot: the job when it starts or a
+    // cancellation before the job started
+    final AtomicBoolean aSlotOwned = new AtomicBoolean (false);
+    final FutureTask <T> aTask = new FutureTask <T> (new Callable <T> ()
+    {
+      public T call () throws Exception
+      {
+        if (!aSlotOwned.compareAndSet (false, true))
+          throw new CancellationException ();
+        try
+        {
+          if (nDeadline != NO_TIMEOUT && System.currentTimeMillis () >= nDeadline)
+            throw new TimeoutException ("CSS job was not started before its deadline");
+          final T ret = aJob.execute (aSettings);
+          if (aRealExceptionHandler.m_bDeadlineExceeded)
+            throw new TimeoutException ("CSS job exceeded its deadline");
+          if (aToken.isCancelled ())
+            throw new CancellationException ();
+          return ret;
+        }
+        finally
+        {
+          // Release before the result is published, so that a caller of get()
+          // can submit again immediately
+          m_aSlots.release ();
+        }
+      }
+    })
+    {
+      @Override
+      public boolean cancel (final boolean bMayInterruptIfRunning)
+      {
+        // The job never runs, if it did not start yet
+        if (aSlotOwned.compareAndSet (false, true))
+          m_aSlots.release ();
+        // Abort a running parse as well
+        aToken.cancel ();
+        return super.cancel (bMayInterruptIfRunning);
+      }
+
+      @Override
+      protected void done ()
+      {
+        // Called exactly once - only for the statistics
+        AtomicLong aCounter = m_aCompleted;
+        if (isCancelled ())
+          aCounter = m_aFailed;
+        else
+          try
+          {
+            get ();
+          }
+          catch (final ExecutionException ex)
+          {
+            aCounter = ex.getCause () instanceof TimeoutException ? m_aTimedOut : m_aFailed;
+          }
+          catch (final InterruptedException ex)
+          {
+            // Cannot happen, as the job is done
+            Thread.currentThread ().interrupt ();
+          }
+        _onJobFinished (nSubmitNanos, aCounter);
+      }
+    };
+
+    _acquireSlot (nDeadline);
+    try
+    {
+      m_aExecutor.execute (aTask);
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      if (aSlotOwned.compareAndSet (false, true))
+        m_aSlots.release ();
+      m_aRejected.incrementAndGet ();
+      throw ex;
+    }
+    m_aSubmitted.incrementAndGet ();
+    return aTask;
+  }
+
+  /**
+   * Parse the passed CSS.
+   *
+   * @param sCSS
+   *        The CSS to parse. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   * @return The future of the parsed style sheet. The result is
+   *         <code>null</code> if the CSS could not be parsed.
+   */
+  @Nonnull
+  public Future <CascadingStyleSheet> parse (@Nonnull final String sCSS, @Nonnegative final long nTimeoutMillis)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+    return submit (new ICSSProcessingJob <CascadingStyleSheet> ()
+    {
+      public CascadingStyleSheet execute (@Nonnull final CSSReaderSettings aReaderSettings)
+      {
+        return CSSReader.readFromStringReader (sCSS, aReaderSettings);
+      }
+    }, nTimeoutMillis);
+  }
+
+  /**
+   * Check if the passed CSS can be parsed.
+   *
+   * @param sCSS
+   *        The CSS to validate. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   * @return The future of the validation result. Never <code>null</code>.
+   */
+  @Nonnull
+  public Future <Boolean> validate (@Nonnull final String sCSS, @Nonnegative final long nTimeoutMillis)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+    return submit (new ICSSProcessingJob <Boolean> ()
+    {
+      public Boolean execute (@Nonnull final CSSReaderSettings aReaderSettings)
+      {
+        return Boolean.valueOf (CSSReader.readFromStringReader (sCSS, aReaderSettings) != null);
+      }
+    }, nTimeoutMillis);
+  }
+
+  /**
+   * Parse the passed CSS and write it again with the passed writer settings.
+   *
+   * @param sCSS
+   *        The CSS to rewrite. May not be <code>null</code>.
+   * @param aWriterSettings
+   *        The writer settings to use. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   * @return The future of the rewritten CSS. If the CSS could not be parsed,
+   *         the original CSS is the result.
+   */
+  @Nonnull
+  public Future <String> rewrite (@Nonnull final String sCSS,
+                                  @Nonnull final CSSWriterSettings aWriterSettings,
+                                  @Nonnegative final long nTimeoutMillis)
+  {
+    ValueEnforcer.notNull (sCSS, "CSS");
+    ValueEnforcer.notNull (aWriterSettings, "WriterSettings");
+    return submit (new ICSSProcessingJob <String> ()
+    {
+      public String execute (@Nonnull final CSSReaderSettings aReaderSettings)
+      {
+        final CascadingStyleSheet aCSS = CSSReader.readFromStringReader (sCSS, aReaderSettings);
+        return aCSS == null ? sCSS : new CSSWriter (aWriterSettings).getCSSAsString (aCSS);
+      }
+    }, nTimeoutMillis);
+  }
+
+  /**
+   * Rewrite the passed CSS with the writer settings of this service.
+   *
+   * @param sCSS
+   *        The CSS to rewrite. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   * @return The future of the rewritten CSS.
+   * @see #rewrite(String, CSSWriterSettings, long)
+   */
+  @Nonnull
+  public Future <String> rewrite (@Nonnull final String sCSS, @Nonnegative final long nTimeoutMillis)
+  {
+    return rewrite (sCSS, m_aWriterSettings, nTimeoutMillis);
+  }
+
+  /**
+   * Create the compressed version of the passed CSS, like
+   * {@link com.helger.css.writer.CSSCompressor}.
+   *
+   * @param sCSS
+   *        The CSS to compress. May not be <code>null</code>.
+   * @param nTimeoutMillis
+   *        The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   * @return The future of the compressed CSS. If the CSS could not be parsed,
+   *         the original CSS is the result.
+   */
+  @Nonnull
+  public Future <String> compress (@Nonnull final String sCSS, @Nonnegative final long nTimeoutMillis)
+  {
+    return rewrite (sCSS, new CSSWriterSettings (m_aReaderSettings.getCSSVersion (), true), nTimeoutMillis);
+  }
+
+  /**
+   * @return The number of currently queued or running jobs.
+   */
+  @Nonnegative
+  public int getPendingJobCount ()
+  {
+    return m_nMaxPendingJobs - m_aSlots.availablePermits ();
+  }
+
+  /**
+   * @return The number of successfully submitted jobs.
+   */
+  @Nonnegative
+  public long getSubmittedJobCount ()
+  {
+    return m_aSubmitted.get ();
+  }
+
+  /**
+   * @return The number of rejected jobs.
+   */
+  @Nonnegative
+  public long getRejectedJobCount ()
+  {
+    return m_aRejected.get ();
+  }
+
+  /**
+   * @return The number of successfully completed jobs.
+   */
+  @Nonnegative
+  public long getCompletedJobCount ()
+  {
+    return m_aCompleted.get ();
+  }
+
+  /**
+   * @return The number of jobs that failed with an exception or were
+   *         cancelled.
+   */
+  @Nonnegative
+  public long getFailedJobCount ()
+  {
+    return m_aFailed.get ();
+  }
+
+  /**
+   * @return The number of jobs that exceeded their deadline.
+   */
+  @Nonnegative
+  public long getTimedOutJobCount ()
+  {
+    return m_aTimedOut.get ();
+  }
+
+  /**
+   * @return The average time in nanoseconds from submission until a job
+   *         finished, over all finished jobs. 0 if no job finished yet.
+   */
+  @Nonnegative
+  public long getAverageLatencyNanos ()
+  {
+    final long nFinished = m_aCompleted.get () + m_aFailed.get () + m_aTimedOut.get ();
+    return nFinished == 0 ? 0 : m_aTotalLatencyNanos.get () / nFinished;
+  }
+
+  /**
+   * @return The maximum time in nanoseconds from submission until a job
+   *         finished. 0 if no job finished yet.
+   */
+  @Nonnegative
+  public long getMaxLatencyNanos ()
+  {
+    return m_aMaxLatencyNanos.get ();
+  }
+
+  /**
+   * @return The number of successfully completed jobs per second since this
+   *         service was created.
+   */
+  @Nonnegative
+  public double getThroughputPerSecond ()
+  {
+    final long nElapsedNanos = Math.max (System.nanoTime () - m_nStartNanos, 1);
+    return m_aCompleted.get () * (double) TimeUnit.SECONDS.toNanos (1) / nElapsedNanos;
+  }
+
+  /**
+   * Shut down the executor, if it was created by this service, and wait until
+   * all jobs are finished.
+   */
+  public void close ()
+  {
+    if (m_bOwnsExecutor)
+      new ManagedExecutorService (m_aExecutor).shutdownAndWaitUntilAllTasksAreFinished ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("executor", m_aExecutor)
+                                       .append ("ownsExecutor", m_bOwnsExecutor)
+                                       .append ("maxPendingJobs", m_nMaxPendingJobs)
+                                       .append ("blockWhenFull", m_bBlockWhenFull)
+                                       .append ("submitted", m_aSubmitted.get ())
+                                       .append ("completed", m_aCompleted.get ())
+                                       .append ("failed", m_aFailed.get ())
+                                       .append ("timedOut", m_aTimedOut.get ())
+                                       .append ("rejected", m_aRejected.get ())
+                                       .toString ();
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.io.IReadableResource;
+import com.helger.commons.io.file.FilenameHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Default implementation of {@link ICSSImportResolver}. It resolves all
+ * relative locations against the path of the importing resource using
+ * {@link IReadableResource#getReadableCloneForPath(String)}, so it works for
+ * file system as well as for class path resources. Absolute locations (e.g.
+ * <code>/css/x.css</code>) and locations with a scheme (e.g.
+ * <code>http://</code> or <code>data:</code>) are not resolved.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public class DefaultCSSImportResolver implements ICSSImportResolver
+{
+  public DefaultCSSImportResolver ()
+  {}
+
+  /**
+   * Check if the passed location is a relative local location.
+   *
+   * @param sLocation
+   *        The location to check. May be <code>null</code>.
+   * @return <code>true</code> if the location is neither empty, nor absolute
+   *         nor does it contain a scheme.
+   */
+  public static boolean isRelativeLocalLocation (@Nullable final String sLocation)
+  {
+    if (StringHelper.hasNoText (sLocation))
+      return false;
+    if (FilenameHelper.startsWithPathSeparatorChar (sLocation))
+      return false;
+
+    // Scheme present? (e.g. "http:" or "data:")
+    final int nColon = sLocation.indexOf (':');
+    if (nColon >= 0)
+    {
+      final int nSlash = sLocation.indexOf ('/');
+      if (nSlash < 0 || nColon < nSlash)
+        return false;
+    }
+    return true;
+  }
+
+  @Nullable
+  public IReadableResource getResolvedImport (@Nonnull final IReadableResource aBaseResource,
+                                              @Nonnull final String sLocation)
+  {
+    if (!isRelativeLocalLocation (sLocation))
+      return null;
+
+    final String sBasePath = FilenameHelper.getPath (aBaseResource.getPath ());
+    final String sPath = FilenameHelper.getCleanConcatenatedUrlPath (sBasePath, sLocation);
+    return aBaseResource.getReadableCloneForPath (sPath);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).toString ();
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.io.IReadableResource;
+
+/**
+ * Callback interface used by {@link CSSImportBundler} to resolve the location
+ * of an <code>@import</code> rule to a readable resource. Implementations must
+ * be thread-safe, as they are invoked from multiple threads in parallel.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+public interface ICSSImportResolver
+{
+  /**
+   * Resolve the passed import location relative to the importing resource.
+   *
+   * @param aBaseResource
+   *        The resource that contains the <code>@import</code> rule. Never
+   *        <code>null</code>.
+   * @param sLocation
+   *        The location as specified in the <code>@import</code> rule. Never
+   *        <code>null</code>.
+   * @return <code>null</code> if the location cannot or should not be resolved
+   *         (e.g. because it refers to a remote resource). In this case the
+   *         <code>@import</code> rule is retained in the bundled result.
+   */
+  @Nullable
+  IReadableResource getResolvedImport (@Nonnull IReadableResource aBaseResource, @Nonnull String sLocation);
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.css.reader.CSSReaderSettings;
+
+/**
+ * A single job to be executed by a {@link CSSProcessingService}.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The result type
+ * @since 3.9.3
+ */
+public interface ICSSProcessingJob <T>
+{
+  /**
+   * Execute the job.
+   *
+   * @param aReaderSettings
+   *        The settings to be used when reading CSS. They contain the deadline
+   *        and the cancellation token of the job and must be passed to
+   *        {@link com.helger.css.reader.CSSReader} so that the job can be
+   *        aborted. Never <code>null</code>.
+   * @return The result of the job. May be <code>null</code>.
+   * @throws Exception
+   *         In case of an error
+   */
+  @Nullable
+  T execute (@Nonnull CSSReaderSettings aReaderSettings) throws Exception;
+}
@@ -17,6 +17,7 @@
 package com.helger.css.tools;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -26,7 +27,10 @@ import javax.annotation.concurrent.Immutable;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.Nonempty;
 import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
 import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.css.ECSSVersion;
 import com.helger.css.decl.CSSImportRule;
@@ -35,7 +39,13 @@ import com.helger.css.decl.CSSMediaRule;
 import com.helger.css.decl.CSSNamespaceRule;
 import com.helger.css.decl.CascadingStyleSheet;
 import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.parser.CSSCharStream;
+import com.helger.css.parser.CSSNode;
+import com.helger.css.reader.CSSParseCache;
+import com.helger.css.reader.CSSParserHelper;
 import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.ECSSParserProduction;
 
 /**
  * A small utility class to wrap an existing {@link CascadingStyleSheet} within
@@ -51,9 +61,32 @@ public final class MediaQueryTools
   @PresentForCodeCoverage
   private static final MediaQueryTools s_aInstance = new MediaQueryTools ();
 
+  private static final CSSParseCache <List <CSSMediaQuery>> s_aCache = new CSSParseCache <List <CSSMediaQuery>> ();
+
   private MediaQueryTools ()
   {}
 
+  /**
+   * Parse the passed media query list directly, without wrapping it into a
+   * style sheet.
+   *
+   * @param sMediaQuery
+   *        The media query string to parse. May not be <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if parsing failed.
+   */
+  @Nullable
+  private static CSSNode _readMediaList (@Nonnull final String sMediaQuery, @Nonnull final ECSSVersion eVersion)
+  {
+    final CSSCharStream aCharStream = new CSSCharStream (new NonBlockingStringReader (sMediaQuery));
+    return CSSParserHelper.parse (aCharStream,
+                                  eVersion,
+                                  ECSSParserProduction.MEDIA_LIST,
+                                  CSSReader.getDefaultParseErrorHandler (),
+                                  CSSReader.getDefaultParseExceptionHandler ());
+  }
+
   @Nullable
   @Deprecated
   public static List <CSSMediaQuery> parseToMediaQuery (@Nullable final String sMediaQuery,
@@ -81,13 +114,61 @@ public final class MediaQueryTools
     if (StringHelper.hasNoText (sMediaQuery))
       return null;
 
-    final String sCSS = "@media " + sMediaQuery + " {}";
-    final CascadingStyleSheet aCSS = CSSReader.readFromString (sCSS, eVersion);
-    if (aCSS == null)
+    final CSSNode aNode = _readMediaList (sMediaQuery, eVersion);
+    if (aNode == null)
+      return null;
+
+    // Convert the AST to domain objects
+    return CSSHandler.readMediaQueryListFromNode (eVersion, aNode);
+  }
+
+  /**
+   * Same as {@link #parseToMediaQuery(String, ECSSVersion)} but the results
+   * are cached in a size limited cache. Note: deep copies of the cached
+   * {@link CSSMediaQuery} objects are returned, so they may be modified.
+   *
+   * @param sMediaQuery
+   *        The media query string to parse. May be <code>null</code>.
+   * @param eVersion
+   *        The CSS version to use. May not be <code>null</code>.
+   * @return <code>null</code> if the passed media query is <code>null</code> or
+   *         empty or not parsable.
+   * @since 3.9.3
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public static List <CSSMediaQuery> parseToMediaQueryCached (@Nullable final String sMediaQuery,
+                                                              @Nonnull final ECSSVersion eVersion)
+  {
+    if (StringHelper.hasNoText (sMediaQuery))
       return null;
 
-    final CSSMediaRule aMediaRule = aCSS.getAllMediaRules ().get (0);
-    return aMediaRule.getAllMediaQueries ();
+    List <CSSMediaQuery> ret = s_aCache.get (eVersion, sMediaQuery);
+    if (ret == null)
+    {
+      ret = parseToMediaQuery (sMediaQuery, eVersion);
+      if (ret == null)
+        return null;
+      s_aCache.put (eVersion, sMediaQuery, ret);
+    }
+    // The cached objects must not be modified by the caller
+    final List <CSSMediaQuery> aCopy = new ArrayList <CSSMediaQuery> (ret.size ());
+    for (final CSSMediaQuery aMediaQuery : ret)
+      aCopy.add (aMediaQuery.getClone ());
+    return aCopy;
+  }
+
+  /**
+   * Remove all entries from the cache used by
+   * {@link #parseToMediaQueryCached(String, ECSSVersion)}.
+   *
+   * @return {@link EChange}
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static EChange clearMediaQueryCache ()
+  {
+    return s_aCache.clear ();
   }
 
   /**
@@ -0,0 +1,465 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A {@link Writer} that encodes the written characters directly into a byte
+ * buffer that is flushed to an {@link OutputStream}. In contrast to an
+ * {@link java.io.OutputStreamWriter} it has a fast path for ASCII characters
+ * (which make up nearly all of a CSS file) and encodes UTF-8 without a
+ * {@link CharsetEncoder}. The internal byte buffer is taken from a per-thread
+ * pool and returned upon {@link #close()}.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@NotThreadSafe
+public final class CSSByteWriter extends Writer
+{
+  /** The size of the pooled byte buffer */
+  public static final int BUFFER_SIZE = 8192;
+
+  // Maximum number of bytes a single encoded code point may occupy in any
+  // supported charset
+  private static final int MAX_BYTES_PER_CODEPOINT = 16;
+
+  private static final ThreadLocal <byte []> s_aBufferPool = new ThreadLocal <byte []> ();
+  private static final Map <Charset, Boolean> s_aASCIICompatible = new ConcurrentHashMap <Charset, Boolean> ();
+
+  private final OutputStream m_aOS;
+  private final Charset m_aCharset;
+  private final boolean m_bUTF8;
+  private final boolean m_bASCIICompatible;
+  private CharsetEncoder m_aEncoder;
+  private CharBuffer m_aEncoderInput;
+  private byte [] m_aBuffer;
+  private int m_nPos = 0;
+  private char m_cPendingHighSurrogate = 0;
+  private long m_nBytesWritten = 0;
+
+  public CSSByteWriter (@Nonnull @WillCloseWhenClosed final OutputStream aOS, @Nonnull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    ValueEnforcer.notNull (aCharset, "Charset");
+    m_aOS = aOS;
+    m_aCharset = aCharset;
+    m_bUTF8 = aCharset.equals (CCharset.CHARSET_UTF_8_OBJ);
+    m_bASCIICompatible = m_bUTF8 || isASCIICompatible (aCharset);
+
+    // Take the buffer from the pool
+    byte [] aBuffer = s_aBufferPool.get ();
+    if (aBuffer != null)
+      s_aBufferPool.remove ();
+    else
+      aBuffer = new byte [BUFFER_SIZE];
+    m_aBuffer = aBuffer;
+  }
+
+  /**
+   * Check if the passed charset encodes all 7-bit ASCII characters as a single
+   * byte with the same value. The result is cached.
+   *
+   * @param aCharset
+   *        The charset to check. May not be <code>null</code>.
+   * @return <code>true</code> if the ASCII fast path can be used for this
+   *         charset.
+   */
+  public static boolean isASCIICompatible (@Nonnull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aCharset, "Charset");
+
+    Boolean aCompatible = s_aASCIICompatible.get (aCharset);
+    if (aCompatible == null)
+    {
+      boolean bCompatible = false;
+      if (aCharset.canEncode ())
+      {
+        final char [] aChars = new char [128];
+        for (int i = 0; i < aChars.length; ++i)
+          aChars[i] = (char) i;
+        try
+        {
+          final ByteBuffer aBytes = aCharset.newEncoder ().encode (CharBuffer.wrap (aChars));
+          if (aBytes.remaining () == aChars.length)
+          {
+            bCompatible = true;
+            for (int i = 0; i < aChars.length; ++i)
+              if (aBytes.get (i) != i)
+              {
+                bCompatible = false;
+                break;
+              }
+          }
+        }
+        catch (final CharacterCodingException ex)
+        {
+          // Not compatible
+        }
+      }
+      aCompatible = Boolean.valueOf (bCompatible);
+      s_aASCIICompatible.put (aCharset, aCompatible);
+    }
+    return aCompatible.booleanValue ();
+  }
+
+  @Nonnull
+  public Charset getCharset ()
+  {
+    return m_aCharset;
+  }
+
+  /**
+   * @return The number of bytes written to the underlying stream so far,
+   *         including the bytes that are still buffered.
+   */
+  @Nonnegative
+  public long getBytesWritten ()
+  {
+    return m_nBytesWritten + m_nPos;
+  }
+
+  private void _ensureOpen () throws IOException
+  {
+    if (m_aBuffer == null)
+      throw new IOException ("Writer is already closed");
+  }
+
+  private void _flushBuffer () throws IOException
+  {
+    if (m_nPos > 0)
+    {
+      m_aOS.write (m_aBuffer, 0, m_nPos);
+      m_nBytesWritten += m_nPos;
+      m_nPos = 0;
+    }
+  }
+
+  private void _encodeUTF8 (final int nCodePoint) throws IOException
+  {
+    if (m_nPos + 4 > m_aBuffer.length)
+      _flushBuffer ();
+    final byte [] aBuf = m_aBuffer;
+    if (nCodePoint < 0x80)
+      aBuf[m_nPos++] = (byte) nCodePoint;
+    else
+      if (nCodePoint < 0x800)
+      {
+        aBuf[m_nPos++] = (byte) (0xc0 | (nCodePoint >> 6));
+        aBuf[m_nPos++] = (byte) (0x80 | (nCodePoint & 0x3f));
+      }
+      else
+        if (nCodePoint < 0x10000)
+        {
+          aBuf[m_nPos++] = (byte) (0xe0 | (nCodePoint >> 12));
+          aBuf[m_nPos++] = (byte) (0x80 | ((nCodePoint >> 6) & 0x3f));
+          aBuf[m_nPos++] = (byte) (0x80 | (nCodePoint & 0x3f));
+        }
+        else
+        {
+          aBuf[m_nPos++] = (byte) (0xf0 | (nCodePoint >> 18));
+          aBuf[m_nPos++] = (byte) (0x80 | ((nCodePoint >> 12) & 0x3f));
+          aBuf[m_nPos++] = (byte) (0x80 | ((nCodePoint >> 6) & 0x3f));
+          aBuf[m_nPos++] = (byte) (0x80 | (nCodePoint & 0x3f));
+        }
+  }
+
+  private static boolean _isSurrogate (final char c)
+  {
+    return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE;
+  }
+
+  private void _ensureEncoder ()
+  {
+    if (m_aEncoder == null)
+    {
+      // Same behaviour as OutputStreamWriter
+      m_aEncoder = m_aCharset.newEncoder ()
+                             .onMalformedInput (CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter (CodingErrorAction.REPLACE);
+      m_aEncoderInput = CharBuffer.allocate (2);
+    }
+  }
+
+  private void _encodeWithEncoder (final char c1, final char c2, final int nCharCount) throws IOException
+  {
+    _ensureEncoder ();
+    if (m_nPos + MAX_BYTES_PER_CODEPOINT > m_aBuffer.length)
+      _flushBuffer ();
+
+    if (nCharCount == 1 && _isSurrogate (c1))
+    {
+      // Unpaired surrogate
+      final byte [] aReplacement = m_aEncoder.replacement ();
+      System.arraycopy (aReplacement, 0, m_aBuffer, m_nPos, aReplacement.length);
+      m_nPos += aReplacement.length;
+      return;
+    }
+
+    m_aEncoderInput.clear ();
+    m_aEncoderInput.put (c1);
+    if (nCharCount > 1)
+      m_aEncoderInput.put (c2);
+    m_aEncoderInput.flip ();
+
+    final ByteBuffer aOut = ByteBuffer.wrap (m_aBuffer, m_nPos, m_aBuffer.length - m_nPos);
+    if (m_bASCIICompatible)
+    {
+      // Return to the initial state (e.g. for ISO-2022-JP) because the next
+      // ASCII characters are written without the encoder
+      final CoderResult aResult = m_aEncoder.encode (m_aEncoderInput, aOut, true);
+      if (aResult.isError ())
+        aResult.throwException ();
+      m_aEncoder.flush (aOut);
+      m_aEncoder.reset ();
+    }
+    else
+    {
+      // The encoder is stateful (e.g. for the BOM of UTF-16) and is therefore
+      // only finished upon close
+      final CoderResult aResult = m_aEncoder.encode (m_aEncoderInput, aOut, false);
+      if (aResult.isError ())
+        aResult.throwException ();
+    }
+    m_nPos = aOut.position ();
+  }
+
+  private void _finishEncoder () throws IOException
+  {
+    if (m_aEncoder != null && !m_bASCIICompatible)
+    {
+      if (m_nPos + MAX_BYTES_PER_CODEPOINT > m_aBuffer.length)
+        _flushBuffer ();
+      final ByteBuffer aOut = ByteBuffer.wrap (m_aBuffer, m_nPos, m_aBuffer.length - m_nPos);
+      m_aEncoderInput.clear ();
+      m_aEncoderInput.flip ();
+      m_aEncoder.encode (m_aEncoderInput, aOut, true);
+      m_aEncoder.flush (aOut);
+      m_nPos = aOut.position ();
+    }
+  }
+
+  private void _encodeCodePoint (final char c1, final char c2, final int nCharCount) throws IOException
+  {
+    if (m_bUTF8)
+    {
+      if (nCharCount > 1)
+        _encodeUTF8 (Character.toCodePoint (c1, c2));
+      else
+        if (_isSurrogate (c1))
+        {
+          // Lone surrogate - same replacement as the JDK encoder
+          if (m_nPos == m_aBuffer.length)
+            _flushBuffer ();
+          m_aBuffer[m_nPos++] = '?';
+        }
+        else
+          _encodeUTF8 (c1);
+    }
+    else
+      _encodeWithEncoder (c1, c2, nCharCount);
+  }
+
+  private void _writeNonFast (final char c) throws IOException
+  {
+    if (m_cPendingHighSurrogate != 0)
+    {
+      final char cHigh = m_cPendingHighSurrogate;
+      m_cPendingHighSurrogate = 0;
+      if (Character.isLowSurrogate (c))
+      {
+        _encodeCodePoint (cHigh, c, 2);
+        return;
+      }
+      // Unpaired high surrogate
+      _encodeCodePoint (cHigh, (char) 0, 1);
+    }
+    if (Character.isHighSurrogate (c))
+      m_cPendingHighSurrogate = c;
+    else
+      _encodeCodePoint (c, (char) 0, 1);
+  }
+
+  private void _writeChar (final char c) throws IOException
+  {
+    if (c < 0x80 && m_bASCIICompatible && m_cPendingHighSurrogate == 0)
+    {
+      // ASCII fast path
+      if (m_nPos == m_aBuffer.length)
+        _flushBuffer ();
+      m_aBuffer[m_nPos++] = (byte) c;
+    }
+    else
+      _writeNonFast (c);
+  }
+
+  @Override
+  public void write (final int c) throws IOException
+  {
+    _ensureOpen ();
+    _writeChar ((char) c);
+  }
+
+  @Override
+  public void write (@Nonnull final char [] aBuf, final int nOfs, final int nLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+    _ensureOpen ();
+
+    final int nEnd = nOfs + nLen;
+    int i = nOfs;
+    while (i < nEnd)
+    {
+      if (m_bASCIICompatible && m_cPendingHighSurrogate == 0)
+      {
+        // Copy a run of ASCII characters without further checks
+        final byte [] aBuffer = m_aBuffer;
+        int nPos = m_nPos;
+        while (i < nEnd)
+        {
+          final char c = aBuf[i];
+          if (c >= 0x80)
+            break;
+          if (nPos == aBuffer.length)
+          {
+            m_nPos = nPos;
+            _flushBuffer ();
+            nPos = 0;
+          }
+          aBuffer[nPos++] = (byte) c;
+          ++i;
+        }
+        m_nPos = nPos;
+        if (i == nEnd)
+          break;
+      }
+      _writeNonFast (aBuf[i]);
+      ++i;
+    }
+  }
+
+  @Override
+  public void write (@Nonnull final String sStr, final int nOfs, final int nLen) throws IOException
+  {
+    _ensureOpen ();
+
+    final int nEnd = nOfs + nLen;
+    for (int i = nOfs; i < nEnd; ++i)
+      _writeChar (sStr.charAt (i));
+  }
+
+  @Override
+  @Nonnull
+  public CSSByteWriter append (@Nonnull final CharSequence aCS) throws IOException
+  {
+    final CharSequence aRealCS = aCS == null ? "null" : aCS;
+    return append (aRealCS, 0, aRealCS.length ());
+  }
+
+  @Override
+  @Nonnull
+  public CSSByteWriter append (@Nonnull final CharSequence aCS, final int nStart, final int nEnd) throws IOException
+  {
+    _ensureOpen ();
+
+    final CharSequence aRealCS = aCS == null ? "null" : aCS;
+    for (int i = nStart; i < nEnd; ++i)
+      _writeChar (aRealCS.charAt (i));
+    return this;
+  }
+
+  @Override
+  @Nonnull
+  public CSSByteWriter append (final char c) throws IOException
+  {
+    write (c);
+    return this;
+  }
+
+  private void _flushPendingSurrogate () throws IOException
+  {
+    if (m_cPendingHighSurrogate != 0)
+    {
+      final char cHigh = m_cPendingHighSurrogate;
+      m_cPendingHighSurrogate = 0;
+      _encodeCodePoint (cHigh, (char) 0, 1);
+    }
+  }
+
+  /**
+   * Flush all buffered bytes to the underlying stream. A trailing unpaired
+   * high surrogate is kept, because the low surrogate may still follow.
+   */
+  @Override
+  public void flush () throws IOException
+  {
+    _ensureOpen ();
+    _flushBuffer ();
+    m_aOS.flush ();
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (m_aBuffer != null)
+    {
+      try
+      {
+        _flushPendingSurrogate ();
+        _finishEncoder ();
+        _flushBuffer ();
+        m_aOS.close ();
+      }
+      finally
+      {
+        // Return the buffer to the pool
+        s_aBufferPool.set (m_aBuffer);
+        m_aBuffer = null;
+      }
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("charset", m_aCharset)
+                                       .append ("ASCIICompatible", m_bASCIICompatible)
+                                       .append ("bytesWritten", getBytesWritten ())
+                                       .toString ();
+  }
+}
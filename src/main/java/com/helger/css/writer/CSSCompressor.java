@@ -16,9 +16,14 @@
  */
 package com.helger.css.writer;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.Charset;
 
 import javax.annotation.Nonnull;
+import javax.annotation.WillClose;
 import javax.annotation.concurrent.Immutable;
 
 import org.slf4j.Logger;
@@ -26,9 +31,13 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.state.ESuccess;
 import com.helger.css.ECSSVersion;
 import com.helger.css.decl.CascadingStyleSheet;
 import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+import com.helger.css.reader.CSSTopLevelRuleIterator;
 
 /**
  * Utility class to compress CSS content
@@ -86,10 +95,27 @@ public final class CSSCompressor
                                          @Nonnull final Charset aCharset,
                                          @Nonnull final ECSSVersion eCSSVersion,
                                          final boolean bRemoveUnnecessaryCode)
+  {
+    return getRewrittenCSS (sOriginalCSS, aCharset, getCompressedSettings (eCSSVersion, bRemoveUnnecessaryCode));
+  }
+
+  /**
+   * @param eCSSVersion
+   *        The CSS version to use.
+   * @param bRemoveUnnecessaryCode
+   *        if <code>true</code> unnecessary empty declarations are omitted
+   * @return The writer settings used by
+   *         {@link #getCompressedCSS(String, Charset, ECSSVersion, boolean)}.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  static CSSWriterSettings getCompressedSettings (@Nonnull final ECSSVersion eCSSVersion,
+                                                  final boolean bRemoveUnnecessaryCode)
   {
     final CSSWriterSettings aSettings = new CSSWriterSettings (eCSSVersion, true);
     aSettings.setRemoveUnnecessaryCode (bRemoveUnnecessaryCode);
-    return getRewrittenCSS (sOriginalCSS, aCharset, aSettings);
+    aSettings.setOptimizeColorValues (true);
+    return aSettings;
   }
 
   /**
@@ -149,4 +175,87 @@ public final class CSSCompressor
     }
     return sOriginalCSS;
   }
+
+  /**
+   * Rewrite the CSS read from the passed reader to the passed writer without
+   * ever having the whole style sheet in memory. Only the current top-level
+   * rule is kept in memory, so this is suitable for very large files. The
+   * result is identical to {@link #getRewrittenCSS(String, CSSWriterSettings)}
+   * for valid CSS. If style rules should be merged, only adjacent style rules
+   * are merged in this mode.
+   * 
+   * @param aReader
+   *        The reader to read the original CSS from. May not be
+   *        <code>null</code>. Is closed afterwards.
+   * @param aWriter
+   *        The writer to write the rewritten CSS to. May not be
+   *        <code>null</code>. Is closed afterwards.
+   * @param aSettings
+   *        The CSS writer settings to use. Only CSS 3.0 is supported. May not
+   *        be <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the CSS could not be read completely or
+   *         if writing failed. In this case the output is incomplete and the
+   *         original CSS should be used instead.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static ESuccess rewriteCSS (@Nonnull @WillClose final Reader aReader,
+                                     @Nonnull @WillClose final Writer aWriter,
+                                     @Nonnull final CSSWriterSettings aSettings)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aWriter, "Writer");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    try
+    {
+      final CSSTopLevelRuleIterator aRules = new CSSTopLevelRuleIterator (aReader,
+                                                                          new CSSReaderSettings ().setCSSVersion (aSettings.getVersion ()));
+      return new CSSWriter (aSettings).writeCSS (aRules, aWriter);
+    }
+    catch (final Exception ex)
+    {
+      s_aLogger.warn ("Failed to write optimized CSS!", ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamUtils.close (aReader);
+      StreamUtils.close (aWriter);
+    }
+  }
+
+  /**
+   * Rewrite the CSS read from the passed input stream to the passed output
+   * stream without ever having the whole style sheet in memory.
+   * 
+   * @param aIS
+   *        The input stream to read the original CSS from. May not be
+   *        <code>null</code>. Is closed afterwards.
+   * @param aOS
+   *        The output stream to write the rewritten CSS to. May not be
+   *        <code>null</code>. Is closed afterwards.
+   * @param aCharset
+   *        The charset used for reading and writing. May not be
+   *        <code>null</code>.
+   * @param aSettings
+   *        The CSS writer settings to use. Only CSS 3.0 is supported. May not
+   *        be <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the CSS could not be read completely or
+   *         if writing failed.
+   * @see #rewriteCSS(Reader, Writer, CSSWriterSettings)
+   * @since 3.9.3
+   */
+  @Nonnull
+  public static ESuccess rewriteCSS (@Nonnull @WillClose final InputStream aIS,
+                                     @Nonnull @WillClose final OutputStream aOS,
+                                     @Nonnull final Charset aCharset,
+                                     @Nonnull final CSSWriterSettings aSettings)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    ValueEnforcer.notNull (aCharset, "Charset");
+
+    return rewriteCSS (StreamUtils.createReader (aIS, aCharset), new CSSByteWriter (aOS, aCharset), aSettings);
+  }
 }
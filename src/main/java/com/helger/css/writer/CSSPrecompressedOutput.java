@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.Nonempty;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.commons.messagedigest.EMessageDigestAlgorithm;
+import com.helger.commons.messagedigest.IMessageDigestGenerator;
+import com.helger.commons.messagedigest.NonBlockingMessageDigestGenerator;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.decl.CascadingStyleSheet;
+
+/**
+ * The serialized form of a style sheet in all the representations usually
+ * required to serve it via HTTP: the plain bytes, the gzip and the deflate
+ * compressed bytes and a strong ETag based on the SHA-256 hash of the plain
+ * bytes. All representations are created in a single pass over the serialized
+ * data. Instances of this class are immutable and can be cached.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSPrecompressedOutput
+{
+  /** The hash algorithm used for the ETag */
+  public static final EMessageDigestAlgorithm HASH_ALGORITHM = EMessageDigestAlgorithm.SHA_256;
+
+  /**
+   * An output stream that passes everything written to all contained streams
+   * and to the message digest.
+   */
+  @NotThreadSafe
+  private static final class MultiplexOutputStream extends OutputStream
+  {
+    private final OutputStream [] m_aTargets;
+    private final IMessageDigestGenerator m_aDigest;
+
+    MultiplexOutputStream (@Nonnull final IMessageDigestGenerator aDigest, @Nonnull final OutputStream... aTargets)
+    {
+      m_aDigest = aDigest;
+      m_aTargets = aTargets;
+    }
+
+    @Override
+    public void write (final int b) throws IOException
+    {
+      m_aDigest.update ((byte) b);
+      for (final OutputStream aOS : m_aTargets)
+        aOS.write (b);
+    }
+
+    @Override
+    public void write (@Nonnull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      m_aDigest.update (aBuf, nOfs, nLen);
+      for (final OutputStream aOS : m_aTargets)
+        aOS.write (aBuf, nOfs, nLen);
+    }
+
+    @Override
+    public void close () throws IOException
+    {
+      // Finishes the compressed streams
+      for (final OutputStream aOS : m_aTargets)
+        aOS.close ();
+    }
+  }
+
+  private final Charset m_aCharset;
+  private final byte [] m_aPlain;
+  private final byte [] m_aGzip;
+  private final byte [] m_aDeflate;
+  private final byte [] m_aHash;
+  private final String m_sETag;
+
+  private CSSPrecompressedOutput (@Nonnull final Charset aCharset,
+                                  @Nonnull final byte [] aPlain,
+                                  @Nonnull final byte [] aGzip,
+                                  @Nonnull final byte [] aDeflate,
+                                  @Nonnull final byte [] aHash)
+  {
+    m_aCharset = aCharset;
+    m_aPlain = aPlain;
+    m_aGzip = aGzip;
+    m_aDeflate = aDeflate;
+    m_aHash = aHash;
+    m_sETag = '"' + StringHelper.getHexEncoded (aHash) + '"';
+  }
+
+  /**
+   * @return The charset used to encode the CSS. Never <code>null</code>.
+   */
+  @Nonnull
+  public Charset getCharset ()
+  {
+    return m_aCharset;
+  }
+
+  /**
+   * @return The number of uncompressed bytes.
+   */
+  @Nonnegative
+  public int getPlainLength ()
+  {
+    return m_aPlain.length;
+  }
+
+  /**
+   * @return A copy of the uncompressed bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getPlainBytes ()
+  {
+    return m_aPlain.clone ();
+  }
+
+  /**
+   * @return The number of gzip compressed bytes.
+   */
+  @Nonnegative
+  public int getGzipLength ()
+  {
+    return m_aGzip.length;
+  }
+
+  /**
+   * @return A copy of the gzip compressed bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getGzipBytes ()
+  {
+    return m_aGzip.clone ();
+  }
+
+  /**
+   * @return The number of deflate compressed bytes.
+   */
+  @Nonnegative
+  public int getDeflateLength ()
+  {
+    return m_aDeflate.length;
+  }
+
+  /**
+   * @return A copy of the deflate compressed bytes (zlib format as required by
+   *         the HTTP "deflate" content coding). Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getDeflateBytes ()
+  {
+    return m_aDeflate.clone ();
+  }
+
+  /**
+   * @return A copy of the hash of the uncompressed bytes. Never
+   *         <code>null</code>.
+   * @see #HASH_ALGORITHM
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getContentHash ()
+  {
+    return m_aHash.clone ();
+  }
+
+  /**
+   * @return The strong ETag (including the surrounding double quotes) based on
+   *         the content hash. Never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public String getETag ()
+  {
+    return m_sETag;
+  }
+
+  /**
+   * Write the uncompressed bytes to the passed stream without copying them.
+   *
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>. Is not
+   *        closed.
+   * @throws IOException
+   *         In case of a write error
+   */
+  public void writePlainTo (@Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    aOS.write (m_aPlain);
+  }
+
+  /**
+   * Write the gzip compressed bytes to the passed stream without copying them.
+   *
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>. Is not
+   *        closed.
+   * @throws IOException
+   *         In case of a write error
+   */
+  public void writeGzipTo (@Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    aOS.write (m_aGzip);
+  }
+
+  /**
+   * Write the deflate compressed bytes to the passed stream without copying
+   * them.
+   *
+   * @param aOS
+   *        The stream to write to. May not be <code>null</code>. Is not
+   *        closed.
+   * @throws IOException
+   *         In case of a write error
+   */
+  public void writeDeflateTo (@Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    aOS.write (m_aDeflate);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("charset", m_aCharset)
+                                       .append ("plainLength", m_aPlain.length)
+                                       .append ("gzipLength", m_aGzip.length)
+                                       .append ("deflateLength", m_aDeflate.length)
+                                       .append ("ETag", m_sETag)
+                                       .toString ();
+  }
+
+  /**
+   * Serialize the passed style sheet once and create all representations.
+   *
+   * @param aWriter
+   *        The CSS writer to use. May not be <code>null</code>.
+   * @param aCSS
+   *        The style sheet to serialize. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset to use for encoding. May not be <code>null</code>.
+   * @return The new object and never <code>null</code>.
+   * @throws IllegalStateException
+   *         In case some elements cannot be written in the version supplied in
+   *         the writer settings.
+   */
+  @Nonnull
+  public static CSSPrecompressedOutput create (@Nonnull final CSSWriter aWriter,
+                                               @Nonnull final CascadingStyleSheet aCSS,
+                                               @Nonnull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aWriter, "Writer");
+    ValueEnforcer.notNull (aCSS, "CSS");
+    ValueEnforcer.notNull (aCharset, "Charset");
+
+    final NonBlockingByteArrayOutputStream aPlainOS = new NonBlockingByteArrayOutputStream ();
+    final NonBlockingByteArrayOutputStream aGzipOS = new NonBlockingByteArrayOutputStream ();
+    final NonBlockingByteArrayOutputStream aDeflateOS = new NonBlockingByteArrayOutputStream ();
+    final IMessageDigestGenerator aDigest = new NonBlockingMessageDigestGenerator (HASH_ALGORITHM);
+    final Deflater aDeflater = new Deflater (Deflater.BEST_COMPRESSION);
+    try
+    {
+      final MultiplexOutputStream aMOS = new MultiplexOutputStream (aDigest,
+                                                                    aPlainOS,
+                                                                    new GZIPOutputStream (aGzipOS),
+                                                                    new DeflaterOutputStream (aDeflateOS, aDeflater));
+      // Closes all streams
+      aWriter.writeCSS (aCSS, aMOS, aCharset);
+    }
+    catch (final IOException ex)
+    {
+      // Should never occur since only in-memory streams are used
+      throw new IllegalStateException ("Totally unexpected", ex);
+    }
+    finally
+    {
+      // A custom deflater is not released by the stream
+      aDeflater.end ();
+    }
+    return new CSSPrecompressedOutput (aCharset,
+                                       aPlainOS.toByteArray (),
+                                       aGzipOS.toByteArray (),
+                                       aDeflateOS.toByteArray (),
+                                       aDigest.getDigest ());
+  }
+}
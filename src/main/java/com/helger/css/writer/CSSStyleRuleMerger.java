@@ -0,0 +1,480 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotations.PresentForCodeCoverage;
+import com.helger.commons.annotations.ReturnsMutableCopy;
+import com.helger.css.ICSSWriterSettings;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSSelector;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.ICSSModificationOwner;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.decl.shorthand.CSSPropertyWithDefaultValue;
+import com.helger.css.decl.shorthand.CSSShortHandRegistry;
+import com.helger.css.property.ECSSProperty;
+
+/**
+ * Merges style rules without changing the semantics of a style sheet:
+ * <ul>
+ * <li>Rules with identical selectors are combined into one rule, e.g.
+ * <code>a{color:red}a{margin:0}</code> becomes
+ * <code>a{color:red;margin:0}</code>.</li>
+ * <li>Rules with identical declarations are combined into one rule with all
+ * selectors, e.g. <code>a{color:red}b{color:red}</code> becomes
+ * <code>a,b{color:red}</code>.</li>
+ * </ul>
+ * Rules need not be adjacent, but a rule is only moved upwards if no rule in
+ * between declares a related property (e.g. <code>margin</code> and
+ * <code>margin-top</code>), so the cascade order is kept. Any other rule like
+ * <code>@media</code> acts as a barrier. Rules with vendor specific selectors
+ * are never combined with other selectors, as an unknown selector invalidates
+ * the whole rule. All lookups are hash based, so the runtime is linear in the
+ * size of the style sheet.<br>
+ * The passed rules are not modified. Merged rules are new objects sharing the
+ * selectors and declarations of the original rules.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ */
+@Immutable
+public final class CSSStyleRuleMerger
+{
+  /** The property resetting all other properties */
+  private static final String PROPERTY_ALL = "all";
+  /**
+   * Related properties not covered by the name prefix, mapped to a common
+   * family. Keys are either property names or name prefixes.
+   */
+  private static final Map <String, String> s_aFamilies = new HashMap <String, String> ();
+
+  static
+  {
+    // "font" resets "line-height"
+    s_aFamilies.put ("line-height", "font");
+    // Multi column layout, grid and gaps
+    for (final String sName : new String [] { "column", "columns", "gap", "row", "grid" })
+      s_aFamilies.put (sName, "grid");
+    // Box alignment
+    for (final String sName : new String [] { "align", "justify", "place" })
+      s_aFamilies.put (sName, "align");
+    // Box offsets
+    for (final String sName : new String [] { "inset", "top", "right", "bottom", "left" })
+      s_aFamilies.put (sName, "inset");
+    // "white-space" is a short hand for "text-wrap" and others
+    s_aFamilies.put ("white", "text");
+    // Legacy aliases
+    s_aFamilies.put ("page", "break");
+    s_aFamilies.put ("word-wrap", "overflow");
+  }
+
+  /**
+   * A hashed signature of a list of selectors or declarations. The hash code is
+   * calculated only once and updated incrementally when elements are added, so
+   * growing merged rules don't need to be rehashed.
+   */
+  @Immutable
+  private static final class Signature
+  {
+    private final List <?> m_aElements;
+    private final int m_nHashCode;
+
+    Signature (@Nonnull final List <?> aElements, final int nHashCode)
+    {
+      m_aElements = aElements;
+      m_nHashCode = nHashCode;
+    }
+
+    static int getHashCode (final int nPrevHashCode, @Nonnull final List <?> aElements)
+    {
+      // Same algorithm as List.hashCode
+      int ret = nPrevHashCode;
+      for (final Object aElement : aElements)
+        ret = 31 * ret + aElement.hashCode ();
+      return ret;
+    }
+
+    @Nonnull
+    static Signature create (@Nonnull final List <?> aElements)
+    {
+      return new Signature (aElements, getHashCode (1, aElements));
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (!(o instanceof Signature))
+        return false;
+      final Signature rhs = (Signature) o;
+      return m_nHashCode == rhs.m_nHashCode && m_aElements.equals (rhs.m_aElements);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+  }
+
+  /**
+   * A style rule in the result list together with its current signatures.
+   */
+  @NotThreadSafe
+  private static final class Entry
+  {
+    private final ICSSTopLevelRule m_aOriginalRule;
+    private final List <CSSSelector> m_aSelectors;
+    private final List <CSSDeclaration> m_aDeclarations;
+    private final boolean m_bVendorSpecific;
+    private Signature m_aSelectorSignature;
+    private Signature m_aDeclarationSignature;
+    private Set <CSSSelector> m_aSelectorSet;
+    private boolean m_bMerged = false;
+
+    Entry (@Nonnull final ICSSTopLevelRule aOriginalRule)
+    {
+      m_aOriginalRule = aOriginalRule;
+      m_aSelectors = null;
+      m_aDeclarations = null;
+      m_bVendorSpecific = false;
+    }
+
+    @SuppressWarnings ("unchecked")
+    Entry (@Nonnull final ICSSTopLevelRule aOriginalRule,
+           @Nonnull final Signature aSelectorSignature,
+           @Nonnull final Signature aDeclarationSignature,
+           final boolean bVendorSpecific)
+    {
+      m_aOriginalRule = aOriginalRule;
+      // Copy the lists, as they may be extended
+      m_aSelectors = new ArrayList <CSSSelector> ((List <CSSSelector>) aSelectorSignature.m_aElements);
+      m_aDeclarations = new ArrayList <CSSDeclaration> ((List <CSSDeclaration>) aDeclarationSignature.m_aElements);
+      m_aSelectorSignature = new Signature (m_aSelectors, aSelectorSignature.m_nHashCode);
+      m_aDeclarationSignature = new Signature (m_aDeclarations, aDeclarationSignature.m_nHashCode);
+      m_bVendorSpecific = bVendorSpecific;
+    }
+
+    @Nonnull
+    ICSSTopLevelRule getAsRule ()
+    {
+      if (!m_bMerged)
+        return m_aOriginalRule;
+
+      // Don't steal the selectors and declarations from their original owners,
+      // so that the change tracking of the original rules still works
+      final CSSStyleRule ret = new CSSStyleRule ();
+      for (final CSSSelector aSelector : m_aSelectors)
+      {
+        final ICSSModificationOwner aOwner = aSelector.getModificationOwner ();
+        ret.addSelector (aSelector);
+        aSelector.setModificationOwner (aOwner);
+      }
+      for (final CSSDeclaration aDeclaration : m_aDeclarations)
+      {
+        final ICSSModificationOwner aOwner = aDeclaration.getModificationOwner ();
+        ret.addDeclaration (aDeclaration);
+        aDeclaration.setModificationOwner (aOwner);
+      }
+      return ret;
+    }
+  }
+
+  @SuppressWarnings ("unused")
+  @PresentForCodeCoverage
+  private static final CSSStyleRuleMerger s_aInstance = new CSSStyleRuleMerger ();
+
+  private CSSStyleRuleMerger ()
+  {}
+
+  /**
+   * Get the mapping from each sub property of a registered short hand property
+   * to its outermost short hand property, e.g. from
+   * <code>border-top-width</code> to <code>border</code>.
+   *
+   * @return The mapping. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  static Map <String, String> getShortHandFamilies ()
+  {
+    final Map <String, String> aParents = new HashMap <String, String> ();
+    for (final ECSSProperty eShortHand : CSSShortHandRegistry.getAllShortHandProperties ())
+      for (final CSSPropertyWithDefaultValue aSubProperty : CSSShortHandRegistry.getShortHandDescriptor (eShortHand)
+                                                                                 .getAllSubProperties ())
+        aParents.put (aSubProperty.getProperty ().getProp ().getName (), eShortHand.getName ());
+
+    final Map <String, String> ret = new HashMap <String, String> ();
+    for (final String sSubProperty : aParents.keySet ())
+    {
+      String sRoot = aParents.get (sSubProperty);
+      // Short hands may be nested, so go up to the outermost one
+      String sParent;
+      while ((sParent = aParents.get (sRoot)) != null)
+        sRoot = sParent;
+      ret.put (sSubProperty, sRoot);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the property name used to detect related properties. Short hand
+   * properties and their long hand versions share the same key, e.g.
+   * <code>border</code> and <code>border-top-color</code>. The relations are
+   * taken from {@link CSSShortHandRegistry}, from a table of short hands not
+   * contained there (like <code>columns</code>, <code>gap</code>,
+   * <code>place-items</code> or <code>inset</code>) and finally from the
+   * property name up to the first hyphen.
+   *
+   * @param sProperty
+   *        The property name. May not be <code>null</code>.
+   * @param aShortHandFamilies
+   *        The result of {@link #getShortHandFamilies()}. May not be
+   *        <code>null</code>.
+   * @return The key. Never <code>null</code>.
+   */
+  @Nonnull
+  static String getPropertyFamily (@Nonnull final String sProperty,
+                                   @Nonnull final Map <String, String> aShortHandFamilies)
+  {
+    String ret = sProperty.toLowerCase (Locale.US);
+    // Custom properties
+    if (ret.startsWith ("--"))
+      return ret;
+    // IE hacks like "*zoom"
+    if (ret.length () > 1 && (ret.charAt (0) == '*' || ret.charAt (0) == '_'))
+      ret = ret.substring (1);
+    // Vendor prefix like "-webkit-transition"
+    if (ret.length () > 1 && ret.charAt (0) == '-')
+    {
+      final int nIndex = ret.indexOf ('-', 1);
+      if (nIndex > 0)
+        ret = ret.substring (nIndex + 1);
+    }
+    final String sShortHand = aShortHandFamilies.get (ret);
+    if (sShortHand != null)
+      ret = sShortHand;
+    final String sFamily = s_aFamilies.get (ret);
+    if (sFamily != null)
+      return sFamily;
+    final int nIndex = ret.indexOf ('-');
+    final String sPrefix = nIndex > 0 ? ret.substring (0, nIndex) : ret;
+    final String sPrefixFamily = s_aFamilies.get (sPrefix);
+    return sPrefixFamily != null ? sPrefixFamily : sPrefix;
+  }
+
+  private static boolean _isVendorSpecific (@Nonnull final List <CSSSelector> aSelectors,
+                                            @Nonnull final ICSSWriterSettings aSettings)
+  {
+    for (final CSSSelector aSelector : aSelectors)
+      if (aSelector.getAsCSSString (aSettings, 0).contains (":-"))
+        return true;
+    return false;
+  }
+
+  /**
+   * Check if the declarations of a rule can be moved upwards to the passed
+   * index.
+   */
+  private static boolean _canMoveTo (@Nonnull final List <CSSDeclaration> aDeclarations,
+                                     @Nonnull final Map <String, String> aShortHandFamilies,
+                                     @Nonnull final Map <String, Integer> aLastIndexOfFamily,
+                                     final int nTargetIndex)
+  {
+    for (final CSSDeclaration aDeclaration : aDeclarations)
+    {
+      final Integer aLastIndex = aLastIndexOfFamily.get (getPropertyFamily (aDeclaration.getProperty (), aShortHandFamilies));
+      if (aLastIndex != null && aLastIndex.intValue () > nTargetIndex)
+        return false;
+    }
+    return true;
+  }
+
+  private static void _registerFamilies (@Nonnull final List <CSSDeclaration> aDeclarations,
+                                         @Nonnull final Map <String, String> aShortHandFamilies,
+                                         @Nonnull final Map <String, Integer> aLastIndexOfFamily,
+                                         final int nIndex)
+  {
+    final Integer aIndex = Integer.valueOf (nIndex);
+    for (final CSSDeclaration aDeclaration : aDeclarations)
+      aLastIndexOfFamily.put (getPropertyFamily (aDeclaration.getProperty (), aShortHandFamilies), aIndex);
+  }
+
+  private static boolean _containsAll (@Nonnull final List <CSSDeclaration> aDeclarations)
+  {
+    for (final CSSDeclaration aDeclaration : aDeclarations)
+      if (aDeclaration.getProperty ().equalsIgnoreCase (PROPERTY_ALL))
+        return true;
+    return false;
+  }
+
+  /**
+   * Merge all style rules that can be merged.
+   *
+   * @param aRules
+   *        The rules to merge. May not be <code>null</code>. The list and the
+   *        contained rules are not modified.
+   * @param aSettings
+   *        The writer settings used to identify vendor specific selectors. May
+   *        not be <code>null</code>.
+   * @return A new list with the merged rules. Unmodified rules are contained
+   *         as they are. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static List <ICSSTopLevelRule> getMergedRules (@Nonnull final List <? extends ICSSTopLevelRule> aRules,
+                                                        @Nonnull final ICSSWriterSettings aSettings)
+  {
+    return getMergedRules (aRules, aSettings, getShortHandFamilies ());
+  }
+
+  /**
+   * Merge all style rules that can be merged.
+   *
+   * @param aRules
+   *        The rules to merge. May not be <code>null</code>. The list and the
+   *        contained rules are not modified.
+   * @param aSettings
+   *        The writer settings used to identify vendor specific selectors. May
+   *        not be <code>null</code>.
+   * @param aShortHandFamilies
+   *        The result of {@link #getShortHandFamilies()}, so that it can be
+   *        reused for several calls. May not be <code>null</code>.
+   * @return A new list with the merged rules. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  static List <ICSSTopLevelRule> getMergedRules (@Nonnull final List <? extends ICSSTopLevelRule> aRules,
+                                                 @Nonnull final ICSSWriterSettings aSettings,
+                                                 @Nonnull final Map <String, String> aShortHandFamilies)
+  {
+    ValueEnforcer.notNull (aRules, "Rules");
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aShortHandFamilies, "ShortHandFamilies");
+
+    final List <Entry> aEntries = new ArrayList <Entry> (aRules.size ());
+    final Map <Signature, Integer> aIndexBySelectors = new HashMap <Signature, Integer> ();
+    final Map <Signature, Integer> aIndexByDeclarations = new HashMap <Signature, Integer> ();
+    final Map <String, Integer> aLastIndexOfFamily = new HashMap <String, Integer> ();
+    // No rule may be moved before this index
+    int nBarrierIndex = -1;
+
+    for (final ICSSTopLevelRule aRule : aRules)
+    {
+      final int nNewIndex = aEntries.size ();
+      if (!(aRule instanceof CSSStyleRule))
+      {
+        // E.g. media rules may contain arbitrary declarations
+        aEntries.add (new Entry (aRule));
+        nBarrierIndex = nNewIndex;
+        continue;
+      }
+
+      final CSSStyleRule aStyleRule = (CSSStyleRule) aRule;
+      final List <CSSSelector> aSelectors = aStyleRule.getAllSelectors ();
+      final List <CSSDeclaration> aDeclarations = aStyleRule.getAllDeclarations ();
+      if (aSelectors.isEmpty () || aDeclarations.isEmpty () || _containsAll (aDeclarations))
+      {
+        // Empty rules and rules resetting all properties are left as they are
+        aEntries.add (new Entry (aRule));
+        if (!aDeclarations.isEmpty ())
+          nBarrierIndex = nNewIndex;
+        continue;
+      }
+
+      // Same selectors - append the declarations
+      final Signature aSelectorSignature = Signature.create (aSelectors);
+      final Integer aSameSelectorIndex = aIndexBySelectors.get (aSelectorSignature);
+      if (aSameSelectorIndex != null)
+      {
+        final int nIndex = aSameSelectorIndex.intValue ();
+        if (nIndex > nBarrierIndex && _canMoveTo (aDeclarations, aShortHandFamilies, aLastIndexOfFamily, nIndex))
+        {
+          final Entry aEntry = aEntries.get (nIndex);
+          if (aSameSelectorIndex.equals (aIndexByDeclarations.get (aEntry.m_aDeclarationSignature)))
+            aIndexByDeclarations.remove (aEntry.m_aDeclarationSignature);
+          aEntry.m_aDeclarations.addAll (aDeclarations);
+          aEntry.m_aDeclarationSignature = new Signature (aEntry.m_aDeclarations,
+                                                          Signature.getHashCode (aEntry.m_aDeclarationSignature.m_nHashCode,
+                                                                                 aDeclarations));
+          aEntry.m_bMerged = true;
+          aIndexByDeclarations.put (aEntry.m_aDeclarationSignature, aSameSelectorIndex);
+          _registerFamilies (aDeclarations, aShortHandFamilies, aLastIndexOfFamily, nIndex);
+          continue;
+        }
+      }
+
+      // Same declarations - append the selectors
+      final Signature aDeclarationSignature = Signature.create (aDeclarations);
+      final boolean bVendorSpecific = _isVendorSpecific (aSelectors, aSettings);
+      final Integer aSameDeclarationIndex = bVendorSpecific ? null : aIndexByDeclarations.get (aDeclarationSignature);
+      if (aSameDeclarationIndex != null)
+      {
+        final int nIndex = aSameDeclarationIndex.intValue ();
+        final Entry aEntry = aEntries.get (nIndex);
+        if (nIndex > nBarrierIndex &&
+            !aEntry.m_bVendorSpecific &&
+            _canMoveTo (aDeclarations, aShortHandFamilies, aLastIndexOfFamily, nIndex))
+        {
+          if (aSameDeclarationIndex.equals (aIndexBySelectors.get (aEntry.m_aSelectorSignature)))
+            aIndexBySelectors.remove (aEntry.m_aSelectorSignature);
+          if (aEntry.m_aSelectorSet == null)
+            aEntry.m_aSelectorSet = new HashSet <CSSSelector> (aEntry.m_aSelectors);
+          final List <CSSSelector> aAddedSelectors = new ArrayList <CSSSelector> ();
+          for (final CSSSelector aSelector : aSelectors)
+            if (aEntry.m_aSelectorSet.add (aSelector))
+              aAddedSelectors.add (aSelector);
+          aEntry.m_aSelectors.addAll (aAddedSelectors);
+          aEntry.m_aSelectorSignature = new Signature (aEntry.m_aSelectors,
+                                                       Signature.getHashCode (aEntry.m_aSelectorSignature.m_nHashCode,
+                                                                              aAddedSelectors));
+          aEntry.m_bMerged = true;
+          aIndexBySelectors.put (aEntry.m_aSelectorSignature, aSameDeclarationIndex);
+          continue;
+        }
+      }
+
+      // Cannot be merged - remember as a merge target
+      final Integer aNewIndex = Integer.valueOf (nNewIndex);
+      final Entry aEntry = new Entry (aRule, aSelectorSignature, aDeclarationSignature, bVendorSpecific);
+      aEntries.add (aEntry);
+      aIndexBySelectors.put (aEntry.m_aSelectorSignature, aNewIndex);
+      aIndexByDeclarations.put (aEntry.m_aDeclarationSignature, aNewIndex);
+      _registerFamilies (aDeclarations, aShortHandFamilies, aLastIndexOfFamily, nNewIndex);
+    }
+
+    final List <ICSSTopLevelRule> ret = new ArrayList <ICSSTopLevelRule> (aEntries.size ());
+    for (final Entry aEntry : aEntries)
+      ret.add (aEntry.getAsRule ());
+    return ret;
+  }
+}
@@ -17,9 +17,23 @@
 package com.helger.css.writer;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillClose;
@@ -27,15 +41,20 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotations.ReturnsMutableObject;
+import com.helger.commons.io.streams.ByteBufferOutputStream;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
 import com.helger.commons.io.streams.NonBlockingStringWriter;
 import com.helger.commons.io.streams.StreamUtils;
+import com.helger.commons.state.ESuccess;
 import com.helger.commons.string.StringHelper;
+import com.helger.css.CSSDeferredPrefixAppendable;
 import com.helger.css.ECSSVersion;
 import com.helger.css.ICSSWriteable;
 import com.helger.css.decl.CSSImportRule;
 import com.helger.css.decl.CSSNamespaceRule;
 import com.helger.css.decl.CascadingStyleSheet;
 import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.reader.CSSTopLevelRuleIterator;
 
 /**
  * Convert CSS domain objects back to a text representation.
@@ -47,6 +66,8 @@ public class CSSWriter
 {
   /** By default optimized output is disabled */
   public static final boolean DEFAULT_OPTIMIZED_OUTPUT = CSSWriterSettings.DEFAULT_OPTIMIZED_OUTPUT;
+  /** The default number of top-level rules per chunk in parallel mode */
+  public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 256;
 
   private final CSSWriterSettings m_aSettings;
   private boolean m_bWriteHeaderText;
@@ -54,6 +75,9 @@ public class CSSWriter
   private boolean m_bWriteFooterText;
   private String m_sFooterText;
   private String m_sContentCharset;
+  private ExecutorService m_aParallelExecutor;
+  private int m_nParallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+  private CSSWriterFragmentCache m_aFragmentCache;
 
   /**
    * Constructor for creating non-optimized output.
@@ -230,6 +254,96 @@ public class CSSWriter
     return this;
   }
 
+  /**
+   * @return The executor service used to serialize top-level rules in
+   *         parallel. May be <code>null</code> if parallel serialization is
+   *         disabled (which is the default).
+   * @since 3.9.3
+   */
+  @Nullable
+  public ExecutorService getParallelExecutor ()
+  {
+    return m_aParallelExecutor;
+  }
+
+  /**
+   * Enable or disable the parallel serialization of top-level rules. If an
+   * executor is set, style sheets with more top-level rules than the chunk
+   * size are split into chunks of consecutive rules. Each chunk is serialized
+   * into a separate buffer and the buffers are written in the original order,
+   * so the result is identical to the sequential output. The executor is not
+   * shut down by this class.
+   * 
+   * @param aParallelExecutor
+   *        The executor to use. May be <code>null</code> to disable parallel
+   *        serialization.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSWriter setParallelExecutor (@Nullable final ExecutorService aParallelExecutor)
+  {
+    m_aParallelExecutor = aParallelExecutor;
+    return this;
+  }
+
+  /**
+   * @return The number of top-level rules that are serialized together in
+   *         parallel mode. Always &gt; 0.
+   * @since 3.9.3
+   */
+  @Nonnegative
+  public int getParallelChunkSize ()
+  {
+    return m_nParallelChunkSize;
+  }
+
+  /**
+   * Set the number of top-level rules that are serialized together in parallel
+   * mode.
+   * 
+   * @param nParallelChunkSize
+   *        The chunk size. Must be &gt; 0.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSWriter setParallelChunkSize (@Nonnegative final int nParallelChunkSize)
+  {
+    ValueEnforcer.isGT0 (nParallelChunkSize, "ParallelChunkSize");
+    m_nParallelChunkSize = nParallelChunkSize;
+    return this;
+  }
+
+  /**
+   * @return The cache for serialized top-level rules. May be <code>null</code>
+   *         if no cache is used (which is the default).
+   * @since 3.9.3
+   */
+  @Nullable
+  public CSSWriterFragmentCache getFragmentCache ()
+  {
+    return m_aFragmentCache;
+  }
+
+  /**
+   * Set the cache for serialized top-level rules. If a cache is set, top-level
+   * rules that were not modified since they were last written with the same
+   * settings are not serialized again. The same cache may be shared between
+   * multiple writers.
+   * 
+   * @param aFragmentCache
+   *        The cache to use. May be <code>null</code> to disable caching.
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSWriter setFragmentCache (@Nullable final CSSWriterFragmentCache aFragmentCache)
+  {
+    m_aFragmentCache = aFragmentCache;
+    return this;
+  }
+
   /**
    * @return The CSS writer settings that are used to generate the different
    *         element code. This is the same object as passed into/created by the
@@ -242,6 +356,168 @@ public class CSSWriter
     return m_aSettings;
   }
 
+  /**
+   * Write the file header, the charset and all import and namespace rules.
+   * 
+   * @return The number of rules written.
+   */
+  @Nonnegative
+  private int _writePrologue (@Nonnull final List <CSSImportRule> aImportRules,
+                              @Nonnull final List <CSSNamespaceRule> aNamespaceRules,
+                              @Nonnull final Writer aWriter) throws IOException
+  {
+    // Write file header
+    if (m_bWriteHeaderText && StringHelper.hasText (m_sHeaderText))
+    {
+      aWriter.write ("/*\n");
+      for (final String sLine : StringHelper.getExploded ("\n", m_sHeaderText))
+        aWriter.write (" * " + sLine + "\n");
+      aWriter.write (" */\n");
+    }
+
+    // Charset? Must be the first element before the import
+    if (StringHelper.hasText (m_sContentCharset))
+    {
+      aWriter.write ("@charset \"" + m_sContentCharset + "\";");
+      if (!m_aSettings.isOptimizedOutput ())
+        aWriter.write ('\n');
+    }
+
+    // Import rules
+    int nRulesEmitted = 0;
+    for (final CSSImportRule aImportRule : aImportRules)
+    {
+      aImportRule.writeTo (aWriter, m_aSettings, 0);
+      ++nRulesEmitted;
+    }
+
+    // Namespace rules
+    for (final CSSNamespaceRule aNamespaceRule : aNamespaceRules)
+    {
+      aNamespaceRule.writeTo (aWriter, m_aSettings, 0);
+      ++nRulesEmitted;
+    }
+    return nRulesEmitted;
+  }
+
+  private void _writeEpilogue (@Nonnull final Writer aWriter) throws IOException
+  {
+    // Write file footer
+    if (m_bWriteFooterText && StringHelper.hasText (m_sFooterText))
+    {
+      aWriter.write ("/*\n");
+      for (final String sLine : StringHelper.getExploded ("\n", m_sFooterText))
+        aWriter.write (" * " + sLine + "\n");
+      aWriter.write (" */\n");
+    }
+  }
+
+  /**
+   * Write a range of top-level rules. The separating newline is only emitted
+   * if a rule produces any output.
+   * 
+   * @return The number of rules that produced output.
+   */
+  @Nonnegative
+  private int _writeRules (@Nonnull final List <ICSSTopLevelRule> aRules,
+                           final int nFromIndex,
+                           final int nToIndex,
+                           @Nonnull final Appendable aTarget,
+                           final int nRulesEmittedBefore) throws IOException
+  {
+    final boolean bOptimizedOutput = m_aSettings.isOptimizedOutput ();
+    final CSSDeferredPrefixAppendable aRuleTarget = new CSSDeferredPrefixAppendable (aTarget);
+    int nRulesEmitted = nRulesEmittedBefore;
+    for (int i = nFromIndex; i < nToIndex; ++i)
+    {
+      aRuleTarget.startSection (!bOptimizedOutput && nRulesEmitted > 0 ? "\n" : null);
+      final ICSSTopLevelRule aRule = aRules.get (i);
+      if (m_aFragmentCache != null)
+        aRuleTarget.append (m_aFragmentCache.getAsCSSString (m_aSettings, aRule));
+      else
+        aRule.writeTo (aRuleTarget, m_aSettings, 0);
+      if (aRuleTarget.isWritten ())
+        ++nRulesEmitted;
+    }
+    return nRulesEmitted - nRulesEmittedBefore;
+  }
+
+  /**
+   * The serialized content of a chunk of rules.
+   */
+  private static final class RuleChunk
+  {
+    private final StringBuilder m_aContent = new StringBuilder ();
+    private int m_nRulesEmitted;
+  }
+
+  @Nonnegative
+  private int _writeRulesParallel (@Nonnull final List <ICSSTopLevelRule> aRules,
+                                   @Nonnull final Writer aWriter,
+                                   final int nRulesEmittedBefore) throws IOException
+  {
+    // Serialize all chunks independently - each chunk behaves as if it would
+    // be the start of the file
+    final int nRuleCount = aRules.size ();
+    final List <Future <RuleChunk>> aFutures = new ArrayList <Future <RuleChunk>> ();
+    for (int nFrom = 0; nFrom < nRuleCount; nFrom += m_nParallelChunkSize)
+    {
+      final int nChunkFrom = nFrom;
+      final int nChunkTo = Math.min (nFrom + m_nParallelChunkSize, nRuleCount);
+      aFutures.add (m_aParallelExecutor.submit (new Callable <RuleChunk> ()
+      {
+        public RuleChunk call () throws IOException
+        {
+          final RuleChunk aChunk = new RuleChunk ();
+          aChunk.m_nRulesEmitted = _writeRules (aRules, nChunkFrom, nChunkTo, aChunk.m_aContent, 0);
+          return aChunk;
+        }
+      }));
+    }
+
+    // Concatenate in order and add the separator between the chunks, exactly
+    // as the sequential version does
+    final boolean bOptimizedOutput = m_aSettings.isOptimizedOutput ();
+    int nRulesEmitted = nRulesEmittedBefore;
+    try
+    {
+      for (final Future <RuleChunk> aFuture : aFutures)
+      {
+        final RuleChunk aChunk = aFuture.get ();
+        if (aChunk.m_nRulesEmitted > 0)
+        {
+          if (!bOptimizedOutput && nRulesEmitted > 0)
+            aWriter.write ('\n');
+          aWriter.append (aChunk.m_aContent);
+          nRulesEmitted += aChunk.m_nRulesEmitted;
+        }
+      }
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new InterruptedIOException ("Interrupted while serializing CSS rules");
+    }
+    catch (final ExecutionException ex)
+    {
+      final Throwable aCause = ex.getCause ();
+      if (aCause instanceof IOException)
+        throw (IOException) aCause;
+      if (aCause instanceof RuntimeException)
+        throw (RuntimeException) aCause;
+      if (aCause instanceof Error)
+        throw (Error) aCause;
+      throw new IllegalStateException ("Failed to serialize CSS rules", aCause);
+    }
+    finally
+    {
+      // Don't let remaining chunks run in vain
+      for (final Future <RuleChunk> aFuture : aFutures)
+        aFuture.cancel (true);
+    }
+    return nRulesEmitted - nRulesEmittedBefore;
+  }
+
   /**
    * Write the CSS content to the passed writer. No specific charset is used.
    * 
@@ -264,73 +540,114 @@ public class CSSWriter
 
     try
     {
-      final boolean bOptimizedOutput = m_aSettings.isOptimizedOutput ();
+      // Header, charset, import rules and namespace rules
+      int nRulesEmitted = _writePrologue (aCSS.getAllImportRules (), aCSS.getAllNamespaceRules (), aWriter);
 
-      // Write file header
-      if (m_bWriteHeaderText && StringHelper.hasText (m_sHeaderText))
+      // Main CSS rules
+      List <ICSSTopLevelRule> aRules = aCSS.getAllRules ();
+      if (m_aSettings.isMergeStyleRules ())
+        aRules = CSSStyleRuleMerger.getMergedRules (aRules, m_aSettings);
+      if (m_aParallelExecutor != null && aRules.size () > m_nParallelChunkSize)
+        nRulesEmitted += _writeRulesParallel (aRules, aWriter, nRulesEmitted);
+      else
+        nRulesEmitted += _writeRules (aRules, 0, aRules.size (), aWriter, nRulesEmitted);
+      if (m_aFragmentCache != null)
       {
-        aWriter.write ("/*\n");
-        for (final String sLine : StringHelper.getExploded ("\n", m_sHeaderText))
-          aWriter.write (" * " + sLine + "\n");
-        aWriter.write (" */\n");
+        // Forget about removed rules
+        m_aFragmentCache.retainRules (m_aSettings, aRules);
       }
 
-      // Charset? Must be the first element before the import
-      if (StringHelper.hasText (m_sContentCharset))
-      {
-        aWriter.write ("@charset \"" + m_sContentCharset + "\";");
-        if (!bOptimizedOutput)
-          aWriter.write ('\n');
-      }
+      _writeEpilogue (aWriter);
+    }
+    finally
+    {
+      StreamUtils.close (aWriter);
+    }
+  }
 
-      // Import rules
-      int nRulesEmitted = 0;
-      final List <CSSImportRule> aImportRules = aCSS.getAllImportRules ();
-      if (!aImportRules.isEmpty ())
-      {
-        for (final CSSImportRule aImportRule : aImportRules)
-        {
-          aWriter.write (aImportRule.getAsCSSString (m_aSettings, 0));
-          ++nRulesEmitted;
-        }
-      }
+  @Nonnegative
+  private int _writeStreamedRule (@Nonnull final ICSSTopLevelRule aRule,
+                                  @Nonnull final CSSDeferredPrefixAppendable aTarget,
+                                  final int nRulesEmittedBefore) throws IOException
+  {
+    aTarget.startSection (!m_aSettings.isOptimizedOutput () && nRulesEmittedBefore > 0 ? "\n" : null);
+    aRule.writeTo (aTarget, m_aSettings, 0);
+    return aTarget.isWritten () ? 1 : 0;
+  }
 
-      // Namespace rules
-      final List <CSSNamespaceRule> aNamespaceRules = aCSS.getAllNamespaceRules ();
-      if (!aNamespaceRules.isEmpty ())
-      {
-        for (final CSSNamespaceRule aNamespaceRule : aNamespaceRules)
-        {
-          aWriter.write (aNamespaceRule.getAsCSSString (m_aSettings, 0));
-          ++nRulesEmitted;
-        }
-      }
+  /**
+   * Write the CSS content of all rules delivered by the passed iterator to the
+   * passed writer. Only the current top-level rule is kept in memory, so this
+   * is the way to rewrite huge style sheets. The parallel executor and the
+   * fragment cache are not used in this mode. If style rules should be merged,
+   * only adjacent style rules are merged, so that at most one additional rule
+   * is kept in memory.
+   * 
+   * @param aRules
+   *        The iterator delivering the rules to write. May not be
+   *        <code>null</code>. Is closed after writing.
+   * @param aWriter
+   *        The write to write the text to. May not be <code>null</code>. Is
+   *        automatically closed after the writing!
+   * @return {@link ESuccess#FAILURE} if reading stopped because of an
+   *         unrecoverable error. In this case the output is incomplete.
+   * @throws IOException
+   *         In case writing fails.
+   * @throws IllegalStateException
+   *         In case some elements cannot be written in the version supplied in
+   *         the constructor.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public ESuccess writeCSS (@Nonnull @WillClose final CSSTopLevelRuleIterator aRules,
+                            @Nonnull @WillClose final Writer aWriter) throws IOException
+  {
+    ValueEnforcer.notNull (aRules, "Rules");
+    ValueEnforcer.notNull (aWriter, "Writer");
 
-      // Main CSS rules
-      for (final ICSSTopLevelRule aRule : aCSS.getAllRules ())
+    try
+    {
+      // Reading the first rule makes all import and namespace rules available,
+      // as they must precede all other rules
+      aRules.hasNext ();
+      int nRulesEmitted = _writePrologue (aRules.getAllImportRules (), aRules.getAllNamespaceRules (), aWriter);
+
+      final CSSDeferredPrefixAppendable aRuleTarget = new CSSDeferredPrefixAppendable (aWriter);
+      final Map <String, String> aShortHandFamilies = m_aSettings.isMergeStyleRules () ? CSSStyleRuleMerger.getShortHandFamilies ()
+                                                                                        : null;
+      // When merging, the last rule is kept back as it may be merged with the
+      // next one
+      ICSSTopLevelRule aPendingRule = null;
+      while (aRules.hasNext ())
       {
-        final String sRuleCSS = aRule.getAsCSSString (m_aSettings, 0);
-        if (StringHelper.hasText (sRuleCSS))
+        final ICSSTopLevelRule aRule = aRules.next ();
+        if (aPendingRule != null)
         {
-          if (!bOptimizedOutput && nRulesEmitted > 0)
-            aWriter.write ('\n');
-
-          aWriter.write (sRuleCSS);
-          ++nRulesEmitted;
+          final List <ICSSTopLevelRule> aMergedRules = CSSStyleRuleMerger.getMergedRules (Arrays.asList (aPendingRule,
+                                                                                                         aRule),
+                                                                                          m_aSettings,
+                                                                                          aShortHandFamilies);
+          if (aMergedRules.size () == 1)
+          {
+            aPendingRule = aMergedRules.get (0);
+            continue;
+          }
+          nRulesEmitted += _writeStreamedRule (aPendingRule, aRuleTarget, nRulesEmitted);
         }
+        if (aShortHandFamilies != null)
+          aPendingRule = aRule;
+        else
+          nRulesEmitted += _writeStreamedRule (aRule, aRuleTarget, nRulesEmitted);
       }
+      if (aPendingRule != null)
+        _writeStreamedRule (aPendingRule, aRuleTarget, nRulesEmitted);
 
-      // Write file footer
-      if (m_bWriteFooterText && StringHelper.hasText (m_sFooterText))
-      {
-        aWriter.write ("/*\n");
-        for (final String sLine : StringHelper.getExploded ("\n", m_sFooterText))
-          aWriter.write (" * " + sLine + "\n");
-        aWriter.write (" */\n");
-      }
+      _writeEpilogue (aWriter);
+      return ESuccess.valueOf (!aRules.hasUnrecoverableError ());
     }
     finally
     {
+      aRules.close ();
       StreamUtils.close (aWriter);
     }
   }
@@ -361,6 +678,138 @@ public class CSSWriter
     return aSW.getAsString ();
   }
 
+  /**
+   * Write the CSS content as bytes to the passed output stream. The characters
+   * are encoded directly into a pooled byte buffer, so no intermediate String
+   * of the whole CSS is created.
+   * 
+   * @param aCSS
+   *        The CSS to write. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. Is
+   *        automatically closed after the writing!
+   * @param aCharset
+   *        The charset to be used for encoding. Should match the content
+   *        charset (if any). May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails.
+   * @throws IllegalStateException
+   *         In case some elements cannot be written in the version supplied in
+   *         the constructor.
+   * @since 3.9.3
+   */
+  public void writeCSS (@Nonnull final CascadingStyleSheet aCSS,
+                        @Nonnull @WillClose final OutputStream aOS,
+                        @Nonnull final Charset aCharset) throws IOException
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    writeCSS (aCSS, new CSSByteWriter (aOS, aCharset));
+  }
+
+  /**
+   * Write the CSS content as bytes to the passed channel.
+   * 
+   * @param aCSS
+   *        The CSS to write. May not be <code>null</code>.
+   * @param aChannel
+   *        The channel to write to. May not be <code>null</code>. Is
+   *        automatically closed after the writing!
+   * @param aCharset
+   *        The charset to be used for encoding. Should match the content
+   *        charset (if any). May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails.
+   * @throws IllegalStateException
+   *         In case some elements cannot be written in the version supplied in
+   *         the constructor.
+   * @since 3.9.3
+   */
+  public void writeCSS (@Nonnull final CascadingStyleSheet aCSS,
+                        @Nonnull @WillClose final WritableByteChannel aChannel,
+                        @Nonnull final Charset aCharset) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+    writeCSS (aCSS, Channels.newOutputStream (aChannel), aCharset);
+  }
+
+  /**
+   * Write the CSS content as bytes into the passed byte buffer, starting at
+   * its current position. This allows for reusing the same buffer for many
+   * style sheets.
+   * 
+   * @param aCSS
+   *        The CSS to write. May not be <code>null</code>.
+   * @param aBuffer
+   *        The buffer to write to. May not be <code>null</code>. After writing
+   *        the position of the buffer is right after the last written byte.
+   * @param aCharset
+   *        The charset to be used for encoding. Should match the content
+   *        charset (if any). May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails.
+   * @throws java.nio.BufferOverflowException
+   *         If the remaining space of the buffer is not sufficient
+   * @throws IllegalStateException
+   *         In case some elements cannot be written in the version supplied in
+   *         the constructor.
+   * @since 3.9.3
+   */
+  public void writeCSS (@Nonnull final CascadingStyleSheet aCSS,
+                        @Nonnull final ByteBuffer aBuffer,
+                        @Nonnull final Charset aCharset) throws IOException
+  {
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+    writeCSS (aCSS, new ByteBufferOutputStream (aBuffer, false), aCharset);
+  }
+
+  /**
+   * Create the CSS as encoded bytes without creating an intermediate String.
+   * 
+   * @param aCSS
+   *        The CSS object to be converted. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset to be used for encoding. Should match the content
+   *        charset (if any). May not be <code>null</code>.
+   * @return The encoded representation of the CSS.
+   * @see #writeCSS(CascadingStyleSheet, OutputStream, Charset)
+   * @since 3.9.3
+   */
+  @Nonnull
+  public byte [] getCSSAsBytes (@Nonnull final CascadingStyleSheet aCSS, @Nonnull final Charset aCharset)
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try
+    {
+      writeCSS (aCSS, aBAOS, aCharset);
+    }
+    catch (final IOException ex)
+    {
+      // Should never occur since NonBlockingByteArrayOutputStream does not
+      // throw such an exception
+      throw new IllegalStateException ("Totally unexpected", ex);
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * Serialize the CSS once and create the plain, the gzip and the deflate
+   * compressed bytes as well as an ETag in the same pass.
+   * 
+   * @param aCSS
+   *        The CSS object to be converted. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset to be used for encoding. Should match the content
+   *        charset (if any). May not be <code>null</code>.
+   * @return The immutable result object. Never <code>null</code>.
+   * @since 3.9.3
+   */
+  @Nonnull
+  public CSSPrecompressedOutput getCSSAsPrecompressedOutput (@Nonnull final CascadingStyleSheet aCSS,
+                                                             @Nonnull final Charset aCharset)
+  {
+    return CSSPrecompressedOutput.create (this, aCSS, aCharset);
+  }
+
   /**
    * Write the CSS content to the passed writer. No specific charset is used.
    * 
@@ -383,7 +832,7 @@ public class CSSWriter
 
     try
     {
-      aWriter.write (aCSS.getAsCSSString (m_aSettings, 0));
+      aCSS.writeTo (aWriter, m_aSettings, 0);
     }
     finally
     {
@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.css.decl.ICSSRevisionAware;
+import com.helger.css.decl.ICSSTopLevelRule;
+
+/**
+ * A cache for the serialized form of top-level rules. A cached fragment is
+ * reused as long as the revision of the rule (see {@link ICSSRevisionAware})
+ * did not change, so that re-serializing a large style sheet after a small
+ * modification only needs to serialize the modified rules. Fragments are
+ * cached separately per {@link CSSWriterSettings}.<br>
+ * Note: only modifications made via the tracked objects (declarations,
+ * expressions, selectors and rules) are detected automatically. After
+ * modifying other objects (e.g. a {@link com.helger.css.decl.CSSURI}) call
+ * {@link ICSSRevisionAware#onModification()} on the enclosing top-level rule.
+ *
+ * @author Philip Helger
+ * @since 3.9.3
+ * @see CSSWriter#setFragmentCache(CSSWriterFragmentCache)
+ */
+@ThreadSafe
+public class CSSWriterFragmentCache
+{
+  private static final class Fragment
+  {
+    private final long m_nRevision;
+    private final String m_sCSS;
+
+    Fragment (final long nRevision, @Nonnull final String sCSS)
+    {
+      m_nRevision = nRevision;
+      m_sCSS = sCSS;
+    }
+  }
+
+  private final ReadWriteLock m_aRWLock = new ReentrantReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private final Map <CSSWriterSettings, Map <ICSSTopLevelRule, Fragment>> m_aFragments = new HashMap <CSSWriterSettings, Map <ICSSTopLevelRule, Fragment>> ();
+  private final AtomicLong m_aHits = new AtomicLong ();
+  private final AtomicLong m_aMisses = new AtomicLong ();
+
+  public CSSWriterFragmentCache ()
+  {}
+
+  /**
+   * Get the serialized form of the passed rule. If a fragment for the current
+   * revision of the rule is present, it is returned. Otherwise the rule is
+   * serialized and the result is cached. Rules not implementing
+   * {@link ICSSRevisionAware} are always serialized.
+   *
+   * @param aSettings
+   *        The writer settings to use. May not be <code>null</code>.
+   * @param aRule
+   *        The rule to be serialized. May not be <code>null</code>.
+   * @return The serialized rule. Never <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  public String getAsCSSString (@Nonnull final CSSWriterSettings aSettings, @Nonnull final ICSSTopLevelRule aRule)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aRule, "Rule");
+
+    if (!(aRule instanceof ICSSRevisionAware))
+      return aRule.getAsCSSString (aSettings, 0);
+
+    final long nRevision = ((ICSSRevisionAware) aRule).getRevision ();
+    m_aRWLock.readLock ().lock ();
+    try
+    {
+      final Map <ICSSTopLevelRule, Fragment> aMap = m_aFragments.get (aSettings);
+      if (aMap != null)
+      {
+        final Fragment aFragment = aMap.get (aRule);
+        if (aFragment != null && aFragment.m_nRevision == nRevision)
+        {
+          m_aHits.incrementAndGet ();
+          return aFragment.m_sCSS;
+        }
+      }
+    }
+    finally
+    {
+      m_aRWLock.readLock ().unlock ();
+    }
+
+    // Serialize outside of the lock
+    m_aMisses.incrementAndGet ();
+    final String sCSS = aRule.getAsCSSString (aSettings, 0);
+
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      Map <ICSSTopLevelRule, Fragment> aMap = m_aFragments.get (aSettings);
+      if (aMap == null)
+      {
+        // Settings are mutable, so use a copy as the key
+        aMap = new IdentityHashMap <ICSSTopLevelRule, Fragment> ();
+        m_aFragments.put (aSettings.getClone (), aMap);
+      }
+      aMap.put (aRule, new Fragment (nRevision, sCSS));
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+    return sCSS;
+  }
+
+  /**
+   * Remove all fragments for the passed settings, that don't belong to any of
+   * the passed rules. This is used to get rid of the fragments of rules that
+   * were removed from a style sheet.
+   *
+   * @param aSettings
+   *        The writer settings to use. May not be <code>null</code>.
+   * @param aRules
+   *        The rules that are still in use. May not be <code>null</code>.
+   * @return {@link EChange}
+   */
+  @Nonnull
+  public EChange retainRules (@Nonnull final CSSWriterSettings aSettings,
+                              @Nonnull final Collection <? extends ICSSTopLevelRule> aRules)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (aRules, "Rules");
+
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      final Map <ICSSTopLevelRule, Fragment> aMap = m_aFragments.get (aSettings);
+      if (aMap == null || aMap.isEmpty ())
+        return EChange.UNCHANGED;
+
+      final Map <ICSSTopLevelRule, Boolean> aUsed = new IdentityHashMap <ICSSTopLevelRule, Boolean> (aRules.size ());
+      for (final ICSSTopLevelRule aRule : aRules)
+        aUsed.put (aRule, Boolean.TRUE);
+
+      EChange eChange = EChange.UNCHANGED;
+      final Iterator <ICSSTopLevelRule> it = aMap.keySet ().iterator ();
+      while (it.hasNext ())
+        if (!aUsed.containsKey (it.next ()))
+        {
+          it.remove ();
+          eChange = EChange.CHANGED;
+        }
+      return eChange;
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+  }
+
+  /**
+   * Remove all cached fragments.
+   *
+   * @return {@link EChange}
+   */
+  @Nonnull
+  public EChange clear ()
+  {
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      if (m_aFragments.isEmpty ())
+        return EChange.UNCHANGED;
+      m_aFragments.clear ();
+      return EChange.CHANGED;
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+  }
+
+  /**
+   * @return The total number of cached fragments over all settings.
+   */
+  @Nonnegative
+  public int getFragmentCount ()
+  {
+    m_aRWLock.readLock ().lock ();
+    try
+    {
+      int ret = 0;
+      for (final Map <ICSSTopLevelRule, Fragment> aMap : m_aFragments.values ())
+        ret += aMap.size ();
+      return ret;
+    }
+    finally
+    {
+      m_aRWLock.readLock ().unlock ();
+    }
+  }
+
+  /**
+   * @return The number of times a cached fragment was reused.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  /**
+   * @return The number of times a rule had to be serialized.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("fragmentCount", getFragmentCount ())
+                                       .append ("hits", m_aHits.get ())
+                                       .append ("misses", m_aMisses.get ())
+                                       .toString ();
+  }
+}
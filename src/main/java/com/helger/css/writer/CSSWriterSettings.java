@@ -43,6 +43,12 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
   public static final boolean DEFAULT_OPTIMIZED_OUTPUT = false;
   /** By default unnecessary code is not removed */
   public static final boolean DEFAULT_REMOVE_UNNECESSARY_CODE = false;
+  /** Default optimize color values: false */
+  public static final boolean DEFAULT_OPTIMIZE_COLOR_VALUES = false;
+  /** Default merge style rules: false */
+  public static final boolean DEFAULT_MERGE_STYLE_RULES = false;
+  /** Default remove overridden declarations: false */
+  public static final boolean DEFAULT_REMOVE_OVERRIDDEN_DECLARATIONS = false;
   /** By default indentation is done by 2 spaces */
   public static final String DEFAULT_INDENT = "  ";
   /** By default URLs are not quoted */
@@ -67,6 +73,9 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
   private final ECSSVersion m_eVersion;
   private boolean m_bOptimizedOutput;
   private boolean m_bRemoveUnnecessaryCode = DEFAULT_REMOVE_UNNECESSARY_CODE;
+  private boolean m_bOptimizeColorValues = DEFAULT_OPTIMIZE_COLOR_VALUES;
+  private boolean m_bMergeStyleRules = DEFAULT_MERGE_STYLE_RULES;
+  private boolean m_bRemoveOverriddenDeclarations = DEFAULT_REMOVE_OVERRIDDEN_DECLARATIONS;
   private String m_sIndent = DEFAULT_INDENT;
   private boolean m_bQuoteURLs = DEFAULT_QUOTE_URLS;
   private boolean m_bWriteNamespaceRules = DEFAULT_WRITE_NAMESPACE_RULES;
@@ -114,6 +123,10 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
 
     m_eVersion = aBase.getVersion ();
     m_bOptimizedOutput = aBase.isOptimizedOutput ();
+    m_bRemoveUnnecessaryCode = aBase.isRemoveUnnecessaryCode ();
+    m_bOptimizeColorValues = aBase.isOptimizeColorValues ();
+    m_bMergeStyleRules = aBase.isMergeStyleRules ();
+    m_bRemoveOverriddenDeclarations = aBase.isRemoveOverriddenDeclarations ();
     m_sIndent = aBase.getIndent (1);
     m_bQuoteURLs = aBase.isQuoteURLs ();
     m_bWriteNamespaceRules = aBase.isWriteNamespaceRules ();
@@ -156,6 +169,71 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
     return this;
   }
 
+  public final boolean isOptimizeColorValues ()
+  {
+    return m_bOptimizeColorValues;
+  }
+
+  /**
+   * Write all color values in their shortest form. This only has an effect if
+   * optimized output is enabled.
+   * 
+   * @param bOptimizeColorValues
+   *        <code>true</code> to optimize color values
+   * @return this
+   * @since 3.9.3
+   */
+  @Nonnull
+  public final CSSWriterSettings setOptimizeColorValues (final boolean bOptimizeColorValues)
+  {
+    m_bOptimizeColorValues = bOptimizeColorValues;
+    return this;
+  }
+
+  public final boolean isMergeStyleRules ()
+  {
+    return m_bMergeStyleRules;
+  }
+
+  /**
+   * Merge style rules with identical selectors or identical declarations when
+   * writing a complete style sheet.
+   * 
+   * @param bMergeStyleRules
+   *        <code>true</code> to merge style rules
+   * @return this
+   * @see CSSStyleRuleMerger
+   * @since 3.9.3
+   */
+  @Nonnull
+  public final CSSWriterSettings setMergeStyleRules (final boolean bMergeStyleRules)
+  {
+    m_bMergeStyleRules = bMergeStyleRules;
+    return this;
+  }
+
+  public final boolean isRemoveOverriddenDeclarations ()
+  {
+    return m_bRemoveOverriddenDeclarations;
+  }
+
+  /**
+   * Don't write declarations that are overridden by a later declaration of the
+   * same block.
+   * 
+   * @param bRemoveOverriddenDeclarations
+   *        <code>true</code> to skip overridden declarations
+   * @return this
+   * @see com.helger.css.decl.CSSOverriddenDeclarationFilter
+   * @since 3.9.3
+   */
+  @Nonnull
+  public final CSSWriterSettings setRemoveOverriddenDeclarations (final boolean bRemoveOverriddenDeclarations)
+  {
+    m_bRemoveOverriddenDeclarations = bRemoveOverriddenDeclarations;
+    return this;
+  }
+
   @Nonnull
   public final String getIndent (@Nonnegative final int nCount)
   {
@@ -307,6 +385,9 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
     return m_eVersion.equals (rhs.m_eVersion) &&
            m_bOptimizedOutput == rhs.m_bOptimizedOutput &&
            m_bRemoveUnnecessaryCode == rhs.m_bRemoveUnnecessaryCode &&
+           m_bOptimizeColorValues == rhs.m_bOptimizeColorValues &&
+           m_bMergeStyleRules == rhs.m_bMergeStyleRules &&
+           m_bRemoveOverriddenDeclarations == rhs.m_bRemoveOverriddenDeclarations &&
            m_sIndent.equals (rhs.m_sIndent) &&
            m_bQuoteURLs == rhs.m_bQuoteURLs &&
            m_bWriteNamespaceRules == rhs.m_bWriteNamespaceRules &&
@@ -325,6 +406,9 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
     return new HashCodeGenerator (this).append (m_eVersion)
                                        .append (m_bOptimizedOutput)
                                        .append (m_bRemoveUnnecessaryCode)
+                                       .append (m_bOptimizeColorValues)
+                                       .append (m_bMergeStyleRules)
+                                       .append (m_bRemoveOverriddenDeclarations)
                                        .append (m_sIndent)
                                        .append (m_bQuoteURLs)
                                        .append (m_bWriteNamespaceRules)
@@ -344,6 +428,9 @@ public class CSSWriterSettings implements ICSSWriterSettings, ICloneable <CSSWri
     return new ToStringGenerator (this).append ("version", m_eVersion)
                                        .append ("optimizedOutput", m_bOptimizedOutput)
                                        .append ("removeUnnecessaryCode", m_bRemoveUnnecessaryCode)
+                                       .append ("optimizeColorValues", m_bOptimizeColorValues)
+                                       .append ("mergeStyleRules", m_bMergeStyleRules)
+                                       .append ("removeOverriddenDeclarations", m_bRemoveOverriddenDeclarations)
                                        .append ("indent", m_sIndent)
                                        .append ("quoteURLs", m_bQuoteURLs)
                                        .append ("writeNamespaceRules", m_bWriteNamespaceRules)
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSDeferredPrefixAppendable}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSDeferredPrefixAppendableTest
+{
+  @Test
+  public void testBasic () throws IOException
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    final CSSDeferredPrefixAppendable aDPA = new CSSDeferredPrefixAppendable (aSB);
+    aDPA.startSection ("<");
+    assertFalse (aDPA.isWritten ());
+    aDPA.append ("");
+    aDPA.append ("abc", 1, 1);
+    assertFalse (aDPA.isWritten ());
+    assertEquals ("", aSB.toString ());
+
+    aDPA.append ('a').append ("bc");
+    assertTrue (aDPA.isWritten ());
+    assertEquals ("<abc", aSB.toString ());
+
+    aDPA.startSection (null);
+    aDPA.append ("xyz", 0, 2);
+    assertTrue (aDPA.isWritten ());
+    assertEquals ("<abcxy", aSB.toString ());
+  }
+
+  @Test
+  public void testStreamingEqualsString () throws IOException
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("@media print{a{}b{color:red}c{}}" +
+                                                                   "@keyframes x{from{}to{top:0}}" +
+                                                                   "d{margin:0;padding:0}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    for (final boolean bOptimized : new boolean [] { true, false })
+    {
+      final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, bOptimized);
+      for (final boolean bRemove : new boolean [] { true, false })
+      {
+        aSettings.setRemoveUnnecessaryCode (bRemove);
+        final StringBuilder aSB = new StringBuilder ();
+        for (final ICSSWriteable aRule : aCSS.getAllRules ())
+        {
+          aSB.setLength (0);
+          aRule.writeTo (aSB, aSettings, 1);
+          assertEquals (aRule.getAsCSSString (aSettings, 1), aSB.toString ());
+        }
+      }
+    }
+
+    // Empty nested rules are skipped without separators
+    final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, false).setRemoveUnnecessaryCode (true);
+    assertEquals ("@media print {\n  b { color:red; }\n}\n", aCSS.getRuleAtIndex (0).getAsCSSString (aSettings, 0));
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSUnit;
+import com.helger.css.ECSSVersion;
+import com.helger.css.propertyvalue.CSSSimpleValueWithUnit;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.writer.CSSWriter;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSExpressionTermOptimizer}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSExpressionTermOptimizerTest
+{
+  @Test
+  public void testOptimizedValue ()
+  {
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("0px"));
+    assertEquals ("#abc", CSSExpressionTermOptimizer.getOptimizedValue ("#aabbcc"));
+    assertEquals ("#F00", CSSExpressionTermOptimizer.getOptimizedValue ("#FF0000"));
+    assertEquals ("1px", CSSExpressionTermOptimizer.getOptimizedValue ("1px"));
+    assertEquals ("auto", CSSExpressionTermOptimizer.getOptimizedValue ("auto"));
+  }
+
+  @Test
+  public void testOptimizedNumber ()
+  {
+    assertEquals (".5em", CSSExpressionTermOptimizer.getOptimizedValue ("0.50em"));
+    assertEquals ("10px", CSSExpressionTermOptimizer.getOptimizedValue ("+10px"));
+    assertEquals ("1", CSSExpressionTermOptimizer.getOptimizedValue ("1.0"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("-0.0"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("000"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("0.00px"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("+.0em"));
+    assertEquals ("-.25%", CSSExpressionTermOptimizer.getOptimizedValue ("-00.250%"));
+    assertEquals ("100", CSSExpressionTermOptimizer.getOptimizedValue ("100"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("0.0PX"));
+    assertEquals ("12345678901234567890.123456789", CSSExpressionTermOptimizer.getOptimizedValue ("12345678901234567890.1234567890"));
+
+    // No numbers
+    for (final String s : new String [] { "1.", ".", "+", "-moz-box", "10px\\9", "1e+3", "auto", "u+1f" })
+      assertEquals (s, CSSExpressionTermOptimizer.getOptimizedNumber (s));
+
+    assertEquals (".5em", new CSSSimpleValueWithUnit (0.5, ECSSUnit.EM).getOptimizedFormatted ());
+    assertEquals ("0", new CSSSimpleValueWithUnit (0, ECSSUnit.PX).getOptimizedFormatted ());
+    assertEquals ("-1.5px", new CSSSimpleValueWithUnit (-1.5, ECSSUnit.PX).getOptimizedFormatted ());
+  }
+
+  @Test
+  public void testZeroUnit ()
+  {
+    // Only lengths may drop the unit
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("0.0em"));
+    assertEquals ("0", CSSExpressionTermOptimizer.getOptimizedValue ("0vh"));
+    assertEquals ("0s", CSSExpressionTermOptimizer.getOptimizedValue ("0.0s"));
+    assertEquals ("0%", CSSExpressionTermOptimizer.getOptimizedValue ("0.0%"));
+    assertEquals ("0deg", CSSExpressionTermOptimizer.getOptimizedValue ("0.0deg"));
+    assertEquals ("0px", CSSExpressionTermOptimizer.getOptimizedValue ("0.0px", false));
+    assertEquals (".5px", CSSExpressionTermOptimizer.getOptimizedValue ("0.50px", false));
+
+    assertTrue (CSSExpressionTermOptimizer.isZeroUnitRequired ("flex"));
+    assertTrue (CSSExpressionTermOptimizer.isZeroUnitRequired ("-webkit-flex"));
+    assertTrue (CSSExpressionTermOptimizer.isZeroUnitRequired ("*FLEX"));
+    assertFalse (CSSExpressionTermOptimizer.isZeroUnitRequired ("margin"));
+
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{margin:0.0px 0.0EM;transition:opacity 0.0s;" +
+                                                                   "flex:1 1 0.0px;transform:rotate(0.0deg);" +
+                                                                   "width:calc(0px + 1em);color:hsla(0,0.0%,50%,.5)}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSWriter aWriter = new CSSWriter (ECSSVersion.CSS30, true).setWriteHeaderText (false);
+    assertEquals ("a{margin:0 0;transition:opacity 0s;flex:1 1 0px;transform:rotate(0deg);" +
+                  "width:calc(0px + 1em);color:hsla(0,0%,50%,.5)}", aWriter.getCSSAsString (aCSS));
+  }
+
+  @Test
+  public void testColorValue ()
+  {
+    assertEquals ("red", CSSExpressionTermOptimizer.getShortestColorValue (255, 0, 0));
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getShortestColorValue (255, 255, 255));
+    assertEquals ("#00f", CSSExpressionTermOptimizer.getShortestColorValue (0, 0, 255));
+    assertEquals ("tan", CSSExpressionTermOptimizer.getShortestColorValue (210, 180, 140));
+    assertEquals ("#010203", CSSExpressionTermOptimizer.getShortestColorValue (1, 2, 3));
+
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorValue ("#FF0000"));
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorValue ("#f00"));
+    assertEquals ("navy", CSSExpressionTermOptimizer.getOptimizedColorValue ("#000080"));
+    assertEquals ("#abc", CSSExpressionTermOptimizer.getOptimizedColorValue ("#ABC"));
+    assertEquals ("#ggg", CSSExpressionTermOptimizer.getOptimizedColorValue ("#ggg"));
+    assertEquals ("#abcd", CSSExpressionTermOptimizer.getOptimizedColorValue ("#abcd"));
+    assertEquals ("1px", CSSExpressionTermOptimizer.getOptimizedColorValue ("1px"));
+
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getOptimizedColorName ("white"));
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getOptimizedColorName ("WHITE"));
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorName ("red"));
+    assertEquals ("solid", CSSExpressionTermOptimizer.getOptimizedColorName ("solid"));
+
+    assertTrue (CSSExpressionTermOptimizer.isColorProperty ("color"));
+    assertTrue (CSSExpressionTermOptimizer.isColorProperty ("*Background-Color"));
+    assertFalse (CSSExpressionTermOptimizer.isColorProperty ("animation-name"));
+  }
+
+  @Test
+  public void testColorFunction ()
+  {
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgb", "255,0,0"));
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorFunction ("RGB", "100%, 0%, 0%"));
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgb", "300,255,255"));
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgba", "255,255,255,1"));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgba", "255,255,255,.5"));
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "0,100%,50%"));
+    assertEquals ("red", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "360,100%,50%"));
+    assertEquals ("green", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "120,100%,25%"));
+    assertEquals ("#00f", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsla", "240,100%,50%,1.0"));
+    assertEquals ("#fff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "0,0%,100%"));
+    assertEquals ("gray", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "0,0%,50%"));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsla", "0,0%,100%,0"));
+    assertEquals ("green", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "120deg,100%,25%"));
+    assertEquals ("green", CSSExpressionTermOptimizer.getOptimizedColorFunction ("HSLA", "120DEG,100%,25%,1"));
+    assertEquals ("#0ff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", ".5turn,100%,50%"));
+    assertEquals ("#0ff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "200grad,100%,50%"));
+    assertEquals ("#0ff", CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "3.14159265rad,100%,50%"));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("hsl", "120s,100%,25%"));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgb", "."));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("rgb", "1,2"));
+    assertNull (CSSExpressionTermOptimizer.getOptimizedColorFunction ("url", "a.png"));
+  }
+
+  @Test
+  public void testWriter ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{color:rgb(255,0,0);background:white url(white.png);" +
+                                                                   "border:1px solid #FFFFFF;animation-name:white;" +
+                                                                   "box-shadow:0 0 1px hsla(0,0%,0%,.5);" +
+                                                                   "outline-color:hsl(120deg,100%,25%);x-color:#FF0000;" +
+                                                                   "filter:progid:DXImageTransform.Microsoft.gradient(" +
+                                                                   "startColorstr=#ff0000,endColorstr=#FFFFFF)}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, true);
+    final CSSWriter aWriter = new CSSWriter (aSettings).setWriteHeaderText (false);
+    assertEquals ("a{color:rgb(255,0,0);background:white url(white.png);border:1px solid #FFF;animation-name:white;" +
+                  "box-shadow:0 0 1px hsla(0,0%,0%,.5);outline-color:hsl(120deg,100%,25%);x-color:#F00;" +
+                  "filter:progid:DXImageTransform.Microsoft.gradient(startColorstr=#ff0000,endColorstr=#FFFFFF)}",
+                  aWriter.getCSSAsString (aCSS));
+    aSettings.setOptimizeColorValues (true);
+    // Hex values are only replaced with names in color properties
+    assertEquals ("a{color:red;background:#fff url(white.png);border:1px solid #fff;animation-name:white;" +
+                  "box-shadow:0 0 1px hsla(0,0%,0%,.5);outline-color:green;x-color:#F00;" +
+                  "filter:progid:DXImageTransform.Microsoft.gradient(startColorstr=#ff0000,endColorstr=#FFFFFF)}",
+                  aWriter.getCSSAsString (aCSS));
+    // Only in optimized output
+    aSettings.setOptimizedOutput (false);
+    assertTrue (aWriter.getCSSAsString (aCSS).contains ("rgb(255,0,0)"));
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderDeclarationList;
+import com.helger.css.writer.CSSWriter;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSOverriddenDeclarationFilter}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSOverriddenDeclarationFilterTest
+{
+  private static final CSSWriterSettings WS = new CSSWriterSettings (ECSSVersion.CSS30, true).setRemoveOverriddenDeclarations (true);
+
+  private static void _check (final String sExpected, final String sCSS)
+  {
+    final CSSDeclarationList aDL = CSSReaderDeclarationList.readFromString (sCSS, ECSSVersion.CSS30);
+    assertNotNull (sCSS, aDL);
+    assertEquals (sCSS, sExpected, aDL.getAsCSSString (WS, 0));
+
+    // In place modification
+    final int nEffective = CSSOverriddenDeclarationFilter.getAllEffectiveDeclarations (aDL.getAllDeclarations ())
+                                                         .size ();
+    CSSOverriddenDeclarationFilter.removeOverriddenDeclarations (aDL);
+    assertEquals (nEffective, aDL.getDeclarationCount ());
+    assertEquals (sCSS, sExpected, aDL.getAsCSSString (WS, 0));
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    _check ("color:red", "color:red");
+    _check ("color:blue", "color:red;color:blue");
+    _check ("color:blue", "COLOR:red;color:blue");
+    _check ("color:red;margin:0", "color:red;margin:0");
+    _check ("color:red", "color:red;color:red");
+    _check ("color:red", "color:rgba(1,2,3,.5);color:red");
+  }
+
+  @Test
+  public void testImportant ()
+  {
+    _check ("color:red !important", "color:red !important;color:blue");
+    _check ("color:blue !important", "color:red !important;color:blue !important");
+    _check ("color:red !important", "color:blue;color:red !important");
+    _check ("margin:0 !important", "margin:0 !important;margin-top:5px");
+    _check ("margin-top:5px !important;margin:1px", "margin-top:5px !important;margin:1px");
+  }
+
+  @Test
+  public void testShortHand ()
+  {
+    _check ("margin:1px", "margin:0;margin-top:5px;margin:1px");
+    _check ("margin:0;margin-top:5px", "margin:0;margin-top:5px");
+    _check ("margin-top:1px;margin-right:2px;margin-bottom:3px;margin-left:4px",
+            "margin:0;margin-top:1px;margin-right:2px;margin-bottom:3px;margin-left:4px");
+    _check ("border-width:1px;border:2px solid red", "border-top:1px solid blue;border-width:1px;border:2px solid red");
+    _check ("border:2px solid red", "border:1px solid blue;border:2px solid red");
+    _check ("line-height:2;font:12px Arial", "line-height:2;font:12px Arial");
+    _check ("background:red;background-color:blue", "background:red;background-color:blue");
+  }
+
+  @Test
+  public void testFallbacks ()
+  {
+    _check ("color:red;color:rgba(1,2,3,.5)", "color:red;color:rgba(1,2,3,.5)");
+    _check ("width:100px;width:calc(100% - 2px)", "width:100px;width:calc(100% - 2px)");
+    _check ("display:-webkit-box;display:flex", "display:-webkit-box;display:flex");
+    _check ("*zoom:1;_zoom:2;zoom:2", "zoom:1;*zoom:1;_zoom:2;zoom:2");
+    _check ("-webkit-transition:none;-webkit-transition:all;transition:all",
+            "-webkit-transition:none;-webkit-transition:all;transition:all");
+    _check ("color:red;color:blue\\9", "color:red;color:blue\\9");
+  }
+
+  @Test
+  public void testProgressiveEnhancement ()
+  {
+    _check ("font-size:16px;font-size:1rem", "font-size:16px;font-size:1rem");
+    _check ("font-size:2rem", "font-size:1rem;font-size:2rem");
+    _check ("font-size:16px", "font-size:1rem;font-size:16px");
+    _check ("height:100%;height:100vh", "height:100%;height:100vh");
+    _check ("display:block;display:flex", "display:block;display:flex");
+    _check ("display:flex", "display:flex;display:flex");
+    _check ("position:relative;position:sticky", "position:relative;position:sticky");
+    _check ("margin:0;margin-top:1rem", "margin:0;margin-top:1rem");
+    _check ("margin:0 auto;margin-top:1rem;margin-right:0;margin-bottom:0;margin-left:0",
+            "margin:0 auto;margin-top:1rem;margin-right:0;margin-bottom:0;margin-left:0");
+    _check ("display:flex !important;display:block", "display:flex !important;display:block");
+    _check ("display:none !important", "display:none !important;display:block");
+  }
+
+  @Test
+  public void testWriter ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{color:red;color:blue}@media print{b{margin:0;margin:1px}}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSWriter aWriter = new CSSWriter (WS).setWriteHeaderText (false);
+    assertEquals ("a{color:blue}@media print{b{margin:1px}}", aWriter.getCSSAsString (aCSS));
+
+    // Not removed by default
+    final CSSWriterSettings aDefault = new CSSWriterSettings (ECSSVersion.CSS30, true);
+    assertTrue (new CSSWriter (aDefault).setWriteHeaderText (false)
+                                        .getCSSAsString (aCSS)
+                                        .startsWith ("a{color:red;color:blue}"));
+  }
+}
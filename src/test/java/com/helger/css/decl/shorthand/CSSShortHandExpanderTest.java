@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.decl.shorthand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSMediaRule;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderDeclarationList;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSShortHandExpander}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSShortHandExpanderTest
+{
+  private static final CSSWriterSettings CWS = new CSSWriterSettings (ECSSVersion.CSS30, true);
+
+  @Test
+  public void testDeclarationList ()
+  {
+    final CSSDeclarationList aDL = CSSReaderDeclarationList.readFromString ("color:red;margin:1px 2px !important;*margin:0;border-top:1px solid",
+                                                                            ECSSVersion.CSS30);
+    assertNotNull (aDL);
+    assertEquals (2, CSSShortHandExpander.expandShortHands (aDL));
+    assertEquals ("color:red;" +
+                  "margin-top:1px !important;margin-right:2px !important;margin-bottom:1px !important;margin-left:2px !important;" +
+                  "*margin:0;" +
+                  "border-top-width:1px;border-top-style:solid;border-top-color:black",
+                  aDL.getAsCSSString (CWS, 0));
+
+    // Nothing left to expand
+    assertEquals (0, CSSShortHandExpander.expandShortHands (aDL));
+  }
+
+  @Test
+  public void testKeepLossy ()
+  {
+    final String sCSS = "font:italic bold 12px/1.5 Arial, sans-serif;background:url(a.png) no-repeat center / cover";
+    final CSSDeclarationList aDL = CSSReaderDeclarationList.readFromString (sCSS, ECSSVersion.CSS30);
+    assertNotNull (aDL);
+    final String sBefore = aDL.getAsCSSString (CWS, 0);
+    assertEquals (0, CSSShortHandExpander.expandShortHands (aDL));
+    assertEquals (sBefore, aDL.getAsCSSString (CWS, 0));
+
+    // Only the declarations that can be expanded completely
+    final CSSDeclarationList aDL2 = CSSReaderDeclarationList.readFromString ("font:12px/1.5 Arial;background:red;margin:1px",
+                                                                             ECSSVersion.CSS30);
+    assertNotNull (aDL2);
+    assertEquals (2, CSSShortHandExpander.expandShortHands (aDL2));
+    assertTrue (aDL2.getAsCSSString (CWS, 0).startsWith ("font:12px/1.5 Arial;background-color:red;"));
+  }
+
+  @Test
+  public void testStyleSheet ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{padding:0}@media print{b{margin:0 auto}}@page{margin:1cm}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    assertEquals (3, CSSShortHandExpander.expandShortHands (aCSS));
+
+    final CSSStyleRule aRule = aCSS.getAllStyleRules ().get (0);
+    assertEquals (4, aRule.getDeclarationCount ());
+    assertEquals ("padding-top", aRule.getDeclarationAtIndex (0).getProperty ());
+
+    final CSSMediaRule aMediaRule = aCSS.getAllMediaRules ().get (0);
+    assertEquals (4, ((CSSStyleRule) aMediaRule.getRule (0)).getDeclarationCount ());
+    assertEquals (4, aCSS.getAllPageRules ().get (0).getDeclarationCount ());
+  }
+
+  @Test
+  public void testRegistry ()
+  {
+    assertTrue (CSSShortHandRegistry.getAllShortHandProperties ().contains (ECSSProperty.MARGIN));
+    // Returns a mutable copy
+    CSSShortHandRegistry.getAllShortHandProperties ().clear ();
+    assertTrue (CSSShortHandRegistry.isShortHandProperty (ECSSProperty.MARGIN));
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.CSSHandler;
+import com.helger.css.reader.CSSReader;
+import com.helger.css.reader.CSSReaderSettings;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+
+/**
+ * Test class for class {@link CSSNodePool}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSNodePoolTest
+{
+  private static final String CSS = "a{color:red}@media print{.foo,.bar>b{margin:0 auto;background:url(x.png)}}";
+
+  @Test
+  public void testBasic ()
+  {
+    final CSSNodePool aPool = new CSSNodePool ();
+    final CSSNode aNode = aPool.createNode (5);
+    assertEquals (5, aNode.getNodeType ());
+    aNode.jjtAddChild (aPool.createNode (6), 1);
+    aNode.jjtAddChild (aPool.createNode (7), 0);
+    aNode.setText ("abc");
+    assertEquals (2, aNode.jjtGetNumChildren ());
+    assertEquals (3, aPool.getUsedNodeCount ());
+    assertEquals (3, aPool.getPooledNodeCount ());
+
+    aPool.reset ();
+    assertEquals (0, aPool.getUsedNodeCount ());
+    assertEquals (3, aPool.getPooledNodeCount ());
+    assertEquals (0, aNode.jjtGetNumChildren ());
+    assertNull (aNode.getText ());
+
+    // Same node is reused
+    final CSSNode aNode2 = aPool.createNode (8);
+    assertSame (aNode, aNode2);
+    assertEquals (8, aNode2.getNodeType ());
+
+    aPool.clear ();
+    assertEquals (0, aPool.getPooledNodeCount ());
+  }
+
+  @Test
+  public void testMaxRetained ()
+  {
+    final CSSNodePool aPool = new CSSNodePool (2);
+    for (int i = 0; i < 5; ++i)
+      aPool.createNode (1);
+    assertEquals (5, aPool.getPooledNodeCount ());
+    aPool.reset ();
+    assertEquals (2, aPool.getPooledNodeCount ());
+  }
+
+  @Test
+  public void testParser () throws ParseException
+  {
+    final CascadingStyleSheet aExpected = CSSReader.readFromString (CSS, ECSSVersion.CSS30);
+    assertNotNull (aExpected);
+
+    final CSSNodePool aPool = new CSSNodePool ();
+    int nPooledNodes = 0;
+    for (int i = 0; i < 3; ++i)
+    {
+      final ParserCSS30 aParser = new ParserCSS30 (new ParserCSS30TokenManager (new CSSCharStream (new NonBlockingStringReader (CSS))));
+      aParser.setNodePool (aPool);
+      final CSSNode aNode = aParser.styleSheet ();
+      assertEquals (aExpected, CSSHandler.readCascadingStyleSheetFromNode (ECSSVersion.CSS30, aNode));
+      assertTrue (aPool.getUsedNodeCount () > 0);
+      if (i == 0)
+        nPooledNodes = aPool.getPooledNodeCount ();
+      else
+        assertEquals (nPooledNodes, aPool.getPooledNodeCount ());
+      aPool.reset ();
+    }
+  }
+
+  @Test
+  public void testReadAllWithAndWithoutPool ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ())
+                                                                .setUseNodePool (true);
+    final CSSReaderSettings aSettingsNoPool = aSettings.getClone ().setUseNodePool (false);
+    final CSSReader aPoolReader = CSSReader.builder (aSettings).build ();
+    for (final File aFile : FileSystemRecursiveIterator.create (new File ("src/test/resources/testfiles/css30/good"),
+                                                                new FilenameFilterEndsWith (".css")))
+    {
+      final String sKey = aFile.getAbsolutePath ();
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      assertEquals (sKey, CSSReader.readFromFile (aFile, aSettingsNoPool), aCSS);
+      // And read again with the reused nodes
+      assertEquals (sKey, aCSS, CSSReader.readFromFile (aFile, aSettings));
+      assertEquals (sKey, aCSS, aPoolReader.readFile (aFile));
+      assertEquals (sKey, aCSS, aPoolReader.readFile (aFile));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.css.ECSSUnit;
+import com.helger.css.property.ECSSProperty;
+import com.helger.css.propertyvalue.CCSSValue;
+
+/**
+ * Test class for class {@link CSSSymbolTable}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSSymbolTableTest
+{
+  private static String _find (final CSSSymbolTable aTable, final String s)
+  {
+    final char [] aChars = ("x" + s + "y").toCharArray ();
+    final int nHash = CSSSymbolTable.getHashCode (aChars, 1, s.length ());
+    assertEquals (s.hashCode (), nHash);
+    return aTable.find (aChars, 1, s.length (), nHash);
+  }
+
+  @Test
+  public void testDefault ()
+  {
+    final CSSSymbolTable aTable = CSSSymbolTable.getDefault ();
+    assertTrue (aTable.isReadOnly ());
+    assertTrue (aTable.getCount () > 0);
+    assertSame (ECSSProperty.COLOR.getName (), _find (aTable, "color"));
+    assertSame (ECSSUnit.PX.getName (), _find (aTable, "px"));
+    assertSame (CCSSValue.AUTO, _find (aTable, "auto"));
+    assertNotNull (_find (aTable, "red"));
+    assertNotNull (_find (aTable, "!important"));
+    assertNull (_find (aTable, "colour"));
+    assertNull (_find (aTable, ""));
+
+    try
+    {
+      aTable.add ("foo");
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testFindOrAdd ()
+  {
+    final CSSSymbolTable aTable = new CSSSymbolTable (2);
+    final char [] aChars = "abcab".toCharArray ();
+    final String s1 = aTable.findOrAdd (aChars, 0, 2, CSSSymbolTable.getHashCode (aChars, 0, 2));
+    assertEquals ("ab", s1);
+    assertSame (s1, aTable.findOrAdd (aChars, 3, 2, CSSSymbolTable.getHashCode (aChars, 3, 2)));
+    assertEquals (1, aTable.getCount ());
+
+    assertEquals ("c", aTable.findOrAdd (aChars, 2, 1, CSSSymbolTable.getHashCode (aChars, 2, 1)));
+    assertEquals (2, aTable.getCount ());
+
+    // Full - a new String is returned
+    final String s2 = aTable.findOrAdd (aChars, 1, 2, CSSSymbolTable.getHashCode (aChars, 1, 2));
+    assertEquals ("bc", s2);
+    assertNotSame (s2, aTable.findOrAdd (aChars, 1, 2, CSSSymbolTable.getHashCode (aChars, 1, 2)));
+    assertEquals (2, aTable.getCount ());
+    assertSame (s1, aTable.add ("ab"));
+  }
+
+  @Test
+  public void testCharStream ()
+  {
+    final ParserCSS30TokenManager aTokenMgr = new ParserCSS30TokenManager (new CSSCharStream (new NonBlockingStringReader ("a{color:red}.foo{color:blue}.foo{}")));
+    final List <Token> aTokens = new ArrayList <Token> ();
+    Token aToken;
+    while ((aToken = aTokenMgr.getNextToken ()).kind != ParserCSS30Constants.EOF)
+      aTokens.add (aToken);
+
+    // "color" from the default table
+    assertEquals ("color", aTokens.get (2).image);
+    assertSame (ECSSProperty.COLOR.getName (), aTokens.get (2).image);
+    assertSame (aTokens.get (2).image, aTokens.get (9).image);
+    // ".foo" is recurring
+    assertEquals (".foo", aTokens.get (6).image + aTokens.get (7).image);
+    assertSame (aTokens.get (7).image, aTokens.get (14).image);
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.css.ECSSVersion;
+
+/**
+ * Test class for class {@link CSSTokenizer}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSTokenizerTest
+{
+  @Nonnull
+  private static List <String> _getImages (@Nonnull final CSSTokenizer aTokenizer) throws ParseException
+  {
+    final List <String> ret = new ArrayList <String> ();
+    final CSSToken aToken = new CSSToken ();
+    while (aTokenizer.next (aToken))
+      ret.add (aToken.getImageAsString ());
+    assertTrue (aToken.isEOF ());
+    return ret;
+  }
+
+  @Test
+  public void testBasic () throws ParseException
+  {
+    final String sCSS = "a{color:red}/* x */\nb > c { margin : 0 auto ; }";
+    final CSSTokenizer aTokenizer = new CSSTokenizer (ECSSVersion.CSS30, new NonBlockingStringReader (sCSS));
+    final CSSToken aToken = new CSSToken ();
+    assertTrue (aTokenizer.next (aToken));
+    assertEquals (ParserCSS30Constants.IDENT, aToken.getKind ());
+    assertEquals ("<IDENT>", aToken.getKindName ());
+    assertEquals (0, aToken.getBeginOffset ());
+    assertEquals (1, aToken.getEndOffset ());
+    assertTrue (aToken.isImageEqual ("A", true));
+    assertFalse (aToken.isImageEqual ("A", false));
+    assertTrue (aTokenizer.next (aToken));
+    assertEquals (ParserCSS30Constants.LBRACE, aToken.getKind ());
+
+    // Everything
+    aTokenizer.reInit (new NonBlockingStringReader (sCSS));
+    assertEquals (CollectionHelper.newList ("a",
+                                            "{",
+                                            "color",
+                                            ":",
+                                            "red",
+                                            "}",
+                                            "/* x */",
+                                            "\n",
+                                            "b",
+                                            " ",
+                                            ">",
+                                            " ",
+                                            "c",
+                                            " {",
+                                            " ",
+                                            "margin",
+                                            " ",
+                                            ":",
+                                            " ",
+                                            "0",
+                                            " ",
+                                            "auto",
+                                            " ",
+                                            ";",
+                                            " ",
+                                            "}"),
+                  _getImages (aTokenizer));
+
+    // No whitespaces and no comments
+    aTokenizer.reInit (new NonBlockingStringReader (sCSS));
+    aTokenizer.setSkipWhitespaces (true).setSkipComments (true);
+    assertEquals (CollectionHelper.newList ("a",
+                                            "{",
+                                            "color",
+                                            ":",
+                                            "red",
+                                            "}",
+                                            "b",
+                                            ">",
+                                            "c",
+                                            " {",
+                                            "margin",
+                                            ":",
+                                            "0",
+                                            "auto",
+                                            ";",
+                                            "}"),
+                  _getImages (aTokenizer));
+
+    // Nothing left
+    assertFalse (aTokenizer.next (aToken));
+    assertTrue (aToken.isEOF ());
+  }
+
+  @Test
+  public void testSpecialTokens () throws ParseException
+  {
+    // Multiple comments in a row, an unknown rule and a single line comment
+    final String sCSS = "/*a*//*b*/@foo bar{x}// c\nd{}";
+    final CSSTokenizer aTokenizer = new CSSTokenizer (ECSSVersion.CSS30, new NonBlockingStringReader (sCSS));
+    final CSSToken aToken = new CSSToken ();
+    assertTrue (aTokenizer.next (aToken));
+    assertTrue (aToken.isSpecial ());
+    assertEquals ("/*a*/", aToken.getImageAsString ());
+    assertTrue (aTokenizer.next (aToken));
+    assertTrue (aToken.isSpecial ());
+    assertEquals ("/*b*/", aToken.getImageAsString ());
+    assertTrue (aTokenizer.next (aToken));
+    assertFalse (aToken.isSpecial ());
+    assertEquals (ParserCSS30Constants.AT_UNKNOWN, aToken.getKind ());
+
+    aTokenizer.reInit (new NonBlockingStringReader (sCSS));
+    assertEquals (CollectionHelper.newList ("/*a*/", "/*b*/", "@foo", " ", "bar", "{", "x", "}", "// c\n", "d", "{", "}"),
+                  _getImages (aTokenizer));
+  }
+
+  @Test (expected = ParseException.class)
+  public void testUnterminatedComment () throws ParseException
+  {
+    _getImages (new CSSTokenizer (ECSSVersion.CSS30, new NonBlockingStringReader ("a{}/* abc")));
+  }
+
+  private static void _testAllFiles (@Nonnull final String sBaseDir, @Nonnull final ECSSVersion eVersion)
+  {
+    final CSSToken aToken = new CSSToken ();
+    for (final File aFile : FileSystemRecursiveIterator.create (new File (sBaseDir),
+                                                                new FilenameFilterEndsWith (".css")))
+    {
+      final String sCSS = SimpleFileIO.readFileAsString (aFile, CCharset.CHARSET_UTF_8_OBJ);
+      final CSSTokenizer aTokenizer = new CSSTokenizer (eVersion, new NonBlockingStringReader (sCSS));
+      final StringBuilder aSB = new StringBuilder ();
+      try
+      {
+        long nLastOffset = 0;
+        while (aTokenizer.next (aToken))
+        {
+          // Tokens are without gaps
+          assertEquals (aFile.getName (), nLastOffset, aToken.getBeginOffset ());
+          assertEquals (aToken.getEndOffset () - aToken.getBeginOffset (), aToken.getImageLength ());
+          aSB.append (aToken.getImageChars (), 0, aToken.getImageLength ());
+          nLastOffset = aToken.getEndOffset ();
+        }
+        // All tokens together make up the whole source
+        assertEquals (aFile.getName (), sCSS, aSB.toString ());
+      }
+      catch (final ParseException ex)
+      {
+        // Unterminated comment - the source must contain the rest
+        assertTrue (aFile.getName (), sCSS.startsWith (aSB.toString ()));
+      }
+    }
+  }
+
+  @Test
+  public void testAllFiles ()
+  {
+    _testAllFiles ("src/test/resources/testfiles/css21", ECSSVersion.CSS21);
+    _testAllFiles ("src/test/resources/testfiles/css30", ECSSVersion.CSS30);
+  }
+}
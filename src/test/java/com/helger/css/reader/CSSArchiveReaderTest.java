@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.streams.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+
+/**
+ * Test class for class {@link CSSArchiveReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSArchiveReaderTest
+{
+  private static final String BASE = "src/test/resources/testfiles/css30/good/";
+  private static final String [] FILES = new String [] { "artificial/test-url.css",
+                                                         "issue-gc-18.css",
+                                                         "test-charset_utf16.css",
+                                                         "pure-min.css" };
+
+  private static void _writeZip (@Nonnull final OutputStream aOS) throws IOException
+  {
+    final ZipOutputStream aZOS = new ZipOutputStream (aOS);
+    try
+    {
+      aZOS.putNextEntry (new ZipEntry ("META-INF/"));
+      aZOS.closeEntry ();
+      aZOS.putNextEntry (new ZipEntry ("META-INF/MANIFEST.MF"));
+      aZOS.write ("Manifest-Version: 1.0\n".getBytes (CCharset.CHARSET_ISO_8859_1_OBJ));
+      aZOS.closeEntry ();
+      for (final String sFile : FILES)
+      {
+        aZOS.putNextEntry (new ZipEntry ("META-INF/resources/webjars/x/" + sFile));
+        aZOS.write (SimpleFileIO.readFileBytes (new File (BASE + sFile)));
+        aZOS.closeEntry ();
+      }
+      // Same content again
+      aZOS.putNextEntry (new ZipEntry ("copy/TEST-URL.CSS"));
+      aZOS.write (SimpleFileIO.readFileBytes (new File (BASE + FILES[0])));
+      aZOS.closeEntry ();
+      // Unparsable
+      aZOS.putNextEntry (new ZipEntry ("broken.css"));
+      aZOS.write ("a{".getBytes (CCharset.CHARSET_ISO_8859_1_OBJ));
+      aZOS.closeEntry ();
+    }
+    finally
+    {
+      aZOS.close ();
+    }
+  }
+
+  private static void _check (@Nonnull final CSSReaderSettings aSettings,
+                              @Nonnull final Map <String, CascadingStyleSheet> aMap)
+  {
+    assertEquals (FILES.length + 2, aMap.size ());
+    int i = 0;
+    for (final Map.Entry <String, CascadingStyleSheet> aEntry : aMap.entrySet ())
+    {
+      if (i < FILES.length)
+      {
+        assertEquals ("META-INF/resources/webjars/x/" + FILES[i], aEntry.getKey ());
+        final CascadingStyleSheet aExpected = CSSReader.readFromFile (new File (BASE + FILES[i]), aSettings);
+        assertNotNull (aExpected);
+        assertEquals (aExpected, aEntry.getValue ());
+      }
+      ++i;
+    }
+    assertEquals (aMap.get ("META-INF/resources/webjars/x/" + FILES[0]), aMap.get ("copy/TEST-URL.CSS"));
+    assertTrue (aMap.containsKey ("broken.css"));
+    assertNull (aMap.get ("broken.css"));
+  }
+
+  @Test
+  public void testReadFromStream () throws IOException
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    _writeZip (aBAOS);
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ())
+                                                                .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    for (final int nParallelism : new int [] { 1, 4 })
+    {
+      final CSSArchiveReader aReader = new CSSArchiveReader ().setReaderSettings (aSettings)
+                                                              .setParallelism (nParallelism);
+      final Map <String, CascadingStyleSheet> aMap = aReader.readFromStream (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ()));
+      assertNotNull (aMap);
+      _check (aSettings, aMap);
+    }
+  }
+
+  @Test
+  public void testReadFromFileWithCache () throws IOException
+  {
+    final File aFile = File.createTempFile ("ph-css", ".jar");
+    try
+    {
+      _writeZip (new FileOutputStream (aFile));
+
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                  .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                  .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ())
+                                                                  .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+      final CSSParseCache <CascadingStyleSheet> aCache = new CSSParseCache <CascadingStyleSheet> ();
+      final CSSArchiveReader aReader = new CSSArchiveReader ().setReaderSettings (aSettings)
+                                                              .setParallelism (1)
+                                                              .setParseCache (aCache);
+      final Map <String, CascadingStyleSheet> aMap = aReader.readFromFile (aFile);
+      assertNotNull (aMap);
+      _check (aSettings, aMap);
+      // Identical content is parsed only once
+      assertSame (aMap.get ("META-INF/resources/webjars/x/" + FILES[0]), aMap.get ("copy/TEST-URL.CSS"));
+      assertEquals (FILES.length, aCache.size ());
+
+      // Read again in parallel - everything from the cache
+      final Map <String, CascadingStyleSheet> aMap2 = aReader.setParallelism (3).readFromFile (aFile);
+      assertNotNull (aMap2);
+      for (final String sFile : FILES)
+        assertSame (aMap.get ("META-INF/resources/webjars/x/" + sFile),
+                    aMap2.get ("META-INF/resources/webjars/x/" + sFile));
+    }
+    finally
+    {
+      aFile.delete ();
+    }
+
+    // Not existing
+    assertNull (new CSSArchiveReader ().readFromFile (new File ("does-not-exist.zip")));
+  }
+
+  @Test
+  public void testExecutor () throws IOException
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    _writeZip (aBAOS);
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ())
+                                                                .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    final CSSArchiveReader aReader = new CSSArchiveReader ().setReaderSettings (aSettings).setParallelism (2);
+    assertNull (aReader.getExecutor ());
+
+    // The own executor is created once and reused
+    _check (aSettings, aReader.readFromStream (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())));
+    final ExecutorService aOwnExecutor = aReader.getExecutor ();
+    assertNotNull (aOwnExecutor);
+    _check (aSettings, aReader.readFromStream (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())));
+    assertSame (aOwnExecutor, aReader.getExecutor ());
+
+    // Closing shuts it down, but the reader can still be used
+    aReader.close ();
+    assertTrue (aOwnExecutor.isShutdown ());
+    assertNull (aReader.getExecutor ());
+    _check (aSettings, aReader.readFromStream (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())));
+    assertNotNull (aReader.getExecutor ());
+
+    // An executor of the caller is used but not shut down
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      final ExecutorService aOwnExecutor2 = aReader.getExecutor ();
+      aReader.setExecutor (aExecutor);
+      assertTrue (aOwnExecutor2.isShutdown ());
+      assertSame (aExecutor, aReader.getExecutor ());
+      _check (aSettings, aReader.readFromStream (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())));
+      aReader.close ();
+      assertFalse (aExecutor.isShutdown ());
+      assertSame (aExecutor, aReader.getExecutor ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+
+/**
+ * Test class for class {@link CSSParseCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSParseCacheTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final CSSParseCache <String> aCache = new CSSParseCache <String> (2);
+    assertEquals (2, aCache.getMaxSize ());
+    assertEquals (0, aCache.size ());
+    assertNull (aCache.get (ECSSVersion.CSS30, "a"));
+
+    aCache.put (ECSSVersion.CSS30, "a", "A");
+    aCache.put (ECSSVersion.CSS21, "a", "A21");
+    // null is not cached
+    aCache.put (ECSSVersion.CSS30, "b", null);
+    assertEquals (2, aCache.size ());
+    assertEquals ("A", aCache.get (ECSSVersion.CSS30, "a"));
+    assertEquals ("A21", aCache.get (ECSSVersion.CSS21, "a"));
+
+    // Access "CSS30 a" so that "CSS21 a" is the eldest entry
+    assertEquals ("A", aCache.get (ECSSVersion.CSS30, "a"));
+    aCache.put (ECSSVersion.CSS30, "c", "C");
+    assertEquals (2, aCache.size ());
+    assertNull (aCache.get (ECSSVersion.CSS21, "a"));
+    assertEquals ("A", aCache.get (ECSSVersion.CSS30, "a"));
+    assertEquals ("C", aCache.get (ECSSVersion.CSS30, "c"));
+
+    assertTrue (aCache.clear ().isChanged ());
+    assertTrue (aCache.clear ().isUnchanged ());
+    assertEquals (0, aCache.size ());
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.parser.ParseCancelledException;
+import com.helger.css.parser.ParseException;
+
+/**
+ * Test class for the cancellation and deadline support of {@link CSSReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSReaderCancellationTest
+{
+  private static final class CollectingExceptionHandler implements ICSSParseExceptionHandler
+  {
+    private final List <ParseException> m_aExceptions = new ArrayList <ParseException> ();
+
+    public void onException (@Nonnull final ParseException ex)
+    {
+      m_aExceptions.add (ex);
+    }
+  }
+
+  /** A token that is cancelled after it was queried a certain number of times */
+  private static final class CountingCancellationToken implements ICSSCancellationToken
+  {
+    private final int m_nMaxQueries;
+    private int m_nQueries = 0;
+
+    CountingCancellationToken (final int nMaxQueries)
+    {
+      m_nMaxQueries = nMaxQueries;
+    }
+
+    public boolean isCancelled ()
+    {
+      return ++m_nQueries > m_nMaxQueries;
+    }
+  }
+
+  @Nonnull
+  private static String _createLargeCSS ()
+  {
+    final StringBuilder aSB = new StringBuilder ("div{");
+    for (int i = 0; i < 2000; ++i)
+      aSB.append ("color:red;");
+    return aSB.append ('}').toString ();
+  }
+
+  @Test
+  public void testNotCancelled ()
+  {
+    for (final ECSSVersion eVersion : new ECSSVersion [] { ECSSVersion.CSS21, ECSSVersion.CSS30 })
+    {
+      final CollectingExceptionHandler aHdl = new CollectingExceptionHandler ();
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (eVersion)
+                                                                  .setCustomExceptionHandler (aHdl)
+                                                                  .setCancellationToken (new CSSCancellationToken ())
+                                                                  .setTimeout (60 * 1000);
+      final CascadingStyleSheet aCSS = CSSReader.readFromStringReader (_createLargeCSS (), aSettings);
+      assertNotNull (aCSS);
+      assertEquals (1, aCSS.getStyleRuleCount ());
+      assertTrue (aHdl.m_aExceptions.isEmpty ());
+    }
+  }
+
+  @Test
+  public void testCancelledBeforeStart ()
+  {
+    for (final ECSSVersion eVersion : new ECSSVersion [] { ECSSVersion.CSS21, ECSSVersion.CSS30 })
+    {
+      final CSSCancellationToken aToken = new CSSCancellationToken ();
+      aToken.cancel ();
+      assertTrue (aToken.isCancelled ());
+
+      final CollectingExceptionHandler aHdl = new CollectingExceptionHandler ();
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (eVersion)
+                                                                  .setCustomExceptionHandler (aHdl)
+                                                                  .setCancellationToken (aToken);
+      assertNull (CSSReader.readFromStringReader ("a{color:red}", aSettings));
+      assertEquals (1, aHdl.m_aExceptions.size ());
+      assertTrue (aHdl.m_aExceptions.get (0) instanceof ParseCancelledException);
+      assertFalse (((ParseCancelledException) aHdl.m_aExceptions.get (0)).isDeadlineExceeded ());
+    }
+  }
+
+  @Test
+  public void testDeadlineExceeded ()
+  {
+    for (final ECSSVersion eVersion : new ECSSVersion [] { ECSSVersion.CSS21, ECSSVersion.CSS30 })
+    {
+      final CollectingExceptionHandler aHdl = new CollectingExceptionHandler ();
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (eVersion)
+                                                                  .setCustomExceptionHandler (aHdl)
+                                                                  .setDeadline (1);
+      assertTrue (aSettings.hasDeadline ());
+      assertNull (CSSReader.readFromStringReader ("a{color:red}", aSettings));
+      assertEquals (1, aHdl.m_aExceptions.size ());
+      assertTrue (aHdl.m_aExceptions.get (0) instanceof ParseCancelledException);
+      assertTrue (((ParseCancelledException) aHdl.m_aExceptions.get (0)).isDeadlineExceeded ());
+    }
+  }
+
+  @Test
+  public void testCancelledInsideRule ()
+  {
+    // The single rule is larger than the check interval, so the cancellation
+    // is detected by the char stream and not before a top-level rule
+    for (final ECSSVersion eVersion : new ECSSVersion [] { ECSSVersion.CSS21, ECSSVersion.CSS30 })
+    {
+      final CollectingExceptionHandler aHdl = new CollectingExceptionHandler ();
+      final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (eVersion)
+                                                                  .setCustomExceptionHandler (aHdl)
+                                                                  .setCancellationToken (new CountingCancellationToken (1));
+      assertNull (CSSReader.readFromStringReader (_createLargeCSS (), aSettings));
+      assertEquals (1, aHdl.m_aExceptions.size ());
+      assertTrue (aHdl.m_aExceptions.get (0) instanceof ParseCancelledException);
+    }
+  }
+
+  @Test
+  public void testTopLevelRuleIterator ()
+  {
+    final CSSCancellationToken aToken = new CSSCancellationToken ();
+    final CollectingExceptionHandler aHdl = new CollectingExceptionHandler ();
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCustomExceptionHandler (aHdl)
+                                                                .setCancellationToken (aToken);
+    final CSSTopLevelRuleIterator aIt = new CSSTopLevelRuleIterator (new StringReader ("a{color:red}b{color:blue}c{}"),
+                                                                     aSettings);
+    try
+    {
+      assertTrue (aIt.hasNext ());
+      assertNotNull (aIt.next ());
+      aToken.cancel ();
+      assertFalse (aIt.hasNext ());
+      assertTrue (aIt.hasUnrecoverableError ());
+      assertEquals (1, aHdl.m_aExceptions.size ());
+      assertTrue (aHdl.m_aExceptions.get (0) instanceof ParseCancelledException);
+    }
+    finally
+    {
+      aIt.close ();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.decl.CSSExpressionMemberTermSimple;
+import com.helger.css.decl.CSSExpressionMemberTermURI;
+import com.helger.css.decl.CSSSelector;
+import com.helger.css.decl.CSSSelectorMemberFunctionLike;
+import com.helger.css.decl.CSSSelectorMemberNot;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSReaderFragment}
+ *
+ * @author Philip Helger
+ */
+public final class CSSReaderFragmentTest
+{
+  private static final CSSWriterSettings WS = new CSSWriterSettings (ECSSVersion.CSS30, true);
+
+  @Test
+  public void testReadSelectors ()
+  {
+    List <CSSSelector> aSelectors = CSSReaderFragment.readSelectorsFromString ("div.foo > a:hover", ECSSVersion.CSS30);
+    assertNotNull (aSelectors);
+    assertEquals (1, aSelectors.size ());
+    assertEquals ("div.foo>a:hover", aSelectors.get (0).getAsCSSString (WS, 0));
+
+    aSelectors = CSSReaderFragment.readSelectorsFromString ("  h1 , p span , *  ", ECSSVersion.CSS30);
+    assertNotNull (aSelectors);
+    assertEquals (3, aSelectors.size ());
+    assertEquals ("h1", aSelectors.get (0).getAsCSSString (WS, 0));
+    assertEquals ("p span", aSelectors.get (1).getAsCSSString (WS, 0));
+    assertEquals ("*", aSelectors.get (2).getAsCSSString (WS, 0));
+
+    aSelectors = CSSReaderFragment.readSelectorsFromString ("a:not(.x) ~ b", ECSSVersion.CSS30);
+    assertNotNull (aSelectors);
+    assertEquals (1, aSelectors.size ());
+
+    aSelectors = CSSReaderFragment.readSelectorsFromString ("ul li,ol li", ECSSVersion.CSS21);
+    assertNotNull (aSelectors);
+    assertEquals (2, aSelectors.size ());
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    assertNull (CSSReaderFragment.readSelectorsFromString ("", aSettings));
+    assertNull (CSSReaderFragment.readSelectorsFromString ("a,", aSettings));
+    assertNull (CSSReaderFragment.readSelectorsFromString ("a {}", aSettings));
+    assertNull (CSSReaderFragment.readSelectorsFromString ("a:not(.x)", aSettings.setCSSVersion (ECSSVersion.CSS21)));
+  }
+
+  @Test
+  public void testReadExpression ()
+  {
+    CSSExpression aExpr = CSSReaderFragment.readExpressionFromString ("1px solid #333", ECSSVersion.CSS30);
+    assertNotNull (aExpr);
+    assertEquals (3, aExpr.getMemberCount ());
+    assertEquals ("1px solid #333", aExpr.getAsCSSString (WS, 0));
+
+    aExpr = CSSReaderFragment.readExpressionFromString ("  url(a.png) , rgb(1,2,3)  ", ECSSVersion.CSS30);
+    assertNotNull (aExpr);
+    assertEquals ("url(a.png),rgb(1,2,3)", aExpr.getAsCSSString (WS, 0));
+
+    aExpr = CSSReaderFragment.readExpressionFromString ("calc(100% - 2px)", ECSSVersion.CSS30);
+    assertNotNull (aExpr);
+    assertEquals (1, aExpr.getMemberCount ());
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    assertNull (CSSReaderFragment.readExpressionFromString ("", aSettings));
+    assertNull (CSSReaderFragment.readExpressionFromString ("red;", aSettings));
+    assertNull (CSSReaderFragment.readExpressionFromString ("red !important", aSettings));
+  }
+
+  @Test
+  public void testCached ()
+  {
+    CSSReaderFragment.clearCache ();
+
+    final String sSelectors = "a:not(.x), b[href=y], c:lang(en)";
+    final List <CSSSelector> aSelectors = CSSReaderFragment.readSelectorsFromStringCached (sSelectors,
+                                                                                         ECSSVersion.CSS30);
+    assertNotNull (aSelectors);
+    assertEquals (3, aSelectors.size ());
+    // Each caller gets its own copy
+    final List <CSSSelector> aSelectors2 = CSSReaderFragment.readSelectorsFromStringCached (sSelectors,
+                                                                                          ECSSVersion.CSS30);
+    assertNotSame (aSelectors, aSelectors2);
+    assertEquals (aSelectors, aSelectors2);
+    for (int i = 0; i < aSelectors.size (); ++i)
+      assertNotSame (aSelectors.get (i), aSelectors2.get (i));
+    ((CSSSelectorMemberNot) aSelectors.get (0).getMemberAtIndex (1)).removeAllSelectors ();
+    ((CSSSelectorMemberFunctionLike) aSelectors.get (2).getMemberAtIndex (1)).getParameterExpression ()
+                                                                             .removeMember (0);
+    aSelectors.get (1).removeAllMembers ();
+    assertEquals (aSelectors2, CSSReaderFragment.readSelectorsFromStringCached (sSelectors, ECSSVersion.CSS30));
+
+    // Cached selectors can be used in multiple rules
+    final CSSStyleRule aRule1 = new CSSStyleRule ().addSelector (aSelectors2.get (0));
+    final CSSStyleRule aRule2 = new CSSStyleRule ().addSelector (CSSReaderFragment.readSelectorsFromStringCached (sSelectors,
+                                                                                                                ECSSVersion.CSS30)
+                                                                                 .get (0));
+    assertSame (aRule1, aSelectors2.get (0).getModificationOwner ());
+    assertNotSame (aRule1.getSelectorAtIndex (0), aRule2.getSelectorAtIndex (0));
+
+    final CSSExpression aExpr = CSSReaderFragment.readExpressionFromStringCached ("0 auto url(a.png)",
+                                                                                ECSSVersion.CSS30);
+    assertNotNull (aExpr);
+    assertEquals (3, aExpr.getMemberCount ());
+    // Each caller gets its own copy
+    final CSSExpression aExpr2 = CSSReaderFragment.readExpressionFromStringCached ("0 auto url(a.png)",
+                                                                                 ECSSVersion.CSS30);
+    assertNotSame (aExpr, aExpr2);
+    assertEquals (aExpr, aExpr2);
+    ((CSSExpressionMemberTermSimple) aExpr.getMemberAtIndex (1)).setValue ("none");
+    ((CSSExpressionMemberTermURI) aExpr.getMemberAtIndex (2)).setURIString ("b.png");
+    aExpr.removeMember (0);
+    assertEquals ("0 auto url(a.png)",
+                  CSSReaderFragment.readExpressionFromStringCached ("0 auto url(a.png)", ECSSVersion.CSS30)
+                                   .getAsCSSString (WS, 0));
+    assertEquals ("0 auto url(a.png)", aExpr2.getAsCSSString (WS, 0));
+
+    // Failures are not cached
+    assertNull (CSSReaderFragment.readExpressionFromStringCached ("red;", ECSSVersion.CSS30));
+  }
+}
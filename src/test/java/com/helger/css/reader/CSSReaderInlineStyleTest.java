@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSDeclarationList;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+
+/**
+ * Test class for class {@link CSSReaderInlineStyle}
+ *
+ * @author Philip Helger
+ */
+public final class CSSReaderInlineStyleTest
+{
+  /** Handled by the fast path */
+  private static final List <String> SIMPLE = CollectionHelper.newList ("",
+                                                                       "  ",
+                                                                       ";",
+                                                                       " ; ; ",
+                                                                       "color:red",
+                                                                       "COLOR : Red ;",
+                                                                       "color:red;background:fixed;",
+                                                                       "  margin : 0 auto  ;  padding:1px 2.5em .5% -3px ",
+                                                                       "margin:+1px -.5pt",
+                                                                       "font-family: Arial, Helvetica ,sans-serif",
+                                                                       "color:#ff0000;background-color:#abc",
+                                                                       "-webkit-transition:opacity 0.3s ease-in",
+                                                                       "width:100%;height:50vh",
+                                                                       "transition-delay:100ms;transform:rotate",
+                                                                       "display:inherit",
+                                                                       "x:-moz-box",
+                                                                       "a:from to");
+  /** Not handled by the fast path */
+  private static final List <String> COMPLEX = CollectionHelper.newList ("color:red !important",
+                                                                        "background:url(a.png)",
+                                                                        "content:'a'",
+                                                                        "color:rgb(1,2,3)",
+                                                                        "color:/*x*/red",
+                                                                        "*zoom:1",
+                                                                        "_height:1px",
+                                                                        "width:1PX",
+                                                                        "width:1foo",
+                                                                        "width:1.px",
+                                                                        "font:12px/1.5 Arial",
+                                                                        "font-family:a,,b",
+                                                                        "font-family:a,",
+                                                                        "color:",
+                                                                        "color",
+                                                                        "color:red }",
+                                                                        "not:red",
+                                                                        "a:and",
+                                                                        "a:u+1f",
+                                                                        "a:#",
+                                                                        "a:+",
+                                                                        "a:b:c",
+                                                                        "a:\\62");
+
+  @Test
+  public void testFastPathIdentical ()
+  {
+    for (final String sCSS : SIMPLE)
+    {
+      final CSSDeclarationList aFast = CSSReaderInlineStyle.readSimpleDeclarationList (sCSS);
+      assertNotNull (sCSS, aFast);
+      final CSSDeclarationList aFull = CSSReaderDeclarationList.readFromString (sCSS, ECSSVersion.CSS30);
+      assertNotNull (sCSS, aFull);
+      assertEquals (sCSS, aFull, aFast);
+      assertEquals (sCSS, aFull, CSSReaderInlineStyle.readFromString (sCSS, ECSSVersion.CSS30));
+    }
+  }
+
+  @Test
+  public void testComplex ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    for (final ECSSVersion eVersion : new ECSSVersion [] { ECSSVersion.CSS21, ECSSVersion.CSS30 })
+    {
+      aSettings.setCSSVersion (eVersion);
+      // Run twice to ensure the reused parser works
+      for (int i = 0; i < 2; ++i)
+      {
+        for (final String sCSS : COMPLEX)
+        {
+          assertNull (sCSS, CSSReaderInlineStyle.readSimpleDeclarationList (sCSS));
+          final CSSDeclarationList aFull = CSSReaderDeclarationList.readFromReader (new NonBlockingStringReader (sCSS), aSettings);
+          assertEquals (sCSS, aFull, CSSReaderInlineStyle.readFromString (sCSS, aSettings));
+        }
+        for (final String sCSS : SIMPLE)
+        {
+          final CSSDeclarationList aFull = CSSReaderDeclarationList.readFromReader (new NonBlockingStringReader (sCSS), aSettings);
+          assertEquals (sCSS, aFull, CSSReaderInlineStyle.readFromString (sCSS, aSettings));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCachedAndBatch ()
+  {
+    CSSReaderInlineStyle.clearCache ();
+    final CSSDeclarationList aDL = CSSReaderInlineStyle.readFromStringCached ("color:red", ECSSVersion.CSS30);
+    assertNotNull (aDL);
+    final CSSDeclarationList aDL2 = CSSReaderInlineStyle.readFromStringCached ("color:red", ECSSVersion.CSS30);
+    assertNotSame (aDL, aDL2);
+    assertEquals (aDL, aDL2);
+    assertNotSame (aDL.getDeclarationAtIndex (0), aDL2.getDeclarationAtIndex (0));
+    assertNotSame (aDL, CSSReaderInlineStyle.readFromString ("color:red", ECSSVersion.CSS30));
+
+    // Modifying a returned copy does not modify the cache
+    aDL2.getDeclarationAtIndex (0).setImportant (true);
+    aDL2.getDeclarationAtIndex (0).getExpression ().addTermSimple ("blue");
+    aDL2.addDeclaration ("margin", new CSSExpression ().addNumber (0), false);
+    assertEquals (aDL, CSSReaderInlineStyle.readFromStringCached ("color:red", ECSSVersion.CSS30));
+
+    final List <String> aStyles = CollectionHelper.newList ("color:red", "margin:0 auto", "color:red", "color:");
+    List <CSSDeclarationList> aList = CSSReaderInlineStyle.readFromStrings (aStyles, ECSSVersion.CSS30, true);
+    assertEquals (4, aList.size ());
+    assertEquals (aDL, aList.get (0));
+    assertEquals (aDL, aList.get (2));
+    assertNotSame (aList.get (0), aList.get (2));
+    assertEquals (1, aList.get (1).getDeclarationCount ());
+    assertEquals (0, aList.get (3).getDeclarationCount ());
+
+    aList = CSSReaderInlineStyle.readFromStrings (aStyles, ECSSVersion.CSS21, false);
+    assertEquals (4, aList.size ());
+    assertEquals (aDL, aList.get (0));
+    assertNotSame (aList.get (0), aList.get (2));
+    CSSReaderInlineStyle.clearCache ();
+  }
+}
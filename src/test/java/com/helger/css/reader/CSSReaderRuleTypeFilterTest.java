@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ECSSRuleType;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+import com.helger.css.reader.errorhandler.LoggingCSSParseErrorHandler;
+
+/**
+ * Test class for reading only selected rule types with {@link CSSReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSReaderRuleTypeFilterTest
+{
+  @Test
+  public void testReadWithRuleTypeFilter ()
+  {
+    final String sCSS = "@charset \"utf-8\";\n"
+                        + "@import \"a.css\";\n"
+                        + "@namespace x url(y);\n"
+                        + "a{color:red}\n"
+                        + "@media print{b{c:d}@page{margin:0}}\n"
+                        + "@page :first{margin:0}\n"
+                        + "@font-face{font-family:x;src:url(a{b}.ttf)}\n"
+                        + "@-webkit-keyframes k{from{top:0}to{top:1px}}\n"
+                        + "@-ms-viewport{width:device-width}\n"
+                        + "@supports (display:flex){c{d:e}}\n"
+                        + "@foo bar{x{y:z}}\n"
+                        + "d{e:'}'}";
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setCustomErrorHandler (new LoggingCSSParseErrorHandler ());
+    final CascadingStyleSheet aFull = CSSReader.readFromStringReader (sCSS, aSettings);
+    assertNotNull (aFull);
+    assertEquals (11, aFull.getRuleCount () + aFull.getImportRuleCount () + aFull.getNamespaceRuleCount ());
+    assertTrue (aSettings.isReadAllRuleTypes ());
+
+    // Nothing
+    CascadingStyleSheet aCSS = CSSReader.readFromStringReader (sCSS, aSettings.getClone ().setRuleTypesToRead ());
+    assertNotNull (aCSS);
+    assertEquals (0, aCSS.getImportRuleCount ());
+    assertEquals (0, aCSS.getNamespaceRuleCount ());
+    assertEquals (0, aCSS.getRuleCount ());
+
+    // Only style rules
+    aCSS = CSSReader.readFromStringReader (sCSS, aSettings.getClone ().setRuleTypesToRead (ECSSRuleType.STYLE));
+    assertNotNull (aCSS);
+    assertEquals (0, aCSS.getImportRuleCount ());
+    assertEquals (0, aCSS.getNamespaceRuleCount ());
+    assertEquals (2, aCSS.getRuleCount ());
+    assertEquals (aFull.getAllStyleRules (), aCSS.getAllStyleRules ());
+
+    // Media and unknown rules
+    aCSS = CSSReader.readFromStringReader (sCSS,
+                                          aSettings.getClone ().setRuleTypesToRead (ECSSRuleType.MEDIA,
+                                                                                    ECSSRuleType.UNKNOWN));
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getRuleCount ());
+    assertEquals (aFull.getAllMediaRules (), aCSS.getAllMediaRules ());
+    assertEquals (aFull.getAllUnknownRules (), aCSS.getAllUnknownRules ());
+
+    // Everything but style rules
+    final CSSReaderSettings aNoStyleSettings = aSettings.getClone ().setRuleTypesToRead (ECSSRuleType.IMPORT,
+                                                                                         ECSSRuleType.NAMESPACE,
+                                                                                         ECSSRuleType.PAGE,
+                                                                                         ECSSRuleType.MEDIA,
+                                                                                         ECSSRuleType.FONT_FACE,
+                                                                                         ECSSRuleType.KEYFRAMES,
+                                                                                         ECSSRuleType.VIEWPORT,
+                                                                                         ECSSRuleType.SUPPORTS,
+                                                                                         ECSSRuleType.UNKNOWN);
+    assertFalse (aNoStyleSettings.isReadAllRuleTypes ());
+    assertFalse (aNoStyleSettings.isReadRuleType (ECSSRuleType.STYLE));
+    aCSS = CSSReader.readFromStringReader (sCSS, aNoStyleSettings);
+    assertNotNull (aCSS);
+    assertEquals (1, aCSS.getImportRuleCount ());
+    assertEquals (1, aCSS.getNamespaceRuleCount ());
+    assertEquals (7, aCSS.getRuleCount ());
+    assertEquals (0, aCSS.getStyleRuleCount ());
+  }
+
+  private static void _testReadGoodWithRuleTypeFilter (@Nonnull final ECSSVersion eVersion,
+                                                       @Nonnull final String sBaseDir)
+  {
+    final File aBaseDir = new File (sBaseDir);
+    assertTrue (sBaseDir, aBaseDir.exists ());
+
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (eVersion)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ());
+    final CSSReaderSettings aStyleSettings = aSettings.getClone ().setRuleTypesToRead (ECSSRuleType.STYLE);
+    final CSSReaderSettings aMediaSettings = aSettings.getClone ().setRuleTypesToRead (ECSSRuleType.MEDIA);
+
+    for (final File aFile : FileSystemRecursiveIterator.create (aBaseDir, new FilenameFilterEndsWith (".css")))
+    {
+      final String sKey = aFile.getAbsolutePath ();
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      assertNotNull (sKey, aCSS);
+
+      // Only the style rules
+      final CascadingStyleSheet aStyleCSS = CSSReader.readFromFile (aFile, aStyleSettings);
+      assertNotNull (sKey, aStyleCSS);
+      assertEquals (sKey, aCSS.getStyleRuleCount (), aStyleCSS.getRuleCount ());
+      assertEquals (sKey, aCSS.getAllStyleRules (), aStyleCSS.getAllStyleRules ());
+
+      // Only the media rules
+      final CascadingStyleSheet aMediaCSS = CSSReader.readFromFile (aFile, aMediaSettings);
+      assertNotNull (sKey, aMediaCSS);
+      assertEquals (sKey, aCSS.getMediaRuleCount (), aMediaCSS.getRuleCount ());
+      assertEquals (sKey, aCSS.getAllMediaRules (), aMediaCSS.getAllMediaRules ());
+    }
+  }
+
+  @Test
+  public void testReadAll21Good ()
+  {
+    _testReadGoodWithRuleTypeFilter (ECSSVersion.CSS21, "src/test/resources/testfiles/css21/good");
+  }
+
+  @Test
+  public void testReadAll30Good ()
+  {
+    _testReadGoodWithRuleTypeFilter (ECSSVersion.CSS30, "src/test/resources/testfiles/css30/good");
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ECSSRuleType;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+import com.helger.css.handler.ICSSParseExceptionHandler;
+import com.helger.css.reader.errorhandler.CollectingCSSParseErrorHandler;
+import com.helger.css.reader.errorhandler.ICSSParseErrorHandler;
+import com.helger.css.reader.errorhandler.ThrowingCSSParseErrorHandler;
+
+/**
+ * Test class for the instance API of class {@link CSSReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSReaderTest
+{
+  @Test
+  public void testBuilder ()
+  {
+    final CollectingCSSParseErrorHandler aErrHdl = new CollectingCSSParseErrorHandler ();
+    final CSSReader aReader = CSSReader.builder ()
+                                       .setCSSVersion (ECSSVersion.CSS21)
+                                       .setErrorHandler (aErrHdl)
+                                       .setExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ())
+                                       .build ();
+    assertEquals (ECSSVersion.CSS21, aReader.getCSSVersion ());
+    assertSame (aErrHdl, aReader.getErrorHandler ());
+
+    CascadingStyleSheet aCSS = aReader.readString ("a{color:red}b{color:blue}");
+    assertNotNull (aCSS);
+    assertEquals (2, aCSS.getStyleRuleCount ());
+
+    // Recoverable error is collected
+    aCSS = aReader.readString ("a{color:red}b{{}c{color:blue}");
+    assertNotNull (aCSS);
+    assertEquals (1, aErrHdl.getParseErrorCount ());
+
+    // Unrecoverable error
+    assertNull (aReader.readString ("a{color:red"));
+
+    // Changing the returned settings does not change the reader
+    aReader.getSettings ().setCSSVersion (ECSSVersion.CSS30);
+    assertEquals (ECSSVersion.CSS21, aReader.getCSSVersion ());
+  }
+
+  @Test
+  public void testBuilderRuleTypes ()
+  {
+    final String sCSS = "@import 'a.css';a{color:red}@media print{b{color:blue}}";
+    CascadingStyleSheet aCSS = CSSReader.builder ().setRuleTypesToRead (ECSSRuleType.MEDIA).build ().readString (sCSS);
+    assertNotNull (aCSS);
+    assertEquals (0, aCSS.getImportRuleCount ());
+    assertEquals (1, aCSS.getRuleCount ());
+    assertEquals (1, aCSS.getMediaRuleCount ());
+
+    // Empty means no top-level rule at all
+    aCSS = CSSReader.builder ().setRuleTypesToRead ().build ().readString (sCSS);
+    assertNotNull (aCSS);
+    assertEquals (0, aCSS.getImportRuleCount ());
+    assertEquals (0, aCSS.getRuleCount ());
+  }
+
+  @Test
+  public void testDefaultHandlers ()
+  {
+    final ICSSParseErrorHandler aOldErrHdl = CSSReader.getDefaultParseErrorHandler ();
+    final ICSSParseExceptionHandler aOldExHdl = CSSReader.getDefaultParseExceptionHandler ();
+    assertSame (aOldErrHdl, CSSReader.getDefaultInstance ().getErrorHandler ());
+    assertSame (aOldExHdl, CSSReader.getDefaultInstance ().getExceptionHandler ());
+
+    // Built before the default changes
+    final CSSReader aReader = CSSReader.builder ().build ();
+    try
+    {
+      final CollectingCSSParseErrorHandler aErrHdl = new CollectingCSSParseErrorHandler ();
+      CSSReader.setDefaultParseErrorHandler (aErrHdl);
+      assertSame (aErrHdl, CSSReader.getDefaultParseErrorHandler ());
+      assertSame (aOldExHdl, CSSReader.getDefaultParseExceptionHandler ());
+      assertNotNull (CSSReader.readFromString ("a{}b{{}", ECSSVersion.CSS30));
+      assertEquals (1, aErrHdl.getParseErrorCount ());
+
+      // The built reader is not affected
+      assertSame (aOldErrHdl, aReader.getErrorHandler ());
+    }
+    finally
+    {
+      CSSReader.setDefaultParseErrorHandler (aOldErrHdl);
+    }
+    assertSame (aOldErrHdl, CSSReader.getDefaultParseErrorHandler ());
+
+    final CSSReader aOldInstance = CSSReader.getDefaultInstance ();
+    try
+    {
+      CSSReader.setDefaultInstance (CSSReader.builder ().setErrorHandler (null).build ());
+      assertNull (CSSReader.getDefaultParseErrorHandler ());
+    }
+    finally
+    {
+      CSSReader.setDefaultInstance (aOldInstance);
+    }
+    assertSame (aOldErrHdl, CSSReader.getDefaultParseErrorHandler ());
+  }
+
+  @Test
+  public void testConcurrentRead () throws Exception
+  {
+    final CSSReader aReader = CSSReader.builder ()
+                                       .setErrorHandler (ThrowingCSSParseErrorHandler.getInstance ())
+                                       .build ();
+    final ExecutorService aES = Executors.newFixedThreadPool (8);
+    try
+    {
+      final List <Future <CascadingStyleSheet>> aFutures = new ArrayList <Future <CascadingStyleSheet>> ();
+      for (int i = 0; i < 200; ++i)
+      {
+        final String sCSS = "a" + i + "{color:red}b{margin:" + i + "px}";
+        aFutures.add (aES.submit (new Callable <CascadingStyleSheet> ()
+        {
+          public CascadingStyleSheet call ()
+          {
+            return aReader.readString (sCSS);
+          }
+        }));
+      }
+      for (final Future <CascadingStyleSheet> aFuture : aFutures)
+      {
+        final CascadingStyleSheet aCSS = aFuture.get ();
+        if (aCSS == null)
+          fail ();
+        assertEquals (2, aCSS.getStyleRuleCount ());
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
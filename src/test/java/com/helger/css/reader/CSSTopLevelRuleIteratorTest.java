@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSMediaRule;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ECSSRuleType;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+
+/**
+ * Test class for class {@link CSSTopLevelRuleIterator}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSTopLevelRuleIteratorTest
+{
+  private static final String CSS = "@charset \"UTF-8\";\n"
+                                    + "@import 'a.css';\n"
+                                    + "@namespace foo url(http://www.example.org);\n"
+                                    + "a { color: red }\n"
+                                    + "@media print { b { color: blue } }\n"
+                                    + "@font-face { font-family: x }\n"
+                                    + "c, d { margin: 0 auto }\n";
+
+  @Nonnull
+  private static List <ICSSTopLevelRule> _readAll (@Nonnull final CSSTopLevelRuleIterator aIter)
+  {
+    final List <ICSSTopLevelRule> ret = new ArrayList <ICSSTopLevelRule> ();
+    while (aIter.hasNext ())
+      ret.add (aIter.next ());
+    return ret;
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (CSS, ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+
+    final CSSTopLevelRuleIterator aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader (CSS),
+                                                                       new CSSReaderSettings ());
+    assertFalse (aIter.isFinished ());
+    assertTrue (aIter.hasNext ());
+    // Import and namespace rules are available after the first rule
+    assertEquals (aCSS.getAllImportRules (), aIter.getAllImportRules ());
+    assertEquals (aCSS.getAllNamespaceRules (), aIter.getAllNamespaceRules ());
+    assertTrue (aIter.next () instanceof CSSStyleRule);
+    assertTrue (aIter.next () instanceof CSSMediaRule);
+    assertEquals (aCSS.getAllRules ().subList (2, 4), _readAll (aIter));
+    assertTrue (aIter.isFinished ());
+    assertFalse (aIter.hasUnrecoverableError ());
+    assertEquals (4, aIter.getReadRuleCount ());
+  }
+
+  @Test
+  public void testRuleTypeFilterAndClose ()
+  {
+    CSSTopLevelRuleIterator aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader (CSS),
+                                                                 new CSSReaderSettings ().setRuleTypesToRead (ECSSRuleType.MEDIA));
+    final List <ICSSTopLevelRule> aRules = _readAll (aIter);
+    assertEquals (1, aRules.size ());
+    assertTrue (aRules.get (0) instanceof CSSMediaRule);
+    assertTrue (aIter.getAllImportRules ().isEmpty ());
+
+    aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader (CSS), new CSSReaderSettings ());
+    assertTrue (aIter.hasNext ());
+    aIter.close ();
+    assertTrue (aIter.isFinished ());
+    assertFalse (aIter.hasNext ());
+  }
+
+  @Test
+  public void testBoundedNodeStack ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 20000; ++i)
+      aSB.append (".c").append (i).append ("{color:red}@media print{b{margin:0}}");
+    final String sCSS = aSB.toString ();
+
+    for (final boolean bUseNodePool : new boolean [] { true, false })
+    {
+      final CSSTopLevelRuleIterator aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader (sCSS),
+                                                                         new CSSReaderSettings ().setUseNodePool (bUseNodePool));
+      int nCount = 0;
+      while (aIter.hasNext ())
+      {
+        aIter.next ();
+        ++nCount;
+        assertEquals (0, aIter.getParserNodeStackSize ());
+      }
+      assertEquals (40000, nCount);
+      assertEquals (0, aIter.getParserNodeStackSize ());
+    }
+  }
+
+  @Test
+  public void testUnrecoverableError ()
+  {
+    final CSSTopLevelRuleIterator aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader ("a{color:red} b{"),
+                                                                       new CSSReaderSettings ().setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ()));
+    assertTrue (aIter.hasNext ());
+    aIter.next ();
+    assertFalse (aIter.hasNext ());
+    assertTrue (aIter.hasUnrecoverableError ());
+  }
+
+  @Test
+  public void testSameAsReader ()
+  {
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ())
+                                                                .setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ());
+    for (final File aFile : FileSystemRecursiveIterator.create (new File ("src/test/resources/testfiles/css30/good"),
+                                                                new FilenameFilterEndsWith (".css")))
+    {
+      final String sKey = aFile.getAbsolutePath ();
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      if (aCSS == null)
+        continue;
+
+      final FileSystemResource aRes = new FileSystemResource (aFile);
+      Charset aCharset = CSSReader.getCharsetDeclaredInCSS (aRes);
+      if (aCharset == null)
+        aCharset = CCharset.CHARSET_UTF_8_OBJ;
+      String sCSS = SimpleFileIO.readFileAsString (aFile, aCharset);
+      // The iterator works on a Reader, so skip the BOM manually
+      if (sCSS.length () > 0 && sCSS.charAt (0) == '\uFEFF')
+        sCSS = sCSS.substring (1);
+      final CSSTopLevelRuleIterator aIter = new CSSTopLevelRuleIterator (new NonBlockingStringReader (sCSS), aSettings);
+      assertEquals (sKey, aCSS.getAllRules (), _readAll (aIter));
+      assertEquals (sKey, aCSS.getAllImportRules (), aIter.getAllImportRules ());
+      assertEquals (sKey, aCSS.getAllNamespaceRules (), aIter.getAllNamespaceRules ());
+      assertFalse (sKey, aIter.hasUnrecoverableError ());
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.collections.CollectionHelper;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSExpressionMemberTermURI;
+import com.helger.css.decl.CSSFontFaceRule;
+import com.helger.css.decl.CSSImportRule;
+import com.helger.css.decl.CSSKeyframesRule;
+import com.helger.css.decl.CSSMediaRule;
+import com.helger.css.decl.CSSPageRule;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CSSSupportsRule;
+import com.helger.css.decl.CSSViewportRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ECSSRuleType;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.decl.visit.CSSVisitor;
+import com.helger.css.decl.visit.DefaultCSSUrlVisitor;
+import com.helger.css.reader.errorhandler.DoNothingCSSParseErrorHandler;
+
+/**
+ * Test class for class {@link CSSUrlScanner}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSUrlScannerTest
+{
+  private static final class CollectingUrlScanHandler implements ICSSUrlScanHandler
+  {
+    private final List <String> m_aList = new ArrayList <String> ();
+
+    public void onImport (@Nonnull final String sURL, final int nBeginLine, final int nBeginColumn)
+    {
+      m_aList.add ("import " + sURL);
+    }
+
+    public void onUrl (@Nonnull final ECSSRuleType eRuleType,
+                       @Nonnull final String sPropertyName,
+                       @Nonnull final String sURL,
+                       final int nBeginLine,
+                       final int nBeginColumn)
+    {
+      m_aList.add (eRuleType.getName () + " " + sPropertyName + " " + sURL);
+    }
+  }
+
+  private static final class CollectingUrlVisitor extends DefaultCSSUrlVisitor
+  {
+    private final List <String> m_aList = new ArrayList <String> ();
+
+    @Nonnull
+    private static ECSSRuleType _getRuleType (@Nonnull final ICSSTopLevelRule aRule)
+    {
+      if (aRule instanceof CSSStyleRule)
+        return ECSSRuleType.STYLE;
+      if (aRule instanceof CSSPageRule)
+        return ECSSRuleType.PAGE;
+      if (aRule instanceof CSSMediaRule)
+        return ECSSRuleType.MEDIA;
+      if (aRule instanceof CSSFontFaceRule)
+        return ECSSRuleType.FONT_FACE;
+      if (aRule instanceof CSSKeyframesRule)
+        return ECSSRuleType.KEYFRAMES;
+      if (aRule instanceof CSSViewportRule)
+        return ECSSRuleType.VIEWPORT;
+      if (aRule instanceof CSSSupportsRule)
+        return ECSSRuleType.SUPPORTS;
+      return ECSSRuleType.UNKNOWN;
+    }
+
+    @Override
+    public void onImport (@Nonnull final CSSImportRule aImportRule)
+    {
+      m_aList.add ("import " + aImportRule.getLocationString ());
+    }
+
+    @Override
+    public void onUrlDeclaration (@Nullable final ICSSTopLevelRule aTopLevelRule,
+                                  @Nonnull final CSSDeclaration aDeclaration,
+                                  @Nonnull final CSSExpressionMemberTermURI aURITerm)
+    {
+      m_aList.add (_getRuleType (aTopLevelRule).getName () +
+                   " " +
+                   aDeclaration.getProperty () +
+                   " " +
+                   aURITerm.getURIString ());
+    }
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final String sCSS = "@charset \"utf-8\";\n"
+                        + "@import url(\"a.css\") print;\n"
+                        + "@import 'b.css';\n"
+                        + "@namespace x url(http://www.w3.org/1999/xhtml);\n"
+                        + "a:hover{background:url(c.png) no-repeat;border-image:url(d\\(.png)}\n"
+                        + "@media print{b{background-image:url( 'e.png' )}}\n"
+                        + "@font-face{font-family:x;src:url(f.woff) format('woff'),local(x)}\n"
+                        + "@-webkit-keyframes k{from{background:url(g.png)}}\n"
+                        + "@foo bar{x{background:url(h.png)}}\n"
+                        + "c{BACKGROUND:image-set(url(i.png) 1x),url(j.png)}";
+    final CollectingUrlScanHandler aHdl = new CollectingUrlScanHandler ();
+    assertTrue (CSSUrlScanner.scan (sCSS, aHdl).isSuccess ());
+    assertEquals (CollectionHelper.newList ("import a.css",
+                                            "import b.css",
+                                            "style background c.png",
+                                            "style border-image d(.png",
+                                            "style background-image e.png",
+                                            "font-face src f.woff",
+                                            "keyframes background g.png",
+                                            "style background j.png"),
+                  aHdl.m_aList);
+  }
+
+  private static int _testSameAsVisitor (@Nonnull final String sBaseDir)
+  {
+    int nURLCount = 0;
+    final CSSReaderSettings aSettings = new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30)
+                                                                .setFallbackCharset (CCharset.CHARSET_UTF_8_OBJ)
+                                                                .setCustomErrorHandler (DoNothingCSSParseErrorHandler.getInstance ());
+    for (final File aFile : FileSystemRecursiveIterator.create (new File (sBaseDir),
+                                                                new FilenameFilterEndsWith (".css")))
+    {
+      final String sKey = aFile.getAbsolutePath ();
+      final CascadingStyleSheet aCSS = CSSReader.readFromFile (aFile, aSettings);
+      if (aCSS == null)
+        continue;
+
+      final CollectingUrlVisitor aVisitor = new CollectingUrlVisitor ();
+      CSSVisitor.visitCSSUrl (aCSS, aVisitor);
+
+      final CollectingUrlScanHandler aHdl = new CollectingUrlScanHandler ();
+      assertTrue (sKey,
+                  CSSUrlScanner.scan (new FileSystemResource (aFile), CCharset.CHARSET_UTF_8_OBJ, aHdl).isSuccess ());
+      assertEquals (sKey, aVisitor.m_aList, aHdl.m_aList);
+      nURLCount += aHdl.m_aList.size ();
+    }
+    return nURLCount;
+  }
+
+  @Test
+  public void testSameAsVisitor ()
+  {
+    assertTrue (_testSameAsVisitor ("src/test/resources/testfiles/css21/good") > 0);
+    assertTrue (_testSameAsVisitor ("src/test/resources/testfiles/css30/good") > 0);
+  }
+}
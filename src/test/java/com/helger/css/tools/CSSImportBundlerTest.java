@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.helger.commons.io.IReadableResource;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSMediaRule;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReaderSettings;
+import com.helger.css.writer.CSSWriterSettings;
+
+/**
+ * Test class for class {@link CSSImportBundler}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSImportBundlerTest
+{
+  private static final String BASE = "src/test/resources/testfiles/css30/good/import/";
+
+  @Test
+  public void testIsRelativeLocalLocation ()
+  {
+    assertTrue (DefaultCSSImportResolver.isRelativeLocalLocation ("a.css"));
+    assertTrue (DefaultCSSImportResolver.isRelativeLocalLocation ("../x/a.css"));
+    assertTrue (DefaultCSSImportResolver.isRelativeLocalLocation ("x/a:b.css"));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation (null));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation (""));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation ("/a.css"));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation ("//www.example.org/a.css"));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation ("http://www.example.org/a.css"));
+    assertFalse (DefaultCSSImportResolver.isRelativeLocalLocation ("data:text/css,a{}"));
+  }
+
+  private static void _checkBundled (final CascadingStyleSheet aCSS)
+  {
+    assertNotNull (aCSS);
+    final CSSWriterSettings aWS = new CSSWriterSettings (ECSSVersion.CSS30, true);
+
+    // Remote and missing imports are retained
+    assertEquals (2, aCSS.getImportRuleCount ());
+    assertEquals ("http://www.example.org/remote.css", aCSS.getImportRuleAtIndex (0).getLocationString ());
+    assertEquals ("missing.css", aCSS.getImportRuleAtIndex (1).getLocationString ());
+
+    // a.css, media print {a.css, b.css}, main.css
+    assertEquals (3, aCSS.getRuleCount ());
+    assertEquals ("a{color:blue}", aCSS.getRuleAtIndex (0).getAsCSSString (aWS, 0));
+    assertTrue (aCSS.getRuleAtIndex (1) instanceof CSSMediaRule);
+    assertEquals ("@media print{a{color:blue}b{color:green}}", aCSS.getRuleAtIndex (1).getAsCSSString (aWS, 0));
+    assertTrue (aCSS.getRuleAtIndex (2) instanceof CSSStyleRule);
+    assertEquals ("main{color:red}", aCSS.getRuleAtIndex (2).getAsCSSString (aWS, 0));
+  }
+
+  @Test
+  public void testFileSystem ()
+  {
+    final CSSImportBundler aBundler = new CSSImportBundler ();
+    final IReadableResource aRes = new FileSystemResource (BASE + "main.css");
+    _checkBundled (aBundler.getBundled (aRes));
+    // main, a and b - missing is not cached
+    assertEquals (3, aBundler.getCachedResourceCount ());
+
+    // Second run uses the cache
+    _checkBundled (aBundler.getBundled (aRes));
+    assertEquals (3, aBundler.getCachedResourceCount ());
+    assertTrue (aBundler.removeFromCache (aRes));
+    assertFalse (aBundler.removeFromCache (aRes));
+    aBundler.clearCache ();
+    assertEquals (0, aBundler.getCachedResourceCount ());
+
+    // Still usable after closing
+    aBundler.close ();
+    assertTrue (aBundler.getExecutor ().isShutdown ());
+    _checkBundled (aBundler.getBundled (aRes));
+  }
+
+  @Test
+  public void testCallerExecutor ()
+  {
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (2);
+    try
+    {
+      final CSSImportBundler aBundler = new CSSImportBundler (new DefaultCSSImportResolver (),
+                                                              new CSSReaderSettings (),
+                                                              aExecutor);
+      assertSame (aExecutor, aBundler.getExecutor ());
+      assertFalse (aBundler.isOwnsExecutor ());
+      _checkBundled (aBundler.getBundled (new FileSystemResource (BASE + "main.css")));
+      _checkBundled (aBundler.getBundled (new FileSystemResource (BASE + "main.css")));
+
+      // The executor passed in is not shut down
+      aBundler.close ();
+      assertFalse (aExecutor.isShutdown ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+    }
+  }
+
+  @Test
+  public void testClassPath ()
+  {
+    final CSSImportBundler aBundler = new CSSImportBundler (new DefaultCSSImportResolver (),
+                                                            new CSSReaderSettings ().setCSSVersion (ECSSVersion.CSS30),
+                                                            1);
+    final IReadableResource aRes = new ClassPathResource ("testfiles/css30/good/import/main.css");
+    _checkBundled (aBundler.getBundled (aRes));
+  }
+
+  @Test
+  public void testCycleOnly ()
+  {
+    final CSSImportBundler aBundler = new CSSImportBundler ();
+    final CascadingStyleSheet aCSS = aBundler.getBundled (new FileSystemResource (BASE + "a.css"));
+    assertNotNull (aCSS);
+    // a.css -> main.css -> a.css (ignored)
+    assertEquals (2, aCSS.getImportRuleCount ());
+    // media print {b.css}, main.css, a.css
+    assertEquals (3, aCSS.getRuleCount ());
+    assertTrue (aCSS.getRuleAtIndex (0) instanceof CSSMediaRule);
+  }
+
+  @Test
+  public void testNonExisting ()
+  {
+    final CSSImportBundler aBundler = new CSSImportBundler ();
+    assertNull (aBundler.getBundled (new FileSystemResource (BASE + "does-not-exist.css")));
+    // Failed reads are not cached
+    assertEquals (0, aBundler.getCachedResourceCount ());
+    aBundler.close ();
+  }
+
+  @Test
+  public void testCustomResolver ()
+  {
+    final IReadableResource aTarget = new FileSystemResource (BASE + "sub/b.css");
+    final CSSImportBundler aBundler = new CSSImportBundler (new ICSSImportResolver ()
+    {
+      public IReadableResource getResolvedImport (final IReadableResource aBaseResource, final String sLocation)
+      {
+        return sLocation.startsWith ("http:") ? aTarget : null;
+      }
+    }, new CSSReaderSettings (), 2);
+    final CascadingStyleSheet aCSS = aBundler.getBundled (new FileSystemResource (BASE + "main.css"));
+    assertNotNull (aCSS);
+    // "a.css", "sub/b.css", "../a.css" from b.css and "missing.css" are
+    // retained
+    assertEquals (4, aCSS.getImportRuleCount ());
+    assertEquals (2, aCSS.getRuleCount ());
+    assertSame (aCSS.getRuleAtIndex (0).getClass (), CSSStyleRule.class);
+  }
+}
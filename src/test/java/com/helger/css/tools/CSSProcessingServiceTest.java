@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.handler.DoNothingCSSParseExceptionHandler;
+import com.helger.css.reader.CSSReaderSettings;
+
+/**
+ * Test class for class {@link CSSProcessingService}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSProcessingServiceTest
+{
+  @Nonnull
+  private static ICSSProcessingJob <String> _createBlockingJob (@Nonnull final CountDownLatch aLatch)
+  {
+    return new ICSSProcessingJob <String> ()
+    {
+      public String execute (@Nonnull final CSSReaderSettings aReaderSettings) throws Exception
+      {
+        aLatch.await ();
+        return "done";
+      }
+    };
+  }
+
+  @Test
+  public void testBasic () throws Exception
+  {
+    final CSSProcessingService aService = new CSSProcessingService ();
+    try
+    {
+      aService.setReaderSettings (new CSSReaderSettings ().setCustomExceptionHandler (DoNothingCSSParseExceptionHandler.getInstance ()));
+      final Future <CascadingStyleSheet> aParsed = aService.parse ("a { color : red }", CSSProcessingService.NO_TIMEOUT);
+      final Future <Boolean> aValid = aService.validate ("a { color : red }", CSSProcessingService.NO_TIMEOUT);
+      final Future <Boolean> aInvalid = aService.validate ("a { color : red", CSSProcessingService.NO_TIMEOUT);
+      final Future <String> aCompressed = aService.compress ("a { color : red }", 60 * 1000);
+      final Future <String> aUnchanged = aService.compress ("a { color : red", 60 * 1000);
+
+      final CascadingStyleSheet aCSS = aParsed.get ();
+      assertNotNull (aCSS);
+      assertEquals (1, aCSS.getStyleRuleCount ());
+      assertTrue (aValid.get ().booleanValue ());
+      assertFalse (aInvalid.get ().booleanValue ());
+      assertEquals ("a{color:red}", aCompressed.get ());
+      assertEquals ("a { color : red", aUnchanged.get ());
+    }
+    finally
+    {
+      aService.close ();
+    }
+    assertEquals (5, aService.getSubmittedJobCount ());
+    assertEquals (5, aService.getCompletedJobCount ());
+    assertEquals (0, aService.getFailedJobCount ());
+    assertEquals (0, aService.getPendingJobCount ());
+    assertTrue (aService.getMaxLatencyNanos () >= aService.getAverageLatencyNanos ());
+    assertTrue (aService.getThroughputPerSecond () > 0);
+  }
+
+  @Test
+  public void testRejectWhenFull () throws Exception
+  {
+    final ExecutorService aES = Executors.newSingleThreadExecutor ();
+    try
+    {
+      final CSSProcessingService aService = new CSSProcessingService (aES, 1, false);
+      final CountDownLatch aLatch = new CountDownLatch (1);
+      final Future <String> aBlocker = aService.submit (_createBlockingJob (aLatch), CSSProcessingService.NO_TIMEOUT);
+      assertEquals (1, aService.getPendingJobCount ());
+      try
+      {
+        aService.parse ("a{}", CSSProcessingService.NO_TIMEOUT);
+        fail ();
+      }
+      catch (final RejectedExecutionException ex)
+      {
+        // expected
+      }
+      assertEquals (1, aService.getRejectedJobCount ());
+
+      aLatch.countDown ();
+      assertEquals ("done", aBlocker.get ());
+      // The slot is released before the result became available
+      assertEquals (0, aService.getPendingJobCount ());
+      // The executor was passed in and is not shut down
+      aService.close ();
+      assertNotNull (aService.parse ("a{}", CSSProcessingService.NO_TIMEOUT).get ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testTimeoutAndCancel () throws Exception
+  {
+    final ExecutorService aES = Executors.newSingleThreadExecutor ();
+    try
+    {
+      final CSSProcessingService aService = new CSSProcessingService (aES, 3, true);
+      final CountDownLatch aLatch = new CountDownLatch (1);
+      final Future <String> aBlocker = aService.submit (_createBlockingJob (aLatch), CSSProcessingService.NO_TIMEOUT);
+      final Future <CascadingStyleSheet> aTimedOut = aService.parse ("a{}", 1);
+      final Future <CascadingStyleSheet> aCancelled = aService.parse ("a{}", CSSProcessingService.NO_TIMEOUT);
+      assertEquals (3, aService.getPendingJobCount ());
+
+      // Cancelling a queued job frees its slot
+      assertTrue (aCancelled.cancel (false));
+      assertEquals (2, aService.getPendingJobCount ());
+
+      Thread.sleep (20);
+      aLatch.countDown ();
+      assertEquals ("done", aBlocker.get ());
+      try
+      {
+        aTimedOut.get ();
+        fail ();
+      }
+      catch (final ExecutionException ex)
+      {
+        assertTrue (ex.getCause () instanceof TimeoutException);
+      }
+      // The statistics are updated after the result is available
+      aES.shutdown ();
+      assertTrue (aES.awaitTermination (10, TimeUnit.SECONDS));
+      assertEquals (0, aService.getPendingJobCount ());
+      assertEquals (1, aService.getCompletedJobCount ());
+      assertEquals (1, aService.getTimedOutJobCount ());
+      assertEquals (1, aService.getFailedJobCount ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
@@ -17,7 +17,12 @@
 package com.helger.css.tools;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.Charset;
 import java.util.List;
@@ -26,10 +31,12 @@ import org.junit.Test;
 
 import com.helger.commons.charset.CCharset;
 import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSMediaExpression;
 import com.helger.css.decl.CSSMediaQuery;
 import com.helger.css.decl.CascadingStyleSheet;
 import com.helger.css.reader.CSSReader;
 import com.helger.css.writer.CSSWriter;
+import com.helger.css.writer.CSSWriterSettings;
 
 /**
  * Test class for class {@link MediaQueryTools}.
@@ -81,6 +88,62 @@ public final class MediaQueryToolsTest
     assertEquals (1, aMQs.size ());
   }
 
+  @Test
+  public void testParseMediaQueryMisc ()
+  {
+    final CSSWriterSettings aWS = new CSSWriterSettings (s_eVersion, true);
+    List <CSSMediaQuery> aMQs = MediaQueryTools.parseToMediaQuery ("  screen ,  print  ", s_eVersion);
+    assertNotNull (aMQs);
+    assertEquals (2, aMQs.size ());
+    assertEquals ("screen", aMQs.get (0).getAsCSSString (aWS, 0));
+    assertEquals ("print", aMQs.get (1).getAsCSSString (aWS, 0));
+
+    aMQs = MediaQueryTools.parseToMediaQuery ("not screen and (min-width:100px)", s_eVersion);
+    assertNotNull (aMQs);
+    assertEquals ("not screen and (min-width:100px)", aMQs.get (0).getAsCSSString (aWS, 0));
+
+    // CSS 2.1 only supports plain media
+    aMQs = MediaQueryTools.parseToMediaQuery ("screen, print", ECSSVersion.CSS21);
+    assertNotNull (aMQs);
+    assertEquals (2, aMQs.size ());
+    assertNull (MediaQueryTools.parseToMediaQuery ("screen and (color)", ECSSVersion.CSS21));
+
+    // Invalid
+    assertNull (MediaQueryTools.parseToMediaQuery (null, s_eVersion));
+    assertNull (MediaQueryTools.parseToMediaQuery ("", s_eVersion));
+    assertNull (MediaQueryTools.parseToMediaQuery ("screen {}", s_eVersion));
+    assertNull (MediaQueryTools.parseToMediaQuery ("screen,", s_eVersion));
+    assertNull (MediaQueryTools.parseToMediaQuery ("screen and", s_eVersion));
+  }
+
+  @Test
+  public void testParseMediaQueryCached ()
+  {
+    MediaQueryTools.clearMediaQueryCache ();
+    final List <CSSMediaQuery> aMQs = MediaQueryTools.parseToMediaQueryCached ("screen and (color) and (min-width:100px), print", s_eVersion);
+    assertNotNull (aMQs);
+    assertEquals (2, aMQs.size ());
+
+    final List <CSSMediaQuery> aMQs2 = MediaQueryTools.parseToMediaQueryCached ("screen and (color) and (min-width:100px), print", s_eVersion);
+    assertNotNull (aMQs2);
+    assertNotSame (aMQs, aMQs2);
+    assertEquals (aMQs, aMQs2);
+    assertNotSame (aMQs.get (0), aMQs2.get (0));
+    assertNotSame (aMQs.get (1), aMQs2.get (1));
+
+    // Modifying a returned copy does not modify the cache
+    aMQs.get (0).getMediaExpression (1).getValue ().addTermSimple ("em");
+    aMQs.get (0).removeMediaExpression (0);
+    aMQs.get (1).addMediaExpression (new CSSMediaExpression ("color"));
+    assertEquals (aMQs2,
+                  MediaQueryTools.parseToMediaQueryCached ("screen and (color) and (min-width:100px), print",
+                                                           s_eVersion));
+
+    assertNull (MediaQueryTools.parseToMediaQueryCached ("screen and", s_eVersion));
+    assertTrue (MediaQueryTools.clearMediaQueryCache ().isChanged ());
+    assertFalse (MediaQueryTools.clearMediaQueryCache ().isChanged ());
+  }
+
   @Test
   public void testGetWrapped ()
   {
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.css.AbstractCSS30TestCase;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSByteWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSByteWriterTest extends AbstractCSS30TestCase
+{
+  private static final String [] CHARSETS = { CCharset.CHARSET_UTF_8,
+                                              CCharset.CHARSET_ISO_8859_1,
+                                              CCharset.CHARSET_US_ASCII,
+                                              CCharset.CHARSET_UTF_16,
+                                              "ISO-2022-JP" };
+
+  @Nonnull
+  private static byte [] _encode (final String sText, final Charset aCharset, final boolean bCharwise) throws IOException
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    final CSSByteWriter aWriter = new CSSByteWriter (aBAOS, aCharset);
+    if (bCharwise)
+    {
+      for (final char c : sText.toCharArray ())
+        aWriter.write (c);
+    }
+    else
+    {
+      final char [] aChars = sText.toCharArray ();
+      aWriter.write (aChars, 0, aChars.length / 2);
+      aWriter.append (sText, aChars.length / 2, aChars.length);
+    }
+    aWriter.close ();
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testEncoding () throws IOException
+  {
+    final StringBuilder aLong = new StringBuilder ();
+    while (aLong.length () < 3 * CSSByteWriter.BUFFER_SIZE)
+      aLong.append ("a{content:'ä€😀あ'}");
+
+    for (final String sCharset : CHARSETS)
+    {
+      final Charset aCharset = Charset.forName (sCharset);
+      for (final String sText : new String [] { "",
+                                                "abc",
+                                                "äöü",
+                                                "a😀b",
+                                                "あいaう",
+                                                aLong.toString () })
+      {
+        final byte [] aExpected = sText.getBytes (aCharset);
+        for (final boolean bCharwise : new boolean [] { true, false })
+        {
+          final byte [] aEncoded = _encode (sText, aCharset, bCharwise);
+          if (aCharset.newEncoder ().maxBytesPerChar () > 4)
+          {
+            // Stateful encoding: switches back to ASCII after each character
+            assertEquals (sCharset + ": " + sText, new String (aExpected, aCharset), new String (aEncoded, aCharset));
+          }
+          else
+            assertArrayEquals (sCharset + ": " + sText, aExpected, aEncoded);
+        }
+      }
+    }
+
+    // Lone surrogates are replaced
+    final Charset aUTF8 = CCharset.CHARSET_UTF_8_OBJ;
+    assertArrayEquals ("a?b?".getBytes (aUTF8), _encode ("a\ud83db\ude00", aUTF8, false));
+  }
+
+  @Test
+  public void testASCIICompatible ()
+  {
+    assertTrue (CSSByteWriter.isASCIICompatible (CCharset.CHARSET_UTF_8_OBJ));
+    assertTrue (CSSByteWriter.isASCIICompatible (CCharset.CHARSET_ISO_8859_1_OBJ));
+    assertFalse (CSSByteWriter.isASCIICompatible (CCharset.CHARSET_UTF_16_OBJ));
+  }
+
+  @Test
+  public void testCSSWriter () throws IOException
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (CSS3 + "a{content:'ä€'}", ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    for (final boolean bOptimized : new boolean [] { true, false })
+    {
+      final CSSWriter aWriter = new CSSWriter (ECSSVersion.CSS30, bOptimized);
+      final byte [] aExpected = aWriter.getCSSAsString (aCSS).getBytes (CCharset.CHARSET_UTF_8_OBJ);
+      assertArrayEquals (aExpected, aWriter.getCSSAsBytes (aCSS, CCharset.CHARSET_UTF_8_OBJ));
+
+      final ByteBuffer aBuffer = ByteBuffer.allocate (aExpected.length + 10);
+      aBuffer.put ((byte) 'x');
+      aWriter.writeCSS (aCSS, aBuffer, CCharset.CHARSET_UTF_8_OBJ);
+      assertEquals (aExpected.length + 1, aBuffer.position ());
+
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      aWriter.writeCSS (aCSS, Channels.newChannel (aBAOS), CCharset.CHARSET_UTF_8_OBJ);
+      assertArrayEquals (aExpected, aBAOS.toByteArray ());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.file.filter.FilenameFilterEndsWith;
+import com.helger.commons.io.file.iterate.FileSystemRecursiveIterator;
+import com.helger.commons.io.streams.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.streams.NonBlockingStringReader;
+import com.helger.commons.io.streams.NonBlockingStringWriter;
+import com.helger.css.ECSSVersion;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSCompressor}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSCompressorTest
+{
+  @Test
+  public void testStreamingIdentical ()
+  {
+    for (final boolean bOptimized : new boolean [] { true, false })
+    {
+      final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, bOptimized);
+      for (final File aFile : FileSystemRecursiveIterator.create (new File ("src/test/resources/testfiles/css30/good"),
+                                                                  new FilenameFilterEndsWith (".css")))
+      {
+        final String sKey = aFile.getAbsolutePath ();
+        final String sCSS = SimpleFileIO.readFileAsString (aFile, CCharset.CHARSET_UTF_8_OBJ);
+        if (CSSReader.readFromString (sCSS, ECSSVersion.CSS30) == null)
+        {
+          // E.g. not UTF-8 encoded
+          continue;
+        }
+        final String sExpected = CSSCompressor.getRewrittenCSS (sCSS, aSettings);
+
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+        assertTrue (sKey, CSSCompressor.rewriteCSS (new NonBlockingStringReader (sCSS), aSW, aSettings).isSuccess ());
+        assertEquals (sKey, sExpected, aSW.getAsString ());
+
+        final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+        assertTrue (sKey,
+                    CSSCompressor.rewriteCSS (new NonBlockingByteArrayInputStream (sCSS.getBytes (CCharset.CHARSET_UTF_8_OBJ)),
+                                              aBAOS,
+                                              CCharset.CHARSET_UTF_8_OBJ,
+                                              aSettings)
+                                 .isSuccess ());
+        assertEquals (sKey, sExpected, aBAOS.getAsString (CCharset.CHARSET_UTF_8_OBJ));
+      }
+    }
+  }
+
+  @Test
+  public void testStreamingCompressorDefaults ()
+  {
+    for (final boolean bRemoveUnnecessaryCode : new boolean [] { true, false })
+    {
+      final CSSWriterSettings aSettings = CSSCompressor.getCompressedSettings (ECSSVersion.CSS30, bRemoveUnnecessaryCode);
+      for (final File aFile : FileSystemRecursiveIterator.create (new File ("src/test/resources/testfiles/css30/good"),
+                                                                  new FilenameFilterEndsWith (".css")))
+      {
+        final String sKey = aFile.getAbsolutePath ();
+        final String sCSS = SimpleFileIO.readFileAsString (aFile, CCharset.CHARSET_UTF_8_OBJ);
+        if (CSSReader.readFromString (sCSS, ECSSVersion.CSS30) == null)
+          continue;
+        final String sExpected = CSSCompressor.getCompressedCSS (sCSS,
+                                                                 CCharset.CHARSET_UTF_8_OBJ,
+                                                                 ECSSVersion.CSS30,
+                                                                 bRemoveUnnecessaryCode);
+
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+        assertTrue (sKey, CSSCompressor.rewriteCSS (new NonBlockingStringReader (sCSS), aSW, aSettings).isSuccess ());
+        assertEquals (sKey, sExpected, aSW.getAsString ());
+      }
+    }
+  }
+
+  @Test
+  public void testStreamingMergeAdjacent ()
+  {
+    final CSSWriterSettings aSettings = CSSCompressor.getCompressedSettings (ECSSVersion.CSS30, true)
+                                                     .setMergeStyleRules (true);
+    final String sCSS = "a{color:red}a{margin:0}b{margin:0}@media print{c{color:red}}c{color:red}d{color:red}" +
+                        "e{color:blue}e{padding:0}";
+    final String sExpected = "a{color:red;margin:0}b{margin:0}@media print{c{color:red}}c,d{color:red}" +
+                             "e{color:blue;padding:0}";
+    assertEquals (sExpected, CSSCompressor.getRewrittenCSS (sCSS, aSettings));
+
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    assertTrue (CSSCompressor.rewriteCSS (new NonBlockingStringReader (sCSS), aSW, aSettings).isSuccess ());
+    assertEquals (sExpected, aSW.getAsString ());
+  }
+
+  @Test
+  public void testStreamingImportsFirst ()
+  {
+    final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, true);
+    final String sCSS = "@charset \"UTF-8\";\n@import 'a.css';\n@namespace x url(y);\na { color : red ; }\nb{}\n";
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    assertTrue (CSSCompressor.rewriteCSS (new NonBlockingStringReader (sCSS), aSW, aSettings).isSuccess ());
+    assertEquals (CSSCompressor.getRewrittenCSS (sCSS, aSettings), aSW.getAsString ());
+
+    // Unrecoverable error
+    assertTrue (CSSCompressor.rewriteCSS (new NonBlockingStringReader ("a{color:red}\n@media {"),
+                                          new NonBlockingStringWriter (),
+                                          aSettings).isFailure ());
+  }
+}
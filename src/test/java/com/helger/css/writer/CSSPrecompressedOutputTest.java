@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.charset.CCharset;
+import com.helger.commons.io.streams.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.streams.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.streams.StreamUtils;
+import com.helger.css.AbstractCSS30TestCase;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSPrecompressedOutput}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSPrecompressedOutputTest extends AbstractCSS30TestCase
+{
+  @Nonnull
+  private static byte [] _readAll (@Nonnull final InputStream aIS) throws IOException
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    StreamUtils.copyInputStreamToOutputStreamAndCloseOS (aIS, aBAOS);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testBasic () throws IOException
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (CSS3 + "a{content:'ä€'}", ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSWriter aWriter = new CSSWriter (ECSSVersion.CSS30, true);
+
+    final CSSPrecompressedOutput aOutput = aWriter.getCSSAsPrecompressedOutput (aCSS, CCharset.CHARSET_UTF_8_OBJ);
+    assertEquals (CCharset.CHARSET_UTF_8_OBJ, aOutput.getCharset ());
+    final byte [] aPlain = aOutput.getPlainBytes ();
+    assertArrayEquals (aWriter.getCSSAsBytes (aCSS, CCharset.CHARSET_UTF_8_OBJ), aPlain);
+    assertEquals (aPlain.length, aOutput.getPlainLength ());
+    assertEquals (aOutput.getGzipLength (), aOutput.getGzipBytes ().length);
+    assertEquals (aOutput.getDeflateLength (), aOutput.getDeflateBytes ().length);
+    assertTrue (aOutput.getGzipLength () < aPlain.length);
+
+    // Decompressing results in the plain bytes
+    assertArrayEquals (aPlain,
+                       _readAll (new GZIPInputStream (new NonBlockingByteArrayInputStream (aOutput.getGzipBytes ()))));
+    assertArrayEquals (aPlain,
+                       _readAll (new InflaterInputStream (new NonBlockingByteArrayInputStream (aOutput.getDeflateBytes ()))));
+
+    // Serving without copying
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    aOutput.writePlainTo (aBAOS);
+    aOutput.writeGzipTo (aBAOS);
+    aOutput.writeDeflateTo (aBAOS);
+    assertEquals (aOutput.getPlainLength () + aOutput.getGzipLength () + aOutput.getDeflateLength (), aBAOS.size ());
+
+    // Returned arrays are copies
+    aOutput.getPlainBytes ()[0] = 'x';
+    assertArrayEquals (aPlain, aOutput.getPlainBytes ());
+
+    // ETag is stable and changes with the content
+    final String sETag = aOutput.getETag ();
+    assertEquals (2 + 64, sETag.length ());
+    assertTrue (sETag.startsWith ("\"") && sETag.endsWith ("\""));
+    assertEquals (32, aOutput.getContentHash ().length);
+    assertEquals (sETag, CSSPrecompressedOutput.create (aWriter, aCSS, CCharset.CHARSET_UTF_8_OBJ).getETag ());
+    assertFalse (sETag.equals (new CSSWriter (ECSSVersion.CSS30, false).getCSSAsPrecompressedOutput (aCSS,
+                                                                                                     CCharset.CHARSET_UTF_8_OBJ)
+                                                                       .getETag ()));
+    assertFalse (sETag.equals (aWriter.getCSSAsPrecompressedOutput (aCSS, CCharset.CHARSET_UTF_16_OBJ).getETag ()));
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.decl.ICSSTopLevelRule;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSStyleRuleMerger}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSStyleRuleMergerTest
+{
+  private static final CSSWriterSettings WS = new CSSWriterSettings (ECSSVersion.CSS30, true).setMergeStyleRules (true);
+
+  @Nonnull
+  private static String _merge (@Nonnull final String sCSS)
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString (sCSS, ECSSVersion.CSS30);
+    assertNotNull (sCSS, aCSS);
+    final String sOriginal = new CSSWriter (WS.getClone ().setMergeStyleRules (false)).setWriteHeaderText (false)
+                                                                                        .getCSSAsString (aCSS);
+    final String ret = new CSSWriter (WS).setWriteHeaderText (false).getCSSAsString (aCSS);
+    // The original CSS is not modified
+    assertEquals (sOriginal,
+                  new CSSWriter (WS.getClone ().setMergeStyleRules (false)).setWriteHeaderText (false)
+                                                                           .getCSSAsString (aCSS));
+    return ret;
+  }
+
+  private static String _getFamily (final String sProperty)
+  {
+    return CSSStyleRuleMerger.getPropertyFamily (sProperty, CSSStyleRuleMerger.getShortHandFamilies ());
+  }
+
+  @Test
+  public void testPropertyFamily ()
+  {
+    assertEquals ("margin", _getFamily ("margin-top"));
+    assertEquals ("border", _getFamily ("Border-Top-Color"));
+    assertEquals ("transition", _getFamily ("-webkit-transition-delay"));
+    assertEquals ("zoom", _getFamily ("*zoom"));
+    assertEquals ("font", _getFamily ("line-height"));
+    assertEquals ("--main-color", _getFamily ("--main-color"));
+    assertEquals ("list", _getFamily ("list-style-type"));
+    assertEquals (_getFamily ("columns"), _getFamily ("column-count"));
+    assertEquals (_getFamily ("gap"), _getFamily ("column-gap"));
+    assertEquals (_getFamily ("gap"), _getFamily ("grid-row-gap"));
+    assertEquals (_getFamily ("place-items"), _getFamily ("justify-items"));
+    assertEquals (_getFamily ("inset"), _getFamily ("top"));
+    assertEquals (_getFamily ("overflow-wrap"), _getFamily ("word-wrap"));
+  }
+
+  @Test
+  public void testMerge ()
+  {
+    // Same declarations
+    assertEquals ("a,b{color:red}", _merge ("a{color:red}b{color:red}"));
+    assertEquals ("a,b{color:red}", _merge ("a{color:red}a,b{color:red}"));
+    assertEquals ("a,c{color:red}b{margin:0}", _merge ("a{color:red}b{margin:0}c{color:red}"));
+    // Same selectors
+    assertEquals ("a{color:red;margin:0}", _merge ("a{color:red}a{margin:0}"));
+    assertEquals ("a{margin:0;padding:0}b{margin-top:1px}", _merge ("a{margin:0}b{margin-top:1px}a{padding:0}"));
+    // Short hands not sharing the name prefix
+    assertEquals (".x{columns:2}.y{column-count:3}.z{columns:2}", _merge (".x{columns:2}.y{column-count:3}.z{columns:2}"));
+    assertEquals (".x{gap:1px}.y{column-gap:2px}.z{gap:1px}", _merge (".x{gap:1px}.y{column-gap:2px}.z{gap:1px}"));
+    assertEquals (".x{inset:0}.y{top:1px}.z{inset:0}", _merge (".x{inset:0}.y{top:1px}.z{inset:0}"));
+    assertEquals (".x,.z{inset:0}.y{color:red}", _merge (".x{inset:0}.y{color:red}.z{inset:0}"));
+    // Both
+    assertEquals ("a,b{color:red;margin:0}", _merge ("a{color:red}a{margin:0}b{color:red;margin:0}"));
+
+    // Cascade order must be kept
+    assertEquals ("a{color:red}b{color:blue}c{color:red}", _merge ("a{color:red}b{color:blue}c{color:red}"));
+    assertEquals ("a{margin:0}b{margin-top:1px}c{margin:0}", _merge ("a{margin:0}b{margin-top:1px}c{margin:0}"));
+    assertEquals ("a{font:12px Arial}b{line-height:2}a{line-height:1}",
+                  _merge ("a{font:12px Arial}b{line-height:2}a{line-height:1}"));
+    assertEquals ("a{color:red}@media print{b{color:blue}}c{color:red}",
+                  _merge ("a{color:red}@media print{b{color:blue}}c{color:red}"));
+    assertEquals ("a{color:red}b{all:initial}c{color:red}", _merge ("a{color:red}b{all:initial}c{color:red}"));
+
+    // Vendor specific selectors
+    assertEquals ("a::-moz-selection{color:red}a::selection{color:red}",
+                  _merge ("a::-moz-selection{color:red}a::selection{color:red}"));
+    assertEquals ("a::-moz-selection{color:red;margin:0}", _merge ("a::-moz-selection{color:red}a::-moz-selection{margin:0}"));
+  }
+
+  @Test
+  public void testOriginalRulesUnchanged ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{color:red}b{color:red}c{margin:0}", ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final List <ICSSTopLevelRule> aMerged = CSSStyleRuleMerger.getMergedRules (aCSS.getAllRules (), WS);
+    assertEquals (2, aMerged.size ());
+    assertSame (aCSS.getRuleAtIndex (2), aMerged.get (1));
+    assertEquals (1, aCSS.getStyleRuleAtIndex (0).getSelectorCount ());
+
+    // Change tracking of the original rules still works
+    final CSSStyleRule aRule = aCSS.getStyleRuleAtIndex (0);
+    final long nRevision = aRule.getRevision ();
+    aRule.getDeclarationAtIndex (0).setImportant (true);
+    assertTrue (aRule.getRevision () > nRevision);
+  }
+
+  @Test
+  public void testLarge ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 20000; ++i)
+      aSB.append (".c").append (i).append ("{color:red;margin:").append (i % 10).append ("px}");
+    final String sMerged = _merge (aSB.toString ());
+    // Cascade order prevents merging different margins, but adjacent equal
+    // blocks never occur, so nothing is merged
+    assertEquals (20000, CSSReader.readFromString (sMerged, ECSSVersion.CSS30).getRuleCount ());
+
+    aSB.setLength (0);
+    for (int i = 0; i < 20000; ++i)
+      aSB.append (".c").append (i).append ("{color:red}");
+    assertEquals (1, CSSReader.readFromString (_merge (aSB.toString ()), ECSSVersion.CSS30).getRuleCount ());
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2014-2015 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.css.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.css.AbstractCSS30TestCase;
+import com.helger.css.ECSSVersion;
+import com.helger.css.decl.CSSDeclaration;
+import com.helger.css.decl.CSSExpression;
+import com.helger.css.decl.CSSExpressionMemberFunction;
+import com.helger.css.decl.CSSExpressionMemberTermSimple;
+import com.helger.css.decl.CSSExpressionMemberTermURI;
+import com.helger.css.decl.CSSMediaRule;
+import com.helger.css.decl.CSSSelectorSimpleMember;
+import com.helger.css.decl.CSSStyleRule;
+import com.helger.css.decl.CSSURI;
+import com.helger.css.decl.CascadingStyleSheet;
+import com.helger.css.reader.CSSReader;
+
+/**
+ * Test class for class {@link CSSWriterFragmentCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CSSWriterFragmentCacheTest extends AbstractCSS30TestCase
+{
+  @Test
+  public void testRevision ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{color:red} @media print{b{margin:0}}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSStyleRule aStyleRule = aCSS.getAllStyleRules ().get (0);
+    final CSSMediaRule aMediaRule = aCSS.getAllMediaRules ().get (0);
+    final CSSStyleRule aNestedRule = (CSSStyleRule) aMediaRule.getRule (0);
+
+    long nRev = aStyleRule.getRevision ();
+    final CSSDeclaration aDecl = aStyleRule.getDeclarationAtIndex (0);
+    aDecl.setImportant (true);
+    assertTrue (aStyleRule.getRevision () > nRev);
+    nRev = aStyleRule.getRevision ();
+    aDecl.getExpression ().addTermSimple ("blue");
+    assertTrue (aStyleRule.getRevision () > nRev);
+    nRev = aStyleRule.getRevision ();
+    aStyleRule.getSelectorAtIndex (0).addMember (new CSSSelectorSimpleMember (".x"));
+    assertTrue (aStyleRule.getRevision () > nRev);
+
+    // Changes are propagated to the enclosing rule
+    final long nMediaRev = aMediaRule.getRevision ();
+    nRev = aNestedRule.getRevision ();
+    aNestedRule.addDeclaration ("padding", new CSSExpression ().addNumber (0), false);
+    assertTrue (aNestedRule.getRevision () > nRev);
+    assertTrue (aMediaRule.getRevision () > nMediaRev);
+  }
+
+  @Test
+  public void testExpressionMembers ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("a{color:red;background:url(a.png);width:calc(1px + 2px);" +
+                                                                   "transform:rotate(1deg)}",
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final CSSStyleRule aStyleRule = aCSS.getAllStyleRules ().get (0);
+    final CSSWriterFragmentCache aCache = new CSSWriterFragmentCache ();
+    final CSSWriter aPlain = new CSSWriter (ECSSVersion.CSS30, true);
+    final CSSWriter aCached = new CSSWriter (ECSSVersion.CSS30, true).setFragmentCache (aCache);
+    assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+
+    // Simple term
+    long nRev = aStyleRule.getRevision ();
+    ((CSSExpressionMemberTermSimple) aStyleRule.getDeclarationAtIndex (0).getExpression ().getMemberAtIndex (0)).setValue ("blue");
+    assertTrue (aStyleRule.getRevision () > nRev);
+    assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+    assertTrue (aCached.getCSSAsString (aCSS).contains ("color:blue"));
+
+    // URI
+    nRev = aStyleRule.getRevision ();
+    final CSSExpressionMemberTermURI aURI = (CSSExpressionMemberTermURI) aStyleRule.getDeclarationAtIndex (1)
+                                                                                   .getExpression ()
+                                                                                   .getMemberAtIndex (0);
+    aURI.setURIString ("b.png");
+    assertTrue (aStyleRule.getRevision () > nRev);
+    nRev = aStyleRule.getRevision ();
+    aURI.setURI (new CSSURI ("c.png"));
+    assertTrue (aStyleRule.getRevision () > nRev);
+    assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+    assertTrue (aCached.getCSSAsString (aCSS).contains ("url(c.png)"));
+
+    // Nested expression of a function
+    nRev = aStyleRule.getRevision ();
+    final CSSExpressionMemberFunction aFunction = (CSSExpressionMemberFunction) aStyleRule.getDeclarationAtIndex (3)
+                                                                                          .getExpression ()
+                                                                                          .getMemberAtIndex (0);
+    ((CSSExpressionMemberTermSimple) aFunction.getExpression ().getMemberAtIndex (0)).setValue ("2deg");
+    assertTrue (aStyleRule.getRevision () > nRev);
+    assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+    assertTrue (aCached.getCSSAsString (aCSS).contains ("rotate(2deg)"));
+
+    // A clone is not tracked by the original rule
+    nRev = aStyleRule.getRevision ();
+    ((CSSExpressionMemberTermSimple) aFunction.getClone ().getExpression ().getMemberAtIndex (0)).setValue ("3deg");
+    assertEquals (nRev, aStyleRule.getRevision ());
+  }
+
+  @Test
+  public void testCache ()
+  {
+    for (final boolean bOptimized : new boolean [] { true, false })
+    {
+      final CascadingStyleSheet aCSS = CSSReader.readFromString (CSS3, ECSSVersion.CSS30);
+      assertNotNull (aCSS);
+      final int nRuleCount = aCSS.getRuleCount ();
+      final CSSWriterFragmentCache aCache = new CSSWriterFragmentCache ();
+      final CSSWriter aPlain = new CSSWriter (ECSSVersion.CSS30, bOptimized);
+      final CSSWriter aCached = new CSSWriter (ECSSVersion.CSS30, bOptimized).setFragmentCache (aCache);
+
+      assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+      assertEquals (0, aCache.getHitCount ());
+      assertEquals (nRuleCount, aCache.getFragmentCount ());
+
+      // Everything from the cache
+      final long nMisses = aCache.getMissCount ();
+      assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+      assertEquals (nRuleCount, aCache.getHitCount ());
+      assertEquals (nMisses, aCache.getMissCount ());
+
+      // Modify a single declaration
+      aCSS.getAllStyleRules ().get (0).getDeclarationAtIndex (0).setProperty ("background-color");
+      assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+      assertEquals (nMisses + 1, aCache.getMissCount ());
+
+      // Removed rules are dropped from the cache
+      aCSS.removeRule (0);
+      assertEquals (aPlain.getCSSAsString (aCSS), aCached.getCSSAsString (aCSS));
+      assertEquals (nRuleCount - 1, aCache.getFragmentCount ());
+    }
+  }
+}
@@ -19,6 +19,9 @@ package com.helger.css.writer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 
 import com.helger.css.AbstractCSS30TestCase;
@@ -326,4 +329,33 @@ public final class CSSWriterTest extends AbstractCSS30TestCase
     assertNotNull (aCSS);
     assertEquals ("h1{color:red;margin:1px}h2{color:red;margin:1px}", aWriter.getCSSAsString (aCSS));
   }
+
+  @Test
+  public void testParallel ()
+  {
+    final CascadingStyleSheet aCSS = CSSReader.readFromString ("@import 'a.css';" + CSS3 + CSS4 + CSS3,
+                                                               ECSSVersion.CSS30);
+    assertNotNull (aCSS);
+    final ExecutorService aES = Executors.newFixedThreadPool (3);
+    try
+    {
+      for (final boolean bOptimized : new boolean [] { true, false })
+        for (final boolean bRemoveUnnecessaryCode : new boolean [] { true, false })
+        {
+          final CSSWriterSettings aSettings = new CSSWriterSettings (ECSSVersion.CSS30, bOptimized);
+          aSettings.setRemoveUnnecessaryCode (bRemoveUnnecessaryCode);
+          aSettings.setWritePageRules (false);
+          final CSSWriter aWriter = new CSSWriter (aSettings);
+          final String sExpected = aWriter.getCSSAsString (aCSS);
+
+          aWriter.setParallelExecutor (aES);
+          for (final int nChunkSize : new int [] { 1, 2, 3, 7, 100 })
+            assertEquals (sExpected, aWriter.setParallelChunkSize (nChunkSize).getCSSAsString (aCSS));
+        }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
 }